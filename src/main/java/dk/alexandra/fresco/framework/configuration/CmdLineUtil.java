@@ -44,6 +44,7 @@ import org.apache.commons.cli.ParseException;
 import dk.alexandra.fresco.framework.Party;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.network.NetworkingStrategy;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
@@ -154,6 +155,13 @@ public class CmdLineUtil {
 				.hasArg(true)
 				.build());
 		
+		options.addOption(Option.builder("n")
+				.desc("The network implementation to use. Can be one of: " + Arrays.toString(NetworkingStrategy.values()) + ". Defaults to " + NetworkingStrategy.SCAPI)
+				.longOpt("network")
+				.required(false)
+				.hasArg(true)
+				.build());
+		
 		options.addOption(Option.builder("b")
 				.desc("The maximum number of native protocols kept in memory at any point in time. Defaults to 4096")
 				.longOpt("max-batch")
@@ -294,6 +302,17 @@ public class CmdLineUtil {
 			storage = new InMemoryStorage();
 		}
 		
+		final NetworkingStrategy network;
+		if(this.cmd.hasOption("n")) {
+			try {
+				network = NetworkingStrategy.fromString(this.cmd.getOptionValue("n"));
+			} catch(ConfigurationException e) {
+				throw new ParseException("Invalid networking strategy: " + this.cmd.getOptionValue("n"));
+			}
+		} else {
+			network = NetworkingStrategy.SCAPI;
+		}
+		
 		final int maxBatchSize;
 		if(this.cmd.hasOption("b")) {
 			try {
@@ -315,6 +334,7 @@ public class CmdLineUtil {
 		Reporter.config("Evaluation strategy: " + evaluator);
 		Reporter.config("Storage strategy   : " + storage);
 		Reporter.config("Maximum batch size : " + maxBatchSize);
+		Reporter.config("Network            : " + network);
 		
 		this.sceConf = new SCEConfiguration() {
 
@@ -371,6 +391,11 @@ public class CmdLineUtil {
 						return null;
 					}
 				}
+
+				@Override
+				public NetworkingStrategy getNetworkStrategy() {
+					return network;
+				}
 			};
 
 	}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.network;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Network connecting a number of parties running in the same JVM, e.g. when
+ * simulating an evaluation.
+ *
+ * Messages are handed over by reference, so a sender must not modify an
+ * object after sending it. Receiving blocks until the message arrives or the
+ * receiving thread is interrupted.
+ *
+ */
+public class InMemoryNetwork implements Network {
+
+	private final int myId;
+	private final int noOfParties;
+	private final ConcurrentMap<String, BlockingQueue<Serializable>> queues;
+
+	private InMemoryNetwork(int myId, int noOfParties, ConcurrentMap<String, BlockingQueue<Serializable>> queues) {
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.queues = queues;
+	}
+
+	/**
+	 * Creates a network connecting the given number of parties.
+	 *
+	 * @param noOfParties
+	 *            the number of parties.
+	 * @return the networks of the parties, the network of party i is found at
+	 *         index i - 1.
+	 */
+	public static InMemoryNetwork[] create(int noOfParties) {
+		ConcurrentMap<String, BlockingQueue<Serializable>> queues = new ConcurrentHashMap<String, BlockingQueue<Serializable>>();
+		InMemoryNetwork[] networks = new InMemoryNetwork[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			networks[i] = new InMemoryNetwork(i + 1, noOfParties, queues);
+		}
+		return networks;
+	}
+
+	@Override
+	public void connect(int timeoutMillis) throws IOException {
+		// Nothing to connect.
+	}
+
+	@Override
+	public void send(String channel, int partyId, Serializable data) throws IOException {
+		queue(channel, myId, partyId).offer(data);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Serializable> T receive(String channel, int partyId) throws IOException {
+		try {
+			return (T) queue(channel, partyId, myId).take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while receiving from party " + partyId, e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		// Nothing to close.
+	}
+
+	private BlockingQueue<Serializable> queue(String channel, int from, int to) {
+		if (from < 1 || from > noOfParties || to < 1 || to > noOfParties) {
+			throw new IllegalArgumentException("No party with id " + (from == myId ? to : from));
+		}
+		String key = channel + ":" + from + ":" + to;
+		BlockingQueue<Serializable> queue = queues.get(key);
+		if (queue == null) {
+			queue = new LinkedBlockingQueue<Serializable>();
+			BlockingQueue<Serializable> existing = queues.putIfAbsent(key, queue);
+			if (existing != null) {
+				queue = existing;
+			}
+		}
+		return queue;
+	}
+}
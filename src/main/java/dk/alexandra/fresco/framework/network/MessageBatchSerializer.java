@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+/**
+ * Packs the messages of many protocols towards the same party into a single
+ * byte array, such that a batch of protocols only needs to send one message
+ * per party per round.
+ *
+ * The messages of a protocol are written as the number of messages followed
+ * by the messages themselves. The most common payload types are written in a
+ * compact binary encoding, and the {@link MessageEncoders} given to the
+ * serializer encode the message types of the protocol suite. All other types
+ * fall back to Java serialization. Messages cannot be null.
+ * The receiver must read the message queues in the same order as they were
+ * appended by the sender.
+ *
+ * Protocols that send a single boolean, such as the AND gates of the binary
+ * suites, are very common and would otherwise cost two bytes each. A run of
+ * consecutive such protocols is instead written as one header followed by the
+ * booleans packed eight to a byte, and unpacked positionally by the reader.
+ *
+ */
+public class MessageBatchSerializer {
+
+	private static final byte BIG_INTEGER = 1;
+	private static final byte BIG_INTEGER_ARRAY = 2;
+	private static final byte BOOLEAN_TRUE = 3;
+	private static final byte BOOLEAN_FALSE = 4;
+	private static final byte BYTE_ARRAY = 6;
+	private static final byte INTEGER = 7;
+	private static final byte SERIALIZED = 8;
+	private static final byte LONG_ARRAY = 9;
+
+	/**
+	 * The lowest bit of the header of a protocol tells whether it is followed
+	 * by a run of packed bits or by a number of tagged messages.
+	 */
+	private static final int BIT_RUN = 1;
+
+	private final MessageEncoders encoders;
+	private ByteArrayOutputStream bytes;
+	private DataOutputStream out;
+
+	// The run of single boolean messages not yet written to the batch.
+	private long[] bits = new long[16];
+	private int bitCount = 0;
+
+	/**
+	 * Creates a serializer without any message encoders.
+	 */
+	public MessageBatchSerializer() {
+		this(new MessageEncoders());
+	}
+
+	/**
+	 * @param encoders
+	 *            the encoders of the message types of the protocol suite,
+	 *            which must be the same for the sender and the receiver.
+	 */
+	public MessageBatchSerializer(MessageEncoders encoders) {
+		this.encoders = encoders;
+		this.bytes = new ByteArrayOutputStream();
+		this.out = new DataOutputStream(bytes);
+	}
+
+	/**
+	 * Appends the messages of one protocol to the batch.
+	 *
+	 * @param messages
+	 *            the messages to append.
+	 * @throws MPCException
+	 *             if one of the messages is null.
+	 */
+	public void append(Queue<Serializable> messages) {
+		try {
+			if (messages.size() == 1 && messages.peek() instanceof Boolean) {
+				appendBit((Boolean) messages.peek());
+				return;
+			}
+			flushBits();
+			writeLength(out, messages.size() << 1);
+			for (Serializable s : messages) {
+				write(out, s, encoders);
+			}
+		} catch (IOException e) {
+			// Cannot happen when writing to a byte array.
+			throw new MPCException("Could not serialize message batch", e);
+		}
+	}
+
+	/**
+	 * @return true if no messages have been appended since the last reset.
+	 */
+	public boolean isEmpty() {
+		return bytes.size() == 0 && bitCount == 0;
+	}
+
+	/**
+	 * @return the batch appended so far.
+	 */
+	public byte[] toByteArray() {
+		try {
+			flushBits();
+		} catch (IOException e) {
+			throw new MPCException("Could not serialize message batch", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Clears the batch such that this serializer can be reused.
+	 */
+	public void reset() {
+		bytes.reset();
+		bitCount = 0;
+	}
+
+	private void appendBit(boolean bit) {
+		if (bitCount == bits.length * Long.SIZE) {
+			bits = Arrays.copyOf(bits, 2 * bits.length);
+		}
+		if (bit) {
+			bits[bitCount >>> 6] |= 1L << bitCount;
+		} else {
+			bits[bitCount >>> 6] &= ~(1L << bitCount);
+		}
+		bitCount++;
+	}
+
+	private void flushBits() throws IOException {
+		if (bitCount == 0) {
+			return;
+		}
+		writeLength(out, (bitCount << 1) | BIT_RUN);
+		for (int i = 0; i < bitCount; i += 8) {
+			out.writeByte((int) (bits[i >>> 6] >>> i));
+		}
+		bitCount = 0;
+	}
+
+	/**
+	 * Wraps a received batch such that the message queues can be read with
+	 * {@link BatchReader#readMessages()}, using the encoders of this
+	 * serializer.
+	 */
+	public BatchReader open(byte[] batch) {
+		return new BatchReader(batch, encoders);
+	}
+
+	/**
+	 * Reads the message queues of a received batch in the order they were
+	 * appended.
+	 */
+	public static class BatchReader {
+
+		private DataInputStream in;
+		private MessageEncoders encoders;
+		// The current run of packed bits, one per protocol.
+		private byte[] bits;
+		private int bitPos = 0;
+		private int bitCount = 0;
+
+		private BatchReader(byte[] batch, MessageEncoders encoders) {
+			this.in = new DataInputStream(new ByteArrayInputStream(batch));
+			this.encoders = encoders;
+		}
+
+		/**
+		 * Reads the messages of the next protocol from the batch.
+		 *
+		 * @return the messages appended by the sender for this protocol.
+		 * @throws IOException
+		 *             if the batch is malformed.
+		 */
+		public Queue<Serializable> readMessages() throws IOException {
+			Queue<Serializable> messages = new LinkedBlockingQueue<Serializable>();
+			if (bitPos == bitCount) {
+				int header = readLength(in);
+				if ((header & BIT_RUN) == 0) {
+					int numMessages = header >>> 1;
+					for (int i = 0; i < numMessages; i++) {
+						messages.offer(read(in, encoders));
+					}
+					return messages;
+				}
+				bitCount = header >>> 1;
+				bitPos = 0;
+				bits = new byte[(bitCount + 7) / 8];
+				in.readFully(bits);
+			}
+			messages.offer(((bits[bitPos >>> 3] >>> (bitPos & 7)) & 1) != 0);
+			bitPos++;
+			return messages;
+		}
+	}
+
+	private static void write(DataOutputStream out, Serializable s, MessageEncoders encoders)
+			throws IOException {
+		if (s == null) {
+			// The receiver puts the messages in a queue, which cannot hold null
+			throw new MPCException("Cannot send null as a message");
+		} else if (s instanceof BigInteger) {
+			out.writeByte(BIG_INTEGER);
+			writeBigInteger(out, (BigInteger) s);
+		} else if (s instanceof BigInteger[]) {
+			BigInteger[] array = (BigInteger[]) s;
+			out.writeByte(BIG_INTEGER_ARRAY);
+			writeLength(out, array.length);
+			for (BigInteger b : array) {
+				writeBigInteger(out, b);
+			}
+		} else if (s instanceof Boolean) {
+			out.writeByte((Boolean) s ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+		} else if (s instanceof byte[]) {
+			byte[] array = (byte[]) s;
+			out.writeByte(BYTE_ARRAY);
+			writeLength(out, array.length);
+			out.write(array);
+		} else if (s instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) s);
+		} else if (s instanceof long[]) {
+			long[] array = (long[]) s;
+			out.writeByte(LONG_ARRAY);
+			writeLength(out, array.length);
+			for (long l : array) {
+				out.writeLong(l);
+			}
+		} else {
+			Byte tag = encoders.getTag(s.getClass());
+			if (tag != null) {
+				out.writeByte(tag);
+				encode(out, encoders.getEncoder(tag), s);
+				return;
+			}
+			ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+			ObjectOutputStream oos = new ObjectOutputStream(serialized);
+			oos.writeObject(s);
+			oos.close();
+			out.writeByte(SERIALIZED);
+			writeLength(out, serialized.size());
+			serialized.writeTo(out);
+		}
+	}
+
+	private static Serializable read(DataInputStream in, MessageEncoders encoders) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case BIG_INTEGER:
+			return readBigInteger(in);
+		case BIG_INTEGER_ARRAY:
+			BigInteger[] array = new BigInteger[readLength(in)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = readBigInteger(in);
+			}
+			return array;
+		case BOOLEAN_TRUE:
+			return Boolean.TRUE;
+		case BOOLEAN_FALSE:
+			return Boolean.FALSE;
+		case BYTE_ARRAY:
+			byte[] bytes = new byte[readLength(in)];
+			in.readFully(bytes);
+			return bytes;
+		case INTEGER:
+			return in.readInt();
+		case LONG_ARRAY:
+			long[] longs = new long[readLength(in)];
+			for (int i = 0; i < longs.length; i++) {
+				longs[i] = in.readLong();
+			}
+			return longs;
+		case SERIALIZED:
+			byte[] serialized = new byte[readLength(in)];
+			in.readFully(serialized);
+			ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized));
+			try {
+				return (Serializable) ois.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException("Could not deserialize message", e);
+			} finally {
+				ois.close();
+			}
+		default:
+			MessageEncoder<?> encoder = encoders.getEncoder(type);
+			if (encoder == null) {
+				throw new IOException("Unknown message type in batch: " + type);
+			}
+			return encoder.read(in);
+		}
+	}
+
+	private static <T extends Serializable> void encode(DataOutputStream out, MessageEncoder<T> encoder,
+			Serializable s) throws IOException {
+		encoder.write(out, encoder.getType().cast(s));
+	}
+
+	/**
+	 * Writes a BigInteger, which may be null, as its length followed by its
+	 * bytes. This can be used by the {@link MessageEncoder}s.
+	 */
+	public static void writeBigInteger(DataOutput out, BigInteger b) throws IOException {
+		if (b == null) {
+			writeLength(out, 0);
+			return;
+		}
+		byte[] bytes = b.toByteArray();
+		writeLength(out, bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a BigInteger written by {@link #writeBigInteger(DataOutput, BigInteger)}.
+	 */
+	public static BigInteger readBigInteger(DataInput in) throws IOException {
+		int length = readLength(in);
+		if (length == 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new BigInteger(bytes);
+	}
+
+	/**
+	 * Writes a non-negative length using 7 bits per byte, such that small
+	 * lengths only take up a single byte.
+	 */
+	private static void writeLength(DataOutput out, int length) throws IOException {
+		while ((length & ~0x7F) != 0) {
+			out.writeByte((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		out.writeByte(length);
+	}
+
+	private static int readLength(DataInput in) throws IOException {
+		int length = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readUnsignedByte();
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return length;
+	}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.network;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link MessageEncoder}s used by a {@link MessageBatchSerializer}, keyed
+ * by the tags identifying their types in a batch. Each protocol suite keeps
+ * its own encoders, which the evaluators hand to the serializers of the
+ * batches of the suite, so suites running in the same VM do not share tags.
+ */
+public class MessageEncoders {
+
+	/**
+	 * The lowest and highest tag of the message types registered by the
+	 * protocol suites.
+	 */
+	public static final int MIN_TAG = 16;
+	public static final int MAX_TAG = 127;
+
+	private final Map<Class<?>, Byte> tags = new ConcurrentHashMap<Class<?>, Byte>();
+	private final Map<Byte, MessageEncoder<?>> encoders = new ConcurrentHashMap<Byte, MessageEncoder<?>>();
+
+	/**
+	 * Registers the encoding of a message type. All parties must register the
+	 * same encoders with the same tags before they exchange batches.
+	 * Registering an encoder for the same type with the same tag again has no
+	 * effect.
+	 *
+	 * @param tag
+	 *            the tag identifying the type in a batch, between
+	 *            {@link #MIN_TAG} and {@link #MAX_TAG}.
+	 * @param encoder
+	 *            the encoder of the type.
+	 * @throws IllegalArgumentException
+	 *             if the tag is out of range or is already used for another
+	 *             type, or if the type already has another tag.
+	 */
+	public synchronized void register(int tag, MessageEncoder<?> encoder) {
+		if (tag < MIN_TAG || tag > MAX_TAG) {
+			throw new IllegalArgumentException("Message encoder tags must be between " + MIN_TAG + " and "
+					+ MAX_TAG + ", was " + tag);
+		}
+		Byte key = (byte) tag;
+		MessageEncoder<?> existing = encoders.get(key);
+		if (existing != null && existing.getType() != encoder.getType()) {
+			throw new IllegalArgumentException("Tag " + tag + " is already used for " + existing.getType().getName());
+		}
+		Byte existingTag = tags.get(encoder.getType());
+		if (existingTag != null && !existingTag.equals(key)) {
+			throw new IllegalArgumentException(encoder.getType().getName() + " is already registered with tag "
+					+ existingTag);
+		}
+		encoders.put(key, encoder);
+		tags.put(encoder.getType(), key);
+	}
+
+	/**
+	 * @return the tag of the given type, or null if it has no encoder.
+	 */
+	Byte getTag(Class<?> type) {
+		return tags.get(type);
+	}
+
+	/**
+	 * @return the encoder with the given tag, or null if there is none.
+	 */
+	MessageEncoder<?> getEncoder(byte tag) {
+		return encoders.get(tag);
+	}
+}
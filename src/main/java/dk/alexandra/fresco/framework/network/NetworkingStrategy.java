@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.network;
+
+import dk.alexandra.fresco.framework.configuration.ConfigurationException;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+
+public enum NetworkingStrategy {
+	SCAPI, NIO;
+
+	public static NetworkingStrategy fromString(String networkStr) throws ConfigurationException {
+		try {
+			return NetworkingStrategy.valueOf(networkStr.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new ConfigurationException("Unrecognized networking strategy:" + networkStr);
+		}
+	}
+
+	/**
+	 * Creates a network of the given kind.
+	 * 
+	 * @param conf
+	 *            the configuration with info about whom to connect to.
+	 * @param channelAmount
+	 *            the amount of channels each player needs to each other.
+	 */
+	public static Network getNetwork(NetworkingStrategy strategy, NetworkConfiguration conf, int channelAmount)
+			throws ConfigurationException {
+		switch (strategy) {
+		case SCAPI:
+			return new ScapiNetworkImpl(conf, channelAmount);
+		case NIO:
+			return new NioNetworkImpl(conf, channelAmount);
+		default:
+			throw new ConfigurationException("Unrecognized networking strategy:" + strategy);
+		}
+	}
+}
@@ -0,0 +1,408 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Party;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.configuration.ConfigurationException;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+
+/**
+ * Network based directly on java.nio socket channels.
+ *
+ * Like the {@link ScapiNetworkImpl} this network opens channelAmount channels
+ * to each other party, named "0", "1", etc. Each channel is a single TCP
+ * connection carrying length-prefixed frames. Byte arrays are sent as they
+ * are, all other data is sent using Java serialization.
+ *
+ * Sending never blocks: Each channel has its own send thread which writes all
+ * queued frames using gathering writes. Receiving blocks the calling thread
+ * until a full frame has been read. A channel must only be received from by
+ * one thread at a time.
+ *
+ * The party with the highest id of a pair connects to the party with the
+ * lowest id. Authentication and encryption are not supported, i.e. parties
+ * must not be configured with a secret shared key.
+ *
+ */
+public class NioNetworkImpl implements Network {
+
+	private static final byte RAW_BYTES = 0;
+	private static final byte SERIALIZED = 1;
+
+	private static final int HEADER_SIZE = 5;
+
+	/**
+	 * The maximum number of queued frames written in a single gathering write.
+	 */
+	private static final int MAX_FRAMES_PER_WRITE = 64;
+
+	private static final int CONNECT_RETRY_MILLIS = 50;
+
+	private NetworkConfiguration conf;
+	private int channelAmount;
+
+	private ServerSocketChannel server;
+	private Map<Integer, Connection[]> connections;
+
+	// Queues for self-sending
+	private Map<String, BlockingQueue<Serializable>> queues;
+
+	/**
+	 * @param conf
+	 *            The configuration with info about whom to connect to.
+	 * @param channelAmount
+	 *            The amount of channels each player needs to each other.
+	 */
+	public NioNetworkImpl(NetworkConfiguration conf, int channelAmount) {
+		this.conf = conf;
+		this.channelAmount = channelAmount;
+	}
+
+	@Override
+	public void connect(int timeoutMillis) throws IOException {
+		int myId = conf.getMyId();
+		for (int id = 1; id <= conf.noOfParties(); id++) {
+			if (id != myId && conf.getParty(id).getSecretSharedKey() != null) {
+				throw new ConfigurationException("The NIO network does not support secure channels (party " + id
+						+ " has a secret shared key)");
+			}
+		}
+		this.queues = new HashMap<String, BlockingQueue<Serializable>>();
+		for (int i = 0; i < channelAmount; i++) {
+			this.queues.put("" + i, new LinkedBlockingQueue<Serializable>());
+		}
+		this.connections = new HashMap<Integer, Connection[]>();
+		for (int id = 1; id <= conf.noOfParties(); id++) {
+			if (id != myId) {
+				this.connections.put(id, new Connection[channelAmount]);
+			}
+		}
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+
+		Party me = conf.getMe();
+		server = ServerSocketChannel.open();
+		server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+		server.bind(new InetSocketAddress(me.getPort()));
+
+		// Connect to all parties with a lower id
+		for (int id = 1; id < myId; id++) {
+			Party other = conf.getParty(id);
+			for (int c = 0; c < channelAmount; c++) {
+				SocketChannel socket = connectWithRetry(new InetSocketAddress(other.getHostname(), other.getPort()),
+						deadline);
+				ByteBuffer handshake = ByteBuffer.allocate(8);
+				handshake.putInt(myId).putInt(c).flip();
+				writeFully(socket, handshake);
+				this.connections.get(id)[c] = new Connection(socket, id, c);
+			}
+		}
+		// Accept connections from all parties with a higher id
+		int expected = (conf.noOfParties() - myId) * channelAmount;
+		for (int i = 0; i < expected; i++) {
+			SocketChannel socket = acceptBefore(deadline);
+			ByteBuffer handshake = ByteBuffer.allocate(8);
+			readFully(socket, handshake);
+			handshake.flip();
+			int id = handshake.getInt();
+			int c = handshake.getInt();
+			if (id <= myId || id > conf.noOfParties() || c < 0 || c >= channelAmount
+					|| this.connections.get(id)[c] != null) {
+				socket.close();
+				throw new IOException("Received unexpected connection from party " + id + " on channel " + c);
+			}
+			this.connections.get(id)[c] = new Connection(socket, id, c);
+		}
+		// All parties are connected, so stop listening to free the port
+		server.close();
+		server = null;
+		for (Connection[] cs : connections.values()) {
+			for (Connection connection : cs) {
+				connection.start();
+			}
+		}
+		Reporter.fine("NIO network of party " + myId + " connected with " + channelAmount + " channel(s) per party");
+	}
+
+	/**
+	 * Accepts the next connection to the server socket, waiting at most until
+	 * the given deadline.
+	 */
+	private SocketChannel acceptBefore(long deadline) throws IOException {
+		server.configureBlocking(false);
+		Selector selector = Selector.open();
+		try {
+			server.register(selector, SelectionKey.OP_ACCEPT);
+			while (true) {
+				SocketChannel socket = server.accept();
+				if (socket != null) {
+					socket.configureBlocking(true);
+					return socket;
+				}
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					throw new IOException("Timed out waiting for connections to party " + conf.getMyId());
+				}
+				selector.select(remaining);
+				selector.selectedKeys().clear();
+			}
+		} finally {
+			selector.close();
+		}
+	}
+
+	private SocketChannel connectWithRetry(InetSocketAddress address, long deadline) throws IOException {
+		while (true) {
+			SocketChannel socket = SocketChannel.open();
+			try {
+				socket.connect(address);
+				return socket;
+			} catch (ConnectException e) {
+				socket.close();
+				if (System.currentTimeMillis() > deadline) {
+					throw new IOException("Timed out connecting to " + address, e);
+				}
+				try {
+					Thread.sleep(CONNECT_RETRY_MILLIS);
+				} catch (InterruptedException ie) {
+					throw new IOException("Interrupted while connecting to " + address, ie);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void send(String channel, int partyId, Serializable data) throws IOException {
+		if (partyId == conf.getMyId()) {
+			this.queues.get(channel).add(data);
+			return;
+		}
+		getConnection(channel, partyId).send(data);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Serializable> T receive(String channel, int partyId) throws IOException {
+		if (partyId == conf.getMyId()) {
+			Serializable res = this.queues.get(channel).poll();
+			if (res == null) {
+				throw new MPCException("Self(" + partyId + ") have not send anything on channel " + channel
+						+ " before receive was called.");
+			}
+			return (T) res;
+		}
+		return (T) getConnection(channel, partyId).receive();
+	}
+
+	private Connection getConnection(String channel, int partyId) {
+		Connection[] cs = connections.get(partyId);
+		if (cs == null) {
+			throw new MPCException("No party with id " + partyId);
+		}
+		int c = Integer.parseInt(channel);
+		if (c < 0 || c >= channelAmount) {
+			throw new MPCException("Trying to use channel " + channel + ", but this network was initiated with only "
+					+ this.channelAmount + " channels.");
+		}
+		return cs[c];
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (connections != null) {
+			for (Connection[] cs : connections.values()) {
+				for (Connection connection : cs) {
+					if (connection != null) {
+						connection.close();
+					}
+				}
+			}
+			connections = null;
+		}
+		if (server != null) {
+			server.close();
+			server = null;
+		}
+	}
+
+	private static void writeFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			socket.write(buffer);
+		}
+	}
+
+	private static void readFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (socket.read(buffer) < 0) {
+				throw new IOException("Connection closed by other party");
+			}
+		}
+	}
+
+	/**
+	 * A single channel to another party together with its send thread.
+	 */
+	private static class Connection implements Runnable {
+
+		private static final ByteBuffer[] CLOSE = new ByteBuffer[0];
+
+		private final SocketChannel socket;
+		private final BlockingQueue<ByteBuffer[]> outgoing;
+		private final ByteBuffer receiveHeader;
+		private final Thread sender;
+		private volatile IOException sendError;
+
+		public Connection(SocketChannel socket, int partyId, int channel) throws IOException {
+			this.socket = socket;
+			this.socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			this.outgoing = new LinkedBlockingQueue<ByteBuffer[]>();
+			this.receiveHeader = ByteBuffer.allocateDirect(HEADER_SIZE);
+			this.sender = new Thread(this, "NioNetwork-send-" + partyId + "-" + channel);
+			this.sender.setDaemon(true);
+		}
+
+		public void start() {
+			sender.start();
+		}
+
+		public void send(Serializable data) throws IOException {
+			if (sendError != null) {
+				throw sendError;
+			}
+			byte type;
+			byte[] payload;
+			if (data instanceof byte[]) {
+				type = RAW_BYTES;
+				payload = (byte[]) data;
+			} else {
+				type = SERIALIZED;
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				ObjectOutputStream oos = new ObjectOutputStream(bytes);
+				oos.writeObject(data);
+				oos.close();
+				payload = bytes.toByteArray();
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(payload.length).put(type).flip();
+			outgoing.add(new ByteBuffer[] { header, ByteBuffer.wrap(payload) });
+		}
+
+		public Serializable receive() throws IOException {
+			if (sendError != null) {
+				throw sendError;
+			}
+			receiveHeader.clear();
+			readFully(socket, receiveHeader);
+			receiveHeader.flip();
+			int length = receiveHeader.getInt();
+			byte type = receiveHeader.get();
+			byte[] payload = new byte[length];
+			readFully(socket, ByteBuffer.wrap(payload));
+			if (type == RAW_BYTES) {
+				return payload;
+			}
+			ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload));
+			try {
+				return (Serializable) ois.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException("Could not deserialize received data", e);
+			} finally {
+				ois.close();
+			}
+		}
+
+		@Override
+		public void run() {
+			List<ByteBuffer[]> frames = new ArrayList<ByteBuffer[]>(MAX_FRAMES_PER_WRITE);
+			try {
+				while (true) {
+					frames.add(outgoing.take());
+					outgoing.drainTo(frames, MAX_FRAMES_PER_WRITE - 1);
+					boolean close = false;
+					ByteBuffer[] buffers = new ByteBuffer[frames.size() * 2];
+					int n = 0;
+					for (ByteBuffer[] frame : frames) {
+						if (frame == CLOSE) {
+							close = true;
+							break;
+						}
+						buffers[n++] = frame[0];
+						buffers[n++] = frame[1];
+					}
+					frames.clear();
+					int offset = 0;
+					while (offset < n) {
+						socket.write(buffers, offset, n - offset);
+						while (offset < n && !buffers[offset].hasRemaining()) {
+							offset++;
+						}
+					}
+					if (close) {
+						return;
+					}
+				}
+			} catch (IOException e) {
+				sendError = e;
+				Reporter.severe("Could not send on NIO channel", e);
+			} catch (InterruptedException e) {
+				// Closed while waiting for frames.
+			}
+		}
+
+		public void close() throws IOException {
+			outgoing.add(CLOSE);
+			try {
+				sender.join();
+			} catch (InterruptedException e) {
+				sender.interrupt();
+			}
+			socket.close();
+		}
+	}
+}
@@ -42,11 +42,13 @@ import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.Reporter;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.NetworkConfigurationImpl;
-import dk.alexandra.fresco.framework.network.ScapiNetworkImpl;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.NetworkingStrategy;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedParallelEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.ParallelEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.WorkStealingEvaluator;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.sce.resources.SCEResourcePool;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
@@ -57,7 +59,7 @@ import dk.alexandra.fresco.suite.bgw.BgwFactory;
 import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfigurationFromProperties;
-import dk.alexandra.fresco.suite.bgw.storage.BgwRandomBitSupplier;
+import dk.alexandra.fresco.suite.bgw.storage.BgwPrssSupplier;
 import dk.alexandra.fresco.suite.dummy.DummyConfiguration;
 import dk.alexandra.fresco.suite.dummy.DummyFactory;
 import dk.alexandra.fresco.suite.dummy.DummyProtocolSuite;
@@ -123,10 +125,11 @@ public class SCEImpl implements SCE {
 		// If the evaluator is of a parallel sort,
 		// we need the same amount of channels as the number of VM threads we
 		// use.
-		if (this.evaluator instanceof ParallelEvaluator || this.evaluator instanceof BatchedParallelEvaluator) {
+		if (this.evaluator instanceof ParallelEvaluator || this.evaluator instanceof BatchedParallelEvaluator
+				|| this.evaluator instanceof WorkStealingEvaluator) {
 			channelAmount = noOfvmThreads;
 		}
-		ScapiNetworkImpl network = new ScapiNetworkImpl(conf, channelAmount);
+		Network network = NetworkingStrategy.getNetwork(sceConf.getNetworkStrategy(), conf, channelAmount);
 
 		if (noOfvmThreads == -1) {
 			// default to 1 allowed VM thread only - otherwise certain
@@ -175,16 +178,17 @@ public class SCEImpl implements SCE {
 			this.protocolFactory = new SpdzFactory(spdzStorage, this.resourcePool.getMyId(), maxBitLength);
 			break;
 		case "bgw":
-			this.protocolSuite = BgwProtocolSuite.getInstance();
+			this.protocolSuite = BgwProtocolSuite.getInstance(this.resourcePool.getMyId());
 			if (psConf == null) {
 				psConf = new BgwConfigurationFromProperties();
 			}
 			this.protocolSuite.init(this.resourcePool, psConf);
 			int threshold = ((BgwConfiguration) psConf).getThreshold();
 			BigInteger modulus = ((BgwConfiguration) psConf).getModulus();
-			BgwRandomBitSupplier bitSupplier = ((BgwProtocolSuite) protocolSuite).getBitSupplier();
+			int bgwMaxBitLength = ((BgwConfiguration) psConf).getMaxBitLength();
+			BgwPrssSupplier prssSupplier = ((BgwProtocolSuite) protocolSuite).getPrssSupplier();
 			this.protocolFactory = new BgwFactory(this.resourcePool.getMyId(), this.resourcePool.getNoOfParties(),
-					threshold, modulus, bitSupplier);
+					threshold, modulus, bgwMaxBitLength, prssSupplier);
 			break;
 		case "tinytablesprepro":
 			this.protocolSuite = TinyTablesPreproProtocolSuite.getInstance(this.resourcePool.getMyId());
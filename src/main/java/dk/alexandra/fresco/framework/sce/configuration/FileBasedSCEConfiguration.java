@@ -38,6 +38,7 @@ import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.Party;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.configuration.ConfigurationException;
+import dk.alexandra.fresco.framework.network.NetworkingStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StorageStrategy;
@@ -60,6 +61,7 @@ public class FileBasedSCEConfiguration implements SCEConfiguration {
 	private ProtocolEvaluator evaluator;
 	private Storage storage;
 	private StreamedStorage streamedStorage;
+	private NetworkingStrategy network;
 
 	private FileBasedSCEConfiguration(String propertiesLocation) {
 		this.propertiesLocation = propertiesLocation;
@@ -175,6 +177,8 @@ public class FileBasedSCEConfiguration implements SCEConfiguration {
 			
 			this.maxBatchSize = Integer.parseInt(prop.getProperty("maxBatchSize", "4096"));
 			
+			this.network = NetworkingStrategy.fromString(prop.getProperty("network", NetworkingStrategy.SCAPI.name()));
+			
 			loaded = true;
 		} catch (IOException e) {
 			throw new MPCException(
@@ -277,11 +281,19 @@ public class FileBasedSCEConfiguration implements SCEConfiguration {
 		return this.streamedStorage;
 	}
 
+	@Override
+	public NetworkingStrategy getNetworkStrategy() {
+		if(!loaded) {
+			loadProperties();
+		}
+		return this.network;
+	}
+
 	@Override
 	public String toString() {
 		return "FileBasedSCEConfiguration [propertiesLocation=" + propertiesLocation + ", loaded=" + loaded
 				+ ", protocolSuite=" + protocolSuite + ", parties=" + parties + ", myId=" + myId + ", level=" + level
 				+ ", noOfThreads=" + noOfThreads + ", noOfVmThreads=" + noOfVmThreads + ", maxBatchSize=" + maxBatchSize
-				+ ", evaluator=" + evaluator + ", storage=" + storage + ", streamedStorage=" + streamedStorage + "]";
+				+ ", evaluator=" + evaluator + ", storage=" + storage + ", streamedStorage=" + streamedStorage + ", network=" + network + "]";
 	}	
 }
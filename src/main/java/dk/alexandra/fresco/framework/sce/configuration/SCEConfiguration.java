@@ -31,6 +31,7 @@ import java.util.logging.Level;
 
 import dk.alexandra.fresco.framework.Party;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.network.NetworkingStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 
@@ -97,4 +98,12 @@ public interface SCEConfiguration {
 	 * @return
 	 */
 	public int getMaxBatchSize();
+
+	/**
+	 * Returns the kind of network the parties should communicate over.
+	 * Defaults to SCAPI.
+	 * 
+	 * @return
+	 */
+	public NetworkingStrategy getNetworkStrategy();
 }
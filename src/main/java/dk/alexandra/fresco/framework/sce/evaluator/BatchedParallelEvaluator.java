@@ -139,7 +139,8 @@ public class BatchedParallelEvaluator implements ProtocolEvaluator {
 
 		@Override
 		public Object call() throws Exception {		
-			BatchedStrategy.processBatch(protocols, numOfProtocols, sceNetworks, channel, rp);
+			BatchedStrategy.processBatch(protocols, numOfProtocols, sceNetworks, channel, rp,
+					pii.getMessageEncoders());
 			return null;
 		}
 	}
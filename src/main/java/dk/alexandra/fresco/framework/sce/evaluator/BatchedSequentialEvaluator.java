@@ -91,7 +91,7 @@ public class BatchedSequentialEvaluator implements ProtocolEvaluator {
 			NativeProtocol[] nextProtocols = new NativeProtocol[maxBatchSize];
 			int numOfProtocolsInBatch = c.getNextProtocols(nextProtocols, 0);
 			BatchedStrategy.processBatch(nextProtocols, numOfProtocolsInBatch, sceNetworks, DEFAULT_CHANNEL,
-					resourcePool);
+					resourcePool, protocolSuite.getMessageEncoders());
 			this.protocolSuite.synchronize(numOfProtocolsInBatch);
 		} while (c.hasNextProtocols());
 
@@ -30,14 +30,14 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import dk.alexandra.fresco.framework.NativeProtocol;
 import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.network.MessageBatchSerializer;
+import dk.alexandra.fresco.framework.network.MessageEncoders;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.SCENetworkImpl;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
@@ -84,72 +84,123 @@ public class BatchedStrategy {
 	 * @param rp
 	 *            the resource pool.
 	 * 
+	 * @param encoders
+	 *            the message encoders of the protocol suite.
+	 * 
 	 * @throws IOException
 	 */
 	public static void processBatch(NativeProtocol[] protocols, int numOfProtocols, SCENetworkImpl[] sceNetworks,
-			String channel, ResourcePool rp) throws IOException {
-		Network network = rp.getNetwork();
+			String channel, ResourcePool rp, MessageEncoders encoders) throws IOException {
 		int round = 0;
-		Set<Integer> partyIds = new HashSet<Integer>();
-		for (int i = 1; i <= rp.getNoOfParties(); i++) {
-			partyIds.add(i);
-		}		
 		boolean[] dones = new boolean[numOfProtocols];
 		boolean done;
 		// Do all rounds
 		do {
-			// Evaluate the current round for all protocols
-			done = true;
-			for (int i = 0; i < numOfProtocols; i++) {
-				SCENetworkImpl sceNetwork = sceNetworks[i];
-				if (!dones[i]) {
-					EvaluationStatus status = protocols[i].evaluate(round, rp, sceNetwork);
-					if (status.equals(EvaluationStatus.IS_DONE)) {
-						dones[i] = true;
-					} else {
-						done = false;
-					}
+			done = evaluateRound(protocols, numOfProtocols, sceNetworks, dones, round, rp);
+			communicate(numOfProtocols, sceNetworks, channel, rp, encoders);
+			round++;
+		} while (!done);
+	}
+
+	/**
+	 * Evaluates a single round of all protocols in the batch that are not yet
+	 * done. This is step 1 of the strategy described above.
+	 * 
+	 * @param dones
+	 *            array of length at least numOfProtocols keeping track of
+	 *            which protocols are done. Updated by this method.
+	 * @param round
+	 *            the round to evaluate.
+	 * 
+	 * @return true if all protocols in the batch are done after this round.
+	 */
+	public static boolean evaluateRound(NativeProtocol[] protocols, int numOfProtocols, SCENetworkImpl[] sceNetworks,
+			boolean[] dones, int round, ResourcePool rp) {
+		boolean done = true;
+		for (int i = 0; i < numOfProtocols; i++) {
+			SCENetworkImpl sceNetwork = sceNetworks[i];
+			if (!dones[i]) {
+				EvaluationStatus status = protocols[i].evaluate(round, rp, sceNetwork);
+				if (status.equals(EvaluationStatus.IS_DONE)) {
+					dones[i] = true;
+				} else {
+					done = false;
 				}
 			}
-			// Send/Receive data for this round
-			ArrayList<Map<Integer, Queue<Serializable>>> inputs = new ArrayList<Map<Integer, Queue<Serializable>>>(numOfProtocols);
-			for (int i = 0; i < numOfProtocols; i++) {
-				inputs.add(new HashMap<Integer, Queue<Serializable>>());
-			}
-			for (int pId = 1; pId <= rp.getNoOfParties(); pId++) {
+		}
+		return done;
+	}
+
+	/**
+	 * Sends all messages collected by the SCENetworks in the last evaluated
+	 * round and receives all messages expected before the next round. This is
+	 * step 2 and 3 of the strategy described above. Afterwards the SCENetworks
+	 * are moved on to the next round.
+	 * 
+	 * The messages of all protocols towards the same party are packed into a
+	 * single message using a {@link MessageBatchSerializer} with the given
+	 * encoders, i.e. exactly one message is sent to each party that any
+	 * protocol sends to. Messages to ourselves are handed over directly without
+	 * going through the network.
+	 * 
+	 * @throws IOException
+	 */
+	public static void communicate(int numOfProtocols, SCENetworkImpl[] sceNetworks, String channel,
+			ResourcePool rp, MessageEncoders encoders) throws IOException {
+		Network network = rp.getNetwork();
+		int myId = rp.getMyId();
+		ArrayList<Map<Integer, Queue<Serializable>>> inputs = new ArrayList<Map<Integer, Queue<Serializable>>>(numOfProtocols);
+		for (int i = 0; i < numOfProtocols; i++) {
+			inputs.add(new HashMap<Integer, Queue<Serializable>>());
+		}
+		MessageBatchSerializer batch = new MessageBatchSerializer(encoders);
+		for (int pId = 1; pId <= rp.getNoOfParties(); pId++) {
+			if (pId == myId) {
 				// If the current player id is you send your messages
-				if (pId == rp.getMyId()) { 
+				for (int receiverId = 1; receiverId <= rp.getNoOfParties(); receiverId++) {
+					if (receiverId == myId) {
+						continue;
+					}
+					batch.reset();
 					for (int i = 0; i < numOfProtocols; i++) {
-						SCENetworkImpl sceNet = sceNetworks[i];
-						Map<Integer, Queue<Serializable>> output = sceNet.getOutputFromThisRound();
-						for (Map.Entry<Integer, Queue<Serializable>> e: output.entrySet()) {
-							network.send(channel, e.getKey(), e.getValue().size());
-							for (Serializable s: e.getValue()) {
-								network.send(channel, e.getKey(), s);
-							}
+						Queue<Serializable> output = sceNetworks[i].getOutputFromThisRound().get(receiverId);
+						if (output != null) {
+							batch.append(output);
 						}
 					}
+					if (!batch.isEmpty()) {
+						network.send(channel, receiverId, batch.toByteArray());
+					}
 				}
+				// Messages to yourself are handed over directly
+				for (int i = 0; i < numOfProtocols; i++) {
+					SCENetworkImpl sceNet = sceNetworks[i];
+					if (sceNet.getExpectedInputForNextRound().contains(myId)) {
+						Queue<Serializable> messages = sceNet.getOutputFromThisRound().get(myId);
+						if (messages == null) {
+							messages = new LinkedBlockingQueue<Serializable>();
+						}
+						inputs.get(i).put(myId, messages);
+					}
+				}
+			} else {
 				// Receive messages from the current player id
+				MessageBatchSerializer.BatchReader in = null;
 				for (int i = 0; i < numOfProtocols; i++) {
 					SCENetworkImpl sceNet = sceNetworks[i];
-					Set<Integer> expectedInput = sceNet.getExpectedInputForNextRound();
-					if (expectedInput.contains(pId)) {
-						int numMessages = network.receive(channel, pId);
-						Queue<Serializable> messages = new LinkedBlockingQueue<Serializable>();
-						for (int j = 0; j < numMessages; j++) {
-							Serializable s = network.receive(channel, pId);
-							messages.offer(s);
+					if (sceNet.getExpectedInputForNextRound().contains(pId)) {
+						if (in == null) {
+							byte[] received = network.receive(channel, pId);
+							in = batch.open(received);
 						}
-						inputs.get(i).put(pId, messages);
+						inputs.get(i).put(pId, in.readMessages());
 					}
 				}
 			}
-			for (int i = 0; i < numOfProtocols; i++) {
-				sceNetworks[i].setInput(inputs.get(i));
-				sceNetworks[i].nextRound();
-			}
-			round++;
-		} while (!done);
+		}
+		for (int i = 0; i < numOfProtocols; i++) {
+			sceNetworks[i].setInput(inputs.get(i));
+			sceNetworks[i].nextRound();
+		}
 	}
 }
\ No newline at end of file
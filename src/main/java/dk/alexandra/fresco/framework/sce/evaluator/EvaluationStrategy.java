@@ -30,7 +30,7 @@ import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.configuration.ConfigurationException;
 
 public enum EvaluationStrategy {
-    SEQUENTIAL, PARALLEL, PARALLEL_BATCHED, SEQUENTIAL_BATCHED;
+    SEQUENTIAL, PARALLEL, PARALLEL_BATCHED, SEQUENTIAL_BATCHED, PIPELINED_BATCHED, WORK_STEALING;
 
 	public static ProtocolEvaluator fromString(String evalStr) throws ConfigurationException {
 		EvaluationStrategy evalStrategy = EvaluationStrategy.valueOf(evalStr.toUpperCase());
@@ -43,6 +43,10 @@ public enum EvaluationStrategy {
 			return new BatchedSequentialEvaluator();
 		case PARALLEL_BATCHED:
 			return new BatchedParallelEvaluator();
+		case PIPELINED_BATCHED:
+			return new PipelinedBatchedEvaluator();
+		case WORK_STEALING:
+			return new WorkStealingEvaluator();
 		default:
 			throw new ConfigurationException("Unrecognized evaluation strategy:" + evalStr);
 		}
@@ -58,6 +62,10 @@ public enum EvaluationStrategy {
 			return new BatchedSequentialEvaluator();
 		case PARALLEL_BATCHED:
 			return new BatchedParallelEvaluator();
+		case PIPELINED_BATCHED:
+			return new PipelinedBatchedEvaluator();
+		case WORK_STEALING:
+			return new WorkStealingEvaluator();
 		default:
 			throw new ConfigurationException("Unrecognized evaluation strategy:" + strat);
 		}
@@ -74,6 +82,12 @@ public enum EvaluationStrategy {
 		}
 		else if(evaluator instanceof BatchedParallelEvaluator) {
 			return PARALLEL_BATCHED.name();
+		}
+		else if(evaluator instanceof PipelinedBatchedEvaluator) {
+			return PIPELINED_BATCHED.name();
+		}
+		else if(evaluator instanceof WorkStealingEvaluator) {
+			return WORK_STEALING.name();
 		} else {
 			throw new ConfigurationException("Unrecognized evaluation strategy:" + evaluator.toString());
 		}
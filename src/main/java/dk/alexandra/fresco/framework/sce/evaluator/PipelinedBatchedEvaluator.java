@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.network.SCENetworkImpl;
+import dk.alexandra.fresco.framework.sce.resources.SCEResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+
+/**
+ * Batched evaluator that overlaps local computation with network
+ * communication.
+ *
+ * Each batch returned by the protocol producer is split into a number of
+ * lanes which are evaluated round by round as in the {@link BatchedStrategy}.
+ * However, the communication of a lane is handed to a dedicated communication
+ * thread, so while the messages of one lane are on the wire, the next round of
+ * the other lanes is evaluated locally.
+ *
+ * Note that we only pipeline within a single batch: By INVARIANT2 of
+ * {@link ProtocolProducer} the protocols of a batch may depend on all protocols
+ * of the previous batches, so a batch cannot be started before the previous one
+ * is done. The protocol suite is synchronized once per batch exactly as in the
+ * {@link BatchedSequentialEvaluator}.
+ *
+ * The communication of the lanes is done in a fixed order over a single
+ * channel, so all parties must use the same pipeline depth.
+ *
+ */
+public class PipelinedBatchedEvaluator implements ProtocolEvaluator {
+
+	private static final int DEFAULT_THREAD_ID = 0;
+
+	private static final String DEFAULT_CHANNEL = "0";
+
+	private static final int DEFAULT_PIPELINE_DEPTH = 2;
+
+	/**
+	 * Batches smaller than this are not worth splitting into lanes.
+	 */
+	private static final int MIN_PROTOCOLS_PER_LANE = 8;
+
+	private int maxBatchSize;
+	private int pipelineDepth;
+
+	private SCEResourcePool resourcePool;
+	private ProtocolSuite protocolSuite;
+
+	private SCENetworkImpl[] sceNetworks;
+
+	public PipelinedBatchedEvaluator() {
+		this.maxBatchSize = 4096;
+		this.pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+		this.sceNetworks = new SCENetworkImpl[this.maxBatchSize];
+	}
+
+	@Override
+	public void setResourcePool(SCEResourcePool resourcePool) {
+		this.resourcePool = resourcePool;
+		for (int i = 0; i < this.maxBatchSize; i++) {
+			this.sceNetworks[i] = new SCENetworkImpl(this.resourcePool.getNoOfParties(), DEFAULT_THREAD_ID);
+		}
+	}
+
+	public ProtocolSuite getProtocolInvocation() {
+		return protocolSuite;
+	}
+
+	@Override
+	public void setProtocolInvocation(ProtocolSuite pii) {
+		this.protocolSuite = pii;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * Sets the maximum amount of gates evaluated in each batch.
+	 *
+	 * @param maxBatchSize
+	 *            the maximum batch size.
+	 */
+	@Override
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.sceNetworks = new SCENetworkImpl[maxBatchSize];
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public int getPipelineDepth() {
+		return pipelineDepth;
+	}
+
+	/**
+	 * Sets the number of lanes each batch is split into. A depth of 1 makes
+	 * this evaluator behave as the {@link BatchedSequentialEvaluator}.
+	 *
+	 * @param pipelineDepth
+	 *            the pipeline depth, must be at least 1.
+	 */
+	public void setPipelineDepth(int pipelineDepth) {
+		if (pipelineDepth < 1) {
+			throw new IllegalArgumentException("Pipeline depth must be at least 1, was " + pipelineDepth);
+		}
+		this.pipelineDepth = pipelineDepth;
+	}
+
+	public void eval(ProtocolProducer c) throws IOException {
+		ExecutorService communicator = Executors.newSingleThreadExecutor();
+		try {
+			do {
+				NativeProtocol[] nextProtocols = new NativeProtocol[maxBatchSize];
+				int numOfProtocolsInBatch = c.getNextProtocols(nextProtocols, 0);
+				processBatch(nextProtocols, numOfProtocolsInBatch, communicator);
+				this.protocolSuite.synchronize(numOfProtocolsInBatch);
+			} while (c.hasNextProtocols());
+		} finally {
+			communicator.shutdown();
+		}
+		this.protocolSuite.finishedEval();
+	}
+
+	private void processBatch(NativeProtocol[] protocols, int numOfProtocols, ExecutorService communicator)
+			throws IOException {
+		int noOfLanes = Math.max(1, Math.min(pipelineDepth, numOfProtocols / MIN_PROTOCOLS_PER_LANE));
+		Lane[] lanes = new Lane[noOfLanes];
+		int offset = 0;
+		for (int i = 0; i < noOfLanes; i++) {
+			int protocolsInLane = numOfProtocols / noOfLanes + (i < numOfProtocols % noOfLanes ? 1 : 0);
+			lanes[i] = new Lane(protocols, sceNetworks, offset, protocolsInLane);
+			offset += protocolsInLane;
+		}
+		int lanesLeft = noOfLanes;
+		try {
+			while (lanesLeft > 0) {
+				for (int i = 0; i < noOfLanes; i++) {
+					Lane lane = lanes[i];
+					if (lane.finished) {
+						continue;
+					}
+					if (lane.pending != null) {
+						lane.pending.get();
+						lane.pending = null;
+						if (lane.done) {
+							lane.finished = true;
+							lanesLeft--;
+							continue;
+						}
+					}
+					lane.done = BatchedStrategy.evaluateRound(lane.protocols, lane.numOfProtocols, lane.sceNetworks,
+							lane.dones, lane.round, resourcePool);
+					lane.round++;
+					lane.pending = communicator.submit(lane);
+				}
+			}
+		} catch (InterruptedException e) {
+			Reporter.severe("Evaluation was interrupted.", e);
+			throw new MPCException("Evaluation was interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			Reporter.severe("Exception during communication.", e);
+			throw new MPCException("Exception during communication.", e);
+		}
+	}
+
+	/**
+	 * A contiguous slice of a batch. Calling the lane sends and receives the
+	 * messages of the last evaluated round.
+	 */
+	private class Lane implements Callable<Object> {
+
+		private NativeProtocol[] protocols;
+		private SCENetworkImpl[] sceNetworks;
+		private int numOfProtocols;
+		private boolean[] dones;
+		private int round = 0;
+		private boolean done = false;
+		private boolean finished = false;
+		private Future<Object> pending;
+
+		public Lane(NativeProtocol[] protocols, SCENetworkImpl[] sceNetworks, int offset, int numOfProtocols) {
+			this.numOfProtocols = numOfProtocols;
+			this.protocols = new NativeProtocol[numOfProtocols];
+			this.sceNetworks = new SCENetworkImpl[numOfProtocols];
+			System.arraycopy(protocols, offset, this.protocols, 0, numOfProtocols);
+			System.arraycopy(sceNetworks, offset, this.sceNetworks, 0, numOfProtocols);
+			this.dones = new boolean[numOfProtocols];
+		}
+
+		@Override
+		public Object call() throws Exception {
+			BatchedStrategy.communicate(numOfProtocols, sceNetworks, DEFAULT_CHANNEL, resourcePool,
+					protocolSuite.getMessageEncoders());
+			return null;
+		}
+	}
+}
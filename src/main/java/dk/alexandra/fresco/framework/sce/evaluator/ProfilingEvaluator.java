@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Queue;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.network.MessageBatchSerializer;
+import dk.alexandra.fresco.framework.network.MessageEncoders;
+import dk.alexandra.fresco.framework.network.SCENetworkImpl;
+import dk.alexandra.fresco.framework.sce.resources.SCEResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+
+/**
+ * Evaluates protocols exactly as the {@link BatchedSequentialEvaluator} while
+ * recording a {@link ProtocolProfile} of the evaluation.
+ *
+ * The evaluator can be used in a real evaluation, but it is mainly meant to
+ * be run offline by the {@link ProtocolProfiler}. The protocol suite is
+ * optional: If none is set, the suite is neither synchronized nor notified
+ * when the evaluation is done.
+ *
+ */
+public class ProfilingEvaluator implements ProtocolEvaluator {
+
+	private static final int DEFAULT_THREAD_ID = 0;
+
+	private static final String DEFAULT_CHANNEL = "0";
+
+	private int maxBatchSize;
+
+	private SCEResourcePool resourcePool;
+	private ProtocolSuite protocolSuite;
+
+	private ProtocolProfile profile;
+
+	public ProfilingEvaluator() {
+		this.maxBatchSize = 4096;
+	}
+
+	@Override
+	public void setResourcePool(SCEResourcePool resourcePool) {
+		this.resourcePool = resourcePool;
+	}
+
+	@Override
+	public void setProtocolInvocation(ProtocolSuite pii) {
+		this.protocolSuite = pii;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * Sets the maximum amount of gates evaluated in each batch.
+	 *
+	 * @param maxBatchSize
+	 *            the maximum batch size.
+	 */
+	@Override
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * @return the profile of the last evaluation, or null if nothing has been
+	 *         evaluated yet.
+	 */
+	public ProtocolProfile getProfile() {
+		return profile;
+	}
+
+	@Override
+	public void eval(ProtocolProducer c) throws IOException {
+		int noOfParties = resourcePool.getNoOfParties();
+		this.profile = new ProtocolProfile(resourcePool.getMyId(), noOfParties, maxBatchSize);
+		SCENetworkImpl[] sceNetworks = new SCENetworkImpl[maxBatchSize];
+		for (int i = 0; i < maxBatchSize; i++) {
+			sceNetworks[i] = new SCENetworkImpl(noOfParties, DEFAULT_THREAD_ID);
+		}
+		int batch = 0;
+		do {
+			NativeProtocol[] nextProtocols = new NativeProtocol[maxBatchSize];
+			int numOfProtocolsInBatch = c.getNextProtocols(nextProtocols, 0);
+			if (numOfProtocolsInBatch == 0 && c.hasNextProtocols()) {
+				throw new MPCException("No protocols fit in a batch of size " + maxBatchSize);
+			}
+			processBatch(nextProtocols, numOfProtocolsInBatch, sceNetworks, batch++);
+			if (this.protocolSuite != null) {
+				this.protocolSuite.synchronize(numOfProtocolsInBatch);
+			}
+		} while (c.hasNextProtocols());
+		if (this.protocolSuite != null) {
+			this.protocolSuite.finishedEval();
+		}
+	}
+
+	private void processBatch(NativeProtocol[] protocols, int numOfProtocols, SCENetworkImpl[] sceNetworks, int batch)
+			throws IOException {
+		int myId = resourcePool.getMyId();
+		int noOfParties = resourcePool.getNoOfParties();
+		for (int i = 0; i < numOfProtocols; i++) {
+			profile.addProtocol(protocols[i].getClass());
+		}
+		MessageEncoders encoders = protocolSuite == null ? new MessageEncoders() : protocolSuite.getMessageEncoders();
+		MessageBatchSerializer serializer = new MessageBatchSerializer(encoders);
+		boolean[] dones = new boolean[numOfProtocols];
+		int[] communicatingRounds = new int[numOfProtocols];
+		int round = 0;
+		boolean done;
+		do {
+			int active = 0;
+			for (int i = 0; i < numOfProtocols; i++) {
+				if (!dones[i]) {
+					active++;
+				}
+			}
+			done = BatchedStrategy.evaluateRound(protocols, numOfProtocols, sceNetworks, dones, round, resourcePool);
+
+			int communicating = 0;
+			for (int i = 0; i < numOfProtocols; i++) {
+				if (!sceNetworks[i].getOutputFromThisRound().isEmpty()
+						|| !sceNetworks[i].getExpectedInputForNextRound().isEmpty()) {
+					communicating++;
+					communicatingRounds[i]++;
+				}
+			}
+			// Measure the batches exactly as the BatchedStrategy builds them.
+			int messages = 0;
+			long bytes = 0;
+			for (int receiverId = 1; receiverId <= noOfParties; receiverId++) {
+				if (receiverId == myId) {
+					continue;
+				}
+				serializer.reset();
+				for (int i = 0; i < numOfProtocols; i++) {
+					Queue<Serializable> output = sceNetworks[i].getOutputFromThisRound().get(receiverId);
+					if (output != null) {
+						serializer.append(output);
+					}
+				}
+				if (!serializer.isEmpty()) {
+					int size = serializer.toByteArray().length;
+					profile.addBytes(receiverId, size);
+					messages++;
+					bytes += size;
+				}
+			}
+			profile.addRound(new ProtocolProfile.Round(batch, round, active, communicating, messages, bytes));
+
+			BatchedStrategy.communicate(numOfProtocols, sceNetworks, DEFAULT_CHANNEL, resourcePool, encoders);
+			round++;
+		} while (!done);
+
+		int depth = 0;
+		for (int i = 0; i < numOfProtocols; i++) {
+			depth = Math.max(depth, communicatingRounds[i]);
+		}
+		profile.addBatch(numOfProtocols, depth);
+	}
+}
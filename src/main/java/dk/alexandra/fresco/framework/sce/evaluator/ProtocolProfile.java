@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The communication pattern of an evaluation as seen by one party, recorded
+ * by the {@link ProfilingEvaluator}.
+ *
+ * The profile holds one entry per evaluated round, the number of evaluated
+ * native protocols per class and the number of bytes sent to each of the
+ * other parties. Byte counts are the sizes of the batches built by the
+ * {@link BatchedStrategy}, i.e. without any framing added by the network.
+ *
+ * The critical path depth is the number of communication rounds needed if
+ * all protocols of a batch were scheduled independently: For each batch we
+ * take the largest number of rounds in which a single protocol communicates
+ * and sum over the batches. As batches may be cut off by the maximum batch
+ * size, this is only exact if no batch was full; see
+ * {@link #getFullBatches()}.
+ *
+ */
+public class ProtocolProfile {
+
+	/**
+	 * Statistics of a single round.
+	 */
+	public static class Round {
+
+		private final int batch;
+		private final int round;
+		private final int protocols;
+		private final int communicatingProtocols;
+		private final int messages;
+		private final long bytes;
+
+		Round(int batch, int round, int protocols, int communicatingProtocols, int messages, long bytes) {
+			this.batch = batch;
+			this.round = round;
+			this.protocols = protocols;
+			this.communicatingProtocols = communicatingProtocols;
+			this.messages = messages;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * @return the index of the batch this round belongs to.
+		 */
+		public int getBatch() {
+			return batch;
+		}
+
+		/**
+		 * @return the index of this round within its batch.
+		 */
+		public int getRound() {
+			return round;
+		}
+
+		/**
+		 * @return the number of protocols evaluated in this round.
+		 */
+		public int getProtocols() {
+			return protocols;
+		}
+
+		/**
+		 * @return the number of protocols that sent or expected messages in
+		 *         this round.
+		 */
+		public int getCommunicatingProtocols() {
+			return communicatingProtocols;
+		}
+
+		/**
+		 * @return the number of batched messages sent in this round.
+		 */
+		public int getMessages() {
+			return messages;
+		}
+
+		/**
+		 * @return the number of bytes sent in this round.
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return true if any message was sent or expected in this round.
+		 */
+		public boolean isCommunicating() {
+			return communicatingProtocols > 0;
+		}
+	}
+
+	private final int myId;
+	private final int noOfParties;
+	private final int maxBatchSize;
+
+	private final List<Round> rounds = new ArrayList<Round>();
+	private final Map<String, Long> protocolsPerClass = new TreeMap<String, Long>();
+	private final long[] bytesPerParty;
+	private int batches;
+	private int fullBatches;
+	private int criticalPathDepth;
+
+	ProtocolProfile(int myId, int noOfParties, int maxBatchSize) {
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.maxBatchSize = maxBatchSize;
+		this.bytesPerParty = new long[noOfParties];
+	}
+
+	void addBatch(int numOfProtocols, int depth) {
+		batches++;
+		// Some producers never fill the last slot of the array.
+		if (numOfProtocols >= maxBatchSize - 1) {
+			fullBatches++;
+		}
+		criticalPathDepth += depth;
+	}
+
+	void addRound(Round round) {
+		rounds.add(round);
+	}
+
+	void addProtocol(Class<?> protocolClass) {
+		String name = protocolClass.getName();
+		Long count = protocolsPerClass.get(name);
+		protocolsPerClass.put(name, count == null ? 1 : count + 1);
+	}
+
+	void addBytes(int partyId, long bytes) {
+		bytesPerParty[partyId - 1] += bytes;
+	}
+
+	public int getMyId() {
+		return myId;
+	}
+
+	public int getNoOfParties() {
+		return noOfParties;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public int getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return the number of batches that (nearly) had the maximum batch size
+	 *         and thus may have been cut off by it.
+	 */
+	public int getFullBatches() {
+		return fullBatches;
+	}
+
+	public List<Round> getRounds() {
+		return Collections.unmodifiableList(rounds);
+	}
+
+	/**
+	 * @return the number of rounds in which any message was sent or
+	 *         expected. This is the number of round trips the batched
+	 *         evaluators make with the same maximum batch size.
+	 */
+	public int getCommunicationRounds() {
+		int count = 0;
+		for (Round r : rounds) {
+			if (r.isCommunicating()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public int getCriticalPathDepth() {
+		return criticalPathDepth;
+	}
+
+	/**
+	 * @return the number of evaluated native protocols per class name.
+	 */
+	public Map<String, Long> getProtocolsPerClass() {
+		return Collections.unmodifiableMap(protocolsPerClass);
+	}
+
+	public long getTotalProtocols() {
+		long total = 0;
+		for (long count : protocolsPerClass.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @param partyId
+	 *            the id of the receiving party.
+	 * @return the number of bytes sent to the party.
+	 */
+	public long getBytesSentTo(int partyId) {
+		return bytesPerParty[partyId - 1];
+	}
+
+	public long getTotalBytesSent() {
+		long total = 0;
+		for (long bytes : bytesPerParty) {
+			total += bytes;
+		}
+		return total;
+	}
+
+	/**
+	 * @return the rounds as CSV with a header line.
+	 */
+	public String toCsv() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("batch,round,protocols,communicating,messages,bytes\n");
+		for (Round r : rounds) {
+			sb.append(r.batch).append(',').append(r.round).append(',').append(r.protocols).append(',')
+					.append(r.communicatingProtocols).append(',').append(r.messages).append(',').append(r.bytes)
+					.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the full profile as a JSON object.
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("  \"myId\": ").append(myId).append(",\n");
+		sb.append("  \"noOfParties\": ").append(noOfParties).append(",\n");
+		sb.append("  \"maxBatchSize\": ").append(maxBatchSize).append(",\n");
+		sb.append("  \"batches\": ").append(batches).append(",\n");
+		sb.append("  \"fullBatches\": ").append(fullBatches).append(",\n");
+		sb.append("  \"rounds\": ").append(rounds.size()).append(",\n");
+		sb.append("  \"communicationRounds\": ").append(getCommunicationRounds()).append(",\n");
+		sb.append("  \"criticalPathDepth\": ").append(criticalPathDepth).append(",\n");
+		sb.append("  \"totalProtocols\": ").append(getTotalProtocols()).append(",\n");
+		sb.append("  \"totalBytesSent\": ").append(getTotalBytesSent()).append(",\n");
+		sb.append("  \"bytesSentTo\": {");
+		String sep = "";
+		for (int i = 1; i <= noOfParties; i++) {
+			if (i == myId) {
+				continue;
+			}
+			sb.append(sep).append("\"").append(i).append("\": ").append(getBytesSentTo(i));
+			sep = ", ";
+		}
+		sb.append("},\n");
+		sb.append("  \"protocolsPerClass\": {");
+		sep = "\n";
+		for (Map.Entry<String, Long> e : protocolsPerClass.entrySet()) {
+			sb.append(sep).append("    \"").append(e.getKey()).append("\": ").append(e.getValue());
+			sep = ",\n";
+		}
+		sb.append(protocolsPerClass.isEmpty() ? "},\n" : "\n  },\n");
+		sb.append("  \"perRound\": [");
+		sep = "\n";
+		for (Round r : rounds) {
+			sb.append(sep).append("    {\"batch\": ").append(r.batch).append(", \"round\": ").append(r.round)
+					.append(", \"protocols\": ").append(r.protocols).append(", \"communicating\": ")
+					.append(r.communicatingProtocols).append(", \"messages\": ").append(r.messages)
+					.append(", \"bytes\": ").append(r.bytes).append("}");
+			sep = ",\n";
+		}
+		sb.append(rounds.isEmpty() ? "]\n" : "\n  ]\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "ProtocolProfile [myId=" + myId + ", batches=" + batches + ", rounds=" + rounds.size()
+				+ ", communicationRounds=" + getCommunicationRounds() + ", criticalPathDepth="
+				+ criticalPathDepth + ", protocols=" + getTotalProtocols() + ", bytesSent="
+				+ getTotalBytesSent() + "]";
+	}
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.framework.sce.resources.threads.ThreadPoolImpl;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+
+/**
+ * Profiles the rounds and bandwidth of a protocol tree without a real network
+ * or a running SCE.
+ *
+ * All parties are simulated in this JVM, one thread per party, connected by an
+ * {@link InMemoryNetwork}. Each party drains its own protocol producer using a
+ * {@link ProfilingEvaluator}, so the profile reflects exactly what the batched
+ * evaluators would send with the same maximum batch size.
+ *
+ * Protocols which need their protocol suite during evaluation, such as the
+ * native protocols of SPDZ, BGW and TinyTables, are profiled by giving a
+ * {@link SuiteSetup} which initializes the suite of each party. The suite is
+ * synchronized after each batch and notified when the evaluation is done,
+ * exactly as in a real evaluation, so e.g. the MAC checks of SPDZ are part of
+ * the profile. Using dummy data for SPDZ makes it possible to profile circuits
+ * without any preprocessed data. Without a suite setup only protocols which do
+ * not need a suite, such as the protocols of the DummyProtocolSuite, can be
+ * profiled.
+ *
+ * Usage:
+ *
+ * <pre>
+ * ProtocolProfiler profiler = new ProtocolProfiler(2);
+ * ProtocolProfile[] profiles = profiler.profile(new ProtocolProfiler.PartySetup() {
+ * 	public ProtocolProducer prepare(ResourcePool rp) {
+ * 		return new MyApplication(rp.getMyId()).prepareApplication(new DummyFactory());
+ * 	}
+ * });
+ * System.out.println(profiles[0].toJson());
+ * </pre>
+ */
+public class ProtocolProfiler {
+
+	/**
+	 * Builds the protocol tree of a single simulated party.
+	 */
+	public interface PartySetup {
+
+		/**
+		 * Called once for each party, possibly concurrently.
+		 *
+		 * @param resourcePool
+		 *            the resource pool of the party.
+		 * @return the protocols evaluated by the party.
+		 */
+		ProtocolProducer prepare(ResourcePool resourcePool);
+	}
+
+	/**
+	 * Gives the protocol suite of each simulated party.
+	 */
+	public interface SuiteSetup {
+
+		/**
+		 * @param myId
+		 *            the id of the party.
+		 * @return the protocol suite of the party, e.g.
+		 *         <code>SpdzProtocolSuite.getInstance(myId)</code>. It is
+		 *         initialized by the profiler before the protocols of the party
+		 *         are prepared.
+		 */
+		ProtocolSuite getProtocolSuite(int myId);
+
+		/**
+		 * @param myId
+		 *            the id of the party.
+		 * @return the configuration the suite of the party is initialized with.
+		 */
+		ProtocolSuiteConfiguration getConfiguration(int myId);
+	}
+
+	private final int noOfParties;
+	private int maxBatchSize;
+
+	public ProtocolProfiler(int noOfParties) {
+		if (noOfParties < 1) {
+			throw new IllegalArgumentException("There must be at least one party, was " + noOfParties);
+		}
+		this.noOfParties = noOfParties;
+		this.maxBatchSize = 4096;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * Sets the maximum amount of gates evaluated in each batch. This should be
+	 * the same as for the evaluation being profiled.
+	 *
+	 * @param maxBatchSize
+	 *            the maximum batch size.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Evaluates the protocols of all parties without a protocol suite and
+	 * returns their profiles.
+	 *
+	 * @param setup
+	 *            builds the protocols of each party.
+	 * @return the profiles of the parties, the profile of party i is found at
+	 *         index i - 1.
+	 */
+	public ProtocolProfile[] profile(PartySetup setup) {
+		return profile(setup, null);
+	}
+
+	/**
+	 * Evaluates the protocols of all parties using the given protocol suites
+	 * and returns their profiles.
+	 *
+	 * @param setup
+	 *            builds the protocols of each party.
+	 * @param suites
+	 *            gives the protocol suite of each party, or null if the
+	 *            protocols do not need a suite.
+	 * @return the profiles of the parties, the profile of party i is found at
+	 *         index i - 1.
+	 */
+	public ProtocolProfile[] profile(final PartySetup setup, final SuiteSetup suites) {
+		final InMemoryNetwork[] networks = InMemoryNetwork.create(noOfParties);
+		final ProfilingEvaluator[] evaluators = new ProfilingEvaluator[noOfParties];
+		ExecutorService executor = Executors.newFixedThreadPool(noOfParties);
+		CompletionService<Object> completion = new ExecutorCompletionService<Object>(executor);
+		try {
+			for (int i = 0; i < noOfParties; i++) {
+				final int myId = i + 1;
+				final ProfilingEvaluator evaluator = new ProfilingEvaluator();
+				evaluator.setMaxBatchSize(maxBatchSize);
+				evaluators[i] = evaluator;
+				completion.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws IOException {
+						// The suites size their per thread state by the
+						// number of VM threads, and each party uses one.
+						ThreadPoolImpl threadPool = new ThreadPoolImpl(1, 1);
+						try {
+							ResourcePoolImpl rp = new ResourcePoolImpl(myId, noOfParties, networks[myId - 1], null,
+									null, new Random(myId), new SecureRandom(), threadPool, threadPool);
+							evaluator.setResourcePool(rp);
+							if (suites != null) {
+								ProtocolSuite suite = suites.getProtocolSuite(myId);
+								suite.init(rp, suites.getConfiguration(myId));
+								evaluator.setProtocolInvocation(suite);
+							}
+							evaluator.eval(setup.prepare(rp));
+							return null;
+						} finally {
+							threadPool.shutdown();
+						}
+					}
+				});
+			}
+			// Wait for the parties in order of completion such that a failing
+			// party is noticed even if the others are blocked waiting for it.
+			for (int i = 0; i < noOfParties; i++) {
+				completion.take().get();
+			}
+		} catch (InterruptedException e) {
+			Reporter.severe("Profiling was interrupted.", e);
+			throw new MPCException("Profiling was interrupted.", e);
+		} catch (ExecutionException e) {
+			Reporter.severe("Exception during profiling.", e);
+			throw new MPCException("Exception during profiling.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		ProtocolProfile[] profiles = new ProtocolProfile[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			profiles[i] = evaluators[i].getProfile();
+		}
+		return profiles;
+	}
+}
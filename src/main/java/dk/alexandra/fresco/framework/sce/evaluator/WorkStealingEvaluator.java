@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dk.alexandra.fresco.framework.InteractionAware;
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.network.SCENetworkImpl;
+import dk.alexandra.fresco.framework.sce.resources.SCEResourcePool;
+import dk.alexandra.fresco.framework.sce.resources.threads.VMThreadPool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+
+/**
+ * Batched parallel evaluator which balances the work of a batch between the
+ * VM threads by estimated cost instead of by position in the batch.
+ *
+ * The protocols of a batch are split into interactive and local protocols
+ * using {@link InteractionAware}; protocols which do not implement it are
+ * considered interactive. The interactive protocols are the expensive ones and
+ * they must be evaluated on the same network channel by all parties, so they
+ * are split into contiguous slices whose sizes differ by at most one, one
+ * slice per thread. Each thread evaluates its slice as in the
+ * {@link BatchedParallelEvaluator}, using its own thread id as channel. Since
+ * all parties see the same batch, they compute the same slices, and each
+ * interactive protocol stays on one channel for its lifetime.
+ *
+ * The local protocols need no channel, so they are put in a shared pool from
+ * which threads steal small chunks once they are done with their own slice,
+ * and threads without any interactive protocols start stealing right away.
+ * This way a thread which finishes its communication early keeps busy
+ * instead of waiting for the slowest thread.
+ */
+public class WorkStealingEvaluator implements ProtocolEvaluator {
+
+	/**
+	 * Batches smaller than this are not worth splitting between threads.
+	 */
+	private static final int MIN_PROTOCOLS_PER_TASK = 8;
+
+	/**
+	 * The number of local protocols taken from the shared pool at a time.
+	 */
+	private static final int STEAL_CHUNK_SIZE = 16;
+
+	private int maxBatchSize, threads;
+	private SCEResourcePool rp;
+	private ProtocolSuite pii;
+
+	public WorkStealingEvaluator() {
+		this.maxBatchSize = 4096; // default value
+	}
+
+	@Override
+	public void eval(ProtocolProducer c) {
+		do {
+			NativeProtocol[] nextProtocols = new NativeProtocol[maxBatchSize];
+			int numOfProtocolsInBatch = c.getNextProtocols(nextProtocols, 0);
+			processBatch(nextProtocols, numOfProtocolsInBatch);
+		} while (c.hasNextProtocols());
+		this.pii.finishedEval();
+	}
+
+	@Override
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	public void setProtocolInvocation(ProtocolSuite pii) {
+		this.pii = pii;
+	}
+
+	@Override
+	public void setResourcePool(SCEResourcePool resourcePool) {
+		this.rp = resourcePool;
+		this.threads = resourcePool.getVMThreadPool().getVMThreadCount();
+	}
+
+	/**
+	 * @return true if the protocol may communicate.
+	 */
+	static boolean isInteractive(NativeProtocol protocol) {
+		return !(protocol instanceof InteractionAware) || ((InteractionAware) protocol).isInteractive();
+	}
+
+	public void processBatch(NativeProtocol[] protocols, int numOfProtocols) {
+		NativeProtocol[] interactive = new NativeProtocol[numOfProtocols];
+		NativeProtocol[] local = new NativeProtocol[numOfProtocols];
+		int numOfInteractive = 0;
+		int numOfLocal = 0;
+		for (int i = 0; i < numOfProtocols; i++) {
+			if (isInteractive(protocols[i])) {
+				interactive[numOfInteractive++] = protocols[i];
+			} else {
+				local[numOfLocal++] = protocols[i];
+			}
+		}
+
+		int tasks = Math.max(1, Math.min(threads, numOfProtocols / MIN_PROTOCOLS_PER_TASK));
+		// Slices only depend on the number of interactive protocols, so they
+		// are the same at all parties.
+		int slices = Math.max(1, Math.min(tasks, numOfInteractive));
+		LocalPool pool = new LocalPool(local, numOfLocal);
+		List<WorkStealingTask> taskList = new ArrayList<WorkStealingTask>(tasks);
+		int offset = 0;
+		for (int i = 0; i < tasks; i++) {
+			int sliceSize = 0;
+			if (i < slices) {
+				sliceSize = numOfInteractive / slices + (i < numOfInteractive % slices ? 1 : 0);
+			}
+			taskList.add(new WorkStealingTask(interactive, offset, sliceSize, i, pool));
+			offset += sliceSize;
+		}
+
+		VMThreadPool es = rp.getVMThreadPool();
+		try {
+			List<Future<Object>> futures = es.submitVMTasks(taskList);
+			for (Future<Object> f : futures) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Reporter.severe("Evaluation was interrupted.", e);
+		} catch (ExecutionException e) {
+			Reporter.severe("Exception during evaluation.", e);
+			throw new MPCException("Exception during evaluation.", e);
+		}
+		pii.synchronize(numOfProtocols);
+	}
+
+	/**
+	 * The local protocols of a batch, handed out in chunks to whichever
+	 * thread asks first.
+	 */
+	private static class LocalPool {
+
+		private final NativeProtocol[] protocols;
+		private final int numOfProtocols;
+		private final AtomicInteger next = new AtomicInteger();
+
+		LocalPool(NativeProtocol[] protocols, int numOfProtocols) {
+			this.protocols = protocols;
+			this.numOfProtocols = numOfProtocols;
+		}
+
+		/**
+		 * Evaluates chunks of local protocols until the pool is empty.
+		 */
+		void drain(SCENetworkImpl network, SCEResourcePool rp) {
+			int start;
+			while ((start = next.getAndAdd(STEAL_CHUNK_SIZE)) < numOfProtocols) {
+				int end = Math.min(start + STEAL_CHUNK_SIZE, numOfProtocols);
+				for (int i = start; i < end; i++) {
+					evaluateLocal(protocols[i], network, rp);
+				}
+			}
+		}
+
+		private void evaluateLocal(NativeProtocol protocol, SCENetworkImpl network, SCEResourcePool rp) {
+			int round = 0;
+			EvaluationStatus status;
+			do {
+				status = protocol.evaluate(round, rp, network);
+				if (!network.getOutputFromThisRound().isEmpty()
+						|| !network.getExpectedInputForNextRound().isEmpty()) {
+					throw new MPCException("The protocol " + protocol.getClass().getName()
+							+ " claims to be local but communicates");
+				}
+				network.nextRound();
+				round++;
+			} while (status.equals(EvaluationStatus.HAS_MORE_ROUNDS));
+		}
+	}
+
+	private class WorkStealingTask implements Callable<Object> {
+
+		private NativeProtocol[] protocols;
+		private int numOfProtocols;
+		private int threadId;
+		private LocalPool pool;
+
+		public WorkStealingTask(NativeProtocol[] interactive, int offset, int numOfProtocols, int threadId,
+				LocalPool pool) {
+			this.protocols = new NativeProtocol[numOfProtocols];
+			System.arraycopy(interactive, offset, this.protocols, 0, numOfProtocols);
+			this.numOfProtocols = numOfProtocols;
+			this.threadId = threadId;
+			this.pool = pool;
+		}
+
+		@Override
+		public Object call() throws Exception {
+			if (numOfProtocols > 0) {
+				SCENetworkImpl[] sceNetworks = new SCENetworkImpl[numOfProtocols];
+				for (int i = 0; i < numOfProtocols; i++) {
+					sceNetworks[i] = new SCENetworkImpl(rp.getNoOfParties(), threadId);
+				}
+				BatchedStrategy.processBatch(protocols, numOfProtocols, sceNetworks, "" + threadId, rp,
+						pii.getMessageEncoders());
+			}
+			pool.drain(new SCENetworkImpl(rp.getNoOfParties(), threadId), rp);
+			return null;
+		}
+	}
+}
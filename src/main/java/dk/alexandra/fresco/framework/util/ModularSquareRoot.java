@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import java.math.BigInteger;
+
+public class ModularSquareRoot {
+
+	// This is supposed to be a "static class", ie no instantiation
+	private ModularSquareRoot() {}
+
+	/**
+	 * Computes a square root of a quadratic residue modulo an odd prime using
+	 * the algorithm of Tonelli and Shanks. All parties get the same root.
+	 */
+	public static BigInteger sqrt(BigInteger a, BigInteger p) {
+		BigInteger one = BigInteger.ONE;
+		BigInteger pMinusOne = p.subtract(one);
+		if (p.testBit(1)) {
+			// p = 3 mod 4
+			return a.modPow(p.add(one).shiftRight(2), p);
+		}
+		int s = pMinusOne.getLowestSetBit();
+		BigInteger q = pMinusOne.shiftRight(s);
+		BigInteger z = BigInteger.valueOf(2);
+		while (z.modPow(pMinusOne.shiftRight(1), p).equals(one)) {
+			z = z.add(one);
+		}
+		BigInteger c = z.modPow(q, p);
+		BigInteger x = a.modPow(q.add(one).shiftRight(1), p);
+		BigInteger t = a.modPow(q, p);
+		int m = s;
+		while (!t.equals(one)) {
+			int i = 0;
+			BigInteger t2i = t;
+			while (!t2i.equals(one)) {
+				t2i = t2i.multiply(t2i).mod(p);
+				i++;
+			}
+			BigInteger b = c.modPow(one.shiftLeft(m - i - 1), p);
+			x = x.multiply(b).mod(p);
+			c = b.multiply(b).mod(p);
+			t = t.multiply(c).mod(p);
+			m = i;
+		}
+		return x;
+	}
+
+}
@@ -53,21 +53,41 @@ public class ComparisonProtocolFactoryImpl implements ComparisonProtocolFactory
 	private final ZeroTestProtocolFactory zeroTestProtocolFactory;
 	private final MiscOIntGenerators misc;
 
+	/**
+	 * The random additive masks are made by the factory given by
+	 * {@link RandomAdditiveMaskPool#createDefault(BasicNumericFactory, PreprocessedNumericBitFactory)}.
+	 */
 	public ComparisonProtocolFactoryImpl(int statisticalSecurityParameter,
 			BasicNumericFactory bnf, LocalInversionFactory localInvFactory,
 			PreprocessedNumericBitFactory numericBitFactory,
 			ExpFromOIntFactory expFromOIntFactory,
 			PreprocessedExpPipeFactory expFactory) {
+		this(statisticalSecurityParameter, bnf, localInvFactory, numericBitFactory,
+				expFromOIntFactory, expFactory, RandomAdditiveMaskPool.createDefault(bnf,
+						numericBitFactory));
+	}
+
+	/**
+	 * As the other constructor, but the random additive masks of the
+	 * comparisons are taken from the given factory, e.g. a
+	 * {@link RandomAdditiveMaskPool} shared with other factories.
+	 */
+	public ComparisonProtocolFactoryImpl(int statisticalSecurityParameter,
+			BasicNumericFactory bnf, LocalInversionFactory localInvFactory,
+			PreprocessedNumericBitFactory numericBitFactory,
+			ExpFromOIntFactory expFromOIntFactory,
+			PreprocessedExpPipeFactory expFactory,
+			RandomAdditiveMaskFactory randomAdditiveMaskFactory) {
 		this.secParam = statisticalSecurityParameter;
 		this.bnf = bnf;
 		this.localInvFactory = localInvFactory;
 		this.numericNegateBitFactory = new NumericNegateBitFactoryImpl(bnf);
 		this.innerProductFactory = new InnerProductFactoryImpl(bnf);
-		this.randomAdditiveMaskFactory = new RandomAdditiveMaskFactoryImpl(bnf,
-				numericBitFactory);
+		this.randomAdditiveMaskFactory = randomAdditiveMaskFactory;
 		this.misc = new MiscOIntGenerators(bnf);
 		this.zeroTestProtocolFactory = new ZeroTestProtocolFactoryImpl(bnf,
-				expFromOIntFactory, numericBitFactory, numericNegateBitFactory, expFactory);
+				expFromOIntFactory, numericBitFactory, numericNegateBitFactory, expFactory,
+				randomAdditiveMaskFactory);
 	}
 
 	@Override
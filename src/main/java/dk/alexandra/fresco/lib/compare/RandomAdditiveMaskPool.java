@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.lib.compare;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.lib.math.integer.PreprocessedNumericBitFactory;
+import dk.alexandra.fresco.lib.math.integer.linalg.InnerProductFactory;
+import dk.alexandra.fresco.lib.math.integer.linalg.InnerProductFactoryImpl;
+
+/**
+ * Random additive mask factory which makes the masks in batches and keeps the
+ * masks not used yet for later requests.
+ *
+ * The bits of all masks of a batch are made by a single call to
+ * {@link PreprocessedNumericBitFactory#createRandomSecretSharedBitProtocol(SInt[])},
+ * and each mask is then summed up locally from its bits as in
+ * {@link RandomAdditiveMaskProtocolImpl}. A request for a mask of a given bit
+ * length and security parameter is served from the pool if possible. Otherwise
+ * the protocol of the request makes a new batch, and requests evaluated in
+ * parallel with it take the other masks of the batch and wait until it is
+ * done. Masks can also be made ahead of time using {@link #prepare(int, int,
+ * int)}, e.g. before sorting a list.
+ *
+ * Masks are taken from the pool in the order the protocols are evaluated, so
+ * all parties take the same masks as long as they evaluate the same
+ * protocols. The pool must only be used by protocols evaluated by the same
+ * evaluator. Masks left in the pool when the application is done are wasted,
+ * so the batch size should match the number of comparisons done in parallel.
+ * The pool is therefore only used by default, see {@link #createDefault(
+ * BasicNumericFactory, PreprocessedNumericBitFactory)}, when the random bits
+ * are not taken from a fixed amount of preprocessed data.
+ */
+public class RandomAdditiveMaskPool implements RandomAdditiveMaskFactory {
+
+	/**
+	 * The batch size of the pools made by {@link #createDefault(
+	 * BasicNumericFactory, PreprocessedNumericBitFactory)}.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 32;
+
+	private final BasicNumericFactory bnf;
+	private final PreprocessedNumericBitFactory bitFactory;
+	private final InnerProductFactory innerProductFactory;
+	private final MiscOIntGenerators misc;
+	private final int batchSize;
+
+	private final Map<Long, ArrayDeque<Mask>> pool = new HashMap<Long, ArrayDeque<Mask>>();
+
+	/**
+	 * @param bnf
+	 *            the factory of the protocol suite.
+	 * @param bitFactory
+	 *            the factory making the random bits.
+	 * @param batchSize
+	 *            the number of masks made when a request finds no mask in the
+	 *            pool.
+	 */
+	public RandomAdditiveMaskPool(BasicNumericFactory bnf, PreprocessedNumericBitFactory bitFactory,
+			int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1, was " + batchSize);
+		}
+		this.bnf = bnf;
+		this.bitFactory = bitFactory;
+		this.innerProductFactory = new InnerProductFactoryImpl(bnf);
+		this.misc = new MiscOIntGenerators(bnf);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Returns the random additive mask factory used when none is given to the
+	 * comparison, zero-test and LP factories. If the bit factory has an
+	 * unlimited supply of random bits, e.g. dummy or dealer supplied data for
+	 * SPDZ, the masks are made in batches by a new pool. Otherwise each request
+	 * makes its own mask using a {@link RandomAdditiveMaskFactoryImpl}, so
+	 * preprocessed data sized for exactly the masks used still suffices. Give
+	 * a {@link RandomAdditiveMaskFactoryImpl} explicitly to always make one
+	 * mask per request.
+	 *
+	 * @param bnf
+	 *            the factory of the protocol suite.
+	 * @param bitFactory
+	 *            the factory making the random bits.
+	 */
+	public static RandomAdditiveMaskFactory createDefault(BasicNumericFactory bnf,
+			PreprocessedNumericBitFactory bitFactory) {
+		if (bitFactory.hasUnlimitedRandomBits()) {
+			return new RandomAdditiveMaskPool(bnf, bitFactory, DEFAULT_BATCH_SIZE);
+		}
+		return new RandomAdditiveMaskFactoryImpl(bnf, bitFactory);
+	}
+
+	@Override
+	public RandomAdditiveMaskProtocol getRandomAdditiveMaskProtocol(int securityParameter, SInt[] bits, SInt r) {
+		return new PooledMaskProtocol(securityParameter, bits, r);
+	}
+
+	/**
+	 * Returns a protocol which adds the given number of masks to the pool as a
+	 * single batch. The masks are added when the protocol is evaluated, so
+	 * requests evaluated after it are served from the batch.
+	 *
+	 * @param securityParameter
+	 *            the security parameter of the masks.
+	 * @param bitLength
+	 *            the number of bits of the masks, i.e. the length of the
+	 *            <code>bits</code> of the requests.
+	 * @param count
+	 *            the number of masks.
+	 */
+	public ProtocolProducer prepare(final int securityParameter, final int bitLength, final int count) {
+		return new ProtocolProducer() {
+
+			private Batch batch;
+
+			@Override
+			public int getNextProtocols(NativeProtocol[] nativeProtocols, int pos) {
+				if (batch == null) {
+					batch = newBatch(securityParameter, bitLength, count);
+				}
+				return batch.evaluate(nativeProtocols, pos);
+			}
+
+			@Override
+			public boolean hasNextProtocols() {
+				return batch == null || !batch.done;
+			}
+		};
+	}
+
+	/**
+	 * @return the number of masks with the given parameters in the pool,
+	 *         including masks of batches not evaluated yet.
+	 */
+	public int available(int securityParameter, int bitLength) {
+		ArrayDeque<Mask> masks = pool.get(key(securityParameter, bitLength));
+		return masks == null ? 0 : masks.size();
+	}
+
+	private Mask take(int securityParameter, int bitLength) {
+		ArrayDeque<Mask> masks = pool.get(key(securityParameter, bitLength));
+		return masks == null ? null : masks.poll();
+	}
+
+	private Batch newBatch(int securityParameter, int bitLength, int count) {
+		int length = bitLength + securityParameter;
+		SInt[] allBits = new SInt[count * length];
+		for (int i = 0; i < allBits.length; i++) {
+			allBits[i] = bnf.getSInt();
+		}
+		OInt[] twoPows = misc.getTwoPowers(length);
+		Batch batch = new Batch();
+		ParallelProtocolProducer sums = new ParallelProtocolProducer();
+		ArrayDeque<Mask> masks = pool.get(key(securityParameter, bitLength));
+		if (masks == null) {
+			masks = new ArrayDeque<Mask>();
+			pool.put(key(securityParameter, bitLength), masks);
+		}
+		for (int m = 0; m < count; m++) {
+			Mask mask = new Mask();
+			mask.batch = batch;
+			mask.bits = new SInt[length];
+			System.arraycopy(allBits, m * length, mask.bits, 0, length);
+			mask.r = bnf.getSInt();
+			sums.append(innerProductFactory.getInnerProductProtocol(mask.bits, twoPows, mask.r));
+			masks.offer(mask);
+		}
+		batch.producer = new SequentialProtocolProducer(bitFactory.createRandomSecretSharedBitProtocol(allBits),
+				sums);
+		return batch;
+	}
+
+	private static Long key(int securityParameter, int bitLength) {
+		return ((long) bitLength << 32) | securityParameter;
+	}
+
+	private static class Mask {
+		private Batch batch;
+		private SInt[] bits;
+		private SInt r;
+	}
+
+	/**
+	 * The protocols making a batch of masks. A batch is evaluated by the
+	 * protocol which made it, and it is done once all its native protocols
+	 * have been evaluated.
+	 */
+	private static class Batch {
+		private ProtocolProducer producer;
+		private boolean done = false;
+
+		int evaluate(NativeProtocol[] nativeProtocols, int pos) {
+			// Protocols handed out in the previous round have been evaluated
+			// when we are asked again, so the batch is done once the
+			// producer has nothing more to hand out.
+			if (!done) {
+				if (producer.hasNextProtocols()) {
+					return producer.getNextProtocols(nativeProtocols, pos);
+				}
+				done = true;
+				producer = null;
+			}
+			return pos;
+		}
+	}
+
+	private class PooledMaskProtocol implements RandomAdditiveMaskProtocol {
+
+		private final int securityParameter;
+		private final SInt[] bits;
+		private final SInt r;
+
+		private Mask mask;
+		private Batch ownBatch;
+		private boolean done = false;
+
+		PooledMaskProtocol(int securityParameter, SInt[] bits, SInt r) {
+			this.securityParameter = securityParameter;
+			this.bits = bits;
+			this.r = r;
+		}
+
+		@Override
+		public int getNextProtocols(NativeProtocol[] nativeProtocols, int pos) {
+			if (mask == null) {
+				mask = take(securityParameter, bits.length);
+				if (mask == null) {
+					ownBatch = newBatch(securityParameter, bits.length, batchSize);
+					mask = take(securityParameter, bits.length);
+				}
+			}
+			if (ownBatch != null && !ownBatch.done) {
+				pos = ownBatch.evaluate(nativeProtocols, pos);
+			}
+			if (mask.batch.done) {
+				for (int i = 0; i < bits.length; i++) {
+					bits[i].setSerializableContent(mask.bits[i].getSerializableContent());
+				}
+				r.setSerializableContent(mask.r.getSerializableContent());
+				done = true;
+			}
+			// Otherwise the mask is from a batch evaluated by another
+			// protocol, so we wait for it
+			return pos;
+		}
+
+		@Override
+		public boolean hasNextProtocols() {
+			return !done;
+		}
+
+		@Override
+		public Value[] getInputValues() {
+			return new Value[0];
+		}
+
+		@Override
+		public Value[] getOutputValues() {
+			Value[] res = new Value[bits.length + 1];
+			System.arraycopy(bits, 0, res, 0, bits.length);
+			res[bits.length] = r;
+			return res;
+		}
+	}
+}
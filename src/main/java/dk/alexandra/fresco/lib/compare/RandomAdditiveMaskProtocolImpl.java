@@ -31,7 +31,6 @@ import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 import dk.alexandra.fresco.lib.helper.AbstractSimpleProtocol;
-import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
 import dk.alexandra.fresco.lib.math.integer.PreprocessedNumericBitFactory;
 import dk.alexandra.fresco.lib.math.integer.linalg.InnerProductFactory;
@@ -94,17 +93,11 @@ public class RandomAdditiveMaskProtocolImpl extends AbstractSimpleProtocol imple
 		// loadRandBits
 		// bits[i] = i'th bit; 0 <= i < bitLength
 		SInt[] allbits = new SInt[bitLength + securityParameter];
-		ParallelProtocolProducer randomBits = new ParallelProtocolProducer();
-		int i;
-		for (i = 0; i < bitLength; i++) {
-			randomBits.append(bitProvider.createRandomSecretSharedBitProtocol(rBits[i]));
-			allbits[i] = rBits[i];
-		}
-		for (i = bitLength; i < bitLength + securityParameter; i++) {
+		System.arraycopy(rBits, 0, allbits, 0, bitLength);
+		for (int i = bitLength; i < bitLength + securityParameter; i++) {
 			allbits[i] = basicNumericFactory.getSInt();
-			randomBits.append(bitProvider.createRandomSecretSharedBitProtocol(allbits[i]));
-
 		}
+		ProtocolProducer randomBits = bitProvider.createRandomSecretSharedBitProtocol(allbits);
 
 		OInt[] twoPows = miscOIntGenerator.getTwoPowers(securityParameter + bitLength);
 		return new SequentialProtocolProducer(randomBits, innerProdProvider.getInnerProductProtocol(
@@ -159,7 +159,7 @@ ExpFromOIntFactory expFromOIntFactory) {
 	private SInt[] loadRandomMultiplicativeMask() {
 		// R[0] = r^{-1}
 		// R[i] = R^i
-		SInt[] R = expFactory.getExponentiationPipe();
+		SInt[] R = expFactory.getExponentiationPipe(bitLength);
 		return R;
 	}
 
@@ -109,7 +109,7 @@ public class ZeroTestBruteforceProtocolImpl implements ZeroTestBruteforceProtoco
 			switch (round){
 			case 0:
 				// load rand, addOne, mult and unmask
-				R = expFactory.getExponentiationPipe();
+				R = expFactory.getExponentiationPipe(maxInput + 1);
 
 				SInt increased = factory.getSInt();
 				SInt masked_S = factory.getSInt();
@@ -29,7 +29,7 @@ package dk.alexandra.fresco.lib.compare.zerotest;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.compare.MiscOIntGenerators;
 import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskFactory;
-import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskFactoryImpl;
+import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskPool;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 import dk.alexandra.fresco.lib.math.bool.add.IncrementByOneProtocolFactory;
 import dk.alexandra.fresco.lib.math.bool.add.IncrementByOneProtocolFactoryImpl;
@@ -53,19 +53,36 @@ public class ZeroTestProtocolFactoryImpl implements ZeroTestProtocolFactory {
 	private final RandomAdditiveMaskFactory maskFactory;
 	private final HammingDistanceFactory hammingFactory;
 
+	/**
+	 * The random additive masks are made by the factory given by
+	 * {@link RandomAdditiveMaskPool#createDefault(BasicNumericFactory, PreprocessedNumericBitFactory)}.
+	 */
 	public ZeroTestProtocolFactoryImpl(BasicNumericFactory bnf,
 			ExpFromOIntFactory expFromOIntFactory,
 			PreprocessedNumericBitFactory numericBitFactory,
 			NumericNegateBitFactory numericNegateBitFactory,
 			PreprocessedExpPipeFactory expFactory) {
+		this(bnf, expFromOIntFactory, numericBitFactory, numericNegateBitFactory, expFactory,
+				RandomAdditiveMaskPool.createDefault(bnf, numericBitFactory));
+	}
+
+	/**
+	 * As the other constructor, but the random additive masks are taken from
+	 * the given factory, e.g. a {@link RandomAdditiveMaskPool}.
+	 */
+	public ZeroTestProtocolFactoryImpl(BasicNumericFactory bnf,
+			ExpFromOIntFactory expFromOIntFactory,
+			PreprocessedNumericBitFactory numericBitFactory,
+			NumericNegateBitFactory numericNegateBitFactory,
+			PreprocessedExpPipeFactory expFactory,
+			RandomAdditiveMaskFactory maskFactory) {
 		this.bnf = bnf;
 		this.miscOIntGenerator = new MiscOIntGenerators(bnf);
 		this.ipf = new InnerProductFactoryImpl(bnf);
 		this.incFactory = new IncrementByOneProtocolFactoryImpl(bnf);
 		this.expFromOIntFactory = expFromOIntFactory;
 		this.expFactory = expFactory;
-		this.maskFactory = new RandomAdditiveMaskFactoryImpl(bnf,
-				numericBitFactory);
+		this.maskFactory = maskFactory;
 		this.hammingFactory = new HammingDistanceFactoryImpl(bnf,
 				numericNegateBitFactory);
 	}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.lib.field.integer;
+
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+
+/**
+ * Factory for native protocols that work on whole vectors of values at once.
+ *
+ * Each protocol does the same as one scalar protocol per entry, but is
+ * evaluated as a single native protocol, so a vector of length n costs one
+ * protocol object and one message per party instead of n. Protocol suites
+ * that support this implement the interface on their basic factory, and
+ * generic protocols may check for it to use the vectorized versions.
+ *
+ * All arrays given to the same protocol must have the same length.
+ */
+public interface VectorProtocolFactory extends ProtocolFactory {
+
+	/**
+	 * @param a input - secret shared elements
+	 * @param b input - secret shared elements
+	 * @param out output - [out_i]=[a_i]*[b_i]
+	 * @return
+	 */
+	public MultProtocol getVectorMultProtocol(SInt[] a, SInt[] b, SInt[] out);
+
+	/**
+	 * @param a input - secret shared elements
+	 * @param b input - secret shared elements
+	 * @param out output - [out_i]=[a_i]+[b_i]
+	 * @return
+	 */
+	public AddProtocol getVectorAddProtocol(SInt[] a, SInt[] b, SInt[] out);
+
+	/**
+	 * @param a input - secret shared elements
+	 * @param out output - [out]=sum([a_i])
+	 * @return
+	 */
+	public AddProtocol getSumProtocol(SInt[] a, SInt out);
+
+	/**
+	 * Gets a protocol where a single player inputs a vector of values. Suites
+	 * may defer checking that all players received the same values, e.g. to
+	 * the end of the evaluation, as long as it is checked before any opened
+	 * value can be trusted.
+	 *
+	 * @param source the id of the player that provides the input.
+	 * @param open the values, only used by the source.
+	 * @param closed the secret shared values.
+	 * @return
+	 */
+	public CloseIntProtocol getVectorCloseProtocol(int source, OInt[] open, SInt[] closed);
+
+	/**
+	 * Gets a protocol that opens a vector of values to all players.
+	 *
+	 * @param closed the secret shared values.
+	 * @param open the opened values.
+	 * @return
+	 */
+	public OpenIntProtocol getVectorOpenProtocol(SInt[] closed, OInt[] open);
+}
@@ -33,6 +33,7 @@ import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.OIntFactory;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.SIntFactory;
+import dk.alexandra.fresco.lib.field.integer.VectorProtocolFactory;
 import dk.alexandra.fresco.lib.field.integer.generic.IOIntProtocolFactory;
 import dk.alexandra.fresco.lib.helper.AbstractRepeatProtocol;
 
@@ -198,6 +199,58 @@ public class NumericIOBuilder extends AbstractProtocolBuilder {
 		return sis;
 	}
 
+	/**
+	 * Appends a protocol to input a array of BigIntegers in bulk. If the
+	 * factory is a {@link VectorProtocolFactory} all values are input by a
+	 * single protocol, otherwise this is the same as
+	 * {@link #inputArray(BigInteger[], int)}.
+	 * 
+	 * @param is
+	 *            the BigInteger values
+	 * @param targetID
+	 *            the party to input
+	 * @return SInt's that will be loaded with the corresponding inputs, by the
+	 *         appended protocol.
+	 */
+	public SInt[] bulkInputArray(BigInteger[] is, int targetID) {
+		if (!(iof instanceof VectorProtocolFactory)) {
+			return inputArray(is, targetID);
+		}
+		OInt[] ois = new OInt[is.length];
+		SInt[] sis = new SInt[is.length];
+		for (int i = 0; i < is.length; i++) {
+			ois[i] = oif.getOInt();
+			ois[i].setValue(is[i]);
+			sis[i] = sif.getSInt();
+		}
+		append(((VectorProtocolFactory) iof).getVectorCloseProtocol(targetID, ois, sis));
+		return sis;
+	}
+
+	/**
+	 * Appends a protocol to input an array of values by an other party in
+	 * bulk. See {@link #bulkInputArray(BigInteger[], int)}.
+	 * 
+	 * @param length
+	 *            the length of the array
+	 * @param targetID
+	 *            the id of the party to input
+	 * @return SInt's to be loaded with the input
+	 */
+	public SInt[] bulkInputArray(int length, int targetID) {
+		if (!(iof instanceof VectorProtocolFactory)) {
+			return inputArray(length, targetID);
+		}
+		OInt[] ois = new OInt[length];
+		SInt[] sis = new SInt[length];
+		for (int i = 0; i < length; i++) {
+			ois[i] = oif.getOInt();
+			sis[i] = sif.getSInt();
+		}
+		append(((VectorProtocolFactory) iof).getVectorCloseProtocol(targetID, ois, sis));
+		return sis;
+	}
+
 	/**
 	 * A class to efficiently handle large amounts of inputs.
 	 * 
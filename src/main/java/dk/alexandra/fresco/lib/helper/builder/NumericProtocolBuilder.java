@@ -32,6 +32,7 @@ import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.field.integer.SquareProtocolFactory;
 import dk.alexandra.fresco.lib.helper.AbstractRepeatProtocol;
 import dk.alexandra.fresco.lib.helper.CopyProtocolImpl;
 import dk.alexandra.fresco.lib.helper.builder.tree.TreeProtocol;
@@ -364,6 +365,23 @@ public class NumericProtocolBuilder extends AbstractProtocolBuilder {
 		return out;
 	}
 
+	/**
+	 * Squares an SInt. If the factory is a {@link SquareProtocolFactory} its
+	 * squaring protocol is used, otherwise the SInt is multiplied by itself.
+	 * 
+	 * @param value
+	 *            the input
+	 * @return an SInt representing the square of the input
+	 */
+	public SInt square(SInt value) {
+		if (bnf instanceof SquareProtocolFactory) {
+			SInt out = bnf.getSInt();
+			append(((SquareProtocolFactory) bnf).getSquareProtocol(value, out));
+			return out;
+		}
+		return mult(value, value);
+	}
+
 	/**
 	 * Multiplies an OInt and an SInt
 	 * 
@@ -35,7 +35,7 @@ import dk.alexandra.fresco.lib.compare.ConditionalSelectProtocol;
 import dk.alexandra.fresco.lib.compare.ConditionalSelectProtocolImpl;
 import dk.alexandra.fresco.lib.compare.MiscOIntGenerators;
 import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskFactory;
-import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskFactoryImpl;
+import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskPool;
 import dk.alexandra.fresco.lib.compare.eq.EqualityProtocol;
 import dk.alexandra.fresco.lib.compare.eq.EqualityProtocolImpl;
 import dk.alexandra.fresco.lib.compare.gt.GreaterThanReducerProtocolImpl;
@@ -77,22 +77,43 @@ public class LPFactoryImpl implements LPFactory {
 	private final MiscOIntGenerators misc;
 	private ComparisonProtocolFactory compFactory;
 
+	/**
+	 * The random additive masks of all comparisons, which the zero-test and
+	 * comparison factories share, are made by the factory given by
+	 * {@link RandomAdditiveMaskPool#createDefault(BasicNumericFactory, PreprocessedNumericBitFactory)}.
+	 */
 	public LPFactoryImpl(int securityParameter, BasicNumericFactory bnf,
 			LocalInversionFactory localInvFactory,
 			PreprocessedNumericBitFactory numericBitFactory,
 			ExpFromOIntFactory expFromOIntFactory,
 			PreprocessedExpPipeFactory expFactory) {
+		this(securityParameter, bnf, localInvFactory, numericBitFactory, expFromOIntFactory,
+				expFactory, RandomAdditiveMaskPool.createDefault(bnf, numericBitFactory));
+	}
+
+	/**
+	 * As the other constructor, but the random additive masks of all
+	 * comparisons are taken from the given factory, e.g. a
+	 * {@link RandomAdditiveMaskPool}, so the many comparisons of an LP solver
+	 * can get their masks in large batches.
+	 */
+	public LPFactoryImpl(int securityParameter, BasicNumericFactory bnf,
+			LocalInversionFactory localInvFactory,
+			PreprocessedNumericBitFactory numericBitFactory,
+			ExpFromOIntFactory expFromOIntFactory,
+			PreprocessedExpPipeFactory expFactory,
+			RandomAdditiveMaskFactory randomAdditiveMaskFactory) {
 		this.securityParameter = securityParameter;
 		this.bnf = bnf;
 		this.localInvFactory = localInvFactory;
 		this.numericNegateBitFactory = new NumericNegateBitFactoryImpl(bnf);
 		this.innerProductFactory = new InnerProductFactoryImpl(bnf);
-		randomAdditiveMaskFactory = new RandomAdditiveMaskFactoryImpl(bnf,
-				numericBitFactory);
+		this.randomAdditiveMaskFactory = randomAdditiveMaskFactory;
 		misc = new MiscOIntGenerators(bnf);
 		this.zeroTestProtocolFactory = new ZeroTestProtocolFactoryImpl(bnf,
-				expFromOIntFactory, numericBitFactory, numericNegateBitFactory, expFactory);
-		this.compFactory = new ComparisonProtocolFactoryImpl(securityParameter, bnf, localInvFactory, numericBitFactory, expFromOIntFactory, expFactory);
+				expFromOIntFactory, numericBitFactory, numericNegateBitFactory, expFactory,
+				randomAdditiveMaskFactory);
+		this.compFactory = new ComparisonProtocolFactoryImpl(securityParameter, bnf, localInvFactory, numericBitFactory, expFromOIntFactory, expFactory, randomAdditiveMaskFactory);
 	}
 
 	@Override
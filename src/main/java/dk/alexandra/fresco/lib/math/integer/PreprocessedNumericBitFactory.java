@@ -28,6 +28,7 @@ package dk.alexandra.fresco.lib.math.integer;
 
 import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 
 public interface PreprocessedNumericBitFactory {
 
@@ -37,4 +38,34 @@ public interface PreprocessedNumericBitFactory {
 	 * @return
 	 */
 	public ProtocolProducer createRandomSecretSharedBitProtocol(SInt bit);
+
+	/**
+	 * Returns a protocol which creates a secret shared random bit in each of
+	 * the given SInts. Protocol suites should override this if many bits can
+	 * be made at once cheaper than one at a time.
+	 * 
+	 * @param bits
+	 *            the SInts to hold the bits.
+	 * @return
+	 */
+	public default ProtocolProducer createRandomSecretSharedBitProtocol(SInt[] bits) {
+		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		for (SInt bit : bits) {
+			par.append(createRandomSecretSharedBitProtocol(bit));
+		}
+		return par;
+	}
+
+	/**
+	 * Tells whether random bits can be made without limit, e.g. because they
+	 * are computed on demand. Bits may then be made ahead of time in batches
+	 * even if some of them are never used. Otherwise the bits are taken from
+	 * a fixed amount of preprocessed data, which may be sized for exactly the
+	 * bits the application uses.
+	 * 
+	 * @return true if the supply of random bits is unlimited.
+	 */
+	public default boolean hasUnlimitedRandomBits() {
+		return false;
+	}
 }
@@ -96,7 +96,7 @@ public class ExponentiationProtocolImpl extends AbstractSimpleProtocol implement
 				 *            result * e   if bits[i] = 1
 				 */
 				result = builder.add(builder.mult(bits[i], builder.sub(builder.mult(result, e), result)), result);
-				e = builder.mult(e, e);
+				e = builder.square(e);
 			}
 			
 		} else if (openInput != null) {
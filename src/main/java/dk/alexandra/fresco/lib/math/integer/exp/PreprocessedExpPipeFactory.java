@@ -31,4 +31,17 @@ import dk.alexandra.fresco.framework.value.SInt;
 public interface PreprocessedExpPipeFactory {
 
 	public SInt[] getExponentiationPipe();
+
+	/**
+	 * Returns a preprocessed exponentiation pipe, i.e. shares of R^-1, R,
+	 * R^2, ..., with at least the given number of elements. Protocols should
+	 * ask for no more elements than they use, so the preprocessed data can be
+	 * kept in pipes no longer than needed.
+	 * 
+	 * @param length
+	 *            the number of elements needed.
+	 */
+	public default SInt[] getExponentiationPipe(int length) {
+		return getExponentiationPipe();
+	}
 }
@@ -28,10 +28,7 @@ package dk.alexandra.fresco.lib.math.integer.exp;
 
 import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.SInt;
-import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.helper.AbstractSimpleProtocol;
-import dk.alexandra.fresco.lib.helper.CopyProtocolImpl;
-import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 
 public class PreprocessedExponentiationPipeProtocolImpl extends AbstractSimpleProtocol implements ExponentiationPipeProtocol{
 
@@ -43,14 +40,19 @@ public class PreprocessedExponentiationPipeProtocolImpl extends AbstractSimplePr
 		this.preproExpPipeFactory = preproExpPipeFactory;
 	}
 
+	/**
+	 * The preprocessed values are assigned to the given SInts directly, as no
+	 * communication is needed. This happens the first time the evaluator asks
+	 * for the next protocols, i.e. when the pipe is taken from the supplier,
+	 * so it produces no native protocols.
+	 */
 	@Override
 	protected ProtocolProducer initializeProtocolProducer() {
-		SInt[] exp = this.preproExpPipeFactory.getExponentiationPipe();
-		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		SInt[] exp = this.preproExpPipeFactory.getExponentiationPipe(this.expPipe.length);
 		for(int i = 0; i < this.expPipe.length; i++) {
-			par.append(new CopyProtocolImpl<Value>(exp[i], expPipe[i]));
+			this.expPipe[i].setSerializableContent(exp[i].getSerializableContent());
 		}
-		return par;
+		return null;
 	}
 
 }
@@ -32,6 +32,7 @@ import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.MultByConstantFactory;
 import dk.alexandra.fresco.lib.field.integer.MultProtocolFactory;
+import dk.alexandra.fresco.lib.field.integer.VectorProtocolFactory;
 import dk.alexandra.fresco.lib.helper.AbstractRepeatProtocol;
 
 public class EntrywiseProductProtocolImpl extends AbstractRepeatProtocol implements
@@ -39,6 +40,7 @@ public class EntrywiseProductProtocolImpl extends AbstractRepeatProtocol impleme
 
 	private final MultProtocolFactory factory;
 	private final MultByConstantFactory openMultFactory;
+	private final VectorProtocolFactory vectorFactory;
 	private final SInt[] as, bs, results;
 	private final OInt[] publicBs;
 	private int limit, i = 0;
@@ -55,6 +57,8 @@ public class EntrywiseProductProtocolImpl extends AbstractRepeatProtocol impleme
 		this.results = results;
 		this.factory = factory;
 		this.openMultFactory = null;
+		// If the suite supports it, do all multiplications in one protocol
+		this.vectorFactory = (factory instanceof VectorProtocolFactory) ? (VectorProtocolFactory) factory : null;
 		this.limit = as.length;
 	}
 
@@ -70,10 +74,18 @@ public class EntrywiseProductProtocolImpl extends AbstractRepeatProtocol impleme
 		this.results = results;
 		this.factory = null;
 		this.openMultFactory = openMultFactory;
+		this.vectorFactory = null;
 		this.limit = as.length;
 	}
 
 	protected ProtocolProducer getNextProtocolProducer() {
+		if (vectorFactory != null) {
+			if (i < limit) {
+				i = limit;
+				return vectorFactory.getVectorMultProtocol(as, bs, results);
+			}
+			return null;
+		}
 		if (i < limit) {
 			ProtocolProducer mult;
 			if (publicBs != null) {
@@ -31,6 +31,7 @@ import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.field.integer.VectorProtocolFactory;
 import dk.alexandra.fresco.lib.helper.AbstractRoundBasedProtocol;
 import dk.alexandra.fresco.lib.helper.CopyProtocolImpl;
 import dk.alexandra.fresco.lib.helper.builder.NumericProtocolBuilder;
@@ -102,6 +103,12 @@ public class InnerProductProtocolImpl extends AbstractRoundBasedProtocol
 			}
 			round++;
 		} else if (round == 1) {
+			if (bnFactory instanceof VectorProtocolFactory) {
+				pp = ((VectorProtocolFactory) bnFactory).getSumProtocol(results, result);
+				results = null;
+				round++;
+				return pp;
+			}
 			NumericProtocolBuilder build = new NumericProtocolBuilder(bnFactory);
 			SInt sumresult = build.sum(results);
 			results = null;
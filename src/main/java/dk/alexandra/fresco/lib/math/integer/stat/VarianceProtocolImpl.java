@@ -81,7 +81,7 @@ public class VarianceProtocolImpl extends AbstractSimpleProtocol implements Vari
 		for (int k = 0; k < data.length; k++) {
 			numericProtocolBuilder.beginSeqScope();
 			SInt tmp = numericProtocolBuilder.sub(data[k], mean);
-			terms[k] = numericProtocolBuilder.mult(tmp, tmp);
+			terms[k] = numericProtocolBuilder.square(tmp);
 			numericProtocolBuilder.endCurScope();
 		}
 		numericProtocolBuilder.endCurScope();
@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.MessageEncoders;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
@@ -76,6 +77,16 @@ public interface ProtocolSuite {
 	 * close open streams and similar.
 	 */
 	public void destroy();
+
+	/**
+	 * Gets the encoders of the message types of this suite, which the batched
+	 * evaluators use when packing the messages of the protocols of this suite.
+	 * By default there are none, and all messages not of a common type are
+	 * sent using Java serialization.
+	 */
+	public default MessageEncoders getMessageEncoders() {
+		return new MessageEncoders();
+	}
 	
 	
 	
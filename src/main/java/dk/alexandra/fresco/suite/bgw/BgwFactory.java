@@ -40,7 +40,7 @@ import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
 import dk.alexandra.fresco.lib.field.integer.MultProtocol;
 import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
 import dk.alexandra.fresco.lib.field.integer.SubtractProtocol;
-import dk.alexandra.fresco.lib.helper.builder.NumericProtocolBuilder;
+import dk.alexandra.fresco.lib.field.integer.VectorProtocolFactory;
 import dk.alexandra.fresco.lib.math.integer.PreprocessedNumericBitFactory;
 import dk.alexandra.fresco.lib.math.integer.exp.ExpFromOIntFactory;
 import dk.alexandra.fresco.lib.math.integer.inv.LocalInversionFactory;
@@ -55,28 +55,38 @@ import dk.alexandra.fresco.suite.bgw.integer.BgwMultProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwMultWithPublicProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwOInt;
 import dk.alexandra.fresco.suite.bgw.integer.BgwOpenIntProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwRandomBitsProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwRandomIntProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwSInt;
 import dk.alexandra.fresco.suite.bgw.integer.BgwSubtractFromPublicProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwSubtractProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwSubtractPublicProtocol;
-import dk.alexandra.fresco.suite.bgw.storage.BgwRandomBitSupplier;
+import dk.alexandra.fresco.suite.bgw.integer.BgwSumProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwVectorAddProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwVectorCloseProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwVectorMultProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwVectorOpenProtocol;
+import dk.alexandra.fresco.suite.bgw.storage.BgwPrssSupplier;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 
-public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, ExpFromOIntFactory, PreprocessedNumericBitFactory {
+public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, ExpFromOIntFactory, PreprocessedNumericBitFactory,
+		VectorProtocolFactory {
 
 	private int myId;
 	private int noOfParties;
 	private int threshold;
 	private BigInteger mod;
-	private BgwRandomBitSupplier bitSupplier;
+	private int maxBitLength;
+	private BgwPrssSupplier prssSupplier;
 
-	public BgwFactory(int myId, int noOfParties, int threshold, BigInteger modulus, BgwRandomBitSupplier bitSupplier) {
+	public BgwFactory(int myId, int noOfParties, int threshold, BigInteger modulus, int maxBitLength,
+			BgwPrssSupplier prssSupplier) {
 		this.myId = myId;
 		this.noOfParties = noOfParties;
 		this.threshold = threshold;
 		this.mod = modulus;
-		this.bitSupplier = bitSupplier;
+		this.maxBitLength = maxBitLength;
+		this.prssSupplier = prssSupplier;
 	}
 
 	@Override
@@ -86,7 +96,7 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public BgwSInt getSInt(BigInteger i) {
-		return new BgwSInt(new ShamirShare(myId, i));
+		return new BgwSInt(new ShamirShare(myId, i.mod(mod)));
 	}
 
 	@Override
@@ -95,14 +105,26 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 	}
 
 	public BgwRandomIntProtocol getRandomIntGate(SInt s) {
-		BgwRandomIntProtocol ig = new BgwRandomIntProtocol(s, noOfParties,
-				threshold);
-		return ig;
+		return new BgwRandomIntProtocol(s);
+	}
+
+	/**
+	 * Gets a protocol creating a vector of random shared bits in a constant
+	 * number of rounds.
+	 */
+	public BgwRandomBitsProtocol getRandomBitsProtocol(SInt[] bits) {
+		return new BgwRandomBitsProtocol(bits);
+	}
+
+	@Override
+	public boolean hasUnlimitedRandomBits() {
+		return true;
 	}
 
 	@Override
 	public BgwSInt getRandomSInt() {
-		throw new MPCException("Not implemented yet");
+		return new BgwSInt(new ShamirShare(myId,
+				prssSupplier.getNextRandomShare(BgwPrssSupplier.CONSTRUCTION_STREAM)));
 	}
 
 	@Override
@@ -198,9 +220,38 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 		return new BgwMultWithPublicProtocol((BgwOInt)a, (BgwSInt)b, (BgwSInt)c);
 	}
 
+	@Override
+	public MultProtocol getVectorMultProtocol(SInt[] a, SInt[] b, SInt[] out) {
+		return new BgwVectorMultProtocol(a, b, out);
+	}
+
+	@Override
+	public AddProtocol getVectorAddProtocol(SInt[] a, SInt[] b, SInt[] out) {
+		return new BgwVectorAddProtocol(a, b, out);
+	}
+
+	@Override
+	public AddProtocol getSumProtocol(SInt[] a, SInt out) {
+		return new BgwSumProtocol(a, out);
+	}
+
+	@Override
+	public CloseIntProtocol getVectorCloseProtocol(int source, OInt[] open, SInt[] closed) {
+		return new BgwVectorCloseProtocol(source, open, closed);
+	}
+
+	@Override
+	public OpenIntProtocol getVectorOpenProtocol(SInt[] closed, OInt[] open) {
+		return new BgwVectorOpenProtocol(closed, open);
+	}
+
 	@Override
 	public int getMaxBitLength() {
-		return BgwProtocolSuite.getInstance().getMaxBitLength();
+		return maxBitLength;
+	}
+
+	public BigInteger getModulus() {
+		return mod;
 	}
 
 	@Override
@@ -233,14 +284,12 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public ProtocolProducer createRandomSecretSharedBitProtocol(SInt bit) {
-		NumericProtocolBuilder builder = new NumericProtocolBuilder(this);
-		builder.beginSeqScope();
-		if (!bitSupplier.hasMoreBits()) {
-			builder.addProtocolProducer(bitSupplier.generateMoreBits());
-		}
-		builder.copy(bit, bitSupplier.getNextBit());
-		builder.endCurScope();
-		return builder.getProtocol();
+		return new BgwRandomBitsProtocol(new SInt[] { bit });
+	}
+
+	@Override
+	public ProtocolProducer createRandomSecretSharedBitProtocol(SInt[] bits) {
+		return new BgwRandomBitsProtocol(bits);
 	}
 
 }
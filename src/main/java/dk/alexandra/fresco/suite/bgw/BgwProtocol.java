@@ -29,6 +29,7 @@ package dk.alexandra.fresco.suite.bgw;
 import java.io.Serializable;
 import java.util.Map;
 
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.lib.helper.HalfCookedNativeProtocol;
 
 public abstract class BgwProtocol extends HalfCookedNativeProtocol {
@@ -39,5 +40,13 @@ public abstract class BgwProtocol extends HalfCookedNativeProtocol {
 			res[i-1] = (ShamirShare) input.get(i);
 		}
 		return res;
-	}	
+	}
+
+	protected BgwProtocolSuite getSuite(ResourcePool resourcePool) {
+		return BgwProtocolSuite.getInstance(resourcePool.getMyId());
+	}
+
+	protected ShamirShareContext getShareContext(ResourcePool resourcePool) {
+		return getSuite(resourcePool).getShareContext();
+	}
 }
@@ -26,32 +26,59 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.bgw;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.MessageEncoders;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
-import dk.alexandra.fresco.suite.bgw.storage.BgwRandomBitSupplier;
-import dk.alexandra.fresco.suite.bgw.storage.BgwRandomBitSupplierImpl;
+import dk.alexandra.fresco.suite.bgw.storage.BgwPrssSupplier;
 
+/**
+ * The BGW protocol suite. There is one instance per party, and all state
+ * used when creating and recombining shares is kept in the
+ * {@link ShamirShareContext} of the instance, so BGW can be evaluated by
+ * multiple VM threads and by multiple parties in the same JVM.
+ */
 public class BgwProtocolSuite implements ProtocolSuite {
 
-	private static BgwProtocolSuite instance;
+	private static final Map<Integer, BgwProtocolSuite> instances = new ConcurrentHashMap<Integer, BgwProtocolSuite>();
+
+	/**
+	 * The tag of shares in the batches of the batched evaluators.
+	 */
+	public static final int SHAMIR_SHARE_TAG = MessageEncoders.MIN_TAG;
 	
 	private int threshold;
 	private BigInteger modulus;
+	private ShamirShareContext shareContext;
 
-	private BgwRandomBitSupplierImpl bitSupplier;
+	private BgwPrssSupplier prssSupplier;
+	private final MessageEncoders encoders = new MessageEncoders();
 	
 	public BgwProtocolSuite() {
-		
+		encoders.register(SHAMIR_SHARE_TAG, new ShamirShareEncoder());
 	}
 	
-	public static BgwProtocolSuite getInstance() {
-		if(instance == null) {
-			instance = new BgwProtocolSuite();
+	/**
+	 * Gets the suite of the given party. This is called by the protocols on
+	 * every evaluation, so it does not lock.
+	 */
+	public static BgwProtocolSuite getInstance(int id) {
+		BgwProtocolSuite instance = instances.get(id);
+		if (instance == null) {
+			synchronized (instances) {
+				instance = instances.get(id);
+				if (instance == null) {
+					instance = new BgwProtocolSuite();
+					instances.put(id, instance);
+				}
+			}
 		}
 		return instance;
 	}
@@ -61,9 +88,13 @@ public class BgwProtocolSuite implements ProtocolSuite {
 		BgwConfiguration sconf = (BgwConfiguration)conf;
 		this.threshold = sconf.getThreshold();
 		this.modulus = sconf.getModulus();
-		ShamirShare.setPrimeNumber(modulus);
-		
-		this.bitSupplier = new BgwRandomBitSupplierImpl();
+		this.shareContext = new ShamirShareContext(modulus);
+		try {
+			this.prssSupplier = BgwPrssSupplier.setup(resourcePool.getNetwork(), resourcePool.getMyId(),
+					resourcePool.getNoOfParties(), threshold, modulus, resourcePool.getSecureRandom());
+		} catch (IOException e) {
+			throw new MPCException("Could not establish the keys for random values", e);
+		}
 	}
 
 	@Override
@@ -81,6 +112,11 @@ public class BgwProtocolSuite implements ProtocolSuite {
 		
 	}
 
+	@Override
+	public MessageEncoders getMessageEncoders() {
+		return encoders;
+	}
+
 	public int getThreshold() {
 		return this.threshold;
 	}
@@ -93,8 +129,12 @@ public class BgwProtocolSuite implements ProtocolSuite {
 		return this.modulus;
 	}
 	
-	public BgwRandomBitSupplier getBitSupplier() {
-		return this.bitSupplier;
+	public ShamirShareContext getShareContext() {
+		return this.shareContext;
+	}
+
+	public BgwPrssSupplier getPrssSupplier() {
+		return this.prssSupplier;
 	}
 
 }
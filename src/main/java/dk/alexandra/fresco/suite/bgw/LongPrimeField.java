@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.suite.spdz.utils.MontgomeryField;
+
+/**
+ * Arithmetic modulo an odd prime of at most {@link #MAX_BIT_LENGTH} bits on
+ * primitive longs.
+ *
+ * Numbers must always be reduced, i.e. in the range [0; p). Since p is less
+ * than 2^62, the sum of two numbers never overflows, so addition and
+ * subtraction are a single conditional correction. Multiplication uses single
+ * word Montgomery multiplication, as in {@link MontgomeryField}, but on
+ * ordinary numbers: <i>mont(mont(a, b), R^2) = a * b mod p</i>. When the same
+ * number is multiplied onto many others, it can be converted to Montgomery
+ * form once using {@link #prepareFactor(long)} after which each product only
+ * takes one Montgomery reduction.
+ *
+ * Instances can be shared among threads.
+ */
+public class LongPrimeField {
+
+	public static final int MAX_BIT_LENGTH = 62;
+
+	private final long p;
+	private final long pInv; // -p^-1 mod 2^64
+	private final long r2; // R^2 mod p where R = 2^64
+
+	/**
+	 * @param modulus
+	 *            an odd prime of at most {@link #MAX_BIT_LENGTH} bits.
+	 */
+	public LongPrimeField(BigInteger modulus) {
+		if (!supports(modulus)) {
+			throw new IllegalArgumentException("Modulus must be odd and of at most " + MAX_BIT_LENGTH
+					+ " bits, was " + modulus);
+		}
+		this.p = modulus.longValue();
+		long inv = 1;
+		// Newton iteration doubles the number of correct bits in each step
+		for (int i = 0; i < 6; i++) {
+			inv *= 2 - p * inv;
+		}
+		this.pInv = -inv;
+		this.r2 = BigInteger.ONE.shiftLeft(128).mod(modulus).longValue();
+	}
+
+	/**
+	 * @return true if the given modulus can be used with this class.
+	 */
+	public static boolean supports(BigInteger modulus) {
+		return modulus.testBit(0) && modulus.bitLength() <= MAX_BIT_LENGTH
+				&& modulus.compareTo(BigInteger.ONE) > 0;
+	}
+
+	public long getModulus() {
+		return p;
+	}
+
+	public int getBitLength() {
+		return 64 - Long.numberOfLeadingZeros(p);
+	}
+
+	/**
+	 * Reduces an arbitrary integer.
+	 */
+	public long fromBigInteger(BigInteger value) {
+		if (value.signum() >= 0 && value.bitLength() < 63) {
+			long v = value.longValue();
+			return v < p ? v : v % p;
+		}
+		return value.mod(BigInteger.valueOf(p)).longValue();
+	}
+
+	/**
+	 * @return <i>a + b mod p</i>.
+	 */
+	public long add(long a, long b) {
+		long s = a + b;
+		return s >= p ? s - p : s;
+	}
+
+	/**
+	 * @return <i>a - b mod p</i>.
+	 */
+	public long subtract(long a, long b) {
+		long d = a - b;
+		return d < 0 ? d + p : d;
+	}
+
+	/**
+	 * @return <i>a * b mod p</i>.
+	 */
+	public long multiply(long a, long b) {
+		return montgomery(montgomery(a, b), r2);
+	}
+
+	/**
+	 * Prepares a factor for {@link #multiplyByFactor(long, long)}.
+	 *
+	 * @return <i>c * R mod p</i>.
+	 */
+	public long prepareFactor(long c) {
+		return montgomery(c, r2);
+	}
+
+	/**
+	 * @return <i>a * c mod p</i> where factor is the result of
+	 *         {@link #prepareFactor(long)} for c.
+	 */
+	public long multiplyByFactor(long a, long factor) {
+		return montgomery(a, factor);
+	}
+
+	/**
+	 * @return <i>a * b * R^-1 mod p</i>.
+	 */
+	private long montgomery(long a, long b) {
+		long lo = a * b;
+		long hi = MontgomeryField.multiplyHighUnsigned(a, b);
+		long m = lo * pInv;
+		// lo + (m * p mod 2^64) is either 0 or 2^64
+		long t = hi + MontgomeryField.multiplyHighUnsigned(m, p) + (lo != 0 ? 1 : 0);
+		return t >= p ? t - p : t;
+	}
+
+}
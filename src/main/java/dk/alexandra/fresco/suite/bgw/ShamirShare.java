@@ -28,39 +28,28 @@ package dk.alexandra.fresco.suite.bgw;
 
 import java.io.Serializable;
 import java.math.BigInteger;
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
-
-import dk.alexandra.fresco.framework.Party;
 
 
 public final class ShamirShare implements Serializable {
 
 	private static final long serialVersionUID = -7986019375218481628L;
 
-	private static BigInteger[] vector;
-	
-	private static BigInteger primeNumber;
-	public static void setPrimeNumber(BigInteger mod) {
-		primeNumber = mod;
-	}
-
-    private static SecureRandom random = new SecureRandom();
     public static final int size = 12;
-    private static byte[] randomBytesBuffer;
-    public static int partyId;
-    private static int randomBytesMarker = 0;
 
     private byte point;
     private BigInteger fieldValue;
     
+    /**
+     * @param point the point of the share.
+     * @param v the value of the share. It must already be reduced, see
+     *          {@link ShamirShareContext#share(int, BigInteger)}.
+     */
     public ShamirShare(int point, BigInteger v) {
         if (point > 255) {
             throw new IllegalArgumentException("Point is too large, it is more than 255.");
         }
         this.point = (byte) point;
-        this.fieldValue = v.mod(primeNumber);
+        this.fieldValue = v;
     }
 
     public ShamirShare(byte[] receivedData) {
@@ -96,10 +85,15 @@ public final class ShamirShare implements Serializable {
         return ShamirShare.size + 1;
     }
 
+    /**
+     * @return the point followed by the value. The value takes up
+     *         {@link #size} bytes, or more if the modulus is larger.
+     */
     public byte[] toByteArray() {
-        byte[] bytes = new byte[ShamirShare.getSize()];
+        byte[] field = this.fieldValue.toByteArray();
+        byte[] bytes = new byte[Math.max(ShamirShare.getSize(), field.length + 1)];
         bytes[0] = this.point;
-        this.copyAndInvertArray(bytes, this.fieldValue.toByteArray());
+        this.copyAndInvertArray(bytes, field);
         return bytes;
     }
 
@@ -118,6 +112,10 @@ public final class ShamirShare implements Serializable {
         return "(" + this.point + ", " + this.fieldValue.toString() + ")";
     }
 
+    /**
+     * @return a share of the product. It is not reduced and has twice the
+     *         degree, so it must be reshared before use.
+     */
     public ShamirShare mult(ShamirShare other) {
         return new ShamirShare(this.point, this.fieldValue
                 .multiply(other.fieldValue));
@@ -127,56 +125,6 @@ public final class ShamirShare implements Serializable {
         this.point = (byte) inx;
     }
 
-    public static BigInteger recombine(ShamirShare[] shares,
-            int numberOfParties) {
-        if ((vector != null) && (vector.length == numberOfParties)) {
-            return recombine(shares);
-        } else {
-            vector = computeCoefficients(numberOfParties);
-            return recombine(shares);
-        }
-    }
-    
-    public static BigInteger recombine(List<ShamirShare> shares,
-            int numberOfParties) {
-    	ShamirShare[] tmp = shares.toArray(new ShamirShare[shares.size()]);
-        return recombine(tmp, numberOfParties);
-    }
-
-    private static BigInteger recombine(ShamirShare[] shares) {
-        BigInteger s = BigInteger.ZERO;
-        for (int inx = 0; inx < vector.length; inx++) {
-            ShamirShare share = shares[inx];
-            s = s.add(share.fieldValue.multiply(vector[inx]).mod(primeNumber)).mod(primeNumber);
-        }
-        return s.mod(primeNumber);
-    }
-
-    private static BigInteger[] computeCoefficients(int numberOfParties) {
-        BigInteger[] vector = new BigInteger[numberOfParties];
-        for (byte pi = 1; pi <= numberOfParties; pi++) {
-            List<BigInteger> factors = new ArrayList<BigInteger>(numberOfParties);
-            for (byte pk = 1; pk <= numberOfParties; pk++) {
-                if (pi != pk) {
-                    BigInteger x_k = BigInteger.valueOf(pk);
-                    BigInteger x_i = BigInteger.valueOf(pi);
-                    BigInteger subtractionResult = x_k.subtract(x_i);
-                    BigInteger subtractionResultModInverse = subtractionResult.modInverse(primeNumber);
-                    BigInteger multiplicationResult = x_k.multiply(subtractionResultModInverse);
-                    factors.add(multiplicationResult.mod(primeNumber));
-                }
-            }
-            if (factors.size() > 0) {
-                BigInteger r = factors.remove(0);
-                for (BigInteger f : factors) {
-                    r = r.multiply(f).mod(primeNumber);
-                }
-                vector[pi - 1] = r.mod(primeNumber);
-            }
-        }
-        return vector;
-    }
-    
     public byte getType() {
         return 1;
     }
@@ -185,75 +133,10 @@ public final class ShamirShare implements Serializable {
         return this.toByteArray();
     }
 
-    public static ShamirShare[] createShares(BigInteger secret,
-            Party[] parties, int threshold) {
-        return ShamirShare.createShares(secret, parties.length, threshold);
-    }
-
-    public static ShamirShare[] createShares(BigInteger secret,
-            int numberOfParties, int threshold) {
-        // ShamirReporter.report(this.partyId, "I am sending.");
-        List<BigInteger> coefficients = new ArrayList<BigInteger>(threshold);
-        coefficients.add(secret);
-
-        for (int inx = 0; inx < threshold; inx++) {
-            coefficients.add(ShamirShare.random());
-        }
-
-        ShamirShare[] shares = new ShamirShare[numberOfParties];
-        for (int inx = 1; inx <= numberOfParties; inx++) {
-            // Instead of calculating s_i as
-            // s_i = s + a_1 x_i + a_2 x_i^2 + ... + a_t x_i^t
-            //
-            // we avoid the exponentiations by calculating s_i by
-            //
-            // s_i = s + x_i (a_1 + x_i (a_2 + x_i ( ... (a_t) ...
-            // )))
-            //
-            // This is a little faster, even for small n and t.
-            BigInteger cur_point = BigInteger.valueOf(inx);
-            BigInteger cur_share = coefficients.get(threshold);
-            // Go backwards from this.threshold-1 down to 0
-            for (int inj = threshold - 1; inj >= 0; inj--) {
-
-                cur_share = coefficients.get(inj).add(
-                        cur_share.multiply(cur_point));
-            }
-            shares[inx - 1] = new ShamirShare(inx, cur_share);
-        }
-        return shares;
-    }    
-    
     public void setField(BigInteger field) {
         this.fieldValue = field;
     }
 
-    public static BigInteger random() {
-        byte[] bytes = new byte[8];
-        if ((randomBytesBuffer != null)
-                && (randomBytesMarker + 8 < randomBytesBuffer.length)) {
-            System.arraycopy(randomBytesBuffer, randomBytesMarker, bytes, 0, 8);
-            randomBytesMarker += 8;
-            return new BigInteger(bytes);
-        } else {
-            randomBytesBuffer = random0(16384);
-            randomBytesMarker = 0;
-            System.arraycopy(randomBytesBuffer, randomBytesMarker, bytes, 0, 8);
-            randomBytesMarker += 8;
-        }
-        return new BigInteger(bytes);
-    }
-
-    private static byte[] random0(int numberOfBytes) {
-        byte bytes[] = new byte[numberOfBytes];
-        random.nextBytes(bytes);
-        return bytes;
-    }
-
-    public static void setRandomSeed(byte[] seed) {
-        random = new SecureRandom(seed);
-    }
-
     /**
      * Deserialises a byte array into a shamir share array.
      * NOT TESTED YET 
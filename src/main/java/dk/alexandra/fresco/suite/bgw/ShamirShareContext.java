@@ -0,0 +1,398 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates and recombines Shamir shares over the field given by a prime.
+ * <p>
+ * Each {@link BgwProtocolSuite} has its own context, so suites with
+ * different primes can run in the same JVM. A context may be used from any
+ * number of threads at the same time: The Lagrange coefficients are computed
+ * once for each number of parties and then shared, and each thread draws its
+ * randomness from its own PRG and buffer.
+ * </p>
+ * <p>
+ * If the prime is small enough for {@link LongPrimeField}, all sharing and
+ * recombination is done on longs rather than {@link BigInteger}s. The vector
+ * methods then also exchange the shares of a whole vector as a single
+ * <code>long[]</code>, and otherwise as a <code>BigInteger[]</code>.
+ * </p>
+ */
+public class ShamirShareContext {
+
+	private static final int RANDOM_BUFFER_SIZE = 16384;
+
+	private final BigInteger primeNumber;
+	private final ConcurrentMap<Integer, BigInteger[]> coefficients;
+	private final ThreadLocal<RandomBuffer> randomness;
+
+	// Only used if the prime is small enough
+	private final LongPrimeField longField;
+	private final ConcurrentMap<Integer, long[]> longCoefficients;
+
+	public ShamirShareContext(BigInteger primeNumber) {
+		this.primeNumber = primeNumber;
+		this.coefficients = new ConcurrentHashMap<Integer, BigInteger[]>();
+		this.longField = LongPrimeField.supports(primeNumber) ? new LongPrimeField(primeNumber) : null;
+		this.longCoefficients = new ConcurrentHashMap<Integer, long[]>();
+		this.randomness = new ThreadLocal<RandomBuffer>() {
+			@Override
+			protected RandomBuffer initialValue() {
+				return new RandomBuffer();
+			}
+		};
+	}
+
+	public BigInteger getPrimeNumber() {
+		return this.primeNumber;
+	}
+
+	/**
+	 * @return the field used for the arithmetic on longs, or null if the
+	 *         prime is too large.
+	 */
+	public LongPrimeField getLongField() {
+		return this.longField;
+	}
+
+	/**
+	 * @param point
+	 *            the point of the share.
+	 * @param value
+	 *            any integer, it is reduced modulo the prime.
+	 * @return a share with the given value.
+	 */
+	public ShamirShare share(int point, BigInteger value) {
+		return new ShamirShare(point, value.mod(primeNumber));
+	}
+
+	/**
+	 * Creates shares of a secret for the parties <i>1, ..., n</i> using a
+	 * random polynomial of the given degree.
+	 */
+	public ShamirShare[] createShares(BigInteger secret, int numberOfParties, int threshold) {
+		if (longField != null) {
+			long[][] longShares = createShares(new long[] { longField.fromBigInteger(secret) },
+					numberOfParties, threshold);
+			ShamirShare[] shares = new ShamirShare[numberOfParties];
+			for (int inx = 0; inx < numberOfParties; inx++) {
+				shares[inx] = new ShamirShare(inx + 1, BigInteger.valueOf(longShares[inx][0]));
+			}
+			return shares;
+		}
+		BigInteger[] coefficients = new BigInteger[threshold + 1];
+		coefficients[0] = secret;
+		for (int inx = 1; inx <= threshold; inx++) {
+			coefficients[inx] = random();
+		}
+
+		ShamirShare[] shares = new ShamirShare[numberOfParties];
+		for (int inx = 1; inx <= numberOfParties; inx++) {
+			// Instead of calculating s_i as
+			// s_i = s + a_1 x_i + a_2 x_i^2 + ... + a_t x_i^t
+			//
+			// we avoid the exponentiations by calculating s_i by
+			//
+			// s_i = s + x_i (a_1 + x_i (a_2 + x_i ( ... (a_t) ...
+			// )))
+			BigInteger curPoint = BigInteger.valueOf(inx);
+			BigInteger curShare = coefficients[threshold];
+			for (int inj = threshold - 1; inj >= 0; inj--) {
+				curShare = coefficients[inj].add(curShare.multiply(curPoint));
+			}
+			shares[inx - 1] = share(inx, curShare);
+		}
+		return shares;
+	}
+
+	/**
+	 * Recombines the secret from shares from all parties. Share <i>i</i> must
+	 * be the share received from party <i>i + 1</i>.
+	 */
+	public BigInteger recombine(ShamirShare[] shares, int numberOfParties) {
+		if (longField != null) {
+			long[] vector = getLongCoefficients(numberOfParties);
+			long s = 0;
+			for (int inx = 0; inx < vector.length; inx++) {
+				long share = longField.fromBigInteger(shares[inx].getField());
+				s = longField.add(s, longField.multiplyByFactor(share, vector[inx]));
+			}
+			return BigInteger.valueOf(s);
+		}
+		BigInteger[] vector = getCoefficients(numberOfParties);
+		BigInteger s = BigInteger.ZERO;
+		for (int inx = 0; inx < vector.length; inx++) {
+			s = s.add(shares[inx].getField().multiply(vector[inx]));
+		}
+		return s.mod(primeNumber);
+	}
+
+	public BigInteger recombine(List<ShamirShare> shares, int numberOfParties) {
+		return recombine(shares.toArray(new ShamirShare[shares.size()]), numberOfParties);
+	}
+
+	private BigInteger[] getCoefficients(int numberOfParties) {
+		BigInteger[] vector = coefficients.get(numberOfParties);
+		if (vector == null) {
+			/*
+			 * Two threads may both compute the coefficients, but they get the
+			 * same result, so it does not matter which one is kept.
+			 */
+			vector = computeCoefficients(numberOfParties);
+			coefficients.putIfAbsent(numberOfParties, vector);
+		}
+		return vector;
+	}
+
+	private long[] getLongCoefficients(int numberOfParties) {
+		long[] vector = longCoefficients.get(numberOfParties);
+		if (vector == null) {
+			BigInteger[] coefficients = getCoefficients(numberOfParties);
+			vector = new long[numberOfParties];
+			for (int inx = 0; inx < numberOfParties; inx++) {
+				vector[inx] = longField.prepareFactor(coefficients[inx].longValue());
+			}
+			longCoefficients.putIfAbsent(numberOfParties, vector);
+		}
+		return vector;
+	}
+
+	/**
+	 * Creates shares of a vector of secrets using the arithmetic on longs.
+	 * This may only be used if {@link #getLongField()} is not null.
+	 *
+	 * @param secrets
+	 *            reduced secrets.
+	 * @return the shares with the shares for party <i>i</i> at index
+	 *         <i>i - 1</i>.
+	 */
+	public long[][] createShares(long[] secrets, int numberOfParties, int threshold) {
+		long[] points = new long[numberOfParties];
+		for (int inx = 0; inx < numberOfParties; inx++) {
+			points[inx] = longField.prepareFactor(inx + 1);
+		}
+		RandomBuffer random = randomness.get();
+		long[] coefficients = new long[threshold + 1];
+		long[][] shares = new long[numberOfParties][secrets.length];
+		for (int i = 0; i < secrets.length; i++) {
+			coefficients[0] = secrets[i];
+			for (int inx = 1; inx <= threshold; inx++) {
+				coefficients[inx] = random.nextElement(longField);
+			}
+			for (int inx = 0; inx < numberOfParties; inx++) {
+				long share = coefficients[threshold];
+				for (int inj = threshold - 1; inj >= 0; inj--) {
+					share = longField.add(coefficients[inj], longField.multiplyByFactor(share, points[inx]));
+				}
+				shares[inx][i] = share;
+			}
+		}
+		return shares;
+	}
+
+	/**
+	 * Recombines a vector of secrets using the arithmetic on longs. This may
+	 * only be used if {@link #getLongField()} is not null.
+	 *
+	 * @param shares
+	 *            the shares received from party <i>i</i> at index <i>i -
+	 *            1</i>.
+	 */
+	public long[] recombine(long[][] shares, int numberOfParties) {
+		long[] vector = getLongCoefficients(numberOfParties);
+		long[] secrets = new long[shares[0].length];
+		for (int inx = 0; inx < numberOfParties; inx++) {
+			long[] fromParty = shares[inx];
+			long coefficient = vector[inx];
+			for (int i = 0; i < secrets.length; i++) {
+				secrets[i] = longField.add(secrets[i], longField.multiplyByFactor(fromParty[i], coefficient));
+			}
+		}
+		return secrets;
+	}
+
+	/**
+	 * Creates shares of a vector of secrets, packed as one message per party.
+	 *
+	 * @return the messages with the message for party <i>i</i> at index <i>i
+	 *         - 1</i>.
+	 */
+	public Serializable[] createShareVectors(BigInteger[] secrets, int numberOfParties, int threshold) {
+		if (longField != null) {
+			long[] longSecrets = new long[secrets.length];
+			for (int i = 0; i < secrets.length; i++) {
+				longSecrets[i] = longField.fromBigInteger(secrets[i]);
+			}
+			return createShares(longSecrets, numberOfParties, threshold);
+		}
+		BigInteger[][] shares = new BigInteger[numberOfParties][secrets.length];
+		for (int i = 0; i < secrets.length; i++) {
+			ShamirShare[] shamirShares = createShares(secrets[i], numberOfParties, threshold);
+			for (int inx = 0; inx < numberOfParties; inx++) {
+				shares[inx][i] = shamirShares[inx].getField();
+			}
+		}
+		return shares;
+	}
+
+	/**
+	 * Packs my shares of a vector as a single message.
+	 */
+	public Serializable packShares(BigInteger[] shares) {
+		if (longField != null) {
+			long[] packed = new long[shares.length];
+			for (int i = 0; i < shares.length; i++) {
+				packed[i] = longField.fromBigInteger(shares[i]);
+			}
+			return packed;
+		}
+		return shares.clone();
+	}
+
+	/**
+	 * Unpacks a message made by {@link #packShares(BigInteger[])} or
+	 * {@link #createShareVectors(BigInteger[], int, int)}.
+	 */
+	public BigInteger[] unpackShares(Serializable packed) {
+		if (packed instanceof long[]) {
+			long[] values = (long[]) packed;
+			BigInteger[] shares = new BigInteger[values.length];
+			for (int i = 0; i < values.length; i++) {
+				shares[i] = BigInteger.valueOf(values[i]);
+			}
+			return shares;
+		}
+		return (BigInteger[]) packed;
+	}
+
+	/**
+	 * Recombines a vector of secrets from the packed shares received from all
+	 * parties.
+	 *
+	 * @param received
+	 *            the message received from party <i>i</i> at index <i>i -
+	 *            1</i>.
+	 */
+	public BigInteger[] recombineVectors(List<Serializable> received, int numberOfParties) {
+		if (longField != null) {
+			long[][] shares = new long[numberOfParties][];
+			for (int inx = 0; inx < numberOfParties; inx++) {
+				shares[inx] = (long[]) received.get(inx);
+			}
+			return unpackShares(recombine(shares, numberOfParties));
+		}
+		BigInteger[] vector = getCoefficients(numberOfParties);
+		BigInteger[] secrets = null;
+		for (int inx = 0; inx < numberOfParties; inx++) {
+			BigInteger[] fromParty = (BigInteger[]) received.get(inx);
+			if (secrets == null) {
+				secrets = new BigInteger[fromParty.length];
+				Arrays.fill(secrets, BigInteger.ZERO);
+			}
+			for (int i = 0; i < secrets.length; i++) {
+				secrets[i] = secrets[i].add(fromParty[i].multiply(vector[inx]));
+			}
+		}
+		for (int i = 0; i < secrets.length; i++) {
+			secrets[i] = secrets[i].mod(primeNumber);
+		}
+		return secrets;
+	}
+
+	/**
+	 * Computes the Lagrange coefficients for interpolating the value in zero
+	 * from the points <i>1, ..., n</i>.
+	 */
+	private BigInteger[] computeCoefficients(int numberOfParties) {
+		BigInteger[] vector = new BigInteger[numberOfParties];
+		for (int pi = 1; pi <= numberOfParties; pi++) {
+			BigInteger r = BigInteger.ONE;
+			BigInteger xi = BigInteger.valueOf(pi);
+			for (int pk = 1; pk <= numberOfParties; pk++) {
+				if (pi != pk) {
+					BigInteger xk = BigInteger.valueOf(pk);
+					r = r.multiply(xk).multiply(xk.subtract(xi).modInverse(primeNumber)).mod(primeNumber);
+				}
+			}
+			vector[pi - 1] = r;
+		}
+		return vector;
+	}
+
+	/**
+	 * @return a random 64 bit integer, drawn from a buffer owned by the
+	 *         calling thread.
+	 */
+	public BigInteger random() {
+		return randomness.get().next();
+	}
+
+	private static class RandomBuffer {
+
+		private final SecureRandom random = new SecureRandom();
+		private final byte[] buffer = new byte[RANDOM_BUFFER_SIZE];
+		private int marker = RANDOM_BUFFER_SIZE;
+
+		private BigInteger next() {
+			return BigInteger.valueOf(nextLong());
+		}
+
+		private long nextLong() {
+			if (marker + 8 > buffer.length) {
+				random.nextBytes(buffer);
+				marker = 0;
+			}
+			long value = 0;
+			for (int i = 0; i < 8; i++) {
+				value = (value << 8) | (buffer[marker++] & 0xFF);
+			}
+			return value;
+		}
+
+		/**
+		 * @return a uniformly random element of the field, using rejection
+		 *         sampling.
+		 */
+		private long nextElement(LongPrimeField field) {
+			long mask = (1L << field.getBitLength()) - 1;
+			long value;
+			do {
+				value = nextLong() & mask;
+			} while (value >= field.getModulus());
+			return value;
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import dk.alexandra.fresco.framework.network.MessageBatchSerializer;
+import dk.alexandra.fresco.framework.network.MessageEncoder;
+
+/**
+ * Writes a share as its point followed by its value, instead of using Java
+ * serialization.
+ */
+public class ShamirShareEncoder implements MessageEncoder<ShamirShare> {
+
+	@Override
+	public Class<ShamirShare> getType() {
+		return ShamirShare.class;
+	}
+
+	@Override
+	public void write(DataOutput out, ShamirShare share) throws IOException {
+		out.writeByte(share.getPoint());
+		MessageBatchSerializer.writeBigInteger(out, share.getField());
+	}
+
+	@Override
+	public ShamirShare read(DataInput in) throws IOException {
+		byte point = in.readByte();
+		ShamirShare share = new ShamirShare(MessageBatchSerializer.readBigInteger(in));
+		share.setPoint(point);
+		return share;
+	}
+}
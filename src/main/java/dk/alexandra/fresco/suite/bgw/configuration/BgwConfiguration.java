@@ -50,6 +50,16 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 	 */
 	BigInteger getModulus();
 
+	/**
+	 * @return the expected maximum bit length of any number appearing in the
+	 *         application. Protocols using random masks, like comparison and
+	 *         right shift, need the modulus to have room for this plus their
+	 *         security parameter. Defaults to the bit length of the modulus.
+	 */
+	default int getMaxBitLength() {
+		return getModulus().bitLength();
+	}
+
 	// Here comes methods for BGW specific parameters and their validation.
 	public static BgwConfiguration fromCmdLine(SCEConfiguration sceConf, CommandLine cmd) throws ParseException {
 		// Validate BGW specific arguments.
@@ -69,6 +79,11 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 			if (!modulus.isProbablePrime(40)) {
 				throw new ParseException("BGW Modulus must be a prime number");
 			}
+			final int maxBitLength = Integer.parseInt(p.getProperty("bgw.maxBitLength",
+					Integer.toString(modulus.bitLength())));
+			if (maxBitLength < 2) {
+				throw new ParseException("bgw.maxBitLength must be > 1");
+			}
 
 			return new BgwConfiguration() {
 
@@ -82,6 +97,11 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 					return modulus;
 				}
 
+				@Override
+				public int getMaxBitLength() {
+					return maxBitLength;
+				}
+
 			};
 		} catch (NumberFormatException e) {
 			throw new ParseException("Invalid bgw.threshold value: '" + p.getProperty("bgw.threshold") + "'");
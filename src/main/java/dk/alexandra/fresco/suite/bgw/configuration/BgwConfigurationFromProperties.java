@@ -39,6 +39,7 @@ public class BgwConfigurationFromProperties implements BgwConfiguration {
 	private final String defaultPropertiesLocation = "properties/bgw/bgw.properties";
 	private int threshold;
 	private BigInteger modulus;
+	private int maxBitLength;
 
 	public BgwConfigurationFromProperties() {
 		InputStream is;
@@ -85,6 +86,14 @@ public class BgwConfigurationFromProperties implements BgwConfiguration {
 			failed = true;
 			sb.append("Value of property " + propName + " was " + modulus + " but must be a prime.\n");
 		}
+		propName = "bgw.maxBitLength";
+		propString = prop.getProperty(propName, Integer.toString(modulus.bitLength()));
+		try {
+			this.maxBitLength = Integer.parseInt(propString);
+		} catch (NumberFormatException e) {
+			failed = true;
+			sb.append("Value of property " + propName + " did not parse as a number.\n");
+		}
 		if (failed) {
 			throw new ConfigurationException("Building Bgw configuration failded. " + sb.toString());
 		}
@@ -98,4 +107,9 @@ public class BgwConfigurationFromProperties implements BgwConfiguration {
 	public BigInteger getModulus() {
 		return modulus;
 	}
+
+	@Override
+	public int getMaxBitLength() {
+		return maxBitLength;
+	}
 }
@@ -32,7 +32,6 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.AddProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwAddProtocol extends BgwProtocol implements AddProtocol {
 
@@ -70,7 +69,7 @@ public class BgwAddProtocol extends BgwProtocol implements AddProtocol {
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		outC.value = new ShamirShare(inA.value.getPoint(), inA.value.getField()
+		outC.value = getShareContext(resourcePool).share(inA.value.getPoint(), inA.value.getField()
 				.add(inB.value.getField()));
 		return EvaluationStatus.IS_DONE;
 	}
@@ -33,7 +33,6 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.AddProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwAddPublicProtocol extends BgwProtocol implements AddProtocol {
 
@@ -64,7 +63,7 @@ public class BgwAddPublicProtocol extends BgwProtocol implements AddProtocol {
 
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool, SCENetwork network) {
-		outC.value = new ShamirShare(inA.value.getPoint(), inA.value.getField().add(inB.getValue()));
+		outC.value = getShareContext(resourcePool).share(inA.value.getPoint(), inA.value.getField().add(inB.getValue()));
 		return EvaluationStatus.IS_DONE;
 	}
 
@@ -60,8 +60,9 @@ public class BgwCloseIntProtocol extends BgwProtocol implements
 		case 0:
 			if (inputter == myId) {
 				BigInteger secret = this.input.getValue();
-				ShamirShare[] shares = ShamirShare.createShares(secret,
-						resourcePool.getNoOfParties(), BgwProtocolSuite.getInstance().getThreshold());
+				BgwProtocolSuite suite = getSuite(resourcePool);
+				ShamirShare[] shares = suite.getShareContext().createShares(secret,
+						resourcePool.getNoOfParties(), suite.getThreshold());
 				network.sendSharesToAll(shares);
 			}
 			network.expectInputFromPlayer(inputter);
@@ -33,7 +33,6 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwKnownSIntProtocol extends BgwProtocol implements KnownSIntProtocol{
 	
@@ -61,7 +60,7 @@ public class BgwKnownSIntProtocol extends BgwProtocol implements KnownSIntProtoc
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
 		int myId = resourcePool.getMyId();
-		x.value = new ShamirShare(myId, value);
+		x.value = getShareContext(resourcePool).share(myId, value);
 		return EvaluationStatus.IS_DONE;
 	}
 
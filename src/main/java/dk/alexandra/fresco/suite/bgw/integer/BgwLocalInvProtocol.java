@@ -33,7 +33,6 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.math.integer.inv.LocalInversionProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 
 public class BgwLocalInvProtocol extends BgwProtocol implements LocalInversionProtocol{
 
@@ -58,7 +57,7 @@ public class BgwLocalInvProtocol extends BgwProtocol implements LocalInversionPr
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		BigInteger inv = x.getValue().modInverse(BgwProtocolSuite.getInstance().getModulus());
+		BigInteger inv = x.getValue().modInverse(getSuite(resourcePool).getModulus());
 		res.setValue(inv);
 		return EvaluationStatus.IS_DONE;
 	}
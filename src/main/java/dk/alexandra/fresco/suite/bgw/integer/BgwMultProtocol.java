@@ -37,6 +37,7 @@ import dk.alexandra.fresco.lib.field.integer.MultProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.ShamirShare;
+import dk.alexandra.fresco.suite.bgw.ShamirShareContext;
 
 public class BgwMultProtocol extends BgwProtocol implements MultProtocol {
 
@@ -75,19 +76,20 @@ public class BgwMultProtocol extends BgwProtocol implements MultProtocol {
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
 		int n = resourcePool.getNoOfParties();
-		int threshold = BgwProtocolSuite.getInstance().getThreshold();
+		BgwProtocolSuite suite = getSuite(resourcePool);
+		ShamirShareContext context = suite.getShareContext();
 		switch (round) {
 		case 0:
 			outC.value = inA.value.mult(inB.value);
-			ShamirShare[] reshares = ShamirShare.createShares(
-					outC.value.getField(), n, threshold);
+			ShamirShare[] reshares = context.createShares(
+					outC.value.getField(), n, suite.getThreshold());
 			network.sendSharesToAll(reshares);
 			network.expectInputFromAll();
 			return EvaluationStatus.HAS_MORE_ROUNDS;
 		case 1:
 			List<ShamirShare> shares = network.receiveFromAll();
 			outC.value = new ShamirShare(resourcePool.getMyId(),
-					ShamirShare.recombine(shares, shares.size()));
+					context.recombine(shares, shares.size()));
 			return EvaluationStatus.IS_DONE;
 		default:
 			throw new MPCException("Cannot evaluate rounds larger than 1.");
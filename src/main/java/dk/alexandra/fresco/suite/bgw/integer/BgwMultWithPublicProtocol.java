@@ -31,7 +31,6 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.MultProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwMultWithPublicProtocol extends BgwProtocol implements MultProtocol{
 
@@ -48,7 +47,7 @@ public class BgwMultWithPublicProtocol extends BgwProtocol implements MultProtoc
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		outC.value = new ShamirShare(inB.value.getPoint(), inB.value.getField().multiply(
+		outC.value = getShareContext(resourcePool).share(inB.value.getPoint(), inB.value.getField().multiply(
 				inA.getValue()));
 		return EvaluationStatus.IS_DONE;
 	}
@@ -86,7 +86,7 @@ public class BgwOpenIntProtocol extends BgwProtocol implements OpenIntProtocol {
 			return EvaluationStatus.HAS_MORE_ROUNDS;
 		case 1:
 			List<ShamirShare> shares = network.receiveFromAll();
-			BigInteger recombined = ShamirShare
+			BigInteger recombined = getShareContext(resourcePool)
 					.recombine(shares, shares.size());
 			this.output.setValue(recombined);
 			return EvaluationStatus.IS_DONE;
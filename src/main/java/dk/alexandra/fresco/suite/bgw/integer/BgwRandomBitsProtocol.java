@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Protocol;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularSquareRoot;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
+import dk.alexandra.fresco.suite.bgw.ShamirShareContext;
+
+/**
+ * Creates a vector of random shared bits.
+ *
+ * For each bit, a random value <i>r</i> is taken from the
+ * {@link dk.alexandra.fresco.suite.bgw.storage.BgwPrssSupplier}, and
+ * <i>r<sup>2</sup></i> is computed and opened. With <i>s</i> being a fixed
+ * square root of <i>r<sup>2</sup></i>, <i>r / s</i> is 1 or -1 with equal
+ * probability, so <i>(r / s + 1) / 2</i> is a random bit. The squares of the
+ * whole vector are reshared and opened together, so this takes three rounds
+ * for any number of bits: the squares are reshared in round 0, the new
+ * shares are recombined and opened in round 1 and the bits are computed in
+ * round 2. The resharing cannot be left out: the local products are points
+ * on the square of the polynomial sharing <i>r</i>, so opening them would
+ * reveal that polynomial up to its sign, which each party could then tell
+ * from its own share, learning the bit.
+ *
+ * If some <i>r</i> is zero the protocol fails. This happens with probability
+ * about <i>k / p</i> for <i>k</i> bits, which is negligible for the moduli
+ * used with BGW.
+ */
+public class BgwRandomBitsProtocol extends BgwProtocol implements Protocol {
+
+	private BgwSInt[] bits;
+	private BigInteger[] r;
+
+	public BgwRandomBitsProtocol(SInt[] bits) {
+		this.bits = new BgwSInt[bits.length];
+		for (int i = 0; i < bits.length; i++) {
+			this.bits[i] = (BgwSInt) bits[i];
+		}
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int n = resourcePool.getNoOfParties();
+		BgwProtocolSuite suite = getSuite(resourcePool);
+		ShamirShareContext context = suite.getShareContext();
+		BigInteger p = suite.getModulus();
+		switch (round) {
+		case 0:
+			r = suite.getPrssSupplier().getNextRandomShares(network.getThreadId(), bits.length);
+			BigInteger[] squares = new BigInteger[bits.length];
+			for (int i = 0; i < bits.length; i++) {
+				squares[i] = r[i].multiply(r[i]);
+			}
+			network.sendSharesToAll(context.createShareVectors(squares, n, suite.getThreshold()));
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			List<Serializable> reshares = network.receiveFromAll();
+			network.sendToAll(context.packShares(context.recombineVectors(reshares, n)));
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 2:
+			List<Serializable> received = network.receiveFromAll();
+			BigInteger[] opened = context.recombineVectors(received, n);
+			BigInteger twoInverse = BigInteger.valueOf(2).modInverse(p);
+			for (int i = 0; i < bits.length; i++) {
+				if (opened[i].signum() == 0) {
+					throw new MPCException("Random value for a random bit was zero");
+				}
+				BigInteger rootInverse = ModularSquareRoot.sqrt(opened[i], p).modInverse(p);
+				BigInteger bit = r[i].multiply(rootInverse).add(BigInteger.ONE).multiply(twoInverse);
+				bits[i].value = context.share(resourcePool.getMyId(), bit);
+			}
+			r = null;
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 2.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirRandomBitsGate(" + bits.length + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[0];
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return bits;
+	}
+}
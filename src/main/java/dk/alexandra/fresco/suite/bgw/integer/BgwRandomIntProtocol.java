@@ -27,57 +27,35 @@
 package dk.alexandra.fresco.suite.bgw.integer;
 
 import java.math.BigInteger;
-import java.security.SecureRandom;
-import java.util.List;
 
-import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.Protocol;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
+/**
+ * Creates a random shared value. The share is taken from the
+ * {@link dk.alexandra.fresco.suite.bgw.storage.BgwPrssSupplier}, so this needs
+ * no communication.
+ */
 public class BgwRandomIntProtocol extends BgwProtocol implements Protocol {
 
 	public BgwSInt output;
-	private int parties, treshold;
 
-	public BgwRandomIntProtocol(SecureRandom rand, SInt out) {
+	public BgwRandomIntProtocol(SInt out) {
 		output = (BgwSInt) out;
 	}
 
-	public BgwRandomIntProtocol(SInt out, int noOfParties, int treshold) {
-		output = (BgwSInt) out;
-		this.parties = noOfParties;
-		this.treshold = treshold;
-	}
-
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		switch (round) {
-		case 0:
-			BgwProtocolSuite suite = BgwProtocolSuite.getInstance();
-			BigInteger mod = suite.getModulus();
-			BigInteger secret = new BigInteger(
-					mod.bitLength(), resourcePool.getSecureRandom())
-					.mod(mod);
-			ShamirShare[] reshares = ShamirShare.createShares(secret, parties,
-					treshold);
-			network.sendSharesToAll(reshares);
-			network.expectInputFromAll();
-			return EvaluationStatus.HAS_MORE_ROUNDS;
-		case 1:
-			List<ShamirShare> tmp = network.receiveFromAll();
-			reshares = (ShamirShare[]) tmp.toArray();
-			BigInteger ll = ShamirShare.recombine(reshares, parties);
-			this.output.value = new ShamirShare(resourcePool.getMyId(), ll);
-			return EvaluationStatus.IS_DONE;
-		}
-		throw new MPCException("Cannot evaluate rounds larger than 1");
+		BigInteger share = getSuite(resourcePool).getPrssSupplier()
+				.getNextRandomShare(network.getThreadId());
+		this.output.value = new ShamirShare(resourcePool.getMyId(), share);
+		return EvaluationStatus.IS_DONE;
 	}
 
 	@Override
@@ -87,13 +65,11 @@ public class BgwRandomIntProtocol extends BgwProtocol implements Protocol {
 
 	@Override
 	public Value[] getInputValues() {
-		// TODO Auto-generated method stub
-		return null;
+		return new Value[0];
 	}
 
 	@Override
 	public Value[] getOutputValues() {
-		// TODO Auto-generated method stub
-		return null;
+		return new Value[] { output };
 	}
 }
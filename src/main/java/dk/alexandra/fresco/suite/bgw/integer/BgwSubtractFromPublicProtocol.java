@@ -33,7 +33,6 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.SubtractProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwSubtractFromPublicProtocol extends BgwProtocol implements SubtractProtocol {
 
@@ -64,7 +63,7 @@ public class BgwSubtractFromPublicProtocol extends BgwProtocol implements Subtra
 
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool, SCENetwork network) {
-		outC.value = new ShamirShare(inB.value.getPoint(), inA.getValue().subtract(
+		outC.value = getShareContext(resourcePool).share(inB.value.getPoint(), inA.getValue().subtract(
 				inB.value.getField()));
 		return EvaluationStatus.IS_DONE;
 	}
@@ -32,7 +32,6 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.SubtractProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwSubtractProtocol extends BgwProtocol implements SubtractProtocol {
 
@@ -70,7 +69,7 @@ public class BgwSubtractProtocol extends BgwProtocol implements SubtractProtocol
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		outC.value = new ShamirShare(inA.value.getPoint(), inA.value.getField()
+		outC.value = getShareContext(resourcePool).share(inA.value.getPoint(), inA.value.getField()
 				.subtract(inB.value.getField()));
 		return EvaluationStatus.IS_DONE;
 	}
@@ -33,7 +33,6 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.SubtractProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwSubtractPublicProtocol extends BgwProtocol implements SubtractProtocol {
 
@@ -64,7 +63,7 @@ public class BgwSubtractPublicProtocol extends BgwProtocol implements SubtractPr
 
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool, SCENetwork network) {
-		outC.value = new ShamirShare(inA.value.getPoint(), inA.value.getField().subtract(
+		outC.value = getShareContext(resourcePool).share(inA.value.getPoint(), inA.value.getField().subtract(
 				inB.getValue()));
 		return EvaluationStatus.IS_DONE;
 	}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+
+/**
+ * Sums a vector of secret shared values. The sum is only reduced once.
+ */
+public class BgwSumProtocol extends BgwProtocol implements AddProtocol {
+
+	private BgwSInt[] in;
+	private BgwSInt out;
+
+	public BgwSumProtocol(SInt[] in, SInt out) {
+		this.in = new BgwSInt[in.length];
+		for (int i = 0; i < in.length; i++) {
+			this.in[i] = (BgwSInt) in[i];
+		}
+		this.out = (BgwSInt) out;
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirSumGate(" + in.length + "," + out + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return in;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		BigInteger sum = BigInteger.ZERO;
+		for (BgwSInt value : in) {
+			sum = sum.add(value.value.getField());
+		}
+		out.value = getShareContext(resourcePool).share(resourcePool.getMyId(), sum);
+		return EvaluationStatus.IS_DONE;
+	}
+
+}
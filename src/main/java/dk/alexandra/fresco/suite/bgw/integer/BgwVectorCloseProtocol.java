@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+import dk.alexandra.fresco.suite.bgw.ShamirShareContext;
+
+/**
+ * Lets a single party input a vector of values. The inputter sends the
+ * shares of all the values to each party as a single message.
+ */
+public class BgwVectorCloseProtocol extends BgwProtocol implements CloseIntProtocol {
+
+	private int inputter;
+	private OInt[] input;
+	private BgwSInt[] output;
+
+	public BgwVectorCloseProtocol(int inputter, OInt[] in, SInt[] out) {
+		if (in.length != out.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.inputter = inputter;
+		this.input = in;
+		this.output = new BgwSInt[out.length];
+		for (int i = 0; i < out.length; i++) {
+			this.output[i] = (BgwSInt) out[i];
+		}
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		BgwProtocolSuite suite = getSuite(resourcePool);
+		ShamirShareContext context = suite.getShareContext();
+		switch (round) {
+		case 0:
+			if (inputter == myId) {
+				BigInteger[] secrets = new BigInteger[input.length];
+				for (int i = 0; i < input.length; i++) {
+					secrets[i] = input[i].getValue();
+				}
+				network.sendSharesToAll(context.createShareVectors(secrets,
+						resourcePool.getNoOfParties(), suite.getThreshold()));
+			}
+			network.expectInputFromPlayer(inputter);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			Serializable received = network.receive(inputter);
+			BigInteger[] shares = context.unpackShares(received);
+			for (int i = 0; i < output.length; i++) {
+				output[i].value = new ShamirShare(myId, shares[i]);
+			}
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirVectorInputIntGate(" + inputter + "," + output.length + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[0];
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return output;
+	}
+}
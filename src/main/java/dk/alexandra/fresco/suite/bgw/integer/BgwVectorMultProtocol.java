@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
+import dk.alexandra.fresco.suite.bgw.LongPrimeField;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+import dk.alexandra.fresco.suite.bgw.ShamirShareContext;
+
+/**
+ * Multiplies two vectors of secret shared values entrywise.
+ *
+ * This does the same as a {@link BgwMultProtocol} per entry, but reshares
+ * all the local products at once and sends the shares to each party as a
+ * single message. If the modulus is small enough, the products and the
+ * resharing are computed using arithmetic on longs.
+ */
+public class BgwVectorMultProtocol extends BgwProtocol implements MultProtocol {
+
+	private BgwSInt[] inA;
+	private BgwSInt[] inB;
+	private BgwSInt[] outC;
+
+	public BgwVectorMultProtocol(SInt[] inA, SInt[] inB, SInt[] outC) {
+		if (inA.length != inB.length || inA.length != outC.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.inA = new BgwSInt[inA.length];
+		this.inB = new BgwSInt[inB.length];
+		this.outC = new BgwSInt[outC.length];
+		for (int i = 0; i < inA.length; i++) {
+			this.inA[i] = (BgwSInt) inA[i];
+			this.inB[i] = (BgwSInt) inB[i];
+			this.outC[i] = (BgwSInt) outC[i];
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirVectorMultGate(" + outC.length + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		Value[] inputs = new Value[2 * outC.length];
+		System.arraycopy(inA, 0, inputs, 0, outC.length);
+		System.arraycopy(inB, 0, inputs, outC.length, outC.length);
+		return inputs;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return outC;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int n = resourcePool.getNoOfParties();
+		BgwProtocolSuite suite = getSuite(resourcePool);
+		ShamirShareContext context = suite.getShareContext();
+		switch (round) {
+		case 0:
+			LongPrimeField field = context.getLongField();
+			Serializable[] reshares;
+			if (field != null) {
+				long[] products = new long[outC.length];
+				for (int i = 0; i < outC.length; i++) {
+					products[i] = field.multiply(field.fromBigInteger(inA[i].value.getField()),
+							field.fromBigInteger(inB[i].value.getField()));
+				}
+				reshares = context.createShares(products, n, suite.getThreshold());
+			} else {
+				BigInteger[] products = new BigInteger[outC.length];
+				for (int i = 0; i < outC.length; i++) {
+					products[i] = inA[i].value.mult(inB[i].value).getField();
+				}
+				reshares = context.createShareVectors(products, n, suite.getThreshold());
+			}
+			network.sendSharesToAll(reshares);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			List<Serializable> shares = network.receiveFromAll();
+			BigInteger[] products = context.recombineVectors(shares, shares.size());
+			for (int i = 0; i < outC.length; i++) {
+				outC[i].value = new ShamirShare(resourcePool.getMyId(), products[i]);
+			}
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.ShamirShareContext;
+
+/**
+ * Opens a vector of secret values to all parties. Each party sends its shares
+ * of all the values to all other parties as a single message, and then all
+ * parties recombine.
+ */
+public class BgwVectorOpenProtocol extends BgwProtocol implements OpenIntProtocol {
+
+	private BgwSInt[] input;
+	private OInt[] output;
+
+	public BgwVectorOpenProtocol(SInt[] in, OInt[] out) {
+		if (in.length != out.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.input = new BgwSInt[in.length];
+		for (int i = 0; i < in.length; i++) {
+			this.input[i] = (BgwSInt) in[i];
+		}
+		this.output = out;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		ShamirShareContext context = getShareContext(resourcePool);
+		switch (round) {
+		case 0:
+			BigInteger[] shares = new BigInteger[input.length];
+			for (int i = 0; i < input.length; i++) {
+				shares[i] = input[i].value.getField();
+			}
+			network.sendToAll(context.packShares(shares));
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			List<Serializable> received = network.receiveFromAll();
+			BigInteger[] opened = context.recombineVectors(received, received.size());
+			for (int i = 0; i < output.length; i++) {
+				output[i].setValue(opened[i]);
+			}
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirVectorOpenIntGate(" + input.length + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return input;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return output;
+	}
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.storage;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * Supplies shares of random field elements without any communication, using
+ * pseudo-random secret sharing (PRSS) as described by Cramer, Damgård and
+ * Ishai.
+ * <p>
+ * For every set <i>A</i> of <i>n - t</i> parties, the parties in <i>A</i>
+ * share a key <i>k<sub>A</sub></i>, and <i>f<sub>A</sub></i> is the
+ * polynomial of degree <i>t</i> with <i>f<sub>A</sub>(0) = 1</i> and
+ * <i>f<sub>A</sub>(j) = 0</i> for all parties <i>j</i> not in <i>A</i>. The
+ * random value is the sum of <i>PRF(k<sub>A</sub>)</i> over all sets, and my
+ * share of it is the sum of <i>PRF(k<sub>A</sub>) f<sub>A</sub>(i)</i> over
+ * the sets containing me. Any <i>t</i> parties miss the key of the set of
+ * all other parties, so the value is random to them.
+ * </p>
+ * <p>
+ * The keys are established once by {@link #setup}. The PRF is AES in counter
+ * mode, and each stream of values has its own counter, so the parties must
+ * take values from a stream in the same order. Protocols use the id of the
+ * thread evaluating them as the stream, and values taken while protocols are
+ * built use {@link #CONSTRUCTION_STREAM}. Since the number of keys is
+ * <i>n</i> choose <i>t</i>, this is meant for a small number of parties.
+ * </p>
+ */
+public class BgwPrssSupplier {
+
+	/**
+	 * The stream used for values taken when protocols are built rather than
+	 * when they are evaluated.
+	 */
+	public static final int CONSTRUCTION_STREAM = -1;
+
+	private static final int KEY_SIZE = 16;
+	private static final String CHANNEL = "0";
+
+	private final BigInteger modulus;
+	private final int bytesPerValue;
+	private final byte[][] keys;
+	private final BigInteger[] factors;
+	private final ConcurrentMap<Integer, Cipher[]> streams;
+
+	/**
+	 * @param keys
+	 *            the keys of the sets containing me, indexed by the bit mask
+	 *            of the set with bit <i>j - 1</i> for party <i>j</i>.
+	 */
+	public BgwPrssSupplier(int myId, int noOfParties, int threshold, BigInteger modulus,
+			Map<Integer, byte[]> keys) {
+		this.modulus = modulus;
+		// 64 extra bits makes the reduced values statistically close to uniform
+		this.bytesPerValue = (modulus.bitLength() + 64 + 7) / 8;
+		List<Integer> sets = getSets(noOfParties, threshold, myId);
+		this.keys = new byte[sets.size()][];
+		this.factors = new BigInteger[sets.size()];
+		for (int i = 0; i < sets.size(); i++) {
+			int set = sets.get(i);
+			this.keys[i] = keys.get(set);
+			if (this.keys[i] == null) {
+				throw new MPCException("Missing PRSS key for the set " + Integer.toBinaryString(set));
+			}
+			this.factors[i] = getFactor(set, noOfParties, myId);
+		}
+		this.streams = new ConcurrentHashMap<Integer, Cipher[]>();
+	}
+
+	/**
+	 * Establishes the keys with the other parties. For each set, the party
+	 * with the lowest id in the set chooses the key and sends it to the other
+	 * parties in the set.
+	 */
+	public static BgwPrssSupplier setup(Network network, int myId, int noOfParties, int threshold,
+			BigInteger modulus, SecureRandom random) throws IOException {
+		List<Integer> sets = getSets(noOfParties, threshold, myId);
+		Map<Integer, byte[]> keys = new TreeMap<Integer, byte[]>();
+		for (int set : sets) {
+			if (leader(set) == myId) {
+				byte[] key = new byte[KEY_SIZE];
+				random.nextBytes(key);
+				keys.put(set, key);
+			}
+		}
+		for (int j = myId + 1; j <= noOfParties; j++) {
+			List<byte[]> toSend = new ArrayList<byte[]>();
+			for (int set : sets) {
+				if (leader(set) == myId && contains(set, j)) {
+					toSend.add(keys.get(set));
+				}
+			}
+			network.send(CHANNEL, j, toSend.toArray(new byte[0][]));
+		}
+		for (int j = 1; j < myId; j++) {
+			byte[][] received = network.receive(CHANNEL, j);
+			int next = 0;
+			for (int set : sets) {
+				if (leader(set) == j) {
+					keys.put(set, received[next++]);
+				}
+			}
+		}
+		return new BgwPrssSupplier(myId, noOfParties, threshold, modulus, keys);
+	}
+
+	public BigInteger getNextRandomShare(int stream) {
+		return getNextRandomShares(stream, 1)[0];
+	}
+
+	/**
+	 * @param stream
+	 *            the stream to take the values from, usually the id of the
+	 *            thread.
+	 * @return my shares of the given number of random values. The shares are
+	 *         reduced.
+	 */
+	public BigInteger[] getNextRandomShares(int stream, int count) {
+		Cipher[] ciphers = getStream(stream);
+		BigInteger[] shares = new BigInteger[count];
+		for (int i = 0; i < count; i++) {
+			shares[i] = BigInteger.ZERO;
+		}
+		byte[] zeros = new byte[count * bytesPerValue];
+		byte[] value = new byte[bytesPerValue];
+		for (int k = 0; k < ciphers.length; k++) {
+			byte[] bytes = ciphers[k].update(zeros);
+			for (int i = 0; i < count; i++) {
+				System.arraycopy(bytes, i * bytesPerValue, value, 0, bytesPerValue);
+				shares[i] = shares[i].add(new BigInteger(1, value).multiply(factors[k]));
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			shares[i] = shares[i].mod(modulus);
+		}
+		return shares;
+	}
+
+	private Cipher[] getStream(int stream) {
+		Cipher[] ciphers = streams.get(stream);
+		if (ciphers == null) {
+			ciphers = new Cipher[keys.length];
+			byte[] iv = ByteBuffer.allocate(16).putLong(stream).array();
+			try {
+				for (int k = 0; k < keys.length; k++) {
+					ciphers[k] = Cipher.getInstance("AES/CTR/NoPadding");
+					ciphers[k].init(Cipher.ENCRYPT_MODE, new SecretKeySpec(keys[k], "AES"),
+							new IvParameterSpec(iv));
+				}
+			} catch (GeneralSecurityException e) {
+				throw new MPCException("AES is not available", e);
+			}
+			Cipher[] existing = streams.putIfAbsent(stream, ciphers);
+			if (existing != null) {
+				ciphers = existing;
+			}
+		}
+		return ciphers;
+	}
+
+	/**
+	 * @return the sets of <i>n - t</i> parties containing me, in increasing
+	 *         order of their bit masks.
+	 */
+	static List<Integer> getSets(int noOfParties, int threshold, int myId) {
+		List<Integer> sets = new ArrayList<Integer>();
+		for (int set = 0; set < (1 << noOfParties); set++) {
+			if (Integer.bitCount(set) == noOfParties - threshold && contains(set, myId)) {
+				sets.add(set);
+			}
+		}
+		return sets;
+	}
+
+	/**
+	 * @return <i>f<sub>A</sub>(i)</i>, i.e. the product of
+	 *         <i>(j - i) / j</i> over the parties <i>j</i> not in <i>A</i>.
+	 */
+	private BigInteger getFactor(int set, int noOfParties, int myId) {
+		BigInteger numerator = BigInteger.ONE;
+		BigInteger denominator = BigInteger.ONE;
+		for (int j = 1; j <= noOfParties; j++) {
+			if (!contains(set, j)) {
+				numerator = numerator.multiply(BigInteger.valueOf(j - myId));
+				denominator = denominator.multiply(BigInteger.valueOf(j));
+			}
+		}
+		return numerator.multiply(denominator.modInverse(modulus)).mod(modulus);
+	}
+
+	private static boolean contains(int set, int id) {
+		return (set & (1 << (id - 1))) != 0;
+	}
+
+	private static int leader(int set) {
+		return Integer.numberOfTrailingZeros(set) + 1;
+	}
+
+}
@@ -33,6 +33,7 @@ import org.apache.commons.cli.ParseException;
 
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 
@@ -60,6 +61,51 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 	 * @return
 	 */
 	public boolean useDummyData();
+
+	/**
+	 * True: system will read preprocessed data from memory-mapped record
+	 * files, see {@link dk.alexandra.fresco.suite.spdz.storage.MappedDataSupplier}.
+	 * False: System will read data from the FRESCO native storage.
+	 * Ignored when using dummy data.
+	 * @return
+	 */
+	public default boolean useMappedData() {
+		return false;
+	}
+
+	/**
+	 * The number of triples, input masks and bits each VM thread reads ahead
+	 * of consumption in a background thread, see
+	 * {@link dk.alexandra.fresco.suite.spdz.storage.PrefetchingDataSupplier}.
+	 * 0 means that preprocessed data is read when it is needed.
+	 * @return
+	 */
+	public default int getPrefetchDepth() {
+		return 0;
+	}
+
+	/**
+	 * The address, as <i>host</i>:<i>port</i>, of a
+	 * {@link dk.alexandra.fresco.suite.spdz.storage.FakeDataDealer} to get
+	 * preprocessed data from instead of the storage. Only for tests, as the
+	 * dealer knows all secrets.
+	 * null means that no dealer is used. Ignored when using dummy data.
+	 * @return
+	 */
+	public default String getDealerAddress() {
+		return null;
+	}
+
+	/**
+	 * The lengths of the shorter exp pipes in the preprocessed data besides
+	 * the full length pipes, see {@link Util#setExpPipeSizeClasses(int...)}.
+	 * Must match the classes the preprocessed data was generated with.
+	 * An empty array means that only full length pipes are used.
+	 * @return
+	 */
+	public default int[] getExpPipeSizeClasses() {
+		return new int[0];
+	}
 	
 	static SpdzConfiguration fromCmdLine(SCEConfiguration sceConf,
 			CommandLine cmd) throws ParseException {
@@ -71,6 +117,18 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 		}
 		final String triplePath = p.getProperty("spdz.triplePath", "/triples");
 		final boolean useDummyData = Boolean.parseBoolean(p.getProperty("spdz.useDummyData", "False"));
+		final boolean useMappedData = Boolean.parseBoolean(p.getProperty("spdz.useMappedData", "False"));
+		final int prefetchDepth = Integer.parseInt(p.getProperty("spdz.prefetchDepth", "0"));
+		if (prefetchDepth < 0) {
+			throw new ParseException("spdz.prefetchDepth must be >= 0");
+		}
+		final String dealerAddress = p.getProperty("spdz.dealerAddress");
+		final int[] expPipeSizeClasses;
+		try {
+			expPipeSizeClasses = Util.parseExpPipeSizeClasses(p.getProperty("spdz.expPipeSizeClasses"));
+		} catch (NumberFormatException e) {
+			throw new ParseException("spdz.expPipeSizeClasses must be a comma separated list of lengths");
+		}
 
 		return new SpdzConfiguration() {
 
@@ -88,6 +146,26 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 			public boolean useDummyData() {
 				return useDummyData;
 			}
+
+			@Override
+			public boolean useMappedData() {
+				return useMappedData;
+			}
+
+			@Override
+			public int getPrefetchDepth() {
+				return prefetchDepth;
+			}
+
+			@Override
+			public String getDealerAddress() {
+				return dealerAddress;
+			}
+
+			@Override
+			public int[] getExpPipeSizeClasses() {
+				return expPipeSizeClasses.clone();
+			}
 		};
 	}
 
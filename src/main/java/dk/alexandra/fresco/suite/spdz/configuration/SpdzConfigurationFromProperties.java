@@ -65,5 +65,25 @@ public class SpdzConfigurationFromProperties implements SpdzConfiguration {
 	public boolean useDummyData() {
 		return Boolean.parseBoolean(prop.getProperty("useDummyData", "False"));
 	}
+
+	@Override
+	public boolean useMappedData() {
+		return Boolean.parseBoolean(prop.getProperty("useMappedData", "False"));
+	}
+
+	@Override
+	public int getPrefetchDepth() {
+		return Integer.parseInt(prop.getProperty("prefetchDepth", "0"));
+	}
+
+	@Override
+	public String getDealerAddress() {
+		return prop.getProperty("dealerAddress");
+	}
+
+	@Override
+	public int[] getExpPipeSizeClasses() {
+		return dk.alexandra.fresco.suite.spdz.utils.Util.parseExpPipeSizeClasses(prop.getProperty("expPipeSizeClasses"));
+	}
 	
 }
@@ -26,16 +26,42 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.datatypes;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.math.BigInteger;
 
+import dk.alexandra.fresco.suite.spdz.utils.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzElement implements Serializable{
 	
 	private static final long serialVersionUID = 6794633112697012286L;
-	private BigInteger share;
-	private BigInteger mac;
+	private volatile BigInteger share;
+	private volatile BigInteger mac;
+	// The same values as fixed width limbs, used for the arithmetic when the
+	// modulus allows it (see Util.getField()). Each representation is computed
+	// from the other one when it is first needed. The fields are volatile as
+	// an element may be read by several VM threads, and the representation
+	// computed by one of them must be seen completely by the others.
+	private transient volatile Limbs shareLimbs;
+	private transient volatile Limbs macLimbs;
+
+	/**
+	 * Limbs together with the field they were computed for, so limbs left
+	 * from an earlier modulus are not used with a new one. Kept in a single
+	 * object so the two are always read and written together.
+	 */
+	private static final class Limbs {
+		private final MontgomeryField field;
+		private final long[] values;
+
+		private Limbs(MontgomeryField field, long[] values) {
+			this.field = field;
+			this.values = values;
+		}
+	}
 	
 	public SpdzElement(){
 		this.share = null;
@@ -46,18 +72,30 @@ public class SpdzElement implements Serializable{
 		this.share = share;
 		this.mac = mac;		
 	}
+
+	private SpdzElement(MontgomeryField field, long[] shareLimbs, long[] macLimbs){
+		this.shareLimbs = new Limbs(field, shareLimbs);
+		this.macLimbs = new Limbs(field, macLimbs);
+	}
+
+	/**
+	 * Creates a copy of the given element which can safely be modified by the
+	 * in-place operations.
+	 * @param e the element to copy
+	 */
+	public SpdzElement(SpdzElement e){
+		Limbs eShareLimbs = e.shareLimbs;
+		Limbs eMacLimbs = e.macLimbs;
+		this.share = e.share;
+		this.mac = e.mac;
+		this.shareLimbs = eShareLimbs == null ? null : new Limbs(eShareLimbs.field, eShareLimbs.values.clone());
+		this.macLimbs = eMacLimbs == null ? null : new Limbs(eMacLimbs.field, eMacLimbs.values.clone());
+	}
 	
 	//Communication methods	
 	public SpdzElement(byte[] data){
-		int size = getSize();
-		byte[] shareBytes = new byte[size];
-		byte[] macBytes = new byte[size];
-		for(int i = 0; i < data.length/2; i++){
-			shareBytes[i] = data[i];
-			macBytes[i] = data[size+i];
-		}
-		this.share = new BigInteger(shareBytes);
-		this.mac = new BigInteger(macBytes);
+		this.share = SpdzSerializer.deserialize(data, 0);
+		this.mac = SpdzSerializer.deserialize(data, getSize());
 	}
 
 	public static int getSize(){
@@ -65,35 +103,71 @@ public class SpdzElement implements Serializable{
 	}
 	
 	public byte[] toByteArray(){		
-		byte[] share_invert = new byte[getSize()];
-		byte[] mac_invert = new byte[getSize()];
-		copyAndInvertArray(share_invert, this.share.toByteArray());
-		copyAndInvertArray(mac_invert, this.mac.toByteArray());
-		byte[] res = new byte[getSize()*2];
-		System.arraycopy(share_invert, 0, res, 0, getSize());
-		System.arraycopy(mac_invert, 0, res, getSize(), getSize());
-		return res;		
+		return SpdzSerializer.serialize(getShare(), getMac());
 	}
 	
-	private void copyAndInvertArray(byte[] bytes, byte[] byteArray) {
-        for (int inx = 0; inx < byteArray.length; inx++) {       
-            bytes[bytes.length - byteArray.length + inx] = byteArray[inx];            
-        }
-    }
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		// Only the BigInteger representation is serialized
+		getShare();
+		getMac();
+		out.defaultWriteObject();
+	}
 	
 	//get operations
 	public BigInteger getShare(){
-		return share;
+		BigInteger res = share;
+		if (res == null) {
+			Limbs limbs = shareLimbs;
+			if (limbs != null) {
+				res = MontgomeryField.toBigInteger(limbs.values);
+				share = res;
+			}
+		}
+		return res;
 	}	
 	
 	public BigInteger getMac(){
-		return mac;
+		BigInteger res = mac;
+		if (res == null) {
+			Limbs limbs = macLimbs;
+			if (limbs != null) {
+				res = MontgomeryField.toBigInteger(limbs.values);
+				mac = res;
+			}
+		}
+		return res;
+	}
+
+	private long[] shareLimbs(MontgomeryField field){
+		Limbs res = shareLimbs;
+		if (res == null || res.field != field) {
+			res = new Limbs(field, field.fromBigInteger(getShare()));
+			shareLimbs = res;
+		}
+		return res.values;
+	}
+
+	private long[] macLimbs(MontgomeryField field){
+		Limbs res = macLimbs;
+		if (res == null || res.field != field) {
+			res = new Limbs(field, field.fromBigInteger(getMac()));
+			macLimbs = res;
+		}
+		return res.values;
 	}
 	
 	//Arithmetic operations:
 	public SpdzElement add(SpdzElement e){
-		BigInteger rShare = this.share.add(e.getShare()).mod(Util.getModulus());
-		BigInteger rMac = this.mac.add(e.getMac()).mod(Util.getModulus());		
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] rShare = new long[field.getLimbs()];
+			long[] rMac = new long[field.getLimbs()];
+			field.add(shareLimbs(field), e.shareLimbs(field), rShare);
+			field.add(macLimbs(field), e.macLimbs(field), rMac);
+			return new SpdzElement(field, rShare, rMac);
+		}
+		BigInteger rShare = getShare().add(e.getShare()).mod(Util.getModulus());
+		BigInteger rMac = getMac().add(e.getMac()).mod(Util.getModulus());		
 		return new SpdzElement(rShare, rMac);
 	}
 	
@@ -104,8 +178,22 @@ public class SpdzElement implements Serializable{
 	 * @return
 	 */
 	public SpdzElement add(SpdzElement e, int pID){
-		BigInteger rShare = this.share;
-		BigInteger rMac = this.mac;
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] myShare = shareLimbs(field);
+			long[] rShare;
+			if (pID == 1) {
+				rShare = new long[field.getLimbs()];
+				field.add(myShare, e.shareLimbs(field), rShare);
+			} else {
+				rShare = myShare.clone();
+			}
+			long[] rMac = new long[field.getLimbs()];
+			field.add(macLimbs(field), e.macLimbs(field), rMac);
+			return new SpdzElement(field, rShare, rMac);
+		}
+		BigInteger rShare = getShare();
+		BigInteger rMac = getMac();
 		rMac = rMac.add(e.getMac()).mod(Util.getModulus());
 		if(pID == 1){
 			rShare = rShare.add(e.getShare()).mod(Util.getModulus());			
@@ -114,10 +202,18 @@ public class SpdzElement implements Serializable{
 	}
 	
 	public SpdzElement subtract(SpdzElement e){
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] rShare = new long[field.getLimbs()];
+			long[] rMac = new long[field.getLimbs()];
+			field.subtract(shareLimbs(field), e.shareLimbs(field), rShare);
+			field.subtract(macLimbs(field), e.macLimbs(field), rMac);
+			return new SpdzElement(field, rShare, rMac);
+		}
 		BigInteger eShare = e.getShare();
-		BigInteger rShare = this.share.subtract(eShare).mod(Util.getModulus());
+		BigInteger rShare = getShare().subtract(eShare).mod(Util.getModulus());
 		BigInteger eMac = e.getMac();
-		BigInteger rMac = this.mac.subtract(eMac).mod(Util.getModulus());				
+		BigInteger rMac = getMac().subtract(eMac).mod(Util.getModulus());				
 		return new SpdzElement(rShare, rMac);
 	}
 	
@@ -128,33 +224,105 @@ public class SpdzElement implements Serializable{
 	 * @return
 	 */
 	public SpdzElement subtract(SpdzElement e, int pID) {
-		BigInteger rShare = this.share;
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] myShare = shareLimbs(field);
+			long[] rShare;
+			if (pID == 1) {
+				rShare = new long[field.getLimbs()];
+				field.subtract(myShare, e.shareLimbs(field), rShare);
+			} else {
+				rShare = myShare.clone();
+			}
+			long[] rMac = new long[field.getLimbs()];
+			field.subtract(macLimbs(field), e.macLimbs(field), rMac);
+			return new SpdzElement(field, rShare, rMac);
+		}
+		BigInteger rShare = getShare();
 		if(pID == 1){
-			rShare = this.share.subtract(e.getShare()).mod(Util.getModulus());
+			rShare = getShare().subtract(e.getShare()).mod(Util.getModulus());
 		}
 		BigInteger eMac = e.getMac();
-		BigInteger rMac = this.mac.subtract(eMac).mod(Util.getModulus());				
+		BigInteger rMac = getMac().subtract(eMac).mod(Util.getModulus());				
 		return new SpdzElement(rShare, rMac);
 	}
 	
 	public SpdzElement multiply(BigInteger c){
-		BigInteger rShare = this.share.multiply(c).mod(Util.getModulus());
-		BigInteger rMac = this.mac.multiply(c).mod(Util.getModulus());				
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] factor = field.prepareFactor(c);
+			long[] rShare = new long[field.getLimbs()];
+			long[] rMac = new long[field.getLimbs()];
+			field.multiplyByFactor(shareLimbs(field), factor, rShare);
+			field.multiplyByFactor(macLimbs(field), factor, rMac);
+			return new SpdzElement(field, rShare, rMac);
+		}
+		BigInteger rShare = getShare().multiply(c).mod(Util.getModulus());
+		BigInteger rMac = getMac().multiply(c).mod(Util.getModulus());				
 		return new SpdzElement(rShare, rMac);		
 	}
+
+	//In-place arithmetic operations. These modify this element, so they must
+	//only be used on elements that are not referenced elsewhere, e.g. a copy.
+
+	/**
+	 * Adds e to this element.
+	 * @param e the element to add
+	 * @return this element
+	 */
+	public SpdzElement addInPlace(SpdzElement e){
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] myShare = shareLimbs(field);
+			long[] myMac = macLimbs(field);
+			field.add(myShare, e.shareLimbs(field), myShare);
+			field.add(myMac, e.macLimbs(field), myMac);
+			this.share = null;
+			this.mac = null;
+		} else {
+			this.share = getShare().add(e.getShare()).mod(Util.getModulus());
+			this.mac = getMac().add(e.getMac()).mod(Util.getModulus());
+			this.shareLimbs = null;
+			this.macLimbs = null;
+		}
+		return this;
+	}
+
+	/**
+	 * Adds e times the public value c to this element.
+	 * @param e the element to multiply and add
+	 * @param c a public value
+	 * @return this element
+	 */
+	public SpdzElement multiplyAddInPlace(SpdzElement e, BigInteger c){
+		MontgomeryField field = Util.getField();
+		if (field != null) {
+			long[] factor = field.prepareFactor(c);
+			field.multiplyAddByFactor(e.shareLimbs(field), factor, shareLimbs(field));
+			field.multiplyAddByFactor(e.macLimbs(field), factor, macLimbs(field));
+			this.share = null;
+			this.mac = null;
+		} else {
+			this.share = getShare().add(e.getShare().multiply(c)).mod(Util.getModulus());
+			this.mac = getMac().add(e.getMac().multiply(c)).mod(Util.getModulus());
+			this.shareLimbs = null;
+			this.macLimbs = null;
+		}
+		return this;
+	}
 	
 	
 	//Utility methods
 	@Override
 	public String toString(){
-		return "spdz("+share+", "+mac+")";
+		return "spdz("+getShare()+", "+getMac()+")";
 	}
 	
 	@Override
 	public boolean equals(Object o){
 		if(o instanceof SpdzElement){
 			SpdzElement e = (SpdzElement)o;		
-			return (e.getShare().equals(share) && e.getMac().equals(mac));
+			return (e.getShare().equals(getShare()) && e.getMac().equals(getMac()));
 		}else{
 			return false;
 		}
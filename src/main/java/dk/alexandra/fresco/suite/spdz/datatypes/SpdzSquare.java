@@ -26,7 +26,14 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.datatypes;
 
-public class SpdzSquare {
+import java.io.Serializable;
+
+/**
+ * A square pair, i.e. a sharing of a random value a and of b = a^2.
+ */
+public class SpdzSquare implements Serializable {
+
+	private static final long serialVersionUID = 2364916383413768541L;
 
 	private SpdzElement a, b;	
 	
@@ -42,5 +49,9 @@ public class SpdzSquare {
 	public SpdzElement getB(){
 		return b;
 	}
-	
+
+	@Override
+	public String toString() {
+		return "SpdzSquare [a=" + a + ", b=" + b + "]";
+	}
 }
@@ -32,13 +32,13 @@ import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.NativeProtocol;
 import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
 import dk.alexandra.fresco.framework.Reporter;
 import dk.alexandra.fresco.framework.network.Network;
@@ -48,12 +48,13 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzCommitment;
-import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzBroadcastValidationProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzCommitProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOpenCommitProtocol;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDummyImpl;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageImpl;
+import dk.alexandra.fresco.suite.spdz.utils.PackedFieldElements;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzProtocolSuite implements ProtocolSuite {
@@ -108,12 +109,16 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 		spdzConf = (SpdzConfiguration) conf;
 		this.network = resourcePool.getNetwork();
 		int noOfThreads = resourcePool.getVMThreadCount();
+		// The suppliers look up the size classes when they are created
+		Util.setExpPipeSizeClasses(spdzConf.getExpPipeSizeClasses());
 		this.store = new SpdzStorage[noOfThreads];
 		for (int i = 0; i < noOfThreads; i++) {
 			if (spdzConf.useDummyData()) {
-				store[i] = new SpdzStorageDummyImpl(resourcePool.getMyId(), resourcePool.getNoOfParties());
+				store[i] = new SpdzStorageDummyImpl(resourcePool.getMyId(), resourcePool.getNoOfParties(),
+						spdzConf.getPrefetchDepth());
 			} else {
-				store[i] = new SpdzStorageImpl(resourcePool, i);
+				store[i] = new SpdzStorageImpl(resourcePool, i, spdzConf.useMappedData(), spdzConf.getPrefetchDepth(),
+						spdzConf.getDealerAddress());
 			}
 		}
 		this.rand = resourcePool.getSecureRandom();
@@ -152,11 +157,6 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 		this.gatesEvaluated += gatesEvaluated;
 		if (this.gatesEvaluated > macCheckThreshold) {
 			try {
-				for (int i = 1; i < store.length; i++) {
-					store[0].getOpenedValues().addAll(store[i].getOpenedValues());
-					store[0].getClosedValues().addAll(store[i].getClosedValues());
-					store[i].reset();
-				}
 				MACCheck();
 			} catch (IOException e) {
 				throw new MPCException("Could not complete MACCheck.", e);
@@ -176,144 +176,105 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 	}
 
 	private void MACCheck() throws IOException {
-		// TODO: This is not truly random
-		BigInteger s = new BigInteger(Util.getModulus().bitLength(), rand).mod(Util.getModulus());
-		SpdzCommitment commitment = new SpdzCommitment(this.digs[0], s, rand);
-		Map<Integer, BigInteger> comms = new HashMap<Integer, BigInteger>();
-		SpdzCommitProtocol comm = new SpdzCommitProtocol(commitment, comms);
-		Map<Integer, BigInteger> ss = new HashMap<Integer, BigInteger>();
-		SpdzOpenCommitProtocol open = new SpdzOpenCommitProtocol(commitment, comms, ss);
-
 		SCENetworkImpl protocolNetwork = new SCENetworkImpl(this.rp.getNoOfParties(), 0);
+		checkBroadcasts(protocolNetwork);
 
-		EvaluationStatus status;
-		int i = 0;
-		do {
-			status = comm.evaluate(i, this.rp, protocolNetwork);
-			i++;
-			// send phase
-			Map<Integer, Queue<Serializable>> output = protocolNetwork.getOutputFromThisRound();
-			for (int pId : output.keySet()) {
-				// send array since queue is not serializable
-				network.send("0", pId, output.get(pId).toArray(new Serializable[0]));
-			}
-
-			// receive phase
-			Map<Integer, Queue<Serializable>> inputForThisRound = new HashMap<Integer, Queue<Serializable>>();
-			for (int pId : protocolNetwork.getExpectedInputForNextRound()) {
-				Serializable[] messages = network.receive("0", pId);
-				Queue<Serializable> q = new LinkedBlockingQueue<Serializable>();
-				// convert back from array to queue.
-				for (Serializable message : messages) {
-					q.offer(message);
-				}
-				inputForThisRound.put(pId, q);
-			}
-			protocolNetwork.setInput(inputForThisRound);
-			protocolNetwork.nextRound();
-		} while (status != EvaluationStatus.IS_DONE);
-
-		i = 0;
-		do {
-			status = open.evaluate(i, this.rp, protocolNetwork);
-			i++;
-			// send phase
-			Map<Integer, Queue<Serializable>> output = protocolNetwork.getOutputFromThisRound();
-			for (int pId : output.keySet()) {
-				// send array since queue is not serializable
-				network.send("0", pId, output.get(pId).toArray(new Serializable[0]));
-			}
-
-			// receive phase
-			Map<Integer, Queue<Serializable>> inputForThisRound = new HashMap<Integer, Queue<Serializable>>();
-			for (int pId : protocolNetwork.getExpectedInputForNextRound()) {
-				Serializable[] messages = network.receive("0", pId);
-				Queue<Serializable> q = new LinkedBlockingQueue<Serializable>();
-				// convert back from array to queue.
-				for (Serializable message : messages) {
-					q.offer(message);
-				}
-				inputForThisRound.put(pId, q);
-			}
-			protocolNetwork.setInput(inputForThisRound);
-			protocolNetwork.nextRound();
-		} while (status != EvaluationStatus.IS_DONE);
-
+		// TODO: This is not truly random
+		BigInteger mySeed = new BigInteger(Util.getModulus().bitLength(), rand).mod(Util.getModulus());
 		// Add all s's to get the common random value:
-		s = BigInteger.ZERO;
-		for (BigInteger otherS : ss.values()) {
+		BigInteger s = BigInteger.ZERO;
+		for (BigInteger otherS : commitAndOpen(mySeed, protocolNetwork).values()) {
 			s = s.add(otherS);
 		}
 
-		// TODO: Need to gather all values from all stores in a smart manner
-		// that makes the check good.
-		List<BigInteger> as = this.store[0].getOpenedValues();
-		int t = as.size();
-
-		BigInteger[] rs = new BigInteger[t];
+		// Fold the opened values and the MACs on the closed values of all
+		// threads into a and gamma_i using the same random coefficients r_j.
+		// The stores are visited in thread order such that all parties use
+		// the same coefficient for the same value.
 		MessageDigest H = new Util().getHashFunction();
-		BigInteger r_temp = s;
-		for (i = 0; i < t; i++) {
-			r_temp = new BigInteger(H.digest(r_temp.toByteArray())).mod(Util.getModulus());
-			rs[i] = r_temp;
-		}
+		BigInteger r = s;
 		BigInteger a = BigInteger.ZERO;
-		int index = 0;
-		for (BigInteger aa : as) {
-			a = a.add(aa.multiply(rs[index++])).mod(Util.getModulus());
-		}
-		// compute gamma_i as the sum of all MAC's on the opened values times
-		// r_j.
-		List<SpdzElement> closedValues = store[0].getClosedValues();
-		if (closedValues.size() != t) {
-			throw new MPCException(
-					"Amount of closed values does not equal the amount of partially opened values. Aborting!");
-		}
 		BigInteger gamma = BigInteger.ZERO;
-		index = 0;
-		for (SpdzElement c : closedValues) {
-			gamma = gamma.add(rs[index++].multiply(c.getMac())).mod(Util.getModulus());
+		int t = 0;
+		for (SpdzStorage storage : this.store) {
+			PackedFieldElements openedValues = storage.getOpenedValues();
+			PackedFieldElements closedMacs = storage.getClosedMacs();
+			if (closedMacs.size() != openedValues.size()) {
+				throw new MPCException(
+						"Amount of closed values does not equal the amount of partially opened values. Aborting!");
+			}
+			for (int j = 0; j < openedValues.size(); j++) {
+				r = new BigInteger(H.digest(r.toByteArray())).mod(Util.getModulus());
+				a = a.add(openedValues.get(j).multiply(r)).mod(Util.getModulus());
+				gamma = gamma.add(r.multiply(closedMacs.get(j))).mod(Util.getModulus());
+			}
+			t += openedValues.size();
 		}
 
 		// compute delta_i as: gamma_i - alpha_i*a
 		BigInteger delta = gamma.subtract(store[0].getSSK().multiply(a)).mod(Util.getModulus());
 		// Commit to delta and open it afterwards
-		commitment = new SpdzCommitment(this.digs[0], delta, rand);
-		comms = new HashMap<Integer, BigInteger>();
-		comm = new SpdzCommitProtocol(commitment, comms);
-		ss = new HashMap<Integer, BigInteger>();
-		open = new SpdzOpenCommitProtocol(commitment, comms, ss);
+		BigInteger deltaSum = BigInteger.ZERO;
+		for (BigInteger d : commitAndOpen(delta, protocolNetwork).values()) {
+			deltaSum = deltaSum.add(d);
+		}
+		deltaSum = deltaSum.mod(Util.getModulus());
+		if (!deltaSum.equals(BigInteger.ZERO)) {			
+			throw new MPCException("The sum of delta's was not 0. Someone was corrupting something amongst " + t
+					+ " macs. Sum was " + deltaSum.toString() + " Aborting!");
+		}
+		// clean up stores before returning to evaluating such that we only
+		// evaluate the next macs, not those we already checked.
+		for (SpdzStorage storage : this.store) {
+			storage.reset();
+		}
+	}
 
-		status = null;
-		i = 0;
-		do {
-			status = comm.evaluate(i, this.rp, protocolNetwork);
-			i++;
-			// send phase
-			Map<Integer, Queue<Serializable>> output = protocolNetwork.getOutputFromThisRound();
-			for (int pId : output.keySet()) {
-				// send array since queue is not serializable
-				network.send("0", pId, output.get(pId).toArray(new Serializable[0]));
+	/**
+	 * Validates the broadcasts whose validation was deferred since the last
+	 * check. The digests of all threads are combined in thread order, such
+	 * that all broadcasts are validated in a single round.
+	 */
+	private void checkBroadcasts(SCENetworkImpl protocolNetwork) throws IOException {
+		MessageDigest H = new Util().getHashFunction();
+		boolean pending = false;
+		for (SpdzStorage storage : this.store) {
+			byte[] digest = storage.getBroadcastDigest();
+			if (digest != null) {
+				H.update(digest);
+				pending = true;
 			}
+		}
+		if (pending) {
+			evaluate(new SpdzBroadcastValidationProtocol(H.digest()), protocolNetwork);
+		}
+	}
 
-			// receive phase
-			Map<Integer, Queue<Serializable>> inputForThisRound = new HashMap<Integer, Queue<Serializable>>();
-			for (int pId : protocolNetwork.getExpectedInputForNextRound()) {
-				Serializable[] messages = network.receive("0", pId);
-				Queue<Serializable> q = new LinkedBlockingQueue<Serializable>();
-				// convert back from array to queue.
-				for (Serializable message : messages) {
-					q.offer(message);
-				}
-				inputForThisRound.put(pId, q);
-			}
-			protocolNetwork.setInput(inputForThisRound);
-			protocolNetwork.nextRound();
-		} while (status != EvaluationStatus.IS_DONE);
+	/**
+	 * Commits to the given value and opens the commitments of all parties
+	 * afterwards.
+	 * 
+	 * @return the values committed to by each party, indexed by party id.
+	 */
+	private Map<Integer, BigInteger> commitAndOpen(BigInteger value, SCENetworkImpl protocolNetwork)
+			throws IOException {
+		SpdzCommitment commitment = new SpdzCommitment(this.digs[0], value, rand);
+		Map<Integer, BigInteger> comms = new HashMap<Integer, BigInteger>();
+		Map<Integer, BigInteger> ss = new HashMap<Integer, BigInteger>();
+		evaluate(new SpdzCommitProtocol(commitment, comms), protocolNetwork);
+		evaluate(new SpdzOpenCommitProtocol(commitment, comms, ss), protocolNetwork);
+		return ss;
+	}
 
-		i = 0;
+	/**
+	 * Evaluates a single native protocol directly on the network, outside of
+	 * the evaluator, by doing one send and receive phase per round.
+	 */
+	private void evaluate(NativeProtocol protocol, SCENetworkImpl protocolNetwork) throws IOException {
+		EvaluationStatus status;
+		int i = 0;
 		do {
-			status = open.evaluate(i, this.rp, protocolNetwork);
+			status = protocol.evaluate(i, this.rp, protocolNetwork);
 			i++;
 			// send phase
 			Map<Integer, Queue<Serializable>> output = protocolNetwork.getOutputFromThisRound();
@@ -336,19 +297,6 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 			protocolNetwork.setInput(inputForThisRound);
 			protocolNetwork.nextRound();
 		} while (status != EvaluationStatus.IS_DONE);
-
-		BigInteger deltaSum = BigInteger.ZERO;
-		for (BigInteger d : ss.values()) {
-			deltaSum = deltaSum.add(d);
-		}
-		deltaSum = deltaSum.mod(Util.getModulus());
-		if (!deltaSum.equals(BigInteger.ZERO)) {			
-			throw new MPCException("The sum of delta's was not 0. Someone was corrupting something amongst " + t
-					+ " macs. Sum was " + deltaSum.toString() + " Aborting!");
-		}
-		// clean up store before returning to evaluating such that we only
-		// evaluate the next macs, not those we already checked.
-		this.store[0].reset();
 	}
 
 	@Override
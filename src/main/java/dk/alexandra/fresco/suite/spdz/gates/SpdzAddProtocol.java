@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import dk.alexandra.fresco.framework.InteractionAware;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.OInt;
@@ -36,7 +37,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.utils.SpdzFactory;
 
-public class SpdzAddProtocol extends SpdzNativeProtocol implements AddProtocol {
+public class SpdzAddProtocol extends SpdzNativeProtocol implements AddProtocol, InteractionAware {
 
 	private SpdzSInt left, right, out;
 	private SpdzOInt oInt;
@@ -77,6 +78,11 @@ public class SpdzAddProtocol extends SpdzNativeProtocol implements AddProtocol {
 		return new Value[] { out };
 	}
 
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.Value;
+
+/**
+ * Checks that all players received the same broadcasts by comparing a digest
+ * of the broadcast values with the digests of all other players.
+ * 
+ * Used to validate the broadcasts of protocols that defer their validation,
+ * see {@link dk.alexandra.fresco.suite.spdz.storage.SpdzStorage#addBroadcastValues(byte[])}.
+ */
+public class SpdzBroadcastValidationProtocol extends SpdzNativeProtocol {
+
+	private byte[] digest;
+
+	public SpdzBroadcastValidationProtocol(byte[] digest) {
+		this.digest = digest;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		switch (round) {
+		case 0:
+			network.sendToAll(digest);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			if (!receiveBroadcastValidation(network, digest)) {
+				throw new MPCException("Broadcast digests did not match");
+			}
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 1");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return null;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return null;
+	}
+}
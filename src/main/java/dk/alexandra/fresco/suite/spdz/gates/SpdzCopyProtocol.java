@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import dk.alexandra.fresco.framework.InteractionAware;
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
@@ -34,7 +35,7 @@ import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.helper.CopyProtocol;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 
-public class SpdzCopyProtocol extends SpdzNativeProtocol implements CopyProtocol<SInt> {
+public class SpdzCopyProtocol extends SpdzNativeProtocol implements CopyProtocol<SInt>, InteractionAware {
 
 	SpdzSInt in, out;
 
@@ -58,6 +59,11 @@ public class SpdzCopyProtocol extends SpdzNativeProtocol implements CopyProtocol
 		return new Value[] { out };
 	}
 
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
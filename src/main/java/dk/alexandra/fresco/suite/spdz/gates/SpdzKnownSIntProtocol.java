@@ -28,6 +28,7 @@ package dk.alexandra.fresco.suite.spdz.gates;
 
 import java.math.BigInteger;
 
+import dk.alexandra.fresco.framework.InteractionAware;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
@@ -39,7 +40,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
-public class SpdzKnownSIntProtocol extends SpdzNativeProtocol implements KnownSIntProtocol {
+public class SpdzKnownSIntProtocol extends SpdzNativeProtocol implements KnownSIntProtocol, InteractionAware {
 
 	BigInteger value;
 	SpdzSInt sValue;
@@ -80,6 +81,11 @@ public class SpdzKnownSIntProtocol extends SpdzNativeProtocol implements KnownSI
 		return new Value[] { sValue };
 	}
 
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
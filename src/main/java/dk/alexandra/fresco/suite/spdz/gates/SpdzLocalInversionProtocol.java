@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import dk.alexandra.fresco.framework.InteractionAware;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.OInt;
@@ -35,7 +36,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzLocalInversionProtocol extends SpdzNativeProtocol implements
-		LocalInversionProtocol {
+		LocalInversionProtocol, InteractionAware {
 
 	private SpdzOInt in, out;
 
@@ -59,6 +60,11 @@ public class SpdzLocalInversionProtocol extends SpdzNativeProtocol implements
 		return new Value[] { out };
 	}
 
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
@@ -28,6 +28,7 @@ package dk.alexandra.fresco.suite.spdz.gates;
 
 import java.math.BigInteger;
 
+import dk.alexandra.fresco.framework.InteractionAware;
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
@@ -41,9 +42,10 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
-public class SpdzMultProtocol extends SpdzNativeProtocol implements MultProtocol {
+public class SpdzMultProtocol extends SpdzNativeProtocol implements MultProtocol, InteractionAware {
 
 	private SpdzSInt in1, in2, out;
 	private SpdzOInt oIn1;
@@ -51,6 +53,7 @@ public class SpdzMultProtocol extends SpdzNativeProtocol implements MultProtocol
 	private SpdzElement epsilon, delta; // my share of the differences [x]-[a]
 										// and [y]-[b].
 
+	@Override
 	public boolean isInteractive() {
 		return (oIn1 == null);
 	}
@@ -101,8 +104,8 @@ public class SpdzMultProtocol extends SpdzNativeProtocol implements MultProtocol
 				SpdzElement epsilon = in1.value.subtract(triple.getA());
 				SpdzElement delta = in2.value.subtract(triple.getB());
 
-				network.sendToAll(new BigInteger[] { epsilon.getShare(),
-						delta.getShare() });
+				network.sendToAll(SpdzSerializer.serialize(epsilon.getShare(),
+						delta.getShare()));
 				network.expectInputFromAll();
 				this.epsilon = epsilon;
 				this.delta = delta;
@@ -130,11 +133,13 @@ public class SpdzMultProtocol extends SpdzNativeProtocol implements MultProtocol
 			BigInteger[] epsilonShares = new BigInteger[noOfPlayers];
 			BigInteger[] deltaShares = new BigInteger[noOfPlayers];
 			for (int i = 0; i < noOfPlayers; i++) {
-				BigInteger[] shares = network.receive(i + 1);
-				epsilonShares[i] = shares[0];
-				deltaShares[i] = shares[1];
+				byte[] shares = network.receive(i + 1);
+				epsilonShares[i] = SpdzSerializer.deserialize(shares, 0);
+				deltaShares[i] = SpdzSerializer.deserialize(shares, Util.size);
 			}
-			SpdzElement res = triple.getC();
+			// Copy c since the result is computed in place and c may still be
+			// referenced by the data supplier.
+			SpdzElement res = new SpdzElement(triple.getC());
 			BigInteger e = epsilonShares[0];
 			BigInteger d = deltaShares[0];
 			for (int i = 1; i < epsilonShares.length; i++) {
@@ -147,9 +152,9 @@ public class SpdzMultProtocol extends SpdzNativeProtocol implements MultProtocol
 			BigInteger eTimesd = e.multiply(d).mod(Util.getModulus());
 			SpdzElement ed = new SpdzElement(eTimesd, store.getSSK()
 					.multiply(eTimesd).mod(Util.getModulus()));
-			res = res.add(triple.getB().multiply(e))
-					.add(triple.getA().multiply(d))
-					.add(ed, resourcePool.getMyId());
+			res.multiplyAddInPlace(triple.getB(), e)
+					.multiplyAddInPlace(triple.getA(), d);
+			res = res.add(ed, resourcePool.getMyId());
 			out.value = res;
 			// Set the opened and closed value.
 			store.addOpenedValue(e);
@@ -42,6 +42,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzOutputProtocol extends SpdzNativeProtocol implements OpenIntProtocol {
@@ -84,14 +85,14 @@ public class SpdzOutputProtocol extends SpdzNativeProtocol implements OpenIntPro
 			this.mask = storage.getSupplier().getNextInputMask(target_player);
 			SpdzElement inMinusMask = this.in.value.subtract(this.mask.getMask());
 			storage.addClosedValue(inMinusMask);
-			network.sendToAll(inMinusMask.getShare());
+			network.sendToAll(SpdzSerializer.serialize(inMinusMask.getShare()));
 			network.expectInputFromAll();
 			return EvaluationStatus.HAS_MORE_ROUNDS;
 		case 1:
-			List<BigInteger> shares = network.receiveFromAll();
+			List<byte[]> shares = network.receiveFromAll();
 			BigInteger openedVal = BigInteger.valueOf(0);
-			for (BigInteger share : shares) {
-				openedVal = openedVal.add(share);
+			for (byte[] share : shares) {
+				openedVal = openedVal.add(SpdzSerializer.deserialize(share));
 			}
 			openedVal = openedVal.mod(Util.getModulus());
 			storage.addOpenedValue(openedVal);
@@ -40,6 +40,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzOutputToAllProtocol extends SpdzNativeProtocol implements
@@ -61,14 +62,14 @@ public class SpdzOutputToAllProtocol extends SpdzNativeProtocol implements
 		SpdzStorage storage = spdzpii.getStore(network.getThreadId());
 		switch (round) {
 		case 0:
-			network.sendToAll(in.value.getShare());
+			network.sendToAll(SpdzSerializer.serialize(in.value.getShare()));
 			network.expectInputFromAll();
 			return EvaluationStatus.HAS_MORE_ROUNDS;
 		case 1:
-			List<BigInteger> shares = network.receiveFromAll();
+			List<byte[]> shares = network.receiveFromAll();
 			BigInteger openedVal = BigInteger.valueOf(0);
-			for (BigInteger share : shares) {
-				openedVal = openedVal.add(share);
+			for (byte[] share : shares) {
+				openedVal = openedVal.add(SpdzSerializer.deserialize(share));
 			}
 			openedVal = openedVal.mod(Util.getModulus());
 			storage.addOpenedValue(openedVal);
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.InteractionAware;
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Squares a secret shared value using a preprocessed square pair ([a], [a^2]).
+ * 
+ * Only e = x - a is opened, and the result is computed as
+ * [x^2] = [a^2] + 2e[a] + e^2. This opens one value where a
+ * {@link SpdzMultProtocol} opens two.
+ * 
+ * If the preprocessed data has no square pairs, see
+ * {@link dk.alexandra.fresco.suite.spdz.storage.DataSupplier#hasSquares()},
+ * the value is multiplied by itself using a triple instead.
+ */
+public class SpdzSquareProtocol extends SpdzNativeProtocol implements MultProtocol, InteractionAware {
+
+	private SpdzSInt in, out;
+	private SpdzSquare square;
+	private SpdzElement epsilon; // my share of the difference [x]-[a].
+	private SpdzMultProtocol mult; // used if there are no square pairs
+
+	public SpdzSquareProtocol(SInt in, SInt out) {
+		this.in = (SpdzSInt) in;
+		this.out = (SpdzSInt) out;
+	}
+
+	@Override
+	public boolean isInteractive() {
+		return true;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		SpdzProtocolSuite spdzPii = SpdzProtocolSuite
+				.getInstance(resourcePool.getMyId());
+		SpdzStorage store = spdzPii.getStore(network.getThreadId());
+		int noOfPlayers = resourcePool.getNoOfParties();
+		if (round == 0 && !store.getSupplier().hasSquares()) {
+			mult = new SpdzMultProtocol(in, in, out);
+		}
+		if (mult != null) {
+			return mult.evaluate(round, resourcePool, network);
+		}
+		switch (round) {
+		case 0:
+			this.square = store.getSupplier().getNextSquare();
+			this.epsilon = in.value.subtract(square.getA());
+			network.sendToAll(SpdzSerializer.serialize(epsilon.getShare()));
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			BigInteger modulus = Util.getModulus();
+			BigInteger e = BigInteger.ZERO;
+			for (int i = 0; i < noOfPlayers; i++) {
+				e = e.add(SpdzSerializer.deserialize(network.receive(i + 1), 0));
+			}
+			e = e.mod(modulus);
+			BigInteger eSquared = e.multiply(e).mod(modulus);
+			SpdzElement ee = new SpdzElement(eSquared, store.getSSK()
+					.multiply(eSquared).mod(modulus));
+			// Copy a^2 since the result is computed in place and it may still
+			// be referenced by the data supplier.
+			SpdzElement res = new SpdzElement(square.getB());
+			res.multiplyAddInPlace(square.getA(), e.shiftLeft(1).mod(modulus));
+			out.value = res.add(ee, resourcePool.getMyId());
+			// Set the opened and closed value.
+			store.addOpenedValue(e);
+			store.addClosedValue(epsilon);
+			// help the garbage collector.
+			in = null;
+			square = null;
+			epsilon = null;
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 1");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { in };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+}
@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import dk.alexandra.fresco.framework.InteractionAware;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.OInt;
@@ -37,7 +38,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.utils.SpdzFactory;
 
-public class SpdzSubtractProtocol extends SpdzNativeProtocol implements SubtractProtocol {
+public class SpdzSubtractProtocol extends SpdzNativeProtocol implements SubtractProtocol, InteractionAware {
 
 	private SpdzSInt left, right, out;
 	private SpdzOInt openLeft, openRight;
@@ -97,6 +98,11 @@ public class SpdzSubtractProtocol extends SpdzNativeProtocol implements Subtract
 		return new Value[] { out };
 	}
 
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
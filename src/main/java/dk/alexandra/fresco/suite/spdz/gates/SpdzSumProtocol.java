@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.InteractionAware;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+
+/**
+ * Sums a vector of secret shared values in a single local step instead of a
+ * tree of {@link SpdzAddProtocol}s.
+ */
+public class SpdzSumProtocol extends SpdzNativeProtocol implements AddProtocol, InteractionAware {
+
+	private SInt[] in;
+	private SpdzSInt out;
+
+	public SpdzSumProtocol(SInt[] in, SInt out) {
+		this.in = in;
+		this.out = (SpdzSInt) out;
+	}
+
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		if (in.length == 0) {
+			out.value = new SpdzElement(BigInteger.ZERO, BigInteger.ZERO);
+			return EvaluationStatus.IS_DONE;
+		}
+		// Copy the first element since the sum is computed in place.
+		SpdzElement sum = new SpdzElement(((SpdzSInt) in[0]).value);
+		for (int i = 1; i < in.length; i++) {
+			sum.addInPlace(((SpdzSInt) in[i]).value);
+		}
+		out.value = sum;
+		return EvaluationStatus.IS_DONE;
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return in;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+}
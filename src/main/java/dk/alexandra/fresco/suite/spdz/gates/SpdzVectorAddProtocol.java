@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.InteractionAware;
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+
+/**
+ * Adds two vectors of secret shared values entrywise.
+ */
+public class SpdzVectorAddProtocol extends SpdzNativeProtocol implements AddProtocol, InteractionAware {
+
+	private SInt[] left, right, out;
+
+	public SpdzVectorAddProtocol(SInt[] left, SInt[] right, SInt[] out) {
+		if (left.length != right.length || left.length != out.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.left = left;
+		this.right = right;
+		this.out = out;
+	}
+
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		for (int i = 0; i < out.length; i++) {
+			((SpdzSInt) out[i]).value = ((SpdzSInt) left[i]).value.add(((SpdzSInt) right[i]).value);
+		}
+		return EvaluationStatus.IS_DONE;
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		Value[] inputs = new Value[2 * out.length];
+		System.arraycopy(left, 0, inputs, 0, out.length);
+		System.arraycopy(right, 0, inputs, out.length, out.length);
+		return inputs;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return out;
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Lets a single player input a vector of values.
+ *
+ * This does the same as a {@link SpdzInputProtocol} per entry, but the
+ * masked values are sent as a single message, and the validation of the
+ * broadcast is deferred: the masked values are added to the running broadcast
+ * digest of the storage, which is validated in a single round together with
+ * the digests of all other deferred broadcasts at the next MAC check. This
+ * saves a round and a digest per input.
+ */
+public class SpdzVectorInputProtocol extends SpdzNativeProtocol implements CloseIntProtocol {
+
+	private OInt[] input;
+	private SInt[] out;
+	private int inputter;
+	private SpdzInputMask[] inputMasks; // are opened by this gate.
+
+	public SpdzVectorInputProtocol(OInt[] input, SInt[] out, int inputter) {
+		if (input != null && input.length != out.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.input = input;
+		this.out = out;
+		this.inputter = inputter;
+	}
+
+	public int getInputter() {
+		return inputter;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		BigInteger modulus = Util.getModulus();
+		SpdzProtocolSuite spdzPii = SpdzProtocolSuite.getInstance(myId);
+		SpdzStorage storage = spdzPii.getStore(network.getThreadId());
+		int length = out.length;
+		switch (round) {
+		case 0:
+			this.inputMasks = new SpdzInputMask[length];
+			for (int i = 0; i < length; i++) {
+				inputMasks[i] = storage.getSupplier().getNextInputMask(inputter);
+			}
+			if (myId == inputter) {
+				byte[] masked = new byte[length * Util.size];
+				for (int i = 0; i < length; i++) {
+					BigInteger bcValue = input[i].getValue().subtract(inputMasks[i].getRealValue()).mod(modulus);
+					SpdzSerializer.serialize(bcValue, masked, i * Util.size);
+				}
+				network.sendToAll(masked);
+			}
+			network.expectInputFromPlayer(inputter);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			byte[] received = network.receive(inputter);
+			BigInteger[] valuesMasked = SpdzSerializer.deserializeList(received);
+			if (valuesMasked.length != length) {
+				throw new MPCException("Expected " + length + " inputs from player " + inputter + " but got "
+						+ valuesMasked.length);
+			}
+			storage.addBroadcastValues(received);
+			BigInteger ssk = storage.getSSK();
+			for (int i = 0; i < length; i++) {
+				SpdzElement maskedElement = new SpdzElement(valuesMasked[i], ssk.multiply(valuesMasked[i]).mod(modulus));
+				((SpdzSInt) out[i]).value = inputMasks[i].getMask().add(maskedElement, myId);
+			}
+			// help the garbage collector.
+			inputMasks = null;
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 1");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		// No point in getting input from an input gate...
+		return null;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return out;
+	}
+}
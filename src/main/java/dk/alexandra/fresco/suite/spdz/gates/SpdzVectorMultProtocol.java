@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Multiplies two vectors of secret shared values entrywise.
+ *
+ * This does the same as a {@link SpdzMultProtocol} per entry, but fetches
+ * all triples at once and sends the shares of all differences to each party
+ * as a single message.
+ */
+public class SpdzVectorMultProtocol extends SpdzNativeProtocol implements MultProtocol {
+
+	private SpdzSInt[] in1, in2, out;
+	private SpdzTriple[] triples;
+	private SpdzElement[] epsilons, deltas; // my shares of the differences
+											// [x]-[a] and [y]-[b].
+
+	public SpdzVectorMultProtocol(SInt[] in1, SInt[] in2, SInt[] out) {
+		if (in1.length != in2.length || in1.length != out.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.in1 = new SpdzSInt[in1.length];
+		this.in2 = new SpdzSInt[in2.length];
+		this.out = new SpdzSInt[out.length];
+		for (int i = 0; i < in1.length; i++) {
+			this.in1[i] = (SpdzSInt) in1[i];
+			this.in2[i] = (SpdzSInt) in2[i];
+			this.out[i] = (SpdzSInt) out[i];
+		}
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		SpdzProtocolSuite spdzPii = SpdzProtocolSuite
+				.getInstance(resourcePool.getMyId());
+		SpdzStorage store = spdzPii.getStore(network.getThreadId());
+		int noOfPlayers = resourcePool.getNoOfParties();
+		int length = out.length;
+		int size = Util.size;
+		switch (round) {
+		case 0:
+			this.triples = store.getSupplier().getNextTriples(length);
+			this.epsilons = new SpdzElement[length];
+			this.deltas = new SpdzElement[length];
+			byte[] shares = new byte[2 * length * size];
+			for (int i = 0; i < length; i++) {
+				epsilons[i] = in1[i].value.subtract(triples[i].getA());
+				deltas[i] = in2[i].value.subtract(triples[i].getB());
+				SpdzSerializer.serialize(epsilons[i].getShare(), shares, 2 * i * size);
+				SpdzSerializer.serialize(deltas[i].getShare(), shares, (2 * i + 1) * size);
+			}
+			network.sendToAll(shares);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			BigInteger modulus = Util.getModulus();
+			BigInteger[] es = new BigInteger[length];
+			BigInteger[] ds = new BigInteger[length];
+			for (int p = 1; p <= noOfPlayers; p++) {
+				byte[] received = network.receive(p);
+				for (int i = 0; i < length; i++) {
+					BigInteger e = SpdzSerializer.deserialize(received, 2 * i * size);
+					BigInteger d = SpdzSerializer.deserialize(received, (2 * i + 1) * size);
+					es[i] = es[i] == null ? e : es[i].add(e);
+					ds[i] = ds[i] == null ? d : ds[i].add(d);
+				}
+			}
+			BigInteger ssk = store.getSSK();
+			for (int i = 0; i < length; i++) {
+				BigInteger e = es[i].mod(modulus);
+				BigInteger d = ds[i].mod(modulus);
+				BigInteger eTimesd = e.multiply(d).mod(modulus);
+				SpdzElement ed = new SpdzElement(eTimesd, ssk.multiply(eTimesd).mod(modulus));
+				// Copy c since the result is computed in place and c may still
+				// be referenced by the data supplier.
+				SpdzElement res = new SpdzElement(triples[i].getC());
+				res.multiplyAddInPlace(triples[i].getB(), e)
+						.multiplyAddInPlace(triples[i].getA(), d);
+				out[i].value = res.add(ed, resourcePool.getMyId());
+				store.addOpenedValue(e);
+				store.addOpenedValue(d);
+				store.addClosedValue(epsilons[i]);
+				store.addClosedValue(deltas[i]);
+			}
+			// help the garbage collector.
+			in1 = null;
+			in2 = null;
+			triples = null;
+			epsilons = null;
+			deltas = null;
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 1");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		Value[] inputs = new Value[2 * out.length];
+		if (in1 == null) {
+			// The inputs are released once the protocol is done
+			return inputs;
+		}
+		System.arraycopy(in1, 0, inputs, 0, out.length);
+		System.arraycopy(in2, 0, inputs, out.length, out.length);
+		return inputs;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return out;
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Opens a vector of secret shared values to all players, sending all shares
+ * to each player as a single message.
+ */
+public class SpdzVectorOutputToAllProtocol extends SpdzNativeProtocol implements OpenIntProtocol {
+
+	private SInt[] in;
+	private OInt[] out;
+
+	public SpdzVectorOutputToAllProtocol(SInt[] in, OInt[] out) {
+		if (in.length != out.length) {
+			throw new MPCException("Lengths of input and output arrays do not match");
+		}
+		this.in = in;
+		this.out = out;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		SpdzProtocolSuite spdzpii = SpdzProtocolSuite
+				.getInstance(resourcePool.getMyId());
+		SpdzStorage storage = spdzpii.getStore(network.getThreadId());
+		int length = in.length;
+		switch (round) {
+		case 0:
+			byte[] shares = new byte[length * Util.size];
+			for (int i = 0; i < length; i++) {
+				SpdzSerializer.serialize(((SpdzSInt) in[i]).value.getShare(), shares, i * Util.size);
+			}
+			network.sendToAll(shares);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			BigInteger[] opened = new BigInteger[length];
+			for (int p = 1; p <= resourcePool.getNoOfParties(); p++) {
+				byte[] received = network.receive(p);
+				for (int i = 0; i < length; i++) {
+					BigInteger share = SpdzSerializer.deserialize(received, i * Util.size);
+					opened[i] = opened[i] == null ? share : opened[i].add(share);
+				}
+			}
+			for (int i = 0; i < length; i++) {
+				BigInteger openedVal = opened[i].mod(Util.getModulus());
+				storage.addOpenedValue(openedVal);
+				storage.addClosedValue(((SpdzSInt) in[i]).value);
+				out[i].setValue(Util.convertRepresentation(openedVal));
+			}
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("No more rounds to evaluate.");
+		}
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return in;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return out;
+	}
+}
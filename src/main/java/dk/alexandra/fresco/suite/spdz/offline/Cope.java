@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.math.BigInteger;
+
+/**
+ * Correlated oblivious product evaluation (COPE) with one other party, as
+ * used to compute macs in the MASCOT protocol of Keller, Orsini and Scholl.
+ * For a vector of values <i>x</i> held by us, we and the other party get
+ * additive shares of <i>x</i> times the share of the mac key of the other
+ * party, and the other way around.
+ *
+ * The setup is one random OT for each bit of the modulus in each direction.
+ * The party holding the mac key share picks the keys by its bits, and the
+ * other party gets both keys. Each product then costs expanding the keys and
+ * sending one element per bit of the modulus.
+ */
+class Cope {
+
+	private final BigInteger modulus;
+	private final int bits;
+	private final int size;
+
+	// Used when we hold the values
+	private final byte[] keys0;
+	private final byte[] keys1;
+	private long sendCounter = 0;
+
+	// Used when the other party holds the values
+	private final BigInteger alphaShare;
+	private final byte[] alphaKeys;
+	private long receiveCounter = 0;
+
+	/**
+	 * @param keys0
+	 *            the first key of each of our random OTs as sender.
+	 * @param keys1
+	 *            the second key of each of our random OTs as sender.
+	 * @param alphaKeys
+	 *            the keys picked by the bits of our mac key share as
+	 *            receiver.
+	 */
+	Cope(BigInteger modulus, BigInteger alphaShare, byte[] keys0, byte[] keys1, byte[] alphaKeys) {
+		this.modulus = modulus;
+		this.bits = modulus.bitLength();
+		this.size = (bits + 7) / 8;
+		this.alphaShare = alphaShare;
+		this.keys0 = keys0;
+		this.keys1 = keys1;
+		this.alphaKeys = alphaKeys;
+	}
+
+	/**
+	 * Starts the product of our values with the mac key share of the other
+	 * party and subtracts our share of it from the given shares.
+	 *
+	 * @return the message for the other party.
+	 */
+	byte[] send(BigInteger[] values, BigInteger[] macShares) {
+		int n = values.length;
+		long counter = sendCounter++;
+		BigInteger[] u = new BigInteger[bits * n];
+		BigInteger[] sums = OfflineUtil.zeros(n);
+		for (int l = 0; l < bits; l++) {
+			BigInteger[] t0 = OfflineUtil.expand(keys0, l * OfflineUtil.KEY_SIZE, counter, n, size);
+			BigInteger[] t1 = OfflineUtil.expand(keys1, l * OfflineUtil.KEY_SIZE, counter, n, size);
+			for (int e = 0; e < n; e++) {
+				u[l * n + e] = t0[e].subtract(t1[e]).add(values[e]).mod(modulus);
+				sums[e] = sums[e].add(t0[e].shiftLeft(l));
+			}
+		}
+		for (int e = 0; e < n; e++) {
+			macShares[e] = macShares[e].subtract(sums[e]).mod(modulus);
+		}
+		return OfflineUtil.serialize(u, size);
+	}
+
+	/**
+	 * Ends the product of the values of the other party with our mac key
+	 * share and adds our share of it to the given shares.
+	 *
+	 * @param message
+	 *            the message of the other party from
+	 *            {@link #send(BigInteger[], BigInteger[])}.
+	 */
+	void receive(byte[] message, BigInteger[] macShares) {
+		int n = macShares.length;
+		long counter = receiveCounter++;
+		BigInteger[] u = OfflineUtil.deserialize(message, size);
+		BigInteger[] sums = OfflineUtil.zeros(n);
+		for (int l = 0; l < bits; l++) {
+			BigInteger[] t = OfflineUtil.expand(alphaKeys, l * OfflineUtil.KEY_SIZE, counter, n, size);
+			boolean bit = alphaShare.testBit(l);
+			for (int e = 0; e < n; e++) {
+				BigInteger q = bit ? t[e].add(u[l * n + e]) : t[e];
+				sums[e] = sums[e].add(q.shiftLeft(l));
+			}
+		}
+		for (int e = 0; e < n; e++) {
+			macShares[e] = macShares[e].add(sums[e]).mod(modulus);
+		}
+	}
+
+}
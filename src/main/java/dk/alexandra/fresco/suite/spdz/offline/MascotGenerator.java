@@ -0,0 +1,573 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ModularSquareRoot;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.tinytables.util.ot.iknp.IKNPOTFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.iknp.IKNPOTReceiver;
+import dk.alexandra.fresco.suite.tinytables.util.ot.iknp.IKNPOTSender;
+import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
+
+/**
+ * Generates preprocessed data for SPDZ using oblivious transfer, following the
+ * MASCOT protocol of Keller, Orsini and Scholl. Each pair of parties sets up
+ * the IKNP OT extension in both directions, and after that only symmetric
+ * cryptography is used.
+ *
+ * <ul>
+ * <li>Triples: each party picks its shares of <i>a</i>, <i>a'</i> and
+ * <i>b</i>. The products of the shares of different parties are computed with
+ * Gilboa's OT based multiplication on the bits of the shares of <i>b</i>, and
+ * all shares are given macs with correlated oblivious product evaluation,
+ * see {@link Cope}. The triple (<i>a</i>, <i>b</i>, <i>c</i>) is then checked
+ * by sacrificing (<i>a'</i>, <i>b</i>, <i>c'</i>) for a random
+ * <i>r</i> agreed on after the triples were made.</li>
+ * <li>Bits: the square of the <i>a</i> of a triple is computed with the
+ * triple itself and opened, and the bit is <i>(a/&radic;a<sup>2</sup> +
+ * 1)/2</i>, which is 0 or 1 with equal probability.</li>
+ * <li>Input masks: the party the mask is towards picks the value and all
+ * parties compute macs on it. The macs are checked on a random combination of
+ * the masks, which is hidden by an extra mask.</li>
+ * </ul>
+ *
+ * All opened values are checked with the mac check of SPDZ before the data is
+ * returned. Unlike MASCOT, the consistency of the inputs to the COPE is not
+ * checked and triples are not combined, so a corrupt party which deviates in
+ * the OTs may learn a few bits of the mac key shares or of the triples.
+ *
+ * All parties must create their generators at the same time and then call
+ * the same methods with the same arguments in the same order. Generators run
+ * in parallel must use different channels.
+ */
+public class MascotGenerator {
+
+	private static final int COMMITMENT_RANDOMNESS = 32;
+
+	private final Network network;
+	private final String channel;
+	private final int myId;
+	private final int noOfParties;
+	private final BigInteger modulus;
+	private final int bitLength;
+	private final int size;
+	private final BigInteger alphaShare;
+	private final SecureRandom random;
+
+	// Indexed by the id of the other party
+	private final IKNPOTSender[] senders;
+	private final IKNPOTReceiver[] receivers;
+	private final Cope[] copes;
+
+	/**
+	 * Creates a generator and does the base OTs and the setup of the COPE
+	 * with all other parties.
+	 *
+	 * @param network
+	 *            a connected network.
+	 * @param channel
+	 *            the channel to use.
+	 * @param myId
+	 *            the id of this party.
+	 * @param noOfParties
+	 *            the number of parties.
+	 * @param modulus
+	 *            the prime modulus.
+	 * @param alphaShare
+	 *            the share of the mac key of this party.
+	 */
+	public MascotGenerator(Network network, String channel, int myId, int noOfParties, BigInteger modulus,
+			BigInteger alphaShare) {
+		this.network = network;
+		this.channel = channel;
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.modulus = modulus;
+		this.bitLength = modulus.bitLength();
+		this.size = (bitLength + 7) / 8;
+		this.alphaShare = alphaShare;
+		this.random = new SecureRandom();
+		this.senders = new IKNPOTSender[noOfParties + 1];
+		this.receivers = new IKNPOTReceiver[noOfParties + 1];
+		this.copes = new Cope[noOfParties + 1];
+
+		// The base OTs are done with one party at a time in the order of the
+		// ids, so no two parties wait for each other. Each direction has its
+		// own factory, so the numbers of the extensions of the sender and
+		// the receiver match whatever the order of the OTs.
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j == myId) {
+				continue;
+			}
+			IKNPOTFactory sendFactory = new IKNPOTFactory(new JavaOTFactory(network, j, channel), network, j, channel);
+			IKNPOTFactory receiveFactory = new IKNPOTFactory(new JavaOTFactory(network, j, channel), network, j,
+					channel);
+			if (myId < j) {
+				senders[j] = sendFactory.createOTSender();
+				receivers[j] = receiveFactory.createOTReceiver();
+			} else {
+				receivers[j] = receiveFactory.createOTReceiver();
+				senders[j] = sendFactory.createOTSender();
+			}
+		}
+
+		// The keys of the COPE are the messages of random OTs chosen by the
+		// bits of the mac key share
+		byte[] alphaBits = new byte[(bitLength + 7) / 8];
+		for (int l = 0; l < bitLength; l++) {
+			OfflineUtil.setBit(alphaBits, l, alphaShare.testBit(l));
+		}
+		byte[][] alphaKeys = new byte[noOfParties + 1][];
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				alphaKeys[j] = receivers[j].receiveRandom(alphaBits, bitLength, OfflineUtil.KEY_SIZE);
+			}
+		}
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				byte[][] keys = senders[j].sendRandom(bitLength, OfflineUtil.KEY_SIZE);
+				copes[j] = new Cope(modulus, alphaShare, keys[0], keys[1], alphaKeys[j]);
+			}
+		}
+	}
+
+	public BigInteger getAlphaShare() {
+		return alphaShare;
+	}
+
+	/**
+	 * Generates multiplication triples.
+	 *
+	 * @param n
+	 *            the number of triples.
+	 * @return the shares of this party.
+	 */
+	public SpdzTriple[] generateTriples(int n) {
+		BigInteger[] a = randomElements(n);
+		BigInteger[] aHat = randomElements(n);
+		BigInteger[] b = randomElements(n);
+		BigInteger[][] c = multiply(a, aHat, b);
+
+		BigInteger[] values = new BigInteger[5 * n];
+		System.arraycopy(a, 0, values, 0, n);
+		System.arraycopy(aHat, 0, values, n, n);
+		System.arraycopy(b, 0, values, 2 * n, n);
+		System.arraycopy(c[0], 0, values, 3 * n, n);
+		System.arraycopy(c[1], 0, values, 4 * n, n);
+		BigInteger[] macs = authenticate(values);
+
+		// Sacrifice the second triple: open rho = r * a - aHat and check that
+		// r * c - cHat - rho * b is zero
+		BigInteger[] r = randomPublicElements(n);
+		BigInteger[] rho = new BigInteger[n];
+		BigInteger[] rhoMacs = new BigInteger[n];
+		for (int e = 0; e < n; e++) {
+			rho[e] = r[e].multiply(a[e]).subtract(aHat[e]).mod(modulus);
+			rhoMacs[e] = r[e].multiply(macs[e]).subtract(macs[n + e]).mod(modulus);
+		}
+		BigInteger[] openRho = open(rho);
+		BigInteger[] tau = new BigInteger[n];
+		BigInteger[] tauMacs = new BigInteger[n];
+		for (int e = 0; e < n; e++) {
+			tau[e] = r[e].multiply(c[0][e]).subtract(c[1][e]).subtract(openRho[e].multiply(b[e])).mod(modulus);
+			tauMacs[e] = r[e].multiply(macs[3 * n + e]).subtract(macs[4 * n + e])
+					.subtract(openRho[e].multiply(macs[2 * n + e])).mod(modulus);
+		}
+		BigInteger[] openTau = open(tau);
+		for (int e = 0; e < n; e++) {
+			if (openTau[e].signum() != 0) {
+				throw new MPCException("The check of triple " + e + " failed");
+			}
+		}
+		checkMacs(concat(openRho, openTau), concat(rhoMacs, tauMacs));
+
+		SpdzTriple[] triples = new SpdzTriple[n];
+		for (int e = 0; e < n; e++) {
+			triples[e] = new SpdzTriple(new SpdzElement(a[e], macs[e]), new SpdzElement(b[e], macs[2 * n + e]),
+					new SpdzElement(c[0][e], macs[3 * n + e]));
+		}
+		return triples;
+	}
+
+	/**
+	 * Generates random bits.
+	 *
+	 * @param n
+	 *            the number of bits.
+	 * @return the shares of this party.
+	 */
+	public SpdzSInt[] generateBits(int n) {
+		List<SpdzSInt> bits = new ArrayList<SpdzSInt>(n);
+		BigInteger twoInverse = BigInteger.valueOf(2).modInverse(modulus);
+		while (bits.size() < n) {
+			int m = n - bits.size();
+			SpdzTriple[] triples = generateTriples(m);
+			// a^2 = c + (a - b) * a
+			BigInteger[] epsilon = new BigInteger[m];
+			BigInteger[] epsilonMacs = new BigInteger[m];
+			for (int e = 0; e < m; e++) {
+				SpdzElement a = triples[e].getA();
+				SpdzElement b = triples[e].getB();
+				epsilon[e] = a.getShare().subtract(b.getShare()).mod(modulus);
+				epsilonMacs[e] = a.getMac().subtract(b.getMac()).mod(modulus);
+			}
+			BigInteger[] openEpsilon = open(epsilon);
+			BigInteger[] squares = new BigInteger[m];
+			BigInteger[] squareMacs = new BigInteger[m];
+			for (int e = 0; e < m; e++) {
+				SpdzElement a = triples[e].getA();
+				SpdzElement c = triples[e].getC();
+				squares[e] = c.getShare().add(openEpsilon[e].multiply(a.getShare())).mod(modulus);
+				squareMacs[e] = c.getMac().add(openEpsilon[e].multiply(a.getMac())).mod(modulus);
+			}
+			BigInteger[] openSquares = open(squares);
+			checkMacs(concat(openEpsilon, openSquares), concat(epsilonMacs, squareMacs));
+
+			for (int e = 0; e < m; e++) {
+				if (openSquares[e].signum() == 0) {
+					// a was zero, so we cannot get a bit from it
+					continue;
+				}
+				BigInteger rootInverse = ModularSquareRoot.sqrt(openSquares[e], modulus).modInverse(modulus);
+				SpdzElement a = triples[e].getA();
+				BigInteger share = a.getShare().multiply(rootInverse);
+				if (myId == 1) {
+					share = share.add(BigInteger.ONE);
+				}
+				share = share.multiply(twoInverse).mod(modulus);
+				BigInteger mac = a.getMac().multiply(rootInverse).add(alphaShare).multiply(twoInverse).mod(modulus);
+				bits.add(new SpdzSInt(new SpdzElement(share, mac)));
+			}
+		}
+		return bits.toArray(new SpdzSInt[n]);
+	}
+
+	/**
+	 * Generates masks for the inputs of a party.
+	 *
+	 * @param towardsPlayer
+	 *            the party who will know the value of the masks.
+	 * @param n
+	 *            the number of masks.
+	 * @return the shares of this party, which include the value of the masks
+	 *         if this party is the one the masks are towards.
+	 */
+	public SpdzInputMask[] generateInputMasks(int towardsPlayer, int n) {
+		// An extra mask hides the combination of the masks opened below
+		BigInteger[] values = towardsPlayer == myId ? randomElements(n + 1) : OfflineUtil.zeros(n + 1);
+		BigInteger[] macs = authenticate(values);
+
+		// Check the macs on a random combination of the masks, so a party
+		// which deviates in the COPE is caught as for the triples
+		BigInteger[] r = randomPublicElements(n);
+		BigInteger combination = values[n];
+		BigInteger combinationMac = macs[n];
+		for (int e = 0; e < n; e++) {
+			combination = combination.add(r[e].multiply(values[e]));
+			combinationMac = combinationMac.add(r[e].multiply(macs[e]));
+		}
+		BigInteger[] opened = open(new BigInteger[] { combination.mod(modulus) });
+		checkMacs(opened, new BigInteger[] { combinationMac.mod(modulus) });
+
+		SpdzInputMask[] masks = new SpdzInputMask[n];
+		for (int e = 0; e < n; e++) {
+			SpdzElement mask = new SpdzElement(values[e], macs[e]);
+			masks[e] = towardsPlayer == myId ? new SpdzInputMask(mask, values[e]) : new SpdzInputMask(mask);
+		}
+		return masks;
+	}
+
+	/**
+	 * Computes our shares of the products of the shared values <i>a</i> and
+	 * <i>a'</i> with the shared value <i>b</i>. The products of our own
+	 * shares are computed locally. For the products of our shares of
+	 * <i>b</i> with the shares of another party, the other party sends the
+	 * difference of the two keys of each random OT plus its shares, so we
+	 * learn them masked by the first key exactly when our choice bit is set.
+	 *
+	 * @return our shares of the products with <i>a</i> and <i>a'</i>.
+	 */
+	private BigInteger[][] multiply(BigInteger[] a, BigInteger[] aHat, BigInteger[] b) {
+		int n = b.length;
+		int m = n * bitLength;
+		int elementBytes = size + OfflineUtil.STATISTICAL_BYTES;
+		int length = 2 * elementBytes;
+		BigInteger[][] res = new BigInteger[2][n];
+		for (int e = 0; e < n; e++) {
+			res[0][e] = a[e].multiply(b[e]);
+			res[1][e] = aHat[e].multiply(b[e]);
+		}
+
+		byte[] choices = new byte[(m + 7) / 8];
+		for (int e = 0; e < n; e++) {
+			for (int l = 0; l < bitLength; l++) {
+				OfflineUtil.setBit(choices, e * bitLength + l, b[e].testBit(l));
+			}
+		}
+		byte[][] chosen = new byte[noOfParties + 1][];
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				chosen[j] = receivers[j].receiveRandom(choices, m, length);
+			}
+		}
+
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j == myId) {
+				continue;
+			}
+			byte[][] keys = senders[j].sendRandom(m, length);
+			BigInteger[] d = new BigInteger[2 * m];
+			for (int e = 0; e < n; e++) {
+				BigInteger sum0 = BigInteger.ZERO;
+				BigInteger sum1 = BigInteger.ZERO;
+				for (int l = 0; l < bitLength; l++) {
+					int k = e * bitLength + l;
+					BigInteger s0 = OfflineUtil.toElement(keys[0], k * length, size);
+					BigInteger s1 = OfflineUtil.toElement(keys[0], k * length + elementBytes, size);
+					BigInteger t0 = OfflineUtil.toElement(keys[1], k * length, size);
+					BigInteger t1 = OfflineUtil.toElement(keys[1], k * length + elementBytes, size);
+					d[2 * k] = s0.subtract(t0).add(a[e]).mod(modulus);
+					d[2 * k + 1] = s1.subtract(t1).add(aHat[e]).mod(modulus);
+					sum0 = sum0.add(s0.shiftLeft(l));
+					sum1 = sum1.add(s1.shiftLeft(l));
+				}
+				res[0][e] = res[0][e].subtract(sum0);
+				res[1][e] = res[1][e].subtract(sum1);
+			}
+			send(j, OfflineUtil.serialize(d, size));
+		}
+
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j == myId) {
+				continue;
+			}
+			byte[] message = receive(j);
+			BigInteger[] d = OfflineUtil.deserialize(message, size);
+			for (int e = 0; e < n; e++) {
+				BigInteger sum0 = BigInteger.ZERO;
+				BigInteger sum1 = BigInteger.ZERO;
+				for (int l = 0; l < bitLength; l++) {
+					int k = e * bitLength + l;
+					BigInteger r0 = OfflineUtil.toElement(chosen[j], k * length, size);
+					BigInteger r1 = OfflineUtil.toElement(chosen[j], k * length + elementBytes, size);
+					if (OfflineUtil.getBit(choices, k)) {
+						r0 = r0.add(d[2 * k]);
+						r1 = r1.add(d[2 * k + 1]);
+					}
+					sum0 = sum0.add(r0.shiftLeft(l));
+					sum1 = sum1.add(r1.shiftLeft(l));
+				}
+				res[0][e] = res[0][e].add(sum0);
+				res[1][e] = res[1][e].add(sum1);
+			}
+		}
+
+		for (int e = 0; e < n; e++) {
+			res[0][e] = res[0][e].mod(modulus);
+			res[1][e] = res[1][e].mod(modulus);
+		}
+		return res;
+	}
+
+	/**
+	 * Computes our mac shares of the values shared by the given shares.
+	 */
+	private BigInteger[] authenticate(BigInteger[] values) {
+		BigInteger[] macs = new BigInteger[values.length];
+		for (int e = 0; e < values.length; e++) {
+			macs[e] = values[e].multiply(alphaShare).mod(modulus);
+		}
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				send(j, copes[j].send(values, macs));
+			}
+		}
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				byte[] message = receive(j);
+				copes[j].receive(message, macs);
+			}
+		}
+		return macs;
+	}
+
+	/**
+	 * Opens the values shared by the given shares without checking the macs.
+	 */
+	private BigInteger[] open(BigInteger[] shares) {
+		sendToAll(OfflineUtil.serialize(shares, size));
+		BigInteger[] res = shares.clone();
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j == myId) {
+				continue;
+			}
+			byte[] message = receive(j);
+			BigInteger[] other = OfflineUtil.deserialize(message, size);
+			for (int e = 0; e < res.length; e++) {
+				res[e] = res[e].add(other[e]);
+			}
+		}
+		for (int e = 0; e < res.length; e++) {
+			res[e] = res[e].mod(modulus);
+		}
+		return res;
+	}
+
+	/**
+	 * The mac check of SPDZ. A random linear combination of the opened values
+	 * is computed, and the parties check that their mac shares of it minus
+	 * their mac key shares times it sum to zero. The differences are
+	 * committed to before they are opened, so no party can pick its
+	 * difference to make the sum zero.
+	 */
+	private void checkMacs(BigInteger[] opened, BigInteger[] macs) {
+		BigInteger[] r = randomPublicElements(opened.length);
+		BigInteger value = BigInteger.ZERO;
+		BigInteger mac = BigInteger.ZERO;
+		for (int k = 0; k < opened.length; k++) {
+			value = value.add(r[k].multiply(opened[k]));
+			mac = mac.add(r[k].multiply(macs[k]));
+		}
+		BigInteger sigma = mac.subtract(alphaShare.multiply(value)).mod(modulus);
+		byte[][] sigmas = commitAndOpen(sigma.toByteArray());
+		BigInteger sum = BigInteger.ZERO;
+		for (int j = 1; j <= noOfParties; j++) {
+			sum = sum.add(new BigInteger(sigmas[j]));
+		}
+		if (sum.mod(modulus).signum() != 0) {
+			throw new MPCException("The mac check failed");
+		}
+	}
+
+	/**
+	 * @return elements which are random as long as one party is honest. The
+	 *         seeds of all parties are committed to before they are opened.
+	 */
+	private BigInteger[] randomPublicElements(int n) {
+		byte[] seed = new byte[OfflineUtil.KEY_SIZE];
+		random.nextBytes(seed);
+		byte[][] seeds = commitAndOpen(seed);
+		byte[] key = new byte[OfflineUtil.KEY_SIZE];
+		for (int j = 1; j <= noOfParties; j++) {
+			for (int i = 0; i < key.length; i++) {
+				key[i] ^= seeds[j][i];
+			}
+		}
+		return OfflineUtil.expand(key, 0, 0, n, size);
+	}
+
+	/**
+	 * Commits to the given value, and opens it once all parties have
+	 * committed.
+	 *
+	 * @return the values of all parties indexed by their ids.
+	 */
+	private byte[][] commitAndOpen(byte[] value) {
+		byte[] randomness = new byte[COMMITMENT_RANDOMNESS];
+		random.nextBytes(randomness);
+		MessageDigest H = OfflineUtil.getHashFunction();
+		sendToAll(commit(H, randomness, value));
+		byte[][] commitments = new byte[noOfParties + 1][];
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				commitments[j] = receive(j);
+			}
+		}
+		sendToAll(new byte[][] { randomness, value });
+		byte[][] values = new byte[noOfParties + 1][];
+		values[myId] = value;
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j == myId) {
+				continue;
+			}
+			byte[][] opening = receive(j);
+			if (!Arrays.equals(commitments[j], commit(H, opening[0], opening[1]))) {
+				throw new MPCException("Party " + j + " opened its commitment to another value");
+			}
+			values[j] = opening[1];
+		}
+		return values;
+	}
+
+	private static byte[] commit(MessageDigest H, byte[] randomness, byte[] value) {
+		H.update(randomness);
+		return H.digest(value);
+	}
+
+	private BigInteger[] randomElements(int n) {
+		BigInteger[] res = new BigInteger[n];
+		for (int i = 0; i < n; i++) {
+			res[i] = new BigInteger(bitLength + 8 * OfflineUtil.STATISTICAL_BYTES, random).mod(modulus);
+		}
+		return res;
+	}
+
+	private static BigInteger[] concat(BigInteger[] x, BigInteger[] y) {
+		BigInteger[] res = Arrays.copyOf(x, x.length + y.length);
+		System.arraycopy(y, 0, res, x.length, y.length);
+		return res;
+	}
+
+	private void sendToAll(Serializable message) {
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				send(j, message);
+			}
+		}
+	}
+
+	private void send(int partyId, Serializable message) {
+		try {
+			network.send(channel, partyId, message);
+		} catch (IOException e) {
+			throw new MPCException("Could not send to party " + partyId, e);
+		}
+	}
+
+	private <T extends Serializable> T receive(int partyId) {
+		try {
+			return network.receive(channel, partyId);
+		} catch (IOException e) {
+			throw new MPCException("Could not receive from party " + partyId, e);
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+
+/**
+ * The primitives shared by the parts of the offline phase: a PRG expanding
+ * keys to field elements and the encoding of elements in messages.
+ *
+ * Random bytes are turned into a field element by reading
+ * {@link #STATISTICAL_BYTES} more bytes than the size of an element, so the
+ * element is statistically close to uniform modulo the modulus. The elements
+ * are not reduced, as they are only used in linear combinations which are
+ * reduced anyway, and reducing each of them would dominate the running time.
+ */
+class OfflineUtil {
+
+	/**
+	 * The size in bytes of the keys of the PRG.
+	 */
+	static final int KEY_SIZE = 16;
+
+	static final int STATISTICAL_BYTES = 8;
+
+	private OfflineUtil() {
+	}
+
+	/**
+	 * Expands a key to bytes using AES in counter mode. The given counter is
+	 * used as the initial counter, so a key can be used for more than one
+	 * expansion by giving each a new number.
+	 */
+	static byte[] prg(byte[] key, int keyOffset, long counter, int bytes) {
+		try {
+			Cipher aes = Cipher.getInstance("AES/CTR/NoPadding");
+			byte[] iv = ByteBuffer.allocate(16).putLong(counter).array();
+			aes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, keyOffset, KEY_SIZE, "AES"), new IvParameterSpec(iv));
+			return aes.doFinal(new byte[bytes]);
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("AES is not available", e);
+		}
+	}
+
+	/**
+	 * Expands a key to <code>n</code> unreduced field elements.
+	 */
+	static BigInteger[] expand(byte[] key, int keyOffset, long counter, int n, int size) {
+		byte[] bytes = prg(key, keyOffset, counter, n * (size + STATISTICAL_BYTES));
+		BigInteger[] res = new BigInteger[n];
+		for (int i = 0; i < n; i++) {
+			res[i] = toElement(bytes, i * (size + STATISTICAL_BYTES), size);
+		}
+		return res;
+	}
+
+	/**
+	 * Turns the <code>size + STATISTICAL_BYTES</code> random bytes starting at
+	 * the given offset into an unreduced field element.
+	 */
+	static BigInteger toElement(byte[] bytes, int offset, int size) {
+		byte[] element = Arrays.copyOfRange(bytes, offset, offset + size + STATISTICAL_BYTES);
+		return new BigInteger(1, element);
+	}
+
+	static BigInteger[] zeros(int n) {
+		BigInteger[] res = new BigInteger[n];
+		for (int i = 0; i < n; i++) {
+			res[i] = BigInteger.ZERO;
+		}
+		return res;
+	}
+
+	static byte[] serialize(BigInteger[] values, int size) {
+		byte[] res = new byte[values.length * size];
+		for (int i = 0; i < values.length; i++) {
+			SpdzSerializer.serialize(values[i], res, i * size, size);
+		}
+		return res;
+	}
+
+	static BigInteger[] deserialize(byte[] data, int size) {
+		BigInteger[] res = new BigInteger[data.length / size];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = SpdzSerializer.deserialize(data, i * size, size);
+		}
+		return res;
+	}
+
+	static MessageDigest getHashFunction() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("SHA-256 is not available", e);
+		}
+	}
+
+	static boolean getBit(byte[] bits, int j) {
+		return ((bits[j >>> 3] >>> (j & 7)) & 1) != 0;
+	}
+
+	static void setBit(byte[] bits, int j, boolean bit) {
+		if (bit) {
+			bits[j >>> 3] |= 1 << (j & 7);
+		}
+	}
+
+}
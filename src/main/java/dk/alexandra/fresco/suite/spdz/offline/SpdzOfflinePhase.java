@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+
+/**
+ * Runs the OT based offline phase of SPDZ, see {@link MascotGenerator}, and
+ * puts the generated data into a streamed storage under the names read by
+ * {@link DataSupplierImpl}. The data of each VM thread is generated in a
+ * thread of its own using the channel named by the id of the VM thread, so
+ * the network must have a channel for each VM thread, as the network of the
+ * SCE has.
+ *
+ * Squares and exponentiation pipes are not generated, so applications using
+ * these still need another source of preprocessed data.
+ */
+public class SpdzOfflinePhase {
+
+	/**
+	 * The number of triples, bits or masks generated at a time.
+	 */
+	private static final int BATCH_SIZE = 1000;
+
+	private final Network network;
+	private final int myId;
+	private final int noOfParties;
+	private final BigInteger modulus;
+	private final int noOfThreads;
+
+	/**
+	 * @param network
+	 *            a connected network.
+	 * @param myId
+	 *            the id of this party.
+	 * @param noOfParties
+	 *            the number of parties.
+	 * @param modulus
+	 *            the prime modulus.
+	 * @param noOfThreads
+	 *            the number of VM threads to generate data for.
+	 */
+	public SpdzOfflinePhase(Network network, int myId, int noOfParties, BigInteger modulus, int noOfThreads) {
+		this.network = network;
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.modulus = modulus;
+		this.noOfThreads = noOfThreads;
+	}
+
+	/**
+	 * Generates data for each VM thread and stores it. All VM threads use the
+	 * same mac key share.
+	 *
+	 * @param storage
+	 *            the storage to put the data in.
+	 * @param noOfTriples
+	 *            the number of triples for each VM thread.
+	 * @param noOfBits
+	 *            the number of bits for each VM thread.
+	 * @param noOfInputMasks
+	 *            the number of input masks towards each party for each VM
+	 *            thread.
+	 */
+	public void generate(final StreamedStorage storage, final int noOfTriples, final int noOfBits,
+			final int noOfInputMasks) {
+		final BigInteger alphaShare = new BigInteger(modulus.bitLength() + 8 * OfflineUtil.STATISTICAL_BYTES,
+				new SecureRandom()).mod(modulus);
+		ExecutorService executor = Executors.newFixedThreadPool(noOfThreads);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int t = 0; t < noOfThreads; t++) {
+				final int threadId = t;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						generate(storage, threadId, alphaShare, noOfTriples, noOfBits, noOfInputMasks);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new MPCException("Interrupted while generating preprocessed data", e);
+		} catch (ExecutionException e) {
+			throw new MPCException("Could not generate preprocessed data", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void generate(StreamedStorage storage, int threadId, BigInteger alphaShare, int noOfTriples,
+			int noOfBits, int noOfInputMasks) {
+		MascotGenerator generator = new MascotGenerator(network, "" + threadId, myId, noOfParties, modulus,
+				alphaShare);
+		String storageName = SpdzStorageConstants.STORAGE_NAME_PREFIX + noOfThreads + "_" + myId + "_" + threadId
+				+ "_";
+		put(storage, storageName + SpdzStorageConstants.MODULUS_KEY, modulus);
+		put(storage, storageName + SpdzStorageConstants.SSK_KEY, alphaShare);
+
+		for (int done = 0; done < noOfTriples; done += BATCH_SIZE) {
+			for (SpdzTriple triple : generator.generateTriples(Math.min(BATCH_SIZE, noOfTriples - done))) {
+				put(storage, storageName + SpdzStorageConstants.TRIPLE_STORAGE, triple);
+			}
+		}
+		for (int done = 0; done < noOfBits; done += BATCH_SIZE) {
+			for (SpdzSInt bit : generator.generateBits(Math.min(BATCH_SIZE, noOfBits - done))) {
+				put(storage, storageName + SpdzStorageConstants.BIT_STORAGE, bit);
+			}
+		}
+		for (int towardsPlayer = 1; towardsPlayer <= noOfParties; towardsPlayer++) {
+			for (int done = 0; done < noOfInputMasks; done += BATCH_SIZE) {
+				int n = Math.min(BATCH_SIZE, noOfInputMasks - done);
+				for (SpdzInputMask mask : generator.generateInputMasks(towardsPlayer, n)) {
+					put(storage, storageName + SpdzStorageConstants.INPUT_STORAGE + towardsPlayer, mask);
+				}
+			}
+		}
+	}
+
+	private static void put(StreamedStorage storage, String name, Serializable o) {
+		// The storages are not thread safe
+		synchronized (storage) {
+			storage.putNext(name, o);
+		}
+	}
+
+}
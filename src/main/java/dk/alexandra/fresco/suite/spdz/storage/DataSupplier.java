@@ -28,9 +28,12 @@ package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.math.BigInteger;
 
+import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public interface DataSupplier {
 
@@ -40,12 +43,61 @@ public interface DataSupplier {
 	 */
 	public abstract SpdzTriple getNextTriple();
 
+	/**
+	 * Supplies the next triples in bulk
+	 * @param amount the number of triples
+	 * @return the next <code>amount</code> new triples
+	 */
+	public abstract SpdzTriple[] getNextTriples(int amount);
+
+	/**
+	 * Supplies the next square pair
+	 * @return the next new square pair
+	 */
+	public abstract SpdzSquare getNextSquare();
+
+	/**
+	 * Tells whether this supplier has square pairs at all. Preprocessed data
+	 * generated without square pairs, e.g. by the tools of older versions,
+	 * has none, in which case squaring falls back to multiplication. The
+	 * answer does not change while the supplier is used.
+	 * @return true if {@link #getNextSquare()} supplies square pairs
+	 */
+	public abstract boolean hasSquares();
+
+	/**
+	 * Tells whether this supplier makes its data on demand rather than
+	 * reading a fixed amount of preprocessed data. Only then can data be
+	 * taken ahead of time and possibly left unused without running out of
+	 * data later in the evaluation.
+	 * @return true if the supplier never runs out of data
+	 */
+	public abstract boolean hasUnlimitedData();
+
 	/**
 	 * Supplies the next exp pipe
 	 * @return the next new exp pipe 
 	 */
 	public abstract SpdzSInt[] getNextExpPipe();
 
+	/**
+	 * Supplies the next exp pipe with at least the given number of elements,
+	 * i.e. R^-1, R, ..., R^(length-1) and possibly higher powers. Suppliers
+	 * which keep pipes of several lengths, see
+	 * {@link Util#setExpPipeSizeClasses(int...)}, use the shortest pipes which are
+	 * long enough.
+	 * @param length the number of elements needed
+	 * @return the next new exp pipe of at least <code>length</code> elements
+	 */
+	public default SpdzSInt[] getNextExpPipe(int length) {
+		SpdzSInt[] expPipe = getNextExpPipe();
+		if (expPipe.length < length) {
+			throw new MPCException("An exp pipe of length " + length + " was requested, but the pipes only have "
+					+ expPipe.length + " elements");
+		}
+		return expPipe;
+	}
+
 	/**
 	 * Supplies the next inputmask for a given input player
 	 * @param towardPlayerID the id of the input player
@@ -32,7 +32,9 @@ import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 /**
  * Data supplier which supplies the SPDZ protocol suite with preprocessed data.
@@ -49,12 +51,17 @@ public class DataSupplierImpl implements DataSupplier {
 	private String storageName;
 
 	private int tripleCounter = 0;
+	private int squareCounter = 0;
 	private int expPipeCounter = 0;
 	private int[] inputMaskCounters;
 	private int bitCounter = 0;
 
 	private BigInteger ssk;
 	private BigInteger mod;
+
+	// The first square pair, read ahead to tell whether there are any
+	private SpdzSquare firstSquare;
+	private Boolean hasSquares;
 	
 	/**
 	 * Creates a new supplier which takes preprocessed data from the native
@@ -85,6 +92,55 @@ public class DataSupplierImpl implements DataSupplier {
 		return trip;
 	}
 
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] res = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			res[i] = getNextTriple();
+		}
+		return res;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		SpdzSquare square;
+		if (firstSquare != null) {
+			square = firstSquare;
+			firstSquare = null;
+		} else {
+			square = this.storage.getNext(storageName+
+					SpdzStorageConstants.SQUARE_STORAGE);
+		}
+		if(square == null) {
+			throw new MPCException("Square no. "+squareCounter+" was not present in the storage "+ storageName);
+		}
+		squareCounter++;
+		return square;
+	}
+
+	@Override
+	public boolean hasSquares() {
+		if (hasSquares == null) {
+			if (squareCounter > 0) {
+				hasSquares = true;
+			} else {
+				try {
+					firstSquare = this.storage.getNext(storageName + SpdzStorageConstants.SQUARE_STORAGE);
+				} catch (MPCException e) {
+					// The storage was initialized without square pairs
+					firstSquare = null;
+				}
+				hasSquares = firstSquare != null;
+			}
+		}
+		return hasSquares;
+	}
+
+	@Override
+	public boolean hasUnlimitedData() {
+		return false;
+	}
+
 	@Override
 	public SpdzSInt[] getNextExpPipe() {
 		SpdzSInt[] expPipe = this.storage.getNext(storageName+SpdzStorageConstants.EXP_PIPE_STORAGE);
@@ -95,6 +151,19 @@ public class DataSupplierImpl implements DataSupplier {
 		return expPipe;
 	}
 
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		int size = Util.getExpPipeSize(length);
+		if (size == Util.EXP_PIPE_SIZE) {
+			return getNextExpPipe();
+		}
+		SpdzSInt[] expPipe = this.storage.getNext(storageName+Util.getExpPipeStorage(size));
+		if(expPipe == null) {
+			throw new MPCException("expPipe of length "+size+" was not present in the storage" + storageName);
+		}
+		return expPipe;
+	}
+
 	@Override
 	public SpdzInputMask getNextInputMask(int towardPlayerID) {
 		SpdzInputMask mask = this.storage.getNext(storageName +
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Data supplier which gets the preprocessed data from a
+ * {@link FakeDataDealer} over a socket.
+ *
+ * The data is requested in batches of about the given number of bytes. When
+ * less than half a batch of some kind of data is left, the next batch is
+ * requested right away, so the dealer can generate and send it while the
+ * current batch is used. Each instance holds a single connection and must
+ * only be used by a single VM thread, like the other suppliers.
+ */
+public class DealerDataSupplier implements DataSupplier {
+
+	/**
+	 * The default number of bytes asked for in each request.
+	 */
+	public static final int DEFAULT_BATCH_BYTES = 1 << 20;
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final int batchBytes;
+
+	private final BigInteger mod;
+	private final BigInteger ssk;
+	private final int elementSize;
+
+	private final Map<String, Batches> batches = new HashMap<String, Batches>();
+	private final ArrayDeque<Batches> requested = new ArrayDeque<Batches>();
+
+	/**
+	 * Connects to the dealer and gets the global data.
+	 *
+	 * @param host
+	 *            the host of the dealer.
+	 * @param port
+	 *            the port of the dealer.
+	 * @param myId
+	 *            the id of this party.
+	 * @param noOfThreads
+	 *            the number of VM threads of this party.
+	 * @param threadId
+	 *            the id of the VM thread using this supplier.
+	 * @param batchBytes
+	 *            the number of bytes to ask for in each request.
+	 */
+	public DealerDataSupplier(String host, int port, int myId, int noOfThreads, int threadId, int batchBytes) {
+		this.batchBytes = batchBytes;
+		try {
+			this.socket = new Socket(host, port);
+			socket.setTcpNoDelay(true);
+			this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeInt(myId);
+			out.writeInt(noOfThreads);
+			out.writeInt(threadId);
+			out.flush();
+			this.elementSize = in.readInt();
+			byte[] global = new byte[2 * elementSize];
+			in.readFully(global);
+			this.mod = SpdzSerializer.deserialize(global, 0, elementSize);
+			this.ssk = SpdzSerializer.deserialize(global, elementSize, elementSize);
+		} catch (IOException e) {
+			throw new MPCException("Could not get the global data from the dealer at " + host + ":" + port, e);
+		}
+	}
+
+	/**
+	 * Creates a supplier for the dealer at the given address.
+	 *
+	 * @param address
+	 *            the address of the dealer in the form <i>host</i>:<i>port</i>.
+	 */
+	public static DealerDataSupplier connect(String address, int myId, int noOfThreads, int threadId) {
+		int colon = address.lastIndexOf(':');
+		if (colon < 0) {
+			throw new MPCException("The dealer address " + address + " is not of the form host:port");
+		}
+		int port;
+		try {
+			port = Integer.parseInt(address.substring(colon + 1));
+		} catch (NumberFormatException e) {
+			throw new MPCException("The dealer address " + address + " is not of the form host:port");
+		}
+		return new DealerDataSupplier(address.substring(0, colon), port, myId, noOfThreads, threadId,
+				DEFAULT_BATCH_BYTES);
+	}
+
+	@Override
+	public SpdzTriple getNextTriple() {
+		return getNextTriples(1)[0];
+	}
+
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		Batches b = getBatches(SpdzStorageConstants.TRIPLE_STORAGE);
+		SpdzTriple[] res = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			byte[] chunk = b.next();
+			int offset = b.offset;
+			res[i] = new SpdzTriple(readElement(chunk, offset), readElement(chunk, offset + 2 * elementSize),
+					readElement(chunk, offset + 4 * elementSize));
+		}
+		return res;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		Batches b = getBatches(SpdzStorageConstants.SQUARE_STORAGE);
+		byte[] chunk = b.next();
+		return new SpdzSquare(readElement(chunk, b.offset), readElement(chunk, b.offset + 2 * elementSize));
+	}
+
+	/**
+	 * The dealer generates square pairs on request, so there always are some.
+	 */
+	@Override
+	public boolean hasSquares() {
+		return true;
+	}
+
+	@Override
+	public boolean hasUnlimitedData() {
+		return true;
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe() {
+		return getNextExpPipe(Util.EXP_PIPE_SIZE);
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		Batches b = getBatches(Util.getExpPipeStorage(Util.getExpPipeSize(length)));
+		byte[] chunk = b.next();
+		SpdzSInt[] expPipe = new SpdzSInt[b.recordSize / (2 * elementSize)];
+		for (int i = 0; i < expPipe.length; i++) {
+			expPipe[i] = new SpdzSInt(readElement(chunk, b.offset + i * 2 * elementSize));
+		}
+		return expPipe;
+	}
+
+	@Override
+	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		Batches b = getBatches(SpdzStorageConstants.INPUT_STORAGE + towardPlayerID);
+		byte[] chunk = b.next();
+		SpdzElement mask = readElement(chunk, b.offset);
+		if (b.recordSize == 3 * elementSize) {
+			return new SpdzInputMask(mask, SpdzSerializer.deserialize(chunk, b.offset + 2 * elementSize, elementSize));
+		}
+		return new SpdzInputMask(mask);
+	}
+
+	@Override
+	public SpdzSInt getNextBit() {
+		Batches b = getBatches(SpdzStorageConstants.BIT_STORAGE);
+		byte[] chunk = b.next();
+		return new SpdzSInt(readElement(chunk, b.offset));
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		return mod;
+	}
+
+	@Override
+	public BigInteger getSSK() {
+		return ssk;
+	}
+
+	/**
+	 * Closes the connection to the dealer.
+	 */
+	public void shutdown() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// Nothing more to do
+		}
+	}
+
+	private Batches getBatches(String name) {
+		Batches b = batches.get(name);
+		if (b == null) {
+			b = new Batches(name);
+			batches.put(name, b);
+		}
+		return b;
+	}
+
+	private void request(Batches b) {
+		try {
+			out.writeUTF(b.name);
+			out.writeInt(batchBytes);
+			out.flush();
+		} catch (IOException e) {
+			throw new MPCException("Could not request " + b.name + " from the dealer", e);
+		}
+		b.requested++;
+		requested.add(b);
+	}
+
+	/**
+	 * Reads the answer to the oldest request not yet read.
+	 */
+	private void receive() {
+		Batches b = requested.poll();
+		try {
+			int count = in.readInt();
+			int recordSize = in.readInt();
+			byte[] chunk = new byte[count * recordSize];
+			in.readFully(chunk);
+			b.add(chunk, count, recordSize);
+		} catch (IOException e) {
+			throw new MPCException("Could not receive " + b.name + " from the dealer", e);
+		}
+	}
+
+	private SpdzElement readElement(byte[] chunk, int offset) {
+		return new SpdzElement(SpdzSerializer.deserialize(chunk, offset, elementSize),
+				SpdzSerializer.deserialize(chunk, offset + elementSize, elementSize));
+	}
+
+	/**
+	 * The received batches of one kind of data.
+	 */
+	private class Batches {
+
+		final String name;
+		final ArrayDeque<byte[]> chunks = new ArrayDeque<byte[]>();
+		int recordSize;
+		int lastCount;
+		int records = 0;
+		int requested = 0;
+		/**
+		 * The offset of the next record in the first chunk.
+		 */
+		int position = 0;
+		/**
+		 * The offset of the record last returned by {@link #next()}.
+		 */
+		int offset;
+
+		Batches(String name) {
+			this.name = name;
+		}
+
+		void add(byte[] chunk, int count, int recordSize) {
+			this.recordSize = recordSize;
+			this.lastCount = count;
+			this.requested--;
+			this.records += count;
+			chunks.add(chunk);
+		}
+
+		/**
+		 * Moves to the next record.
+		 *
+		 * @return the chunk holding the record, which starts at
+		 *         {@link #offset}.
+		 */
+		byte[] next() {
+			if (records == 0) {
+				if (requested == 0) {
+					request(this);
+				}
+				while (records == 0) {
+					receive();
+				}
+			}
+			if (position == chunks.peek().length) {
+				chunks.poll();
+				position = 0;
+			}
+			byte[] chunk = chunks.peek();
+			offset = position;
+			position += recordSize;
+			records--;
+			if (records < lastCount / 2 && requested == 0) {
+				request(this);
+			}
+			return chunk;
+		}
+	}
+}
@@ -3,16 +3,24 @@ package dk.alexandra.fresco.suite.spdz.storage;
 import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 
 public class DummyDataSupplierImpl implements DataSupplier{
 
 	private int myId;
 	private int numberOfPlayers;
+
+	// The seed of the square pairs, which must be the same for all parties
+	private static final long SQUARE_SEED = 0x5eed;
+	private final Random squareRandom = new Random(SQUARE_SEED);
+	// The mac key, computed when the first square pair is generated
+	private BigInteger alpha;
 	
 	Map<Integer, SpdzTriple> triples_2party;
 	Map<Integer, SpdzSInt> bits_2party;
@@ -52,6 +60,77 @@ public class DummyDataSupplierImpl implements DataSupplier{
 		throw new RuntimeException("Not implemented yet");
 	}
 
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] res = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			res[i] = getNextTriple();
+		}
+		return res;
+	}
+
+	/**
+	 * Returns the shares of a random pair (r, r^2) with macs under the same
+	 * key as the other dummy data. All parties generate the same pairs from
+	 * the same seed, and each party keeps its own shares, so the parties must
+	 * ask for the same number of squares.
+	 */
+	@Override
+	public synchronized SpdzSquare getNextSquare() {
+		BigInteger p = getModulus();
+		if (alpha == null) {
+			BigInteger sum = BigInteger.ZERO;
+			for (int id = 1; id <= numberOfPlayers; id++) {
+				sum = sum.add(getSSK(id));
+			}
+			alpha = sum.mod(p);
+		}
+		BigInteger r = randomElement(p);
+		return new SpdzSquare(share(r, p), share(r.multiply(r).mod(p), p));
+	}
+
+	/**
+	 * Splits the value and its mac into random shares and returns the shares
+	 * of this party. The same random values are used whatever the id of this
+	 * party, so all parties stay in step.
+	 */
+	private SpdzElement share(BigInteger value, BigInteger p) {
+		BigInteger share = value;
+		BigInteger mac = value.multiply(alpha).mod(p);
+		SpdzElement res = null;
+		for (int id = 1; id < numberOfPlayers; id++) {
+			BigInteger s = randomElement(p);
+			BigInteger m = randomElement(p);
+			share = share.subtract(s);
+			mac = mac.subtract(m);
+			if (id == myId) {
+				res = new SpdzElement(s, m);
+			}
+		}
+		if (res == null) {
+			res = new SpdzElement(share.mod(p), mac.mod(p));
+		}
+		return res;
+	}
+
+	private BigInteger randomElement(BigInteger p) {
+		BigInteger res;
+		do {
+			res = new BigInteger(p.bitLength(), squareRandom);
+		} while (res.compareTo(p) >= 0);
+		return res;
+	}
+
+	@Override
+	public boolean hasSquares() {
+		return true;
+	}
+
+	@Override
+	public boolean hasUnlimitedData() {
+		return true;
+	}
+
 	@Override
 	public SpdzSInt[] getNextExpPipe() {
 		if(numberOfPlayers == 2) {
@@ -90,17 +169,21 @@ public class DummyDataSupplierImpl implements DataSupplier{
 
 	@Override
 	public BigInteger getSSK() {
+		return getSSK(myId);
+	}
+
+	private BigInteger getSSK(int playerId) {
 		if(numberOfPlayers == 2) {
-			if(myId == 1) {
+			if(playerId == 1) {
 				return new BigInteger("4398609814279412802701198691862202317942624986494244429473655753884051550263074206803298271454697058880445506503872593225336641784338551083279712108718339");
 			} else {
 				return new BigInteger("242394139555549323757440350647570127111654328448272873977205652590543447402601220911130642608390486840366320142898383568903966813366870915831053225072000");
 			}
 		}
 		if(numberOfPlayers == 3) {
-			if(myId == 1) {
+			if(playerId == 1) {
 				return new BigInteger("4072507119751346201527897054058529240060078870278409399772030351458743335248072434046264051127609936757941975845025229116590923349094093717616370825064883");
-			} else if(myId == 2) {
+			} else if(playerId == 2) {
 				return new BigInteger("2388322521059421574258197971403561287922413320929640277613813884592459750657081968244210189631877635948978217195527375971662791318539645357775184280662266");
 			} else {
 				return new BigInteger("1773006772147369498312047927024863191600912606833548547253843465427186448129591382955013273429865655003231379457147671155882461760431493165910277385895306");
@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+
+/**
+ * A trusted dealer which generates "fake" offline data for SPDZ on demand
+ * and streams the shares of each party to it over a socket, see
+ * {@link DealerDataSupplier}. This replaces the files of preprocessed data in
+ * test and staging setups, and the computation cannot run out of data.
+ *
+ * The dealer knows all secrets, so it must never be used in production.
+ *
+ * Every VM thread of every party has its own connection. The connections of
+ * the same VM thread of all parties share a stream of data, generated as in
+ * {@link ParallelFakeTripGen}: when a party asks for more data than has been
+ * generated, new data is generated for all parties and the shares of the
+ * other parties are kept until they ask for them. The parties must therefore
+ * ask for the same data in the same order, which they do when running the
+ * same application.
+ *
+ * The protocol is as follows. The client sends its party id, the number of VM
+ * threads and the id of its VM thread as three ints, and the dealer answers
+ * with the element size as an int, followed by the modulus and the share of
+ * the secret key of the party. Then the client sends requests consisting of
+ * the kind of data, i.e. the name of the record file such as
+ * {@link SpdzStorageConstants#TRIPLE_STORAGE}, as UTF and the wanted number
+ * of bytes as an int. The dealer answers with the number of records and the
+ * record size as two ints followed by the records in the layout read by the
+ * {@link MappedDataSupplier}. At least one record is sent for each request.
+ */
+public class FakeDataDealer {
+
+	private static final int MIN_GENERATED_RECORDS = 256;
+
+	private final ParallelFakeTripGen gen;
+	private final BigInteger modulus;
+	private final int noOfParties;
+	private final int port;
+
+	private ServerSocket server;
+	private Thread acceptor;
+	private final Set<Socket> clients = Collections.synchronizedSet(new HashSet<Socket>());
+	private final Map<String, Stream> streams = new HashMap<String, Stream>();
+
+	/**
+	 * @param port
+	 *            the port to listen on, or 0 to use any free port.
+	 * @param modulus
+	 *            the prime modulus.
+	 * @param noOfParties
+	 *            the number of parties.
+	 */
+	public FakeDataDealer(int port, BigInteger modulus, int noOfParties) {
+		this.port = port;
+		this.modulus = modulus;
+		this.noOfParties = noOfParties;
+		this.gen = new ParallelFakeTripGen(modulus, noOfParties, 1, 1);
+		this.gen.newKey();
+	}
+
+	/**
+	 * Starts listening for parties in a background thread.
+	 *
+	 * @throws IOException
+	 *             if the port could not be opened.
+	 */
+	public void start() throws IOException {
+		server = new ServerSocket(port);
+		acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				accept();
+			}
+		}, "FakeDataDealer");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * @return the port the dealer listens on.
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Stops listening and closes all connections.
+	 */
+	public void shutdown() {
+		try {
+			if (server != null) {
+				server.close();
+			}
+		} catch (IOException e) {
+			Reporter.warn("Could not close the dealer socket: " + e.getMessage());
+		}
+		synchronized (clients) {
+			for (Socket s : clients) {
+				try {
+					s.close();
+				} catch (IOException e) {
+					// Already closed
+				}
+			}
+			clients.clear();
+		}
+	}
+
+	private void accept() {
+		while (!server.isClosed()) {
+			final Socket socket;
+			try {
+				socket = server.accept();
+			} catch (IOException e) {
+				if (!server.isClosed()) {
+					Reporter.severe("The dealer stopped accepting parties: " + e.getMessage());
+				}
+				return;
+			}
+			clients.add(socket);
+			Thread t = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					serve(socket);
+				}
+			}, "FakeDataDealer-" + socket.getPort());
+			t.setDaemon(true);
+			t.start();
+		}
+	}
+
+	private void serve(Socket socket) {
+		try {
+			socket.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			int myId = in.readInt();
+			int noOfThreads = in.readInt();
+			int threadId = in.readInt();
+			if (myId < 1 || myId > noOfParties) {
+				throw new MPCException("The dealer serves " + noOfParties + " parties, not party " + myId);
+			}
+			Stream stream = getStream(noOfThreads + "_" + threadId);
+
+			int size = gen.getElementSize();
+			byte[] global = new byte[2 * size];
+			SpdzSerializer.serialize(modulus, global, 0, size);
+			SpdzSerializer.serialize(gen.getAlphaShare(myId), global, size, size);
+			out.writeInt(size);
+			out.write(global);
+			out.flush();
+
+			while (true) {
+				String name;
+				try {
+					name = in.readUTF();
+				} catch (EOFException e) {
+					return;
+				}
+				int bytes = in.readInt();
+				Queue records = stream.take(name, myId, bytes);
+				out.writeInt(records.records);
+				out.writeInt(records.recordSize);
+				records.write(out);
+				out.flush();
+			}
+		} catch (SocketException e) {
+			// The party or the dealer closed the connection
+		} catch (IOException | MPCException e) {
+			Reporter.severe("The dealer failed to serve a party: " + e.getMessage());
+		} finally {
+			clients.remove(socket);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// Already closed
+			}
+		}
+	}
+
+	private Stream getStream(String key) {
+		synchronized (streams) {
+			Stream stream = streams.get(key);
+			if (stream == null) {
+				stream = new Stream();
+				streams.put(key, stream);
+			}
+			return stream;
+		}
+	}
+
+	/**
+	 * The data of a single VM thread of all parties.
+	 */
+	private class Stream {
+
+		private final Map<String, Queue[]> queues = new HashMap<String, Queue[]>();
+
+		/**
+		 * Removes the next records of the given kind from the queue of the
+		 * party, generating more data if needed.
+		 *
+		 * @return the removed records.
+		 */
+		synchronized Queue take(String name, int myId, int bytes) {
+			Queue[] forName = queues.get(name);
+			if (forName == null) {
+				forName = new Queue[noOfParties];
+				byte[][] first = gen.generateRecords(name, 1);
+				for (int i = 0; i < noOfParties; i++) {
+					forName[i] = new Queue(first[i].length);
+					forName[i].add(first[i]);
+				}
+				queues.put(name, forName);
+			}
+			Queue queue = forName[myId - 1];
+			int count = Math.max(1, bytes / queue.recordSize);
+			if (queue.records < count) {
+				byte[][] records = gen.generateRecords(name, Math.max(count - queue.records, MIN_GENERATED_RECORDS));
+				for (int i = 0; i < noOfParties; i++) {
+					forName[i].add(records[i]);
+				}
+			}
+			return queue.poll(count);
+		}
+	}
+
+	/**
+	 * The records of one kind generated for a party but not yet sent to it.
+	 */
+	private static class Queue {
+
+		final int recordSize;
+		final ArrayDeque<byte[]> chunks = new ArrayDeque<byte[]>();
+		int position = 0;
+		int records = 0;
+
+		Queue(int recordSize) {
+			this.recordSize = recordSize;
+		}
+
+		void add(byte[] chunk) {
+			chunks.add(chunk);
+			records += chunk.length / recordSize;
+		}
+
+		/**
+		 * Moves the first records to a new queue.
+		 */
+		Queue poll(int count) {
+			Queue res = new Queue(recordSize);
+			records -= count;
+			int remaining = count * recordSize;
+			while (remaining > 0) {
+				byte[] chunk = chunks.peek();
+				int length = Math.min(remaining, chunk.length - position);
+				if (position == 0 && length == chunk.length) {
+					res.add(chunk);
+				} else {
+					byte[] part = new byte[length];
+					System.arraycopy(chunk, position, part, 0, length);
+					res.add(part);
+				}
+				position += length;
+				remaining -= length;
+				if (position == chunk.length) {
+					chunks.poll();
+					position = 0;
+				}
+			}
+			return res;
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			for (byte[] chunk : chunks) {
+				out.write(chunk);
+			}
+		}
+	}
+
+	/**
+	 * Runs a dealer until the process is killed.
+	 *
+	 * @param args
+	 *            the port, the modulus and the number of parties.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length != 3) {
+			System.err.println("Usage: FakeDataDealer [port] [modulus] [#parties]");
+			return;
+		}
+		FakeDataDealer dealer = new FakeDataDealer(Integer.parseInt(args[0]), new BigInteger(args[1]),
+				Integer.parseInt(args[2]));
+		dealer.start();
+		System.out.println("Dealing preprocessed data on port " + dealer.getPort());
+		dealer.acceptor.join();
+	}
+}
@@ -46,6 +46,7 @@ import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
@@ -62,6 +63,7 @@ public class FakeTripGen {
 	private static Random rand;
 	private static int size;
 	private static int numberOfTriples;
+	private static int numberOfSquares;
 	private static int numberOfParties;
 	private static int numberOfBits;
 	private static int numberOfInputs;
@@ -70,8 +72,7 @@ public class FakeTripGen {
 	private static String triplesFilename = "Triples-p-P";
 	private static String expPipeFilename = "Exp-pipe-p-P";
 	private static String globalFilename = "Global-data-p-P";
-	// private static final String squaresFilename = relativePath +
-	// "Squares-p-P";
+	private static String squaresFilename = "Squares-p-P";
 	private static String inputsFilename = "Inputs-p-P";
 	private static String bitsFilename = "Bits-p-P";
 
@@ -184,6 +185,39 @@ public class FakeTripGen {
 		return triples;
 	}
 
+	/**
+	 * Returns a list of square pairs, where each array contains the shares of
+	 * a single pair, one for each party.
+	 * 
+	 * @param amount
+	 * @param noOfParties
+	 * @param modulus
+	 * @param alpha
+	 * @return
+	 */
+	public static List<SpdzSquare[]> generateSquares(int amount,
+			int noOfParties, BigInteger modulus, BigInteger alpha) {
+		FakeTripGen.rand = new Random();
+		FakeTripGen.alpha = alpha;
+		FakeTripGen.mod = modulus;
+
+		List<SpdzSquare[]> squares = new ArrayList<SpdzSquare[]>(amount);
+		for (int i = 0; i < amount; i++) {
+			BigInteger a = sample();
+			List<SpdzElement> elementsA = toShares(a, getMac(a), noOfParties);
+
+			BigInteger b = a.multiply(a).mod(mod);
+			List<SpdzElement> elementsB = toShares(b, getMac(b), noOfParties);
+
+			SpdzSquare[] arr = new SpdzSquare[noOfParties];
+			for (int j = 0; j < noOfParties; j++) {
+				arr[j] = new SpdzSquare(elementsA.get(j), elementsB.get(j));
+			}
+			squares.add(arr);
+		}
+		return squares;
+	}
+
 	/**
 	 * Returns a list of a list of inputmasks. Read as: the innermost array is
 	 * as large as noOfParties and contains a sharing of a single inputMask
@@ -261,13 +295,28 @@ public class FakeTripGen {
 	 */
 	public static List<SpdzSInt[][]> generateExpPipes(int amount, int noOfParties,
 			BigInteger modulus, BigInteger alpha) {
+		return generateExpPipes(amount, Util.EXP_PIPE_SIZE, noOfParties, modulus, alpha);
+	}
+
+	/**
+	 * As {@link #generateExpPipes(int, int, BigInteger, BigInteger)}, but
+	 * generates pipes of the given length, i.e. R^-1, R, ..., R^(length-1).
+	 * @param amount
+	 * @param length
+	 * @param noOfParties
+	 * @param modulus
+	 * @param alpha
+	 * @return
+	 */
+	public static List<SpdzSInt[][]> generateExpPipes(int amount, int length, int noOfParties,
+			BigInteger modulus, BigInteger alpha) {
 		FakeTripGen.rand = new Random();
 		FakeTripGen.alpha = alpha;
 		FakeTripGen.mod = modulus;
 
 		List<SpdzSInt[][]> res = new ArrayList<SpdzSInt[][]>();
 		for (int j = 0; j < amount; j++) {
-			SpdzSInt[][] expPipe = new SpdzSInt[noOfParties][Util.EXP_PIPE_SIZE];
+			SpdzSInt[][] expPipe = new SpdzSInt[noOfParties][length];
 			BigInteger r = sample();
 			BigInteger rInv = r.modInverse(mod);
 			BigInteger mac = getMac(rInv);
@@ -277,7 +326,7 @@ public class FakeTripGen {
 			}
 
 			BigInteger exp = BigInteger.ONE;			
-			for (int i = 1; i < Util.EXP_PIPE_SIZE; i++) {
+			for (int i = 1; i < length; i++) {
 				exp = exp.multiply(r).mod(mod);
 				mac = getMac(exp);
 				elements = toShares(exp, mac, noOfParties);
@@ -341,6 +390,9 @@ public class FakeTripGen {
 				System.out.println("START TRIPLES");
 				writeTriples();
 				System.out.println("DONE TRIPLES");
+				System.out.println("START SQUARES");
+				writeSquares();
+				System.out.println("DONE SQUARES");
 				System.out.println("START INPUTS");
 				writeInputs();
 				System.out.println("DONE INPUTS");
@@ -370,6 +422,7 @@ public class FakeTripGen {
 		boolean primePresent = false;
 		String tripKey = "-t=";
 		boolean tripPresent = false;
+		String squareKey = "-s=";
 		String inputKey = "-i=";
 		boolean inputPresent = false;
 		String bitKey = "-b=";
@@ -384,7 +437,8 @@ public class FakeTripGen {
 				+ "[modulus] " + tripKey + "[#triples] " + inputKey
 				+ "[#inputs (per player)] " + bitKey + "[#bits] " + expKey
 				+ "[#exp pipes] " + partiesKey + "[#parties] " + dirKey
-				+ "[directory (to store files)]";
+				+ "[directory (to store files)] and optionally " + squareKey
+				+ "[#squares]";
 		for (String arg : args) {
 			if (arg.length() < 4) {
 				System.err.println("Malformed argument \"" + arg + "\". "
@@ -398,6 +452,8 @@ public class FakeTripGen {
 			} else if (key.equals(tripKey)) {
 				numberOfTriples = Integer.parseInt(value);
 				tripPresent = true;
+			} else if (key.equals(squareKey)) {
+				numberOfSquares = Integer.parseInt(value);
 			} else if (key.equals(inputKey)) {
 				numberOfInputs = Integer.parseInt(value);
 				inputPresent = true;
@@ -417,6 +473,7 @@ public class FakeTripGen {
 				inputsFilename = value + inputsFilename;
 				bitsFilename = value + bitsFilename;
 				triplesFilename = value + triplesFilename;
+				squaresFilename = value + squaresFilename;
 				globalFilename = value + globalFilename;
 				expPipeFilename = value + expPipeFilename;
 				dirPresent = true;
@@ -485,6 +542,30 @@ public class FakeTripGen {
 		}
 	}
 
+	/**
+	 * Generates square pairs and writes them the appropriate file.
+	 * 
+	 * @throws IOException
+	 */
+	public static void writeSquares() throws IOException {
+		BigInteger a;
+		List<FileChannel> channels = new LinkedList<FileChannel>();
+		for (int i = 0; i < numberOfParties; i++) {
+			File f = new File(squaresFilename + i);
+			FileOutputStream fos = new FileOutputStream(f);
+			FileChannel fc = fos.getChannel();
+			channels.add(fc);
+		}
+		for (int i = 0; i < numberOfSquares; i++) {
+			a = sample();
+			writeAsShared(a, channels);
+			writeAsShared(a.multiply(a).mod(mod), channels);
+		}
+		for (FileChannel fc : channels) {
+			fc.close();
+		}
+	}
+
 	/**
 	 * Generates a SPDZ sharing (with macs) of a BigInteger value. Then writes
 	 * each generated element to a separate file (i.e. one for each party).
@@ -27,15 +27,19 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
+import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class InitializeStorage {
 
@@ -51,6 +55,15 @@ public class InitializeStorage {
 	 */
 	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits,
 			int noOfExpPipes) {
+		initStorage(stores, noOfPlayers, noOfTriples, noOfInputMasks, noOfBits, noOfExpPipes, 0);
+	}
+
+	/**
+	 * As {@link #initStorage(Storage[], int, int, int, int, int)}, but also
+	 * generates square pairs.
+	 */
+	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits,
+			int noOfExpPipes, int noOfSquares) {
 
 		List<Storage> tmpStores = new ArrayList<Storage>();
 		for (Storage s : stores) {
@@ -71,6 +84,7 @@ public class InitializeStorage {
 		alpha = alpha.mod(p);
 
 		List<SpdzTriple[]> triples = FakeTripGen.generateTriples(noOfTriples, noOfPlayers, p, alpha);
+		List<SpdzSquare[]> squares = FakeTripGen.generateSquares(noOfSquares, noOfPlayers, p, alpha);
 		List<List<SpdzInputMask[]>> inputMasks = FakeTripGen.generateInputMasks(noOfInputMasks, noOfPlayers, p, alpha);
 		List<SpdzSInt[]> bits = FakeTripGen.generateBits(noOfBits, noOfPlayers, p, alpha);
 		List<SpdzSInt[][]> expPipes = FakeTripGen.generateExpPipes(noOfExpPipes, noOfPlayers, p, alpha);
@@ -90,6 +104,15 @@ public class InitializeStorage {
 				}
 				tripleCounter++;
 			}
+			// squares
+			int squareCounter = 0;
+			for (SpdzSquare[] square : squares) {
+				for (int i = 0; i < noOfPlayers; i++) {
+					String storageName = SpdzStorageConstants.STORAGE_NAME_PREFIX + (i + 1);
+					store.putObject(storageName, SpdzStorageConstants.SQUARE_KEY_PREFIX + squareCounter, square[i]);
+				}
+				squareCounter++;
+			}
 			// inputs
 			// towards player
 			for (int towardsPlayer = 1; towardsPlayer < inputMasks.size() + 1; towardsPlayer++) {
@@ -132,6 +155,16 @@ public class InitializeStorage {
 
 	public static void initStreamedStorage(StreamedStorage[] streamedStorages, int noOfPlayers, int noOfThreads,
 			int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes) {
+		initStreamedStorage(streamedStorages, noOfPlayers, noOfThreads, noOfTriples, noOfInputMasks, noOfBits,
+				noOfExpPipes, 0);
+	}
+
+	/**
+	 * As {@link #initStreamedStorage(StreamedStorage[], int, int, int, int, int, int)},
+	 * but also generates square pairs.
+	 */
+	public static void initStreamedStorage(StreamedStorage[] streamedStorages, int noOfPlayers, int noOfThreads,
+			int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes, int noOfSquares) {
 		List<Storage> tmpStores = new ArrayList<Storage>();
 		for (StreamedStorage s : streamedStorages) {
 			try {
@@ -166,9 +199,15 @@ public class InitializeStorage {
 		alpha = alpha.mod(p);
 
 		List<SpdzTriple[]> triples = FakeTripGen.generateTriples(noOfTriples, noOfPlayers, p, alpha);
+		List<SpdzSquare[]> squares = FakeTripGen.generateSquares(noOfSquares, noOfPlayers, p, alpha);
 		List<List<SpdzInputMask[]>> inputMasks = FakeTripGen.generateInputMasks(noOfInputMasks, noOfPlayers, p, alpha);
 		List<SpdzSInt[]> bits = FakeTripGen.generateBits(noOfBits, noOfPlayers, p, alpha);
 		List<SpdzSInt[][]> expPipes = FakeTripGen.generateExpPipes(noOfExpPipes, noOfPlayers, p, alpha);
+		int[] sizes = Util.getExpPipeSizes();
+		List<List<SpdzSInt[][]>> shortExpPipes = new ArrayList<List<SpdzSInt[][]>>();
+		for (int c = 0; c < sizes.length - 1; c++) {
+			shortExpPipes.add(FakeTripGen.generateExpPipes(noOfExpPipes, sizes[c], noOfPlayers, p, alpha));
+		}
 
 		for (StreamedStorage store : storages) {
 			for (int i = 1; i < noOfPlayers + 1; i++) {
@@ -187,6 +226,15 @@ public class InitializeStorage {
 					}
 				}
 			}
+			// squares
+			for (SpdzSquare[] square : squares) {
+				for (int i = 0; i < noOfPlayers; i++) {
+					for (int threadId = 0; threadId < noOfThreads; threadId++) {
+						String storageName = SpdzStorageConstants.STORAGE_NAME_PREFIX + noOfThreads+"_"+ (i + 1) + "_" + threadId+"_";
+						store.putNext(storageName + SpdzStorageConstants.SQUARE_STORAGE, square[i]);
+					}
+				}
+			}
 			// inputs
 			// towards player
 			for (int towardsPlayer = 1; towardsPlayer < inputMasks.size() + 1; towardsPlayer++) {
@@ -221,6 +269,51 @@ public class InitializeStorage {
 					}
 				}
 			}
+			// shorter exp pipes, one list per size class
+			for (List<SpdzSInt[][]> pipes : shortExpPipes) {
+				for (SpdzSInt[][] expPipe : pipes) {
+					String kind = Util.getExpPipeStorage(expPipe[0].length);
+					for (int i = 0; i < noOfPlayers; i++) {
+						for (int threadId = 0; threadId < noOfThreads; threadId++) {
+							String storageName = SpdzStorageConstants.STORAGE_NAME_PREFIX + noOfThreads+"_"+ (i + 1) + "_" + threadId+"_";
+							store.putNext(storageName + kind, expPipe[i]);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generates the preprocessed data for SPDZ tests directly as the record
+	 * files read by the {@link MappedDataSupplier}, see
+	 * {@link ParallelFakeTripGen}. Unlike
+	 * {@link #initStreamedStorage(StreamedStorage[], int, int, int, int, int, int, int)}
+	 * the data is never held in memory and each VM thread gets its own data.
+	 * Nothing is generated if the files of the last thread of the last party
+	 * already exist.
+	 */
+	public static void initMappedStorage(int noOfPlayers, int noOfThreads, int noOfTriples, int noOfInputMasks,
+			int noOfBits, int noOfExpPipes, int noOfSquares) {
+		File last = new File(SpdzStorageConstants.STORAGE_NAME_PREFIX + noOfThreads + "_" + noOfPlayers + "_"
+				+ (noOfThreads - 1) + "_" + SpdzStorageConstants.GLOBAL_STORAGE + SpdzStorageConstants.MAPPED_SUFFIX);
+		if (last.exists()) {
+			return;
+		}
+		System.out.println("Generating preprocessed data!");
+		File f = new File(SpdzStorageConstants.STORAGE_FOLDER);
+		if (!f.exists()) {
+			f.mkdirs();
+		}
+		BigInteger p = new BigInteger(
+				"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+		ParallelFakeTripGen gen = new ParallelFakeTripGen(p, noOfPlayers, noOfThreads,
+				Runtime.getRuntime().availableProcessors());
+		try {
+			gen.generate(SpdzStorageConstants.STORAGE_NAME_PREFIX, noOfTriples, noOfSquares, noOfInputMasks, noOfBits,
+					noOfExpPipes);
+		} catch (IOException e) {
+			throw new MPCException("Could not write the preprocessed data", e);
 		}
 	}
 }
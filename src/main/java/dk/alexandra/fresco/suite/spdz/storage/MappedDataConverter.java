@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Converts the preprocessed data of a single storage from the serialized
+ * files read by {@link DataSupplierImpl} (as written by the
+ * {@link dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl})
+ * into the record files read by {@link MappedDataSupplier}.
+ *
+ * Kinds of data for which no serialized file exists are skipped.
+ */
+public class MappedDataConverter {
+
+	private static final String usage = "Usage: MappedDataConverter [#parties] [storage name]...\n"
+			+ "E.g. MappedDataConverter 2 spdz/SPDZ_1_1_0_ spdz/SPDZ_1_2_0_";
+
+	private MappedDataConverter() {
+		// Only static methods
+	}
+
+	/**
+	 * Converts all serialized files of the given storage.
+	 * 
+	 * @param storageName
+	 *            the prefix of the files, e.g. as used by the
+	 *            {@link SpdzStorageImpl}.
+	 * @param noOfParties
+	 *            the number of parties in the computation.
+	 * @throws IOException
+	 */
+	public static void convert(String storageName, int noOfParties) throws IOException {
+		BigInteger mod = readSingle(storageName + SpdzStorageConstants.MODULUS_KEY);
+		BigInteger ssk = readSingle(storageName + SpdzStorageConstants.SSK_KEY);
+		int size = (mod.bitLength() + 7) / 8;
+
+		MappedRecordWriter global = new MappedRecordWriter(storageName + SpdzStorageConstants.GLOBAL_STORAGE
+				+ SpdzStorageConstants.MAPPED_SUFFIX, size, size);
+		try {
+			byte[] record = new byte[size];
+			SpdzSerializer.serialize(mod, record, 0, size);
+			global.write(record);
+			SpdzSerializer.serialize(ssk, record, 0, size);
+			global.write(record);
+		} finally {
+			global.close();
+		}
+		convertTriples(storageName, size);
+		convertSquares(storageName, size);
+		convertBits(storageName, size);
+		for (int length : Util.getExpPipeSizes()) {
+			convertExpPipes(storageName, Util.getExpPipeStorage(length), size);
+		}
+		for (int i = 1; i <= noOfParties; i++) {
+			convertInputMasks(storageName, i, size);
+		}
+	}
+
+	private static void convertTriples(String storageName, int size) throws IOException {
+		ObjectInputStream in = open(storageName + SpdzStorageConstants.TRIPLE_STORAGE);
+		if (in == null) {
+			return;
+		}
+		MappedRecordWriter out = new MappedRecordWriter(storageName + SpdzStorageConstants.TRIPLE_STORAGE
+				+ SpdzStorageConstants.MAPPED_SUFFIX, size, 6 * size);
+		try {
+			byte[] record = new byte[6 * size];
+			SpdzTriple triple;
+			while ((triple = readNext(in)) != null) {
+				writeElement(triple.getA(), record, 0, size);
+				writeElement(triple.getB(), record, 2 * size, size);
+				writeElement(triple.getC(), record, 4 * size, size);
+				out.write(record);
+			}
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private static void convertSquares(String storageName, int size) throws IOException {
+		ObjectInputStream in = open(storageName + SpdzStorageConstants.SQUARE_STORAGE);
+		if (in == null) {
+			return;
+		}
+		MappedRecordWriter out = new MappedRecordWriter(storageName + SpdzStorageConstants.SQUARE_STORAGE
+				+ SpdzStorageConstants.MAPPED_SUFFIX, size, 4 * size);
+		try {
+			byte[] record = new byte[4 * size];
+			SpdzSquare square;
+			while ((square = readNext(in)) != null) {
+				writeElement(square.getA(), record, 0, size);
+				writeElement(square.getB(), record, 2 * size, size);
+				out.write(record);
+			}
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private static void convertBits(String storageName, int size) throws IOException {
+		ObjectInputStream in = open(storageName + SpdzStorageConstants.BIT_STORAGE);
+		if (in == null) {
+			return;
+		}
+		MappedRecordWriter out = new MappedRecordWriter(storageName + SpdzStorageConstants.BIT_STORAGE
+				+ SpdzStorageConstants.MAPPED_SUFFIX, size, 2 * size);
+		try {
+			byte[] record = new byte[2 * size];
+			SpdzSInt bit;
+			while ((bit = readNext(in)) != null) {
+				writeElement(bit.value, record, 0, size);
+				out.write(record);
+			}
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private static void convertExpPipes(String storageName, String kind, int size) throws IOException {
+		ObjectInputStream in = open(storageName + kind);
+		if (in == null) {
+			return;
+		}
+		MappedRecordWriter out = null;
+		try {
+			byte[] record = null;
+			SpdzSInt[] expPipe;
+			while ((expPipe = readNext(in)) != null) {
+				if (out == null) {
+					record = new byte[expPipe.length * 2 * size];
+					out = new MappedRecordWriter(storageName + kind + SpdzStorageConstants.MAPPED_SUFFIX, size,
+							record.length);
+				} else if (expPipe.length * 2 * size != record.length) {
+					throw new MPCException("Exp pipes of different lengths in " + storageName + kind);
+				}
+				for (int i = 0; i < expPipe.length; i++) {
+					writeElement(expPipe[i].value, record, i * 2 * size, size);
+				}
+				out.write(record);
+			}
+		} finally {
+			in.close();
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+
+	private static void convertInputMasks(String storageName, int towardPlayerID, int size) throws IOException {
+		ObjectInputStream in = open(storageName + SpdzStorageConstants.INPUT_STORAGE + towardPlayerID);
+		if (in == null) {
+			return;
+		}
+		MappedRecordWriter out = null;
+		try {
+			byte[] record = null;
+			SpdzInputMask mask;
+			while ((mask = readNext(in)) != null) {
+				int recordSize = (mask.getRealValue() == null ? 2 : 3) * size;
+				if (out == null) {
+					record = new byte[recordSize];
+					out = new MappedRecordWriter(storageName + SpdzStorageConstants.INPUT_STORAGE + towardPlayerID
+							+ SpdzStorageConstants.MAPPED_SUFFIX, size, recordSize);
+				} else if (recordSize != record.length) {
+					throw new MPCException("Input masks towards player " + towardPlayerID
+							+ " both with and without real values in " + storageName);
+				}
+				writeElement(mask.getMask(), record, 0, size);
+				if (mask.getRealValue() != null) {
+					SpdzSerializer.serialize(mask.getRealValue(), record, 2 * size, size);
+				}
+				out.write(record);
+			}
+		} finally {
+			in.close();
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+
+	private static void writeElement(SpdzElement e, byte[] record, int offset, int size) {
+		SpdzSerializer.serialize(e.getShare(), record, offset, size);
+		SpdzSerializer.serialize(e.getMac(), record, offset + size, size);
+	}
+
+	private static BigInteger readSingle(String filename) throws IOException {
+		ObjectInputStream in = open(filename);
+		if (in == null) {
+			throw new MPCException("File with filename '" + filename + "' not found.");
+		}
+		try {
+			BigInteger res = readNext(in);
+			if (res == null) {
+				throw new MPCException("The file " + filename + " is empty");
+			}
+			return res;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static ObjectInputStream open(String filename) throws IOException {
+		File f = new File(filename);
+		if (!f.exists()) {
+			return null;
+		}
+		return new ObjectInputStream(new BufferedInputStream(new FileInputStream(f)));
+	}
+
+	/**
+	 * @return the next object of the stream, or null if the end of the stream
+	 *         is reached.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T readNext(ObjectInputStream in) throws IOException {
+		try {
+			return (T) in.readObject();
+		} catch (EOFException e) {
+			return null;
+		} catch (ClassNotFoundException e) {
+			throw new MPCException("Class not found: " + e.getMessage(), e);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println(usage);
+			return;
+		}
+		int noOfParties = Integer.parseInt(args[0]);
+		for (int i = 1; i < args.length; i++) {
+			System.out.println("Converting " + args[i]);
+			convert(args[i], noOfParties);
+		}
+	}
+}
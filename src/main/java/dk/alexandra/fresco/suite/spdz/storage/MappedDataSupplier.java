@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Data supplier which reads the preprocessed data from memory-mapped files of
+ * fixed-size records instead of deserializing one object at a time.
+ *
+ * For a storage name <i>s</i> the data is read from the files
+ * <i>s</i>+{@link SpdzStorageConstants#TRIPLE_STORAGE}+
+ * {@link SpdzStorageConstants#MAPPED_SUFFIX} etc., see
+ * {@link MappedRecordReader} for the file format. A SPDZ element is stored as
+ * its share followed by its mac, each as an unsigned big-endian number of the
+ * element size given in the file header. The records are:
+ * <ul>
+ * <li>Global data: two records of one number each, the modulus and the share
+ * of the secret key.</li>
+ * <li>Triples: the elements a, b and c.</li>
+ * <li>Square pairs: the elements a and a^2.</li>
+ * <li>Bits: a single element.</li>
+ * <li>Input masks: the mask element, followed by the real value of the mask if
+ * the masks are towards this party.</li>
+ * <li>Exp pipes: the elements of the pipe. The length of the pipes follows
+ * from the record size.</li>
+ * </ul>
+ * Such files can be created from the serialized files of the
+ * {@link DataSupplierImpl} using the {@link MappedDataConverter}.
+ */
+public class MappedDataSupplier implements DataSupplier {
+
+	private String storageName;
+
+	private MappedRecordReader triples;
+	private MappedRecordReader squares;
+	private MappedRecordReader expPipes;
+	private Map<Integer, MappedRecordReader> shortExpPipes = new HashMap<Integer, MappedRecordReader>();
+	private MappedRecordReader[] inputMasks;
+	private MappedRecordReader bits;
+
+	private int tripleCounter = 0;
+	private int squareCounter = 0;
+	private int expPipeCounter = 0;
+	private int[] inputMaskCounters;
+	private int bitCounter = 0;
+
+	private BigInteger ssk;
+	private BigInteger mod;
+	private int elementSize;
+
+	/**
+	 * Creates a new supplier reading the record files with the given prefix.
+	 * 
+	 * @param storageName
+	 *            The prefix of the filenames, e.g. the same storage name as
+	 *            given to the {@link DataSupplierImpl}.
+	 * @param noOfParties
+	 *            The number of parties in the computation.
+	 */
+	public MappedDataSupplier(String storageName, int noOfParties) {
+		this.storageName = storageName;
+		this.inputMasks = new MappedRecordReader[noOfParties];
+		this.inputMaskCounters = new int[noOfParties];
+	}
+
+	@Override
+	public SpdzTriple getNextTriple() {
+		return getNextTriples(1)[0];
+	}
+
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		if (triples == null) {
+			triples = open(SpdzStorageConstants.TRIPLE_STORAGE, 6);
+		}
+		if (triples.remaining() < amount) {
+			throw new MPCException("Triple no. " + (tripleCounter + triples.remaining())
+					+ " was not present in the storage " + storageName);
+		}
+		byte[] records = new byte[amount * triples.getRecordSize()];
+		triples.next(records, amount);
+		SpdzTriple[] res = new SpdzTriple[amount];
+		int offset = 0;
+		for (int i = 0; i < amount; i++) {
+			SpdzElement a = readElement(records, offset);
+			SpdzElement b = readElement(records, offset + 2 * elementSize);
+			SpdzElement c = readElement(records, offset + 4 * elementSize);
+			res[i] = new SpdzTriple(a, b, c);
+			offset += triples.getRecordSize();
+		}
+		tripleCounter += amount;
+		return res;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		if (squares == null) {
+			squares = open(SpdzStorageConstants.SQUARE_STORAGE, 4);
+		}
+		if (squares.remaining() == 0) {
+			throw new MPCException("Square no. " + squareCounter + " was not present in the storage " + storageName);
+		}
+		byte[] record = new byte[squares.getRecordSize()];
+		squares.next(record, 1);
+		squareCounter++;
+		return new SpdzSquare(readElement(record, 0), readElement(record, 2 * elementSize));
+	}
+
+	@Override
+	public boolean hasSquares() {
+		return squares != null
+				|| new File(storageName + SpdzStorageConstants.SQUARE_STORAGE + SpdzStorageConstants.MAPPED_SUFFIX)
+						.exists();
+	}
+
+	@Override
+	public boolean hasUnlimitedData() {
+		return false;
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe() {
+		if (expPipes == null) {
+			expPipes = open(SpdzStorageConstants.EXP_PIPE_STORAGE, -1);
+		}
+		return readExpPipe(expPipes);
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		int size = Util.getExpPipeSize(length);
+		if (size == Util.EXP_PIPE_SIZE) {
+			return getNextExpPipe();
+		}
+		MappedRecordReader reader = shortExpPipes.get(size);
+		if (reader == null) {
+			reader = open(Util.getExpPipeStorage(size), 2 * size);
+			shortExpPipes.put(size, reader);
+		}
+		return readExpPipe(reader);
+	}
+
+	private SpdzSInt[] readExpPipe(MappedRecordReader reader) {
+		if (reader.remaining() == 0) {
+			throw new MPCException("expPipe no. " + expPipeCounter + " was not present in the storage "
+					+ storageName);
+		}
+		byte[] record = new byte[reader.getRecordSize()];
+		reader.next(record, 1);
+		SpdzSInt[] expPipe = new SpdzSInt[record.length / (2 * elementSize)];
+		for (int i = 0; i < expPipe.length; i++) {
+			expPipe[i] = new SpdzSInt(readElement(record, i * 2 * elementSize));
+		}
+		expPipeCounter++;
+		return expPipe;
+	}
+
+	@Override
+	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		MappedRecordReader reader = inputMasks[towardPlayerID - 1];
+		if (reader == null) {
+			reader = open(SpdzStorageConstants.INPUT_STORAGE + towardPlayerID, -1);
+			inputMasks[towardPlayerID - 1] = reader;
+		}
+		inputMaskCounters[towardPlayerID - 1]++;
+		if (reader.remaining() == 0) {
+			throw new MPCException("Mask no. " + inputMaskCounters[towardPlayerID - 1] + " towards player "
+					+ towardPlayerID + " was not present in the storage " + storageName);
+		}
+		byte[] record = new byte[reader.getRecordSize()];
+		reader.next(record, 1);
+		SpdzElement mask = readElement(record, 0);
+		if (record.length == 3 * elementSize) {
+			return new SpdzInputMask(mask, SpdzSerializer.deserialize(record, 2 * elementSize, elementSize));
+		}
+		return new SpdzInputMask(mask);
+	}
+
+	@Override
+	public SpdzSInt getNextBit() {
+		if (bits == null) {
+			bits = open(SpdzStorageConstants.BIT_STORAGE, 2);
+		}
+		if (bits.remaining() == 0) {
+			throw new MPCException("Bit no. " + bitCounter + " was not present in the storage " + storageName);
+		}
+		byte[] record = new byte[bits.getRecordSize()];
+		bits.next(record, 1);
+		bitCounter++;
+		return new SpdzSInt(readElement(record, 0));
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		if (this.mod == null) {
+			readGlobalData();
+		}
+		return this.mod;
+	}
+
+	@Override
+	public BigInteger getSSK() {
+		if (this.ssk == null) {
+			readGlobalData();
+		}
+		return this.ssk;
+	}
+
+	/**
+	 * Closes all files opened by this supplier.
+	 */
+	public void shutdown() {
+		for (MappedRecordReader reader : new MappedRecordReader[] { triples, squares, expPipes, bits }) {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+		for (MappedRecordReader reader : inputMasks) {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+		for (MappedRecordReader reader : shortExpPipes.values()) {
+			reader.close();
+		}
+	}
+
+	private void readGlobalData() {
+		MappedRecordReader global = new MappedRecordReader(storageName + SpdzStorageConstants.GLOBAL_STORAGE
+				+ SpdzStorageConstants.MAPPED_SUFFIX);
+		try {
+			if (global.remaining() < 2) {
+				throw new MPCException("Modulus and SSK were not present in the storage " + storageName);
+			}
+			int size = global.getRecordSize();
+			byte[] records = new byte[2 * size];
+			global.next(records, 2);
+			this.elementSize = size;
+			this.mod = SpdzSerializer.deserialize(records, 0, size);
+			this.ssk = SpdzSerializer.deserialize(records, size, size);
+		} finally {
+			global.close();
+		}
+	}
+
+	/**
+	 * Opens the record file with the given name and checks that its layout
+	 * matches the global data.
+	 * 
+	 * @param name
+	 *            the kind of data, e.g. {@link SpdzStorageConstants#TRIPLE_STORAGE}.
+	 * @param numbersPerRecord
+	 *            the expected number of field elements per record, i.e. two
+	 *            per SPDZ element, or -1 if this may vary.
+	 */
+	private MappedRecordReader open(String name, int numbersPerRecord) {
+		getModulus();
+		MappedRecordReader reader = new MappedRecordReader(storageName + name + SpdzStorageConstants.MAPPED_SUFFIX);
+		if (reader.getElementSize() != elementSize
+				|| (numbersPerRecord > 0 && reader.getRecordSize() != numbersPerRecord * elementSize)) {
+			reader.close();
+			throw new MPCException("The record layout of " + storageName + name
+					+ " does not match the modulus of the storage " + storageName);
+		}
+		return reader;
+	}
+
+	private SpdzElement readElement(byte[] record, int offset) {
+		return new SpdzElement(SpdzSerializer.deserialize(record, offset, elementSize),
+				SpdzSerializer.deserialize(record, offset + elementSize, elementSize));
+	}
+}
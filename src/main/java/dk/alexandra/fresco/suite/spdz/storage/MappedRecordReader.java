@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+/**
+ * Reads a file of fixed-size records as written by {@link MappedRecordWriter}.
+ *
+ * The file starts with a header holding a magic number, the size of a single
+ * field element and the size of a record, all as 4 byte integers. The records
+ * follow directly after the header. The file is memory-mapped in windows of
+ * whole records, so files larger than what a single mapping can hold are
+ * supported and reading a record is a plain memory copy.
+ */
+public class MappedRecordReader {
+
+	public static final int MAGIC = 0x5350445A; // "SPDZ"
+	public static final int HEADER_SIZE = 12;
+
+	private static final long WINDOW_SIZE = 1 << 26;
+
+	private final String filename;
+	private FileChannel channel;
+	private int elementSize;
+	private int recordSize;
+	private long noOfRecords;
+	private long recordsPerWindow;
+
+	private MappedByteBuffer window;
+	private long position = 0;
+	private long windowEnd = 0;
+
+	/**
+	 * Opens the given record file and reads its header.
+	 * 
+	 * @param filename
+	 *            the file to read.
+	 */
+	public MappedRecordReader(String filename) {
+		this.filename = filename;
+		try {
+			this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			throw new MPCException("File with filename '" + filename + "' not found.");
+		} catch (IOException e) {
+			throw new MPCException("Could not open " + filename, e);
+		}
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					throw new MPCException("The file " + filename + " is not a record file");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new MPCException("The file " + filename + " is not a record file");
+			}
+			this.elementSize = header.getInt();
+			this.recordSize = header.getInt();
+			if (elementSize <= 0 || recordSize <= 0) {
+				throw new MPCException("The file " + filename + " has a malformed header");
+			}
+			this.noOfRecords = (channel.size() - HEADER_SIZE) / recordSize;
+			this.recordsPerWindow = Math.max(1, WINDOW_SIZE / recordSize);
+		} catch (IOException e) {
+			close();
+			throw new MPCException("Could not read the header of " + filename, e);
+		} catch (MPCException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the size in bytes of a single field element in this file.
+	 */
+	public int getElementSize() {
+		return elementSize;
+	}
+
+	/**
+	 * @return the size in bytes of a single record in this file.
+	 */
+	public int getRecordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * @return the number of records not yet read.
+	 */
+	public long remaining() {
+		return noOfRecords - position;
+	}
+
+	/**
+	 * Copies the next records into the given buffer.
+	 * 
+	 * @param dst
+	 *            the buffer to copy into, must hold at least
+	 *            <code>count * getRecordSize()</code> bytes.
+	 * @param count
+	 *            the number of records to read.
+	 */
+	public void next(byte[] dst, int count) {
+		if (count > remaining()) {
+			throw new MPCException("Only " + remaining() + " records left in " + filename + ", " + count
+					+ " requested");
+		}
+		int offset = 0;
+		while (count > 0) {
+			if (position == windowEnd) {
+				map();
+			}
+			int n = (int) Math.min(count, windowEnd - position);
+			window.get(dst, offset, n * recordSize);
+			offset += n * recordSize;
+			position += n;
+			count -= n;
+		}
+	}
+
+	private void map() {
+		long size = Math.min(recordsPerWindow, noOfRecords - position);
+		try {
+			window = channel.map(MapMode.READ_ONLY, HEADER_SIZE + position * recordSize, size * recordSize);
+		} catch (IOException e) {
+			throw new MPCException("Could not map " + filename, e);
+		}
+		windowEnd = position + size;
+	}
+
+	/**
+	 * Closes the underlying file. The current window is released once it is
+	 * garbage collected.
+	 */
+	public void close() {
+		window = null;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// Nothing can be done
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file of fixed-size records which can be read by
+ * {@link MappedRecordReader}. Any existing file is overwritten.
+ */
+public class MappedRecordWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private int recordSize;
+
+	/**
+	 * Creates the file and writes the header.
+	 * 
+	 * @param filename
+	 *            the file to write.
+	 * @param elementSize
+	 *            the size in bytes of a single field element.
+	 * @param recordSize
+	 *            the size in bytes of a single record.
+	 * @throws IOException
+	 */
+	public MappedRecordWriter(String filename, int elementSize, int recordSize) throws IOException {
+		this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.recordSize = recordSize;
+		this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, recordSize));
+		buffer.putInt(MappedRecordReader.MAGIC);
+		buffer.putInt(elementSize);
+		buffer.putInt(recordSize);
+	}
+
+	/**
+	 * Appends a record to the file.
+	 * 
+	 * @param record
+	 *            the record, must be exactly the record size given at
+	 *            construction.
+	 * @throws IOException
+	 */
+	public void write(byte[] record) throws IOException {
+		if (record.length != recordSize) {
+			throw new IllegalArgumentException("Record of " + record.length + " bytes, expected " + recordSize);
+		}
+		if (buffer.remaining() < recordSize) {
+			flush();
+		}
+		buffer.put(record);
+	}
+
+	/**
+	 * Appends a number of records stored one after another in the given
+	 * array.
+	 *
+	 * @param records
+	 *            the records, the length must be a multiple of the record
+	 *            size given at construction.
+	 * @throws IOException
+	 */
+	public void writeAll(byte[] records) throws IOException {
+		if (records.length % recordSize != 0) {
+			throw new IllegalArgumentException(records.length + " bytes is not a whole number of records of "
+					+ recordSize + " bytes");
+		}
+		if (buffer.remaining() >= records.length) {
+			buffer.put(records);
+			return;
+		}
+		flush();
+		if (records.length <= buffer.capacity()) {
+			buffer.put(records);
+		} else {
+			ByteBuffer direct = ByteBuffer.wrap(records);
+			while (direct.hasRemaining()) {
+				channel.write(direct);
+			}
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes any buffered records and closes the file.
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,513 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Generates "fake" offline data for SPDZ like {@link FakeTripGen}, but writes
+ * it directly to the record files read by the {@link MappedDataSupplier}
+ * instead of keeping it in memory.
+ *
+ * The data of every VM thread of every party is written, i.e. for party
+ * <i>i</i> and thread <i>t</i> the files with the storage name
+ * <i>prefix</i>+<i>noOfThreads</i>_<i>i</i>_<i>t</i>_ as used by the
+ * {@link SpdzStorageImpl}. Each thread gets its own data. The records are
+ * generated in chunks by a pool of workers and written in order by the
+ * calling thread, which keeps a bounded number of chunks in flight, so the
+ * memory use does not depend on the amount of data generated.
+ */
+public class ParallelFakeTripGen {
+
+	private static final int CHUNK_SIZE = 1024;
+
+	private static final String usage = "Usage: ParallelFakeTripGen -m=[modulus] -p=[#parties] -v=[#VM threads] "
+			+ "-t=[#triples] -s=[#squares] -i=[#inputs (per player)] -b=[#bits] -e=[#exp pipes] "
+			+ "-c=[exp pipe size classes, e.g. 33,65,129] -d=[directory] -w=[#workers]\n"
+			+ "All amounts are per VM thread and default to 0. The number of exp pipes is generated of each size "
+			+ "class and of the full length " + Util.EXP_PIPE_SIZE + ". The directory defaults to "
+			+ SpdzStorageConstants.STORAGE_FOLDER + " and the number of workers to the number of processors.";
+
+	private final BigInteger mod;
+	private final int noOfParties;
+	private final int noOfThreads;
+	private final int noOfWorkers;
+	private final int size;
+
+	private BigInteger alpha;
+	private BigInteger[] alphaShares;
+	private ExecutorService workers;
+
+	/**
+	 * @param modulus
+	 *            the prime modulus.
+	 * @param noOfParties
+	 *            the number of parties.
+	 * @param noOfThreads
+	 *            the number of VM threads each party will use.
+	 * @param noOfWorkers
+	 *            the number of threads generating data.
+	 */
+	public ParallelFakeTripGen(BigInteger modulus, int noOfParties, int noOfThreads, int noOfWorkers) {
+		this.mod = modulus;
+		this.noOfParties = noOfParties;
+		this.noOfThreads = noOfThreads;
+		this.noOfWorkers = noOfWorkers;
+		this.size = (modulus.bitLength() + 7) / 8;
+	}
+
+	/**
+	 * Generates a new key and the given amounts of data for every VM thread of
+	 * every party, and writes it to the record files. Existing files are
+	 * overwritten.
+	 *
+	 * @param storageNamePrefix
+	 *            the prefix of the storage names, e.g.
+	 *            {@link SpdzStorageConstants#STORAGE_NAME_PREFIX}.
+	 * @param noOfExpPipes
+	 *            the number of exp pipes of each length in
+	 *            {@link Util#getExpPipeSizes()}.
+	 * @throws IOException
+	 */
+	public void generate(String storageNamePrefix, long noOfTriples, long noOfSquares, long noOfInputMasks,
+			long noOfBits, long noOfExpPipes) throws IOException {
+		newKey();
+		workers = Executors.newFixedThreadPool(noOfWorkers);
+		try {
+			for (int threadId = 0; threadId < noOfThreads; threadId++) {
+				String[] storageNames = new String[noOfParties];
+				for (int i = 0; i < noOfParties; i++) {
+					storageNames[i] = storageNamePrefix + noOfThreads + "_" + (i + 1) + "_" + threadId + "_";
+				}
+				writeGlobal(storageNames);
+				write(storageNames, new Triples(), noOfTriples);
+				write(storageNames, new Squares(), noOfSquares);
+				write(storageNames, new Bits(), noOfBits);
+				for (int length : Util.getExpPipeSizes()) {
+					write(storageNames, new ExpPipes(length), noOfExpPipes);
+				}
+				for (int towardsPlayer = 1; towardsPlayer <= noOfParties; towardsPlayer++) {
+					write(storageNames, new InputMasks(towardsPlayer), noOfInputMasks);
+				}
+			}
+		} finally {
+			workers.shutdownNow();
+			workers = null;
+		}
+	}
+
+	/**
+	 * Chooses a new secret key and shares it among the parties.
+	 */
+	void newKey() {
+		Random rand = ThreadLocalRandom.current();
+		alphaShares = new BigInteger[noOfParties];
+		alpha = BigInteger.ZERO;
+		for (int i = 0; i < noOfParties; i++) {
+			alphaShares[i] = sample(rand);
+			alpha = alpha.add(alphaShares[i]);
+		}
+		alpha = alpha.mod(mod);
+	}
+
+	/**
+	 * @return the share of the secret key of the given party, counting from
+	 *         1.
+	 */
+	BigInteger getAlphaShare(int partyId) {
+		return alphaShares[partyId - 1];
+	}
+
+	/**
+	 * @return the size in bytes of a single field element.
+	 */
+	int getElementSize() {
+		return size;
+	}
+
+	/**
+	 * Generates records of the given kind using the current key.
+	 *
+	 * @param name
+	 *            the kind of data, i.e. the name of the record file such as
+	 *            {@link SpdzStorageConstants#TRIPLE_STORAGE} or
+	 *            {@link SpdzStorageConstants#INPUT_STORAGE} followed by the id
+	 *            of the input party.
+	 * @param count
+	 *            the number of records.
+	 * @return for each party the records one after another, in the layout
+	 *         read by the {@link MappedDataSupplier}.
+	 */
+	byte[][] generateRecords(String name, int count) {
+		return generateChunk(getRecords(name), count);
+	}
+
+	private Records getRecords(String name) {
+		if (name.equals(SpdzStorageConstants.TRIPLE_STORAGE)) {
+			return new Triples();
+		} else if (name.equals(SpdzStorageConstants.SQUARE_STORAGE)) {
+			return new Squares();
+		} else if (name.equals(SpdzStorageConstants.BIT_STORAGE)) {
+			return new Bits();
+		} else if (name.equals(SpdzStorageConstants.EXP_PIPE_STORAGE)) {
+			return new ExpPipes(Util.EXP_PIPE_SIZE);
+		} else if (name.startsWith(SpdzStorageConstants.EXP_PIPE_STORAGE)) {
+			int length;
+			try {
+				length = Integer.parseInt(name.substring(SpdzStorageConstants.EXP_PIPE_STORAGE.length()));
+			} catch (NumberFormatException e) {
+				throw new MPCException("Unknown kind of preprocessed data: " + name);
+			}
+			if (length < 1 || length > Util.EXP_PIPE_SIZE) {
+				throw new MPCException("Exp pipes of length " + length + " are not supported");
+			}
+			return new ExpPipes(length);
+		} else if (name.startsWith(SpdzStorageConstants.INPUT_STORAGE)) {
+			int towardsPlayer;
+			try {
+				towardsPlayer = Integer.parseInt(name.substring(SpdzStorageConstants.INPUT_STORAGE.length()));
+			} catch (NumberFormatException e) {
+				throw new MPCException("Unknown kind of preprocessed data: " + name);
+			}
+			if (towardsPlayer < 1 || towardsPlayer > noOfParties) {
+				throw new MPCException("No party with id " + towardsPlayer + " to make input masks for");
+			}
+			return new InputMasks(towardsPlayer);
+		}
+		throw new MPCException("Unknown kind of preprocessed data: " + name);
+	}
+
+	private void writeGlobal(String[] storageNames) throws IOException {
+		byte[] record = new byte[size];
+		for (int i = 0; i < noOfParties; i++) {
+			MappedRecordWriter out = new MappedRecordWriter(storageNames[i] + SpdzStorageConstants.GLOBAL_STORAGE
+					+ SpdzStorageConstants.MAPPED_SUFFIX, size, size);
+			try {
+				SpdzSerializer.serialize(mod, record, 0, size);
+				out.write(record);
+				SpdzSerializer.serialize(alphaShares[i], record, 0, size);
+				out.write(record);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Generates the given amount of records of one kind and writes the shares
+	 * of each party to its own file.
+	 */
+	private void write(String[] storageNames, final Records records, long amount) throws IOException {
+		if (amount <= 0) {
+			return;
+		}
+		MappedRecordWriter[] out = new MappedRecordWriter[noOfParties];
+		Deque<Future<byte[][]>> pending = new ArrayDeque<Future<byte[][]>>();
+		try {
+			for (int i = 0; i < noOfParties; i++) {
+				out[i] = new MappedRecordWriter(storageNames[i] + records.name + SpdzStorageConstants.MAPPED_SUFFIX,
+						size, records.recordSizes[i]);
+			}
+			long submitted = 0;
+			while (submitted < amount || !pending.isEmpty()) {
+				while (submitted < amount && pending.size() < 2 * noOfWorkers) {
+					final int count = (int) Math.min(CHUNK_SIZE, amount - submitted);
+					pending.add(workers.submit(new Callable<byte[][]>() {
+						@Override
+						public byte[][] call() {
+							return generateChunk(records, count);
+						}
+					}));
+					submitted += count;
+				}
+				byte[][] chunk = getChunk(pending.poll());
+				for (int i = 0; i < noOfParties; i++) {
+					out[i].writeAll(chunk[i]);
+				}
+			}
+		} finally {
+			for (Future<byte[][]> f : pending) {
+				f.cancel(true);
+			}
+			for (MappedRecordWriter w : out) {
+				if (w != null) {
+					w.close();
+				}
+			}
+		}
+	}
+
+	private byte[][] generateChunk(Records records, int count) {
+		Random rand = ThreadLocalRandom.current();
+		byte[][] chunk = new byte[noOfParties][];
+		for (int i = 0; i < noOfParties; i++) {
+			chunk[i] = new byte[count * records.recordSizes[i]];
+		}
+		for (int r = 0; r < count; r++) {
+			records.generate(rand, chunk, r);
+		}
+		return chunk;
+	}
+
+	private static byte[][] getChunk(Future<byte[][]> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MPCException("Interrupted while generating preprocessed data", e);
+		} catch (ExecutionException e) {
+			throw new MPCException("Could not generate preprocessed data", e);
+		}
+	}
+
+	/**
+	 * A kind of preprocessed data, i.e. the file it is written to and how a
+	 * single record is generated. The record layouts are the ones read by the
+	 * {@link MappedDataSupplier}.
+	 */
+	private abstract class Records {
+
+		final String name;
+		final int[] recordSizes;
+
+		Records(String name, int numbersPerRecord) {
+			this.name = name;
+			this.recordSizes = new int[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				recordSizes[i] = numbersPerRecord * size;
+			}
+		}
+
+		/**
+		 * Writes record number <code>r</code> of the chunk of each party.
+		 */
+		abstract void generate(Random rand, byte[][] chunk, int r);
+
+		/**
+		 * Writes a SPDZ sharing of the value and its mac at the given
+		 * position of record number <code>r</code> of each party.
+		 */
+		void share(BigInteger value, Random rand, byte[][] chunk, int r, int position) {
+			BigInteger mac = value.multiply(alpha).mod(mod);
+			for (int i = 0; i < noOfParties; i++) {
+				BigInteger valueShare;
+				BigInteger macShare;
+				if (i < noOfParties - 1) {
+					valueShare = sample(rand);
+					macShare = sample(rand);
+					value = value.subtract(valueShare);
+					mac = mac.subtract(macShare);
+				} else {
+					valueShare = value.mod(mod);
+					macShare = mac.mod(mod);
+				}
+				int offset = r * recordSizes[i] + position;
+				SpdzSerializer.serialize(valueShare, chunk[i], offset, size);
+				SpdzSerializer.serialize(macShare, chunk[i], offset + size, size);
+			}
+		}
+	}
+
+	private class Triples extends Records {
+
+		Triples() {
+			super(SpdzStorageConstants.TRIPLE_STORAGE, 6);
+		}
+
+		@Override
+		void generate(Random rand, byte[][] chunk, int r) {
+			BigInteger a = sample(rand);
+			BigInteger b = sample(rand);
+			share(a, rand, chunk, r, 0);
+			share(b, rand, chunk, r, 2 * size);
+			share(a.multiply(b).mod(mod), rand, chunk, r, 4 * size);
+		}
+	}
+
+	private class Squares extends Records {
+
+		Squares() {
+			super(SpdzStorageConstants.SQUARE_STORAGE, 4);
+		}
+
+		@Override
+		void generate(Random rand, byte[][] chunk, int r) {
+			BigInteger a = sample(rand);
+			share(a, rand, chunk, r, 0);
+			share(a.multiply(a).mod(mod), rand, chunk, r, 2 * size);
+		}
+	}
+
+	private class Bits extends Records {
+
+		Bits() {
+			super(SpdzStorageConstants.BIT_STORAGE, 2);
+		}
+
+		@Override
+		void generate(Random rand, byte[][] chunk, int r) {
+			share(rand.nextBoolean() ? BigInteger.ONE : BigInteger.ZERO, rand, chunk, r, 0);
+		}
+	}
+
+	private class ExpPipes extends Records {
+
+		private final int length;
+
+		ExpPipes(int length) {
+			super(Util.getExpPipeStorage(length), 2 * length);
+			this.length = length;
+		}
+
+		@Override
+		void generate(Random rand, byte[][] chunk, int r) {
+			BigInteger base = sample(rand);
+			while (base.signum() == 0) {
+				base = sample(rand);
+			}
+			share(base.modInverse(mod), rand, chunk, r, 0);
+			BigInteger exp = BigInteger.ONE;
+			for (int i = 1; i < length; i++) {
+				exp = exp.multiply(base).mod(mod);
+				share(exp, rand, chunk, r, 2 * i * size);
+			}
+		}
+	}
+
+	private class InputMasks extends Records {
+
+		private final int towardsPlayer;
+
+		InputMasks(int towardsPlayer) {
+			super(SpdzStorageConstants.INPUT_STORAGE + towardsPlayer, 2);
+			this.towardsPlayer = towardsPlayer;
+			// The party the masks are towards also gets the real value
+			recordSizes[towardsPlayer - 1] = 3 * size;
+		}
+
+		@Override
+		void generate(Random rand, byte[][] chunk, int r) {
+			BigInteger mask = sample(rand);
+			share(mask, rand, chunk, r, 0);
+			int i = towardsPlayer - 1;
+			SpdzSerializer.serialize(mask, chunk[i], r * recordSizes[i] + 2 * size, size);
+		}
+	}
+
+	/**
+	 * Sample a uniformly random integer in the range {0 ... mod - 1}.
+	 */
+	private BigInteger sample(Random rand) {
+		BigInteger result;
+		do {
+			result = new BigInteger(mod.bitLength(), rand);
+		} while (result.compareTo(mod) >= 0);
+		return result;
+	}
+
+	/**
+	 * Generates offline data according to the given arguments, see the usage
+	 * printed when running without arguments.
+	 */
+	public static void main(String[] args) throws IOException {
+		BigInteger modulus = null;
+		int noOfParties = 0;
+		int noOfThreads = 1;
+		int noOfWorkers = Runtime.getRuntime().availableProcessors();
+		long triples = 0, squares = 0, inputs = 0, bits = 0, exps = 0;
+		String dir = SpdzStorageConstants.STORAGE_FOLDER;
+		for (String arg : args) {
+			if (arg.length() < 4 || arg.charAt(0) != '-' || arg.charAt(2) != '=') {
+				System.err.println("Malformed argument \"" + arg + "\". " + usage);
+				return;
+			}
+			String value = arg.substring(3);
+			switch (arg.charAt(1)) {
+			case 'm':
+				modulus = new BigInteger(value);
+				break;
+			case 'p':
+				noOfParties = Integer.parseInt(value);
+				break;
+			case 'v':
+				noOfThreads = Integer.parseInt(value);
+				break;
+			case 'w':
+				noOfWorkers = Integer.parseInt(value);
+				break;
+			case 't':
+				triples = Long.parseLong(value);
+				break;
+			case 's':
+				squares = Long.parseLong(value);
+				break;
+			case 'i':
+				inputs = Long.parseLong(value);
+				break;
+			case 'b':
+				bits = Long.parseLong(value);
+				break;
+			case 'e':
+				exps = Long.parseLong(value);
+				break;
+			case 'c':
+				Util.setExpPipeSizeClasses(Util.parseExpPipeSizeClasses(value));
+				break;
+			case 'd':
+				dir = value.endsWith("/") ? value : value + "/";
+				break;
+			default:
+				System.err.println("Unrecognized argument \"" + arg + "\". " + usage);
+				return;
+			}
+		}
+		if (modulus == null || noOfParties < 1) {
+			System.err.println(usage);
+			return;
+		}
+		new File(dir).mkdirs();
+		long start = System.currentTimeMillis();
+		new ParallelFakeTripGen(modulus, noOfParties, noOfThreads, noOfWorkers).generate(dir + "SPDZ_", triples,
+				squares, inputs, bits, exps);
+		System.out.println("Generated preprocessed data in " + (System.currentTimeMillis() - start) + " ms");
+	}
+}
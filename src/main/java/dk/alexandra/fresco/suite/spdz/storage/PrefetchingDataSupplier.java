@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Data supplier which reads preprocessed data from another data supplier
+ * ahead of consumption, such that the latency of the underlying storage is
+ * kept off the critical path of the online phase.
+ *
+ * A background reader thread keeps a bounded ring buffer per kind of
+ * preprocessed data filled. A kind of data is only prefetched once it has been
+ * requested for the first time, so data which is never used is never read.
+ * Each buffer has a single producer (the reader) and a single consumer (the VM
+ * thread owning the storage), so the buffers are lock-free.
+ *
+ * The supplier keeps track of how often a request could not be served
+ * directly from a buffer, i.e. how often and for how long consumers stalled.
+ * If the underlying supplier fails, the exception is rethrown to the consumer
+ * once the data read before the failure has been consumed.
+ */
+public class PrefetchingDataSupplier implements DataSupplier {
+
+	/**
+	 * Upper bound on how long a stalled consumer sleeps before re-checking
+	 * its buffer.
+	 */
+	private static final long PARK_NANOS = 1000000;
+
+	private final DataSupplier supplier;
+	private final String name;
+	private final BigInteger modulus;
+	private final BigInteger ssk;
+	private final boolean hasSquares;
+
+	private final RingBuffer<SpdzTriple> triples;
+	private final RingBuffer<SpdzSquare> squares;
+	private final int[] expPipeSizes;
+	private final List<RingBuffer<SpdzSInt[]>> expPipes;
+	private final List<RingBuffer<SpdzInputMask>> inputMasks;
+	private final RingBuffer<SpdzSInt> bits;
+	private final List<RingBuffer<?>> buffers;
+
+	private final Thread reader;
+	private volatile boolean running = true;
+	private volatile boolean readerWaiting = false;
+
+	/**
+	 * Creates the supplier and starts its reader thread. The modulus, the
+	 * share of the global key and whether there are square pairs are read
+	 * from the given supplier before the reader is started.
+	 * 
+	 * @param supplier
+	 *            the supplier to read from. Only the reader thread of this
+	 *            supplier may take data from it.
+	 * @param noOfParties
+	 *            the number of parties in the computation.
+	 * @param depth
+	 *            the number of triples, square pairs, input masks and bits to
+	 *            read ahead.
+	 *            Exp pipes are much larger, so only
+	 *            <code>depth / length</code> of these, but at least one, are
+	 *            read ahead for each length in {@link Util#getExpPipeSizes()}.
+	 * @param name
+	 *            a name identifying this supplier in thread names and log
+	 *            messages, e.g. the storage name.
+	 */
+	public PrefetchingDataSupplier(DataSupplier supplier, int noOfParties, int depth, String name) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("Prefetch depth must be at least 1, was " + depth);
+		}
+		this.supplier = supplier;
+		this.name = name;
+		this.modulus = supplier.getModulus();
+		this.ssk = supplier.getSSK();
+		this.hasSquares = supplier.hasSquares();
+		this.triples = new RingBuffer<SpdzTriple>("triples", depth) {
+			@Override
+			SpdzTriple fetch() {
+				return PrefetchingDataSupplier.this.supplier.getNextTriple();
+			}
+		};
+		this.squares = new RingBuffer<SpdzSquare>("squares", depth) {
+			@Override
+			SpdzSquare fetch() {
+				return PrefetchingDataSupplier.this.supplier.getNextSquare();
+			}
+		};
+		this.expPipeSizes = Util.getExpPipeSizes();
+		this.expPipes = new ArrayList<RingBuffer<SpdzSInt[]>>(expPipeSizes.length);
+		for (int i = 0; i < expPipeSizes.length; i++) {
+			final int length = expPipeSizes[i];
+			this.expPipes.add(new RingBuffer<SpdzSInt[]>("exp pipes of length " + length,
+					Math.max(1, depth / length)) {
+				@Override
+				SpdzSInt[] fetch() {
+					return PrefetchingDataSupplier.this.supplier.getNextExpPipe(length);
+				}
+			});
+		}
+		this.inputMasks = new ArrayList<RingBuffer<SpdzInputMask>>(noOfParties);
+		for (int i = 0; i < noOfParties; i++) {
+			final int towardPlayerID = i + 1;
+			this.inputMasks.add(new RingBuffer<SpdzInputMask>("input masks towards " + towardPlayerID, depth) {
+				@Override
+				SpdzInputMask fetch() {
+					return PrefetchingDataSupplier.this.supplier.getNextInputMask(towardPlayerID);
+				}
+			});
+		}
+		this.bits = new RingBuffer<SpdzSInt>("bits", depth) {
+			@Override
+			SpdzSInt fetch() {
+				return PrefetchingDataSupplier.this.supplier.getNextBit();
+			}
+		};
+		this.buffers = new ArrayList<RingBuffer<?>>(noOfParties + 3 + expPipes.size());
+		this.buffers.add(triples);
+		this.buffers.add(squares);
+		this.buffers.add(bits);
+		this.buffers.addAll(inputMasks);
+		this.buffers.addAll(expPipes);
+
+		this.reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				prefetch();
+			}
+		}, "SPDZ-prefetch-" + name);
+		this.reader.setDaemon(true);
+		this.reader.start();
+	}
+
+	/**
+	 * @return the supplier this supplier reads from.
+	 */
+	public DataSupplier getSupplier() {
+		return supplier;
+	}
+
+	@Override
+	public SpdzTriple getNextTriple() {
+		return triples.take();
+	}
+
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] res = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			res[i] = triples.take();
+		}
+		return res;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		return squares.take();
+	}
+
+	@Override
+	public boolean hasSquares() {
+		return hasSquares;
+	}
+
+	@Override
+	public boolean hasUnlimitedData() {
+		return supplier.hasUnlimitedData();
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe() {
+		return expPipes.get(expPipes.size() - 1).take();
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		int size = Util.getExpPipeSize(length);
+		for (int i = 0; i < expPipeSizes.length; i++) {
+			if (expPipeSizes[i] == size) {
+				return expPipes.get(i).take();
+			}
+		}
+		// The size classes have changed since this supplier was created
+		throw new MPCException("No exp pipes of length " + size + " are prefetched by " + name);
+	}
+
+	@Override
+	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		return inputMasks.get(towardPlayerID - 1).take();
+	}
+
+	@Override
+	public SpdzSInt getNextBit() {
+		return bits.take();
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	@Override
+	public BigInteger getSSK() {
+		return ssk;
+	}
+
+	/**
+	 * @return the number of requests for preprocessed data so far.
+	 */
+	public long getRequests() {
+		long res = 0;
+		for (RingBuffer<?> buffer : buffers) {
+			res += buffer.requests;
+		}
+		return res;
+	}
+
+	/**
+	 * @return the number of requests which had to wait for the reader.
+	 */
+	public long getStalls() {
+		long res = 0;
+		for (RingBuffer<?> buffer : buffers) {
+			res += buffer.stalls;
+		}
+		return res;
+	}
+
+	/**
+	 * @return the total time in nanoseconds spent waiting for the reader.
+	 */
+	public long getStallTime() {
+		long res = 0;
+		for (RingBuffer<?> buffer : buffers) {
+			res += buffer.stallNanos;
+		}
+		return res;
+	}
+
+	/**
+	 * Stops the reader thread and reports how often consumers stalled. Data
+	 * already read ahead is discarded.
+	 */
+	public void shutdown() {
+		running = false;
+		LockSupport.unpark(reader);
+		try {
+			reader.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		StringBuilder sb = new StringBuilder("Prefetching of " + name + ": " + getStalls() + " of "
+				+ getRequests() + " requests stalled for " + getStallTime() / 1000000 + " ms in total");
+		for (RingBuffer<?> buffer : buffers) {
+			if (buffer.requests > 0) {
+				sb.append(", " + buffer.kind + ": " + buffer.stalls + "/" + buffer.requests);
+			}
+		}
+		Reporter.fine(sb.toString());
+	}
+
+	private void prefetch() {
+		while (running) {
+			boolean progress = fillAll();
+			if (!progress) {
+				// Announce that we are about to park, then re-check such that a
+				// concurrent take or activation is never missed.
+				readerWaiting = true;
+				if (!fillAll() && running) {
+					LockSupport.park(this);
+				}
+				readerWaiting = false;
+			}
+		}
+	}
+
+	private boolean fillAll() {
+		boolean progress = false;
+		for (RingBuffer<?> buffer : buffers) {
+			progress |= buffer.fill();
+		}
+		return progress;
+	}
+
+	/**
+	 * Bounded single-producer, single-consumer ring buffer of preprocessed data.
+	 */
+	private abstract class RingBuffer<T> {
+
+		private final String kind;
+		private final Object[] slots;
+		private final int mask;
+
+		/** Index of the next element to take, only written by the consumer. */
+		private final AtomicLong head = new AtomicLong();
+		/** Index of the next element to fill, only written by the reader. */
+		private final AtomicLong tail = new AtomicLong();
+
+		private volatile boolean active = false;
+		private volatile RuntimeException failure;
+		private volatile Thread consumer;
+
+		// Only written by the consumer
+		private volatile long requests = 0;
+		private volatile long stalls = 0;
+		private volatile long stallNanos = 0;
+
+		RingBuffer(String kind, int depth) {
+			this.kind = kind;
+			int capacity = Integer.highestOneBit(depth);
+			if (capacity < depth) {
+				capacity <<= 1;
+			}
+			this.slots = new Object[capacity];
+			this.mask = capacity - 1;
+		}
+
+		/**
+		 * Reads the next element from the underlying supplier.
+		 */
+		abstract T fetch();
+
+		/**
+		 * Called by the reader to add a single element if there is room.
+		 * 
+		 * @return true if an element was added.
+		 */
+		boolean fill() {
+			if (!active || failure != null) {
+				return false;
+			}
+			long t = tail.get();
+			if (t - head.get() == slots.length) {
+				return false;
+			}
+			try {
+				slots[(int) t & mask] = fetch();
+			} catch (RuntimeException e) {
+				failure = e;
+				wakeConsumer();
+				return false;
+			}
+			tail.set(t + 1);
+			wakeConsumer();
+			return true;
+		}
+
+		private void wakeConsumer() {
+			Thread c = consumer;
+			if (c != null) {
+				LockSupport.unpark(c);
+			}
+		}
+
+		/**
+		 * Called by the consumer to take the next element, waiting for the
+		 * reader if the buffer is empty.
+		 */
+		@SuppressWarnings("unchecked")
+		T take() {
+			requests++;
+			if (!active) {
+				active = true;
+				LockSupport.unpark(reader);
+			}
+			long h = head.get();
+			if (tail.get() == h) {
+				stalls++;
+				long start = System.nanoTime();
+				consumer = Thread.currentThread();
+				try {
+					while (tail.get() == h) {
+						if (failure != null) {
+							throw new MPCException(failure.getMessage(), failure);
+						}
+						if (!running) {
+							throw new MPCException("The supplier " + name + " has been shut down");
+						}
+						LockSupport.parkNanos(this, PARK_NANOS);
+					}
+				} finally {
+					consumer = null;
+					stallNanos += System.nanoTime() - start;
+				}
+			}
+			int i = (int) h & mask;
+			T res = (T) slots[i];
+			slots[i] = null;
+			head.set(h + 1);
+			if (readerWaiting) {
+				LockSupport.unpark(reader);
+			}
+			return res;
+		}
+	}
+}
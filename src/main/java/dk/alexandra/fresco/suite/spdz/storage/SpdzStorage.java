@@ -27,9 +27,9 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.math.BigInteger;
-import java.util.List;
 
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.utils.PackedFieldElements;
 
 
 /**
@@ -45,7 +45,7 @@ public interface SpdzStorage{
 	public abstract void shutdown();
 
 	/**
-	 * Resets the opened and closed values
+	 * Resets the opened and closed values and the broadcast digest
 	 */
 	public abstract void reset();
 
@@ -67,17 +67,33 @@ public interface SpdzStorage{
 	 */
 	public abstract void addClosedValue(SpdzElement elem);
 
+	/**
+	 * Adds values received by a broadcast whose validation is deferred. The
+	 * values are folded into a running digest which is compared with the
+	 * other players at the next MAC check.
+	 * @param values the received values, encoded in the same way by all players
+	 */
+	public abstract void addBroadcastValues(byte[] values);
+
+	/**
+	 * Gets the digest of the broadcast values added since the last reset and
+	 * resets the digest.
+	 * @return the digest, or null if no values were added
+	 */
+	public abstract byte[] getBroadcastDigest();
+
 	/**
 	 * Get the current opened values
-	 * @return a list of opened values
+	 * @return the opened values in the order they were added
 	 */
-	public abstract List<BigInteger> getOpenedValues();
+	public abstract PackedFieldElements getOpenedValues();
 
 	/**
-	 * Get the current closed values
-	 * @return a list of closed values
+	 * Get the MACs of the current closed values. Only the MACs are kept since
+	 * these are all the MAC check needs.
+	 * @return the MACs of the closed values in the order they were added
 	 */
-	public abstract List<SpdzElement> getClosedValues();
+	public abstract PackedFieldElements getClosedMacs();
 
 	/**
 	 * Returns the players share of the Secret Shared Key (alpha). 
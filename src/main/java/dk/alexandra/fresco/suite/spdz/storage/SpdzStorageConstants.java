@@ -42,5 +42,8 @@ public class SpdzStorageConstants {
 	public static final String INPUT_STORAGE = "INPUT_";
 	public static final String EXP_PIPE_STORAGE = "EXP";
 	public static final String TRIPLE_STORAGE = "TRIPLE";
+	public static final String SQUARE_STORAGE = "SQUARE";
 	public static final String BIT_STORAGE = "BIT";
+
+	public static final String MAPPED_SUFFIX = ".rec";
 }
@@ -1,34 +1,55 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.math.BigInteger;
-import java.util.LinkedList;
-import java.util.List;
+import java.security.MessageDigest;
 
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.utils.PackedFieldElements;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzStorageDummyImpl implements SpdzStorage{
 	
-	private List<BigInteger> opened_values;
-	private List<SpdzElement> closed_values;
+	private PackedFieldElements opened_values;
+	private PackedFieldElements closed_macs;
+	private MessageDigest broadcastDigest;
+	private boolean broadcastPending;
 	
 	private DataSupplier supplier;
 	
 	public SpdzStorageDummyImpl(int myId, int numberOfParties) {		
-		opened_values = new LinkedList<BigInteger>();
-		closed_values = new LinkedList<SpdzElement>();
+		this(myId, numberOfParties, 0);
+	}
+	
+	/**
+	 * @param prefetchDepth
+	 *            if positive, the dummy data is read ahead by a
+	 *            {@link PrefetchingDataSupplier} of this depth.
+	 */
+	public SpdzStorageDummyImpl(int myId, int numberOfParties, int prefetchDepth) {
+		opened_values = new PackedFieldElements();
+		closed_macs = new PackedFieldElements();
 		
 		supplier = new DummyDataSupplierImpl(myId, numberOfParties);
+		if (prefetchDepth > 0) {
+			supplier = new PrefetchingDataSupplier(supplier, numberOfParties, prefetchDepth, "dummy_" + myId);
+		}
 	}
 	
 	@Override
 	public void shutdown() {
-		// Does nothing..
+		if (supplier instanceof PrefetchingDataSupplier) {
+			((PrefetchingDataSupplier) supplier).shutdown();
+		}
 	}
 
 	@Override
 	public void reset() {
 		opened_values.clear();
-		closed_values.clear();
+		closed_macs.clear();
+		if (broadcastDigest != null) {
+			broadcastDigest.reset();
+		}
+		broadcastPending = false;
 	}
 
 	@Override
@@ -43,17 +64,35 @@ public class SpdzStorageDummyImpl implements SpdzStorage{
 
 	@Override
 	public void addClosedValue(SpdzElement elem) {
-		closed_values.add(elem);
+		closed_macs.add(elem.getMac());
+	}
+
+	@Override
+	public void addBroadcastValues(byte[] values) {
+		if (broadcastDigest == null) {
+			broadcastDigest = new Util().getHashFunction();
+		}
+		broadcastDigest.update(values);
+		broadcastPending = true;
+	}
+
+	@Override
+	public byte[] getBroadcastDigest() {
+		if (!broadcastPending) {
+			return null;
+		}
+		broadcastPending = false;
+		return broadcastDigest.digest();
 	}
 
 	@Override
-	public List<BigInteger> getOpenedValues() {
+	public PackedFieldElements getOpenedValues() {
 		return opened_values;
 	}
 
 	@Override
-	public List<SpdzElement> getClosedValues() {
-		return closed_values;
+	public PackedFieldElements getClosedMacs() {
+		return closed_macs;
 	}
 
 	@Override
@@ -27,12 +27,13 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.math.BigInteger;
-import java.util.LinkedList;
-import java.util.List;
+import java.security.MessageDigest;
 
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.utils.PackedFieldElements;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 /**
  * Uses the D14.2 storage concept as backend
@@ -44,11 +45,38 @@ public class SpdzStorageImpl implements SpdzStorage {
 
 	private StreamedStorage storage;
 
-	private List<BigInteger> opened_values;
-	private List<SpdzElement> closed_values;
+	private PackedFieldElements opened_values;
+	private PackedFieldElements closed_macs;
+	private MessageDigest broadcastDigest;
+	private boolean broadcastPending;
 
 	private DataSupplier supplier;
 
+	/**
+	 * Creates a storage reading the preprocessed data from the FRESCO native
+	 * storage, without prefetching or a dealer, see
+	 * {@link #SpdzStorageImpl(ResourcePool, int, boolean, int, String)}.
+	 */
+	public SpdzStorageImpl(ResourcePool rp, int storageId) {
+		this(rp, storageId, false);
+	}
+
+	/**
+	 * Creates a storage without prefetching or a dealer, see
+	 * {@link #SpdzStorageImpl(ResourcePool, int, boolean, int, String)}.
+	 */
+	public SpdzStorageImpl(ResourcePool rp, int storageId, boolean useMappedData) {
+		this(rp, storageId, useMappedData, 0);
+	}
+
+	/**
+	 * Creates a storage which does not use a dealer, see
+	 * {@link #SpdzStorageImpl(ResourcePool, int, boolean, int, String)}.
+	 */
+	public SpdzStorageImpl(ResourcePool rp, int storageId, boolean useMappedData, int prefetchDepth) {
+		this(rp, storageId, useMappedData, prefetchDepth, null);
+	}
+
 	/**
 	 * 
 	 * @param rp
@@ -56,8 +84,19 @@ public class SpdzStorageImpl implements SpdzStorage {
 	 * @param storageId
 	 *            The unique id of the storage. This could e.g. be the threadId
 	 *            of the thread that will use this storage object
+	 * @param useMappedData
+	 *            True: read the preprocessed data from the record files of a
+	 *            {@link MappedDataSupplier}. False: read it from the FRESCO
+	 *            native storage.
+	 * @param prefetchDepth
+	 *            if positive, the preprocessed data is read ahead by a
+	 *            {@link PrefetchingDataSupplier} of this depth.
+	 * @param dealerAddress
+	 *            if not null, the preprocessed data is taken from the
+	 *            {@link FakeDataDealer} at this address instead of a storage.
 	 */
-	public SpdzStorageImpl(ResourcePool rp, int storageId) {
+	public SpdzStorageImpl(ResourcePool rp, int storageId, boolean useMappedData, int prefetchDepth,
+			String dealerAddress) {
 		this.storage = rp.getStreamedStorage();
 		int noOfThreadsUsed = rp.getVMThreadCount();
 		int noOfParties = rp.getNoOfParties();
@@ -65,21 +104,43 @@ public class SpdzStorageImpl implements SpdzStorage {
 
 		String storageName = SpdzStorageConstants.STORAGE_NAME_PREFIX + noOfThreadsUsed + "_" + myId + "_" + storageId+"_";
 
-		opened_values = new LinkedList<BigInteger>();
-		closed_values = new LinkedList<SpdzElement>();
-
-		this.supplier = new DataSupplierImpl(storage, storageName, noOfParties);
+		opened_values = new PackedFieldElements();
+		closed_macs = new PackedFieldElements();
+
+		if (dealerAddress != null) {
+			this.supplier = DealerDataSupplier.connect(dealerAddress, myId, noOfThreadsUsed, storageId);
+		} else if (useMappedData) {
+			this.supplier = new MappedDataSupplier(storageName, noOfParties);
+		} else {
+			this.supplier = new DataSupplierImpl(storage, storageName, noOfParties);
+		}
+		if (prefetchDepth > 0) {
+			this.supplier = new PrefetchingDataSupplier(supplier, noOfParties, prefetchDepth, storageName);
+		}
 	}
 
 	@Override
 	public void shutdown() {
-
+		DataSupplier source = supplier;
+		if (source instanceof PrefetchingDataSupplier) {
+			((PrefetchingDataSupplier) source).shutdown();
+			source = ((PrefetchingDataSupplier) source).getSupplier();
+		}
+		if (source instanceof MappedDataSupplier) {
+			((MappedDataSupplier) source).shutdown();
+		} else if (source instanceof DealerDataSupplier) {
+			((DealerDataSupplier) source).shutdown();
+		}
 	}
 
 	@Override
 	public void reset() {
 		opened_values.clear();
-		closed_values.clear();
+		closed_macs.clear();
+		if (broadcastDigest != null) {
+			broadcastDigest.reset();
+		}
+		broadcastPending = false;
 	}
 
 	@Override
@@ -94,17 +155,35 @@ public class SpdzStorageImpl implements SpdzStorage {
 
 	@Override
 	public void addClosedValue(SpdzElement elem) {
-		closed_values.add(elem);
+		closed_macs.add(elem.getMac());
+	}
+
+	@Override
+	public void addBroadcastValues(byte[] values) {
+		if (broadcastDigest == null) {
+			broadcastDigest = new Util().getHashFunction();
+		}
+		broadcastDigest.update(values);
+		broadcastPending = true;
+	}
+
+	@Override
+	public byte[] getBroadcastDigest() {
+		if (!broadcastPending) {
+			return null;
+		}
+		broadcastPending = false;
+		return broadcastDigest.digest();
 	}
 
 	@Override
-	public List<BigInteger> getOpenedValues() {
+	public PackedFieldElements getOpenedValues() {
 		return opened_values;
 	}
 
 	@Override
-	public List<SpdzElement> getClosedValues() {
-		return closed_values;
+	public PackedFieldElements getClosedMacs() {
+		return closed_macs;
 	}
 
 	@Override
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.utils;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo an odd modulus of at most {@link #MAX_BIT_LENGTH} bits on
+ * fixed width numbers represented as <code>long[]</code> limbs.
+ *
+ * Numbers are stored as little-endian arrays of unsigned 64 bit limbs, i.e.
+ * limb 0 holds the least significant 64 bits, and must always be reduced,
+ * i.e. in the range [0; p). All operations write their result into a given
+ * array, which may be one of the arguments, so a computation can be done
+ * without allocating any new objects.
+ *
+ * Multiplication uses Montgomery multiplication (the CIOS variant). Rather than
+ * keeping the numbers in Montgomery form, a product is computed as
+ * <i>mont(mont(a, b), R^2) = a * b mod p</i>, such that all numbers are in
+ * their ordinary representation and can be converted to and from
+ * {@link BigInteger}s at any time.
+ *
+ * Instances can be shared among threads.
+ */
+public class MontgomeryField {
+
+	public static final int MAX_BIT_LENGTH = 512;
+
+	private final BigInteger modulus;
+	private final int limbs;
+	private final long[] p;
+	private final long pInv; // -p^-1 mod 2^64
+	private final long[] r2; // R^2 mod p where R = 2^(64 * limbs)
+
+	private final ThreadLocal<long[][]> scratch = new ThreadLocal<long[][]>() {
+		@Override
+		protected long[][] initialValue() {
+			return new long[][] { new long[limbs + 2], new long[limbs] };
+		}
+	};
+
+	/**
+	 * @param modulus
+	 *            an odd modulus of at most {@link #MAX_BIT_LENGTH} bits.
+	 */
+	public MontgomeryField(BigInteger modulus) {
+		if (!supports(modulus)) {
+			throw new IllegalArgumentException("Modulus must be odd and of at most " + MAX_BIT_LENGTH
+					+ " bits, was " + modulus);
+		}
+		this.modulus = modulus;
+		this.limbs = (modulus.bitLength() + 63) / 64;
+		this.p = toLimbs(modulus);
+		long inv = 1;
+		// Newton iteration doubles the number of correct bits in each step
+		for (int i = 0; i < 6; i++) {
+			inv *= 2 - p[0] * inv;
+		}
+		this.pInv = -inv;
+		this.r2 = toLimbs(BigInteger.ONE.shiftLeft(2 * 64 * limbs).mod(modulus));
+	}
+
+	/**
+	 * @return true if the given modulus can be used with this class.
+	 */
+	public static boolean supports(BigInteger modulus) {
+		return modulus.signum() > 0 && modulus.testBit(0) && modulus.bitLength() <= MAX_BIT_LENGTH
+				&& !modulus.equals(BigInteger.ONE);
+	}
+
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * @return the number of limbs used to represent a number.
+	 */
+	public int getLimbs() {
+		return limbs;
+	}
+
+	/**
+	 * Converts a number to limbs, reducing it first if needed.
+	 */
+	public long[] fromBigInteger(BigInteger value) {
+		if (value.signum() < 0 || value.compareTo(modulus) >= 0) {
+			value = value.mod(modulus);
+		}
+		return toLimbs(value);
+	}
+
+	/**
+	 * Converts a number given as limbs to a {@link BigInteger}. This does not
+	 * depend on the modulus, so any number of limbs is accepted.
+	 */
+	public static BigInteger toBigInteger(long[] value) {
+		byte[] bytes = new byte[value.length * 8];
+		for (int i = 0; i < value.length; i++) {
+			long limb = value[i];
+			int offset = bytes.length - 8 * (i + 1);
+			for (int j = 7; j >= 0; j--) {
+				bytes[offset + j] = (byte) limb;
+				limb >>>= 8;
+			}
+		}
+		return new BigInteger(1, bytes);
+	}
+
+	private long[] toLimbs(BigInteger value) {
+		long[] res = new long[limbs];
+		byte[] bytes = value.toByteArray();
+		for (int i = 0; i < bytes.length && i < limbs * 8; i++) {
+			res[i / 8] |= (bytes[bytes.length - 1 - i] & 0xFFL) << (8 * (i % 8));
+		}
+		return res;
+	}
+
+	/**
+	 * Computes <i>res = a + b mod p</i>.
+	 */
+	public void add(long[] a, long[] b, long[] res) {
+		long carry = 0;
+		for (int i = 0; i < limbs; i++) {
+			long sum = a[i] + b[i];
+			long c = Long.compareUnsigned(sum, a[i]) < 0 ? 1 : 0;
+			long sum2 = sum + carry;
+			c += Long.compareUnsigned(sum2, sum) < 0 ? 1 : 0;
+			res[i] = sum2;
+			carry = c;
+		}
+		if (carry != 0 || compare(res, p) >= 0) {
+			subtractModulus(res);
+		}
+	}
+
+	/**
+	 * Computes <i>res = a - b mod p</i>.
+	 */
+	public void subtract(long[] a, long[] b, long[] res) {
+		long borrow = 0;
+		for (int i = 0; i < limbs; i++) {
+			long diff = a[i] - b[i];
+			long br = Long.compareUnsigned(a[i], b[i]) < 0 ? 1 : 0;
+			long diff2 = diff - borrow;
+			br += Long.compareUnsigned(diff, borrow) < 0 ? 1 : 0;
+			res[i] = diff2;
+			borrow = br;
+		}
+		if (borrow != 0) {
+			long carry = 0;
+			for (int i = 0; i < limbs; i++) {
+				long sum = res[i] + p[i];
+				long c = Long.compareUnsigned(sum, res[i]) < 0 ? 1 : 0;
+				long sum2 = sum + carry;
+				c += Long.compareUnsigned(sum2, sum) < 0 ? 1 : 0;
+				res[i] = sum2;
+				carry = c;
+			}
+		}
+	}
+
+	/**
+	 * Computes <i>res = a * b mod p</i>.
+	 */
+	public void multiply(long[] a, long[] b, long[] res) {
+		long[][] tmp = scratch.get();
+		montgomeryMultiply(a, b, tmp[1], tmp[0]);
+		montgomeryMultiply(tmp[1], r2, res, tmp[0]);
+	}
+
+	/**
+	 * Computes <i>acc = acc + a * b mod p</i>.
+	 */
+	public void multiplyAdd(long[] a, long[] b, long[] acc) {
+		long[][] tmp = scratch.get();
+		montgomeryMultiply(a, b, tmp[1], tmp[0]);
+		montgomeryMultiply(tmp[1], r2, tmp[1], tmp[0]);
+		add(acc, tmp[1], acc);
+	}
+
+	/**
+	 * Prepares a factor for {@link #multiplyByFactor(long[], long[], long[])}
+	 * by converting it to Montgomery form, i.e. <i>c * R mod p</i>. This is
+	 * useful when the same public value is multiplied onto several numbers,
+	 * e.g. both the share and the MAC of an element.
+	 */
+	public long[] prepareFactor(BigInteger c) {
+		long[] factor = fromBigInteger(c);
+		// mont(c, R^2) = c * R mod p
+		montgomeryMultiply(factor, r2, factor, scratch.get()[0]);
+		return factor;
+	}
+
+	/**
+	 * Computes <i>res = a * c mod p</i> where factor is the result of
+	 * {@link #prepareFactor(BigInteger)} on c. This only takes a single
+	 * Montgomery multiplication.
+	 */
+	public void multiplyByFactor(long[] a, long[] factor, long[] res) {
+		montgomeryMultiply(a, factor, res, scratch.get()[0]);
+	}
+
+	/**
+	 * Computes <i>acc = acc + a * c mod p</i> where factor is the result of
+	 * {@link #prepareFactor(BigInteger)} on c.
+	 */
+	public void multiplyAddByFactor(long[] a, long[] factor, long[] acc) {
+		long[][] tmp = scratch.get();
+		montgomeryMultiply(a, factor, tmp[1], tmp[0]);
+		add(acc, tmp[1], acc);
+	}
+
+	/**
+	 * Computes <i>res = a * b * R^-1 mod p</i>. The result is only written to
+	 * res at the very end, so res may be one of the arguments.
+	 */
+	private void montgomeryMultiply(long[] a, long[] b, long[] res, long[] t) {
+		int n = limbs;
+		for (int i = 0; i < n + 2; i++) {
+			t[i] = 0;
+		}
+		for (int i = 0; i < n; i++) {
+			// t = t + a * b[i]
+			long bi = b[i];
+			long c = 0;
+			for (int j = 0; j < n; j++) {
+				long lo = a[j] * bi;
+				long hi = multiplyHighUnsigned(a[j], bi);
+				long sum = t[j] + lo;
+				hi += Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+				long sum2 = sum + c;
+				hi += Long.compareUnsigned(sum2, c) < 0 ? 1 : 0;
+				t[j] = sum2;
+				c = hi;
+			}
+			long sum = t[n] + c;
+			t[n + 1] = Long.compareUnsigned(sum, c) < 0 ? 1 : 0;
+			t[n] = sum;
+
+			// t = (t + m * p) / 2^64, where m is chosen such that the division
+			// is exact
+			long m = t[0] * pInv;
+			long lo = m * p[0];
+			c = multiplyHighUnsigned(m, p[0]);
+			c += Long.compareUnsigned(t[0] + lo, lo) < 0 ? 1 : 0;
+			for (int j = 1; j < n; j++) {
+				lo = m * p[j];
+				long hi = multiplyHighUnsigned(m, p[j]);
+				sum = t[j] + lo;
+				hi += Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+				long sum2 = sum + c;
+				hi += Long.compareUnsigned(sum2, c) < 0 ? 1 : 0;
+				t[j - 1] = sum2;
+				c = hi;
+			}
+			sum = t[n] + c;
+			t[n - 1] = sum;
+			t[n] = t[n + 1] + (Long.compareUnsigned(sum, c) < 0 ? 1 : 0);
+		}
+		// The result is less than 2p
+		if (t[n] != 0 || compare(t, p) >= 0) {
+			subtractModulus(t);
+		}
+		System.arraycopy(t, 0, res, 0, n);
+	}
+
+	/**
+	 * Compares the lowest limbs of a to b as unsigned numbers.
+	 */
+	private int compare(long[] a, long[] b) {
+		for (int i = limbs - 1; i >= 0; i--) {
+			int c = Long.compareUnsigned(a[i], b[i]);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Subtracts p from the lowest limbs of a, ignoring the final borrow.
+	 */
+	private void subtractModulus(long[] a) {
+		long borrow = 0;
+		for (int i = 0; i < limbs; i++) {
+			long diff = a[i] - p[i];
+			long br = Long.compareUnsigned(a[i], p[i]) < 0 ? 1 : 0;
+			long diff2 = diff - borrow;
+			br += Long.compareUnsigned(diff, borrow) < 0 ? 1 : 0;
+			a[i] = diff2;
+			borrow = br;
+		}
+	}
+
+	/**
+	 * Returns the upper 64 bits of the unsigned 128 bit product of x and y.
+	 */
+	public static long multiplyHighUnsigned(long x, long y) {
+		long x0 = x & 0xFFFFFFFFL;
+		long x1 = x >>> 32;
+		long y0 = y & 0xFFFFFFFFL;
+		long y1 = y >>> 32;
+		long p00 = x0 * y0;
+		long p01 = x0 * y1;
+		long p10 = x1 * y0;
+		long p11 = x1 * y1;
+		long middle = p10 + (p00 >>> 32) + (p01 & 0xFFFFFFFFL);
+		return p11 + (middle >>> 32) + (p01 >>> 32);
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A growable list of field elements stored back to back in a single byte
+ * array using the fixed width encoding of {@link SpdzSerializer}.
+ *
+ * Compared to a list of {@link BigInteger}s this uses {@link Util#size} bytes
+ * per element instead of several objects, which matters for the values that
+ * are kept around until the next MAC check. The backing array is kept when
+ * the list is cleared, so it is only allocated once per run.
+ */
+public class PackedFieldElements {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private byte[] elements = new byte[0];
+	private int size = 0;
+
+	/**
+	 * Appends an element to the end of the list.
+	 * 
+	 * @param element
+	 *            the element to add.
+	 */
+	public void add(BigInteger element) {
+		int elementSize = Util.size;
+		int offset = size * elementSize;
+		if (offset + elementSize > elements.length) {
+			int capacity = Math.max(INITIAL_CAPACITY, 2 * size);
+			elements = Arrays.copyOf(elements, capacity * elementSize);
+		}
+		SpdzSerializer.serialize(element, elements, offset);
+		size++;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the element.
+	 * @return the element at the given index.
+	 */
+	public BigInteger get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+		return SpdzSerializer.deserialize(elements, index * Util.size);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all elements from the list.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -26,12 +26,27 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.utils;
 
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+
 /**
  * Checks that the different components of the preprocessed data is correct.
  * That is, that no malformed triples, inputmasks etc. exists.
  * 
- * NB: CURRENTLY DOES NOT WORK. NEEDS TO CREATE SPDZ STORAGE FROM SCRATCH AND
- * GET PREPRO DATA FROM THAT. DO NOT TRY TO FETCH FROM SCE.
+ * NB: Only the check on a single machine is implemented. It reads the data of
+ * all players from the FRESCO native storage, opens the shared values and
+ * checks their macs. Exp pipes are checked for every size class, which are
+ * given as a comma separated list in the system property
+ * spdz.expPipeSizeClasses, see {@link Util#setExpPipeSizeClasses(int...)}.
  * 
  * @author Kasper Damgaard
  *
@@ -44,21 +59,10 @@ public class PreprocessedDataValidator {
 	private static int numberOfInputMasks;
 	private static int numberOfExpPipes;
 	private static int numberOfBits;
-/*
-	private abstract static class ThreadWithFixture extends TestThread {
 
-		protected SCE sce;
-		private String runtime;
+	private static BigInteger modulus;
+	private static BigInteger alpha;
 
-		@Override
-		public void setUp() throws IOException {
-			sce = SCE.getInstance(conf.getMyId());
-			sce.resetInstance();
-			sce.setSCEConfiguration(new TestSCEConfiguration(runtime,
-					new SequentialEvaluator(), 3, conf));
-		}
-	}
-*/
 	private static final int ARGS_BEFORE_ADDR = 3 + 4;
 
 	public static void main(String[] args) {
@@ -88,6 +92,7 @@ public class PreprocessedDataValidator {
 		numberOfInputMasks = Integer.parseInt(args[4]);
 		numberOfBits = Integer.parseInt(args[5]);
 		numberOfExpPipes = Integer.parseInt(args[6]);
+		Util.setExpPipeSizeClasses(Util.parseExpPipeSizeClasses(System.getProperty("spdz.expPipeSizeClasses")));
 
 		if (!single) {
 			remoteAddrs = new String[args.length - ARGS_BEFORE_ADDR];
@@ -101,155 +106,156 @@ public class PreprocessedDataValidator {
 	}
 	
 	private static void singleWay() {
-		throw new RuntimeException("Not implemented yet");
-	}
-/*
-	private static void singleWay() {
-		TestThreadRunner.run(new TestThreadFactory() {
-			@Override
-			public TestThread next(NetworkConfiguration conf) {
-				return new ThreadWithFixture() {
-					@Override
-					public void test() throws Exception {
-
-						OInt[] outputs1 = new OInt[numberOfTriples];
-						OInt[] outputs2 = new OInt[numberOfTriples];
-						OInt[] outputs3 = new OInt[numberOfTriples];
+		StreamedStorage[] storages = new StreamedStorage[numberOfPlayers];
+		DataSupplier[] suppliers = new DataSupplier[numberOfPlayers];
+		alpha = BigInteger.ZERO;
+		for (int i = 0; i < numberOfPlayers; i++) {
+			storages[i] = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+			suppliers[i] = new DataSupplierImpl(storages[i], getStorageName(i + 1), numberOfPlayers);
+			modulus = suppliers[i].getModulus();
+			alpha = alpha.add(suppliers[i].getSSK());
+		}
+		alpha = alpha.mod(modulus);
 
-						ParallelGateProducer par = new ParallelGateProducer();
-						// Check triples
-						System.out.println("Starting checks of triples");
-						for (int i = 0; i < numberOfTriples; i++) {
-							SpdzTriple triple = supplier.getNextTriple();
-							outputs1[i] = new SpdzOInt();
-							outputs2[i] = new SpdzOInt();
-							outputs3[i] = new SpdzOInt();
-							SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(
-									new SpdzSInt(triple.getA()), outputs1[i]);
-							SpdzOutputToAllGate o2 = new SpdzOutputToAllGate(
-									new SpdzSInt(triple.getB()), outputs2[i]);
-							SpdzOutputToAllGate o3 = new SpdzOutputToAllGate(
-									new SpdzSInt(triple.getC()), outputs3[i]);
-							par.append(o1);
-							par.append(o2);
-							par.append(o3);
-						}
+		System.out.println("Starting checks of triples");
+		for (int i = 0; i < numberOfTriples; i++) {
+			SpdzElement[] a = new SpdzElement[numberOfPlayers];
+			SpdzElement[] b = new SpdzElement[numberOfPlayers];
+			SpdzElement[] c = new SpdzElement[numberOfPlayers];
+			for (int j = 0; j < numberOfPlayers; j++) {
+				SpdzTriple triple = suppliers[j].getNextTriple();
+				a[j] = triple.getA();
+				b[j] = triple.getB();
+				c[j] = triple.getC();
+			}
+			BigInteger openA = open(a);
+			BigInteger openB = open(b);
+			BigInteger openC = open(c);
+			if (openA == null || openB == null || openC == null
+					|| !openA.multiply(openB).mod(modulus).equals(openC)) {
+				System.out.println("Triple no. " + i + " was not correct");
+			}
+		}
+		System.out.println("Done checking triples");
 
-						evaluator.eval(par);
-						for (int i = 0; i < numberOfTriples; i++) {
-							BigInteger ab = outputs1[i].getValue()
-									.multiply(outputs2[i].getValue())
-									.mod(Util.getModulus());
-							if (!Util.convertRepresentation(ab).equals(
-									outputs3[i].getValue())) {
-								System.out.println("Triple no. " + i
-										+ " was not correct");
-							}
-						}
-						System.out.println("Done checking triples");
-						System.out.println("Starting checks of Input masks");
-						// Check input masks
-						for (int towardsPlayerId = 1; towardsPlayerId <= numberOfPlayers; towardsPlayerId++) {
-							BigInteger[] values = new BigInteger[numberOfInputMasks];
-							OInt[] outputs = new OInt[numberOfInputMasks];
-							par = new ParallelGateProducer();
-							for (int i = 0; i < numberOfInputMasks; i++) {
-								SpdzInputMask mask = supplier
-										.getNextInputMask(towardsPlayerId);
-								if (conf.getMyId() == towardsPlayerId) {
-									values[i] = mask.getRealValue();
-								}
-								outputs[i] = new SpdzOInt();
-								SpdzSInt number = new SpdzSInt(mask.getMask());
-								SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(
-										number, outputs[i]);
-								par.append(o1);
-							}
-							evaluator.eval(par);
-							for (int i = 0; i < numberOfInputMasks; i++) {
-								if (conf.getMyId() == towardsPlayerId) {
-									if (!Util.convertRepresentation(values[i])
-											.equals(outputs[i].getValue())) {
-										System.out.println("Input no. " + i
-												+ " was not correct");
-									}
-								}
-							}
-							System.out.println("Checked masks towards player "
-									+ towardsPlayerId);
-						}
-						System.out.println("Done checking Input masks");
-						System.out.println("Starting checks of Bits");
-						// Check bits
-						for (int i = 0; i < numberOfBits; i++) {
-							SpdzSInt bit = supplier.getNextBit();
+		System.out.println("Starting checks of Input masks");
+		for (int towardsPlayerId = 1; towardsPlayerId <= numberOfPlayers; towardsPlayerId++) {
+			for (int i = 0; i < numberOfInputMasks; i++) {
+				SpdzElement[] mask = new SpdzElement[numberOfPlayers];
+				BigInteger value = null;
+				for (int j = 0; j < numberOfPlayers; j++) {
+					SpdzInputMask inputMask = suppliers[j].getNextInputMask(towardsPlayerId);
+					mask[j] = inputMask.getMask();
+					if (j + 1 == towardsPlayerId) {
+						value = inputMask.getRealValue();
+					}
+				}
+				BigInteger openMask = open(mask);
+				if (openMask == null || !openMask.equals(value)) {
+					System.out.println("Input no. " + i + " towards player " + towardsPlayerId
+							+ " was not correct");
+				}
+			}
+			System.out.println("Checked masks towards player " + towardsPlayerId);
+		}
+		System.out.println("Done checking Input masks");
 
-							SpdzOInt output1 = new SpdzOInt();
-							SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(
-									bit, output1);
-							SequentialProtocolProducer prod = new SequentialProtocolProducer(
-									o1);
+		System.out.println("Starting checks of Bits");
+		for (int i = 0; i < numberOfBits; i++) {
+			SpdzElement[] bit = new SpdzElement[numberOfPlayers];
+			for (int j = 0; j < numberOfPlayers; j++) {
+				bit[j] = suppliers[j].getNextBit().value;
+			}
+			BigInteger openBit = open(bit);
+			if (openBit == null || !(openBit.equals(BigInteger.ONE) || openBit.equals(BigInteger.ZERO))) {
+				System.out.println("Bit no " + i + " was not correct");
+			}
+		}
+		System.out.println("Done checking Bits");
 
-							evaluator.eval(prod);
+		System.out.println("Starting checks of ExpPipes");
+		for (int size : Util.getExpPipeSizes()) {
+			for (int i = 0; i < numberOfExpPipes; i++) {
+				SpdzSInt[][] expPipes = new SpdzSInt[numberOfPlayers][];
+				for (int j = 0; j < numberOfPlayers; j++) {
+					expPipes[j] = suppliers[j].getNextExpPipe(size);
+				}
+				if (!checkExpPipe(expPipes, size)) {
+					System.out.println("Exp Pipe no " + i + " of length " + size + " was not correct");
+				}
+			}
+			System.out.println("Checked ExpPipes of length " + size);
+		}
+		System.out.println("Done checking ExpPipes");
 
-							if (!output1.value.equals(BigInteger.ONE)
-									&& !output1.value.equals(BigInteger.ZERO)) {
-								System.out.println("Bit no " + i
-										+ " was not correct");
-							}
-						}
+		for (StreamedStorage storage : storages) {
+			storage.shutdown();
+		}
+	}
 
-						System.out.println("Done checking Bits");
-						System.out.println("Starting checks of ExpPipes");
-						// Check expPipe
-						for (int i = 0; i < numberOfExpPipes; i++) {
-							SpdzSInt[] expPipe = supplier.getNextExpPipe();
-							if (!checkExpCircuit(evaluator, expPipe)) {
-								System.out.println("Exp Pipe no " + i
-										+ " was not correct");
-							}
-						}
-						System.out.println("Done checking ExpPipes");
-						network.shutdown();
-					}
-				};
-			}
-		}, numberOfPlayers);
+	/**
+	 * The data path is the storage name of the data of player 1, e.g.
+	 * spdz/SPDZ_1_1_0_, where the second number is the id of the player.
+	 */
+	private static String getStorageName(int playerId) {
+		String name = dataPath.endsWith("_") ? dataPath.substring(0, dataPath.length() - 1) : dataPath;
+		int threadStart = name.lastIndexOf('_');
+		int playerStart = name.lastIndexOf('_', threadStart - 1);
+		return name.substring(0, playerStart + 1) + playerId + name.substring(threadStart) + "_";
 	}
 
-	private static boolean checkExpCircuit(ProtocolEvaluator evaluator,
-			SInt[] outputs) {
-		BigInteger[] openedVals = new BigInteger[outputs.length];
-		for (int i = 0; i < outputs.length; i++) {
-			SpdzOInt output1 = new SpdzOInt();
-			SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(outputs[i],
-					output1);
-			SequentialProtocolProducer prod = new SequentialProtocolProducer(o1);
+	/**
+	 * Opens the shared value.
+	 * 
+	 * @return the value, or null if the mac is not correct.
+	 */
+	private static BigInteger open(SpdzElement[] shares) {
+		BigInteger value = BigInteger.ZERO;
+		BigInteger mac = BigInteger.ZERO;
+		for (SpdzElement share : shares) {
+			value = value.add(share.getShare());
+			mac = mac.add(share.getMac());
+		}
+		value = value.mod(modulus);
+		if (!value.multiply(alpha).mod(modulus).equals(mac.mod(modulus))) {
+			return null;
+		}
+		return value;
+	}
 
-			evaluator.eval(prod);
-			openedVals[i] = output1.getValue();
+	/**
+	 * Checks that the exp pipe has the given length and the form R^-1, R,
+	 * R^2, ...
+	 */
+	private static boolean checkExpPipe(SpdzSInt[][] expPipes, int size) {
+		BigInteger[] openedVals = new BigInteger[size];
+		for (int k = 0; k < size; k++) {
+			SpdzElement[] shares = new SpdzElement[numberOfPlayers];
+			for (int j = 0; j < numberOfPlayers; j++) {
+				if (expPipes[j].length != size) {
+					return false;
+				}
+				shares[j] = expPipes[j][k].value;
+			}
+			openedVals[k] = open(shares);
+			if (openedVals[k] == null) {
+				return false;
+			}
 		}
 		BigInteger R = openedVals[1];
 		BigInteger nextR = R;
-		BigInteger R_inv = openedVals[0];
-		if (!BigInteger.ONE.equals(R.multiply(R_inv).mod(Util.getModulus()))) {
+		if (!BigInteger.ONE.equals(R.multiply(openedVals[0]).mod(modulus))) {
 			return false;
 		}
-		for (int i = 2; i < outputs.length; i++) {
-			nextR = R.multiply(nextR).mod(Util.getModulus());
-			if (!Util.convertRepresentation(nextR).equals(openedVals[i])) {
-				return false;
-			}
-		}
-		BigInteger[] Ms = Util.getClearExpPipe(R);
-		for (int i = 0; i < Ms.length; i++) {
-			if (!Util.convertRepresentation(Ms[i]).equals(openedVals[i + 1])) {
+		for (int k = 2; k < size; k++) {
+			nextR = R.multiply(nextR).mod(modulus);
+			if (!nextR.equals(openedVals[k])) {
 				return false;
 			}
 		}
 		return true;
 	}
-*/
+
 	private static void multipleWay(String[] addrs) {
 		throw new RuntimeException("Not implemented yet");
 	}
@@ -259,7 +265,7 @@ public class PreprocessedDataValidator {
 		System.out.println("Usage:");
 		System.out
 				.println("Validator does validation of preprocessed data. To do so, you must supply it with:");
-		System.out.println("dataPath=*A path to the preprocessed data*");
+		System.out.println("dataPath=*The storage name of the preprocessed data of player 1, e.g. spdz/SPDZ_1_1_0_*");
 		System.out
 				.println("numberOfPlayers=*The amount of players in the Spdz Setup - must also be specified even if single=true*");
 		System.out
@@ -272,10 +278,12 @@ public class PreprocessedDataValidator {
 				.println("numberOfBits=*The amount of Bits that you would like to check.");
 		System.out
 				.println("numberOfExpPipes=*The amount of Exp pipes that you would like to check.");
+		System.out
+				.println("Exp pipes of each size class given as -Dspdz.expPipeSizeClasses=9,33 are checked.");
 		System.out
 				.println("If single=false, you must specify the remote addresses and ports of the other parties (as e.g. 127.0.0.1:8080)");
 		System.out.println("Thus, a valid run would look something like:");
 		System.out
-				.println("java -jar preprocessedDataValidator.jar triples/spdz2_byte 2 true 1000000 100000 10000 1000");
+				.println("java -jar preprocessedDataValidator.jar spdz/SPDZ_1_1_0_ 2 true 1000000 100000 10000 1000");
 	}
 }
@@ -38,7 +38,10 @@ import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
 import dk.alexandra.fresco.lib.field.integer.MultProtocol;
 import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.SquareProtocolFactory;
 import dk.alexandra.fresco.lib.field.integer.SubtractProtocol;
+import dk.alexandra.fresco.lib.field.integer.VectorProtocolFactory;
+import dk.alexandra.fresco.lib.helper.AbstractSimpleProtocol;
 import dk.alexandra.fresco.lib.helper.builder.NumericProtocolBuilder;
 import dk.alexandra.fresco.lib.math.integer.PreprocessedNumericBitFactory;
 import dk.alexandra.fresco.lib.math.integer.exp.ExpFromOIntFactory;
@@ -55,11 +58,18 @@ import dk.alexandra.fresco.suite.spdz.gates.SpdzLocalInversionProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzSquareProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzSumProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzVectorAddProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzVectorInputProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzVectorMultProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzVectorOutputToAllProtocol;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
 
 public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitFactory,
-		PreprocessedExpPipeFactory, ExpFromOIntFactory, LocalInversionFactory {
+		PreprocessedExpPipeFactory, ExpFromOIntFactory, LocalInversionFactory, VectorProtocolFactory,
+		SquareProtocolFactory {
 
 	private int maxBitLength;
 	private SpdzStorage storage;
@@ -138,14 +148,46 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 		return builder.getProtocol();
 	}
 
+	/**
+	 * Takes all the bits from the preprocessed data at once and assigns them
+	 * when the protocol is evaluated, instead of making a copy protocol per
+	 * bit.
+	 */
+	@Override
+	public ProtocolProducer createRandomSecretSharedBitProtocol(final SInt[] bits) {
+		final SpdzSInt[] local = new SpdzSInt[bits.length];
+		for (int i = 0; i < bits.length; i++) {
+			local[i] = this.storage.getSupplier().getNextBit();
+		}
+		return new AbstractSimpleProtocol() {
+			@Override
+			protected ProtocolProducer initializeProtocolProducer() {
+				for (int i = 0; i < bits.length; i++) {
+					bits[i].setSerializableContent(local[i].getSerializableContent());
+				}
+				return null;
+			}
+		};
+	}
+
+	@Override
+	public boolean hasUnlimitedRandomBits() {
+		return this.storage.getSupplier().hasUnlimitedData();
+	}
+
 	@Override
 	public SInt[] getExponentiationPipe() {
 		return this.storage.getSupplier().getNextExpPipe();
 	}
 
+	@Override
+	public SInt[] getExponentiationPipe(int length) {
+		return this.storage.getSupplier().getNextExpPipe(length);
+	}
+
 	@Override
 	public OInt[] getExpFromOInt(OInt value, int maxBitSize) {
-		BigInteger[] res = Util.getClearExpPipe(value.getValue());
+		BigInteger[] res = Util.getClearExpPipe(value.getValue(), maxBitSize);
 		OInt[] expPipe = new OInt[res.length];
 		for (int i = 0; i < res.length; i++) {
 			expPipe[i] = new SpdzOInt(res[i]);
@@ -209,6 +251,11 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 		return new SpdzMultProtocol(a, b, out);
 	}
 
+	@Override
+	public MultProtocol getSquareProtocol(SInt a, SInt out) {
+		return new SpdzSquareProtocol(a, out);
+	}
+
 	@Override
 	public int getMaxBitLength() {
 		return this.maxBitLength;
@@ -252,6 +299,35 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 		return new SpdzSInt(elm);
 	}
 
+	/****************************************
+	 * Vector protocols *
+	 ****************************************/
+
+	@Override
+	public MultProtocol getVectorMultProtocol(SInt[] a, SInt[] b, SInt[] out) {
+		return new SpdzVectorMultProtocol(a, b, out);
+	}
+
+	@Override
+	public AddProtocol getVectorAddProtocol(SInt[] a, SInt[] b, SInt[] out) {
+		return new SpdzVectorAddProtocol(a, b, out);
+	}
+
+	@Override
+	public AddProtocol getSumProtocol(SInt[] a, SInt out) {
+		return new SpdzSumProtocol(a, out);
+	}
+
+	@Override
+	public CloseIntProtocol getVectorCloseProtocol(int source, OInt[] open, SInt[] closed) {
+		return new SpdzVectorInputProtocol(open, closed, source);
+	}
+
+	@Override
+	public OpenIntProtocol getVectorOpenProtocol(SInt[] closed, OInt[] open) {
+		return new SpdzVectorOutputToAllProtocol(closed, open);
+	}
+
 	/****************************************
 	 * IO factory Stuff *
 	 ****************************************/
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Fixed width binary encoding of field elements sent by the SPDZ protocols.
+ *
+ * Every element is written as an unsigned big-endian number of exactly
+ * {@link Util#size} bytes, so a message containing <i>n</i> elements is a
+ * byte array of <i>n</i> times the modulus size and the receiver can decode
+ * it without any type information. This replaces sending {@link BigInteger}s
+ * and arrays thereof through Java serialization.
+ *
+ * Elements must be reduced modulo {@link Util#getModulus()}; elements outside
+ * the field are reduced before they are written.
+ */
+public class SpdzSerializer {
+
+	private SpdzSerializer() {
+		// Only static methods
+	}
+
+	/**
+	 * Writes a single element into the given buffer.
+	 * 
+	 * @param value
+	 *            the element to write.
+	 * @param buffer
+	 *            the buffer to write into.
+	 * @param offset
+	 *            the position of the first byte of the element in the buffer.
+	 *            The following {@link Util#size} bytes are overwritten.
+	 */
+	public static void serialize(BigInteger value, byte[] buffer, int offset) {
+		BigInteger modulus = Util.getModulus();
+		if (value.signum() < 0 || value.compareTo(modulus) >= 0) {
+			value = value.mod(modulus);
+		}
+		serialize(value, buffer, offset, Util.size);
+	}
+
+	/**
+	 * Writes a single element of an explicitly given width into the buffer.
+	 * Unlike {@link #serialize(BigInteger, byte[], int)} this does not depend
+	 * on the modulus set in {@link Util}, so the value is not reduced.
+	 * 
+	 * @param value
+	 *            a non-negative element of at most <code>size</code> bytes.
+	 * @param buffer
+	 *            the buffer to write into.
+	 * @param offset
+	 *            the position of the first byte of the element in the buffer.
+	 * @param size
+	 *            the number of bytes to write.
+	 */
+	public static void serialize(BigInteger value, byte[] buffer, int offset, int size) {
+		byte[] bytes = value.toByteArray();
+		// toByteArray adds a leading sign byte when the top bit is set
+		int skip = bytes.length > size ? bytes.length - size : 0;
+		int length = bytes.length - skip;
+		Arrays.fill(buffer, offset, offset + size - length, (byte) 0);
+		System.arraycopy(bytes, skip, buffer, offset + size - length, length);
+	}
+
+	/**
+	 * @param values
+	 *            the elements to encode.
+	 * @return a byte array of exactly <code>values.length * Util.size</code>
+	 *         bytes holding the elements in the given order.
+	 */
+	public static byte[] serialize(BigInteger... values) {
+		int size = Util.size;
+		byte[] res = new byte[values.length * size];
+		for (int i = 0; i < values.length; i++) {
+			serialize(values[i], res, i * size);
+		}
+		return res;
+	}
+
+	/**
+	 * Reads a single element from the given buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer holding the encoded elements.
+	 * @param offset
+	 *            the position of the first byte of the element.
+	 * @return the decoded element.
+	 */
+	public static BigInteger deserialize(byte[] buffer, int offset) {
+		return deserialize(buffer, offset, Util.size);
+	}
+
+	/**
+	 * Reads a single element of an explicitly given width from the buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer holding the encoded elements.
+	 * @param offset
+	 *            the position of the first byte of the element.
+	 * @param size
+	 *            the number of bytes of the element.
+	 * @return the decoded element.
+	 */
+	public static BigInteger deserialize(byte[] buffer, int offset, int size) {
+		if (offset == 0 && buffer.length == size) {
+			return new BigInteger(1, buffer);
+		}
+		return new BigInteger(1, Arrays.copyOfRange(buffer, offset, offset + size));
+	}
+
+	/**
+	 * @param data
+	 *            a message holding one element.
+	 * @return the decoded element.
+	 */
+	public static BigInteger deserialize(byte[] data) {
+		return deserialize(data, 0);
+	}
+
+	/**
+	 * @param data
+	 *            a message as produced by {@link #serialize(BigInteger...)}.
+	 * @return the decoded elements.
+	 */
+	public static BigInteger[] deserializeList(byte[] data) {
+		int size = Util.size;
+		BigInteger[] res = new BigInteger[data.length / size];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = deserialize(data, i * size);
+		}
+		return res;
+	}
+}
@@ -34,6 +34,7 @@ import java.io.InputStream;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Random;
 
 import dk.alexandra.fresco.framework.ProtocolProducer;
@@ -44,6 +45,7 @@ import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
 import dk.alexandra.fresco.lib.field.integer.generic.IOIntProtocolFactory;
 import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
 
 /**
  * 
@@ -54,8 +56,15 @@ public class Util {
 	
 	private static BigInteger p = null; //Should be set by an initiation call
 	private static BigInteger p_half;
+	// Volatile as the field is set by the suite and read by all VM threads
+	private static volatile MontgomeryField field = null;
 	public static int size = 0; //should be set by an initiation call
 	public static int EXP_PIPE_SIZE = 200+1; //R^-1, R, R^2, ..., R^200		
+	/**
+	 * The exp pipe lengths in increasing order, see
+	 * {@link #setExpPipeSizeClasses(int...)}.
+	 */
+	private static volatile int[] expPipeSizes = { EXP_PIPE_SIZE };
 	
 	public static final String ENCODING = "UTF-8";	
 	
@@ -69,6 +78,19 @@ public class Util {
 	public static void setModulus(BigInteger p) {
 		Util.p = p;
 		Util.p_half = p.divide(BigInteger.valueOf(2));
+		MontgomeryField current = field;
+		if (current == null || !current.getModulus().equals(p)) {
+			field = MontgomeryField.supports(p) ? new MontgomeryField(p) : null;
+		}
+	}
+
+	/**
+	 * Returns the fixed width arithmetic used for the current modulus.
+	 * @return the field, or null if the modulus is too large or even, in which
+	 * case the {@link BigInteger} arithmetic must be used.
+	 */
+	public static MontgomeryField getField() {
+		return field;
 	}
 
 	private MessageDigest H;
@@ -119,7 +141,17 @@ public class Util {
 	 * @return
 	 */
 	public static BigInteger[] getClearExpPipe(BigInteger M){
-		BigInteger[] Ms = new BigInteger[EXP_PIPE_SIZE-1];
+		return getClearExpPipe(M, EXP_PIPE_SIZE-1);
+	}
+
+	/**
+	 * Returns the numbers: M, M^2, M^3, ..., M^maxExp
+	 * @param M
+	 * @param maxExp
+	 * @return
+	 */
+	public static BigInteger[] getClearExpPipe(BigInteger M, int maxExp){
+		BigInteger[] Ms = new BigInteger[maxExp];
 		Ms[0] = M;
 		for(int i = 1; i < Ms.length; i++){
 			Ms[i] = Ms[i-1].multiply(M).mod(p);
@@ -127,6 +159,94 @@ public class Util {
 		return Ms;
 	}
 	
+	/**
+	 * Sets the lengths of the shorter exp pipes preprocessed besides the pipes
+	 * of length {@link #EXP_PIPE_SIZE}. A request for an exp pipe of a given
+	 * length is served by the shortest class of pipes which is long enough, so
+	 * a comparison of small numbers does not use up a pipe of 201 elements.
+	 * The classes must be the same for all parties and for the tools
+	 * generating the preprocessed data. By default there are no shorter
+	 * classes.
+	 * 
+	 * @param classes
+	 *            the lengths in any order. Duplicates and lengths which are not
+	 *            shorter than EXP_PIPE_SIZE are ignored.
+	 */
+	public static void setExpPipeSizeClasses(int... classes) {
+		int[] sorted = classes.clone();
+		Arrays.sort(sorted);
+		int[] res = new int[sorted.length + 1];
+		int n = 0;
+		for (int size : sorted) {
+			if (size > 0 && size < EXP_PIPE_SIZE && (n == 0 || res[n - 1] != size)) {
+				res[n++] = size;
+			}
+		}
+		res[n++] = EXP_PIPE_SIZE;
+		expPipeSizes = Arrays.copyOf(res, n);
+	}
+
+	/**
+	 * Parses exp pipe size classes given as a comma separated list of
+	 * lengths, as accepted by {@link #setExpPipeSizeClasses(int...)}.
+	 * 
+	 * @param value
+	 *            the list, or null for no classes.
+	 * @throws NumberFormatException
+	 *             if one of the lengths is not a number.
+	 */
+	public static int[] parseExpPipeSizeClasses(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return new int[0];
+		}
+		String[] classes = value.split(",");
+		int[] sizes = new int[classes.length];
+		for (int i = 0; i < classes.length; i++) {
+			sizes[i] = Integer.parseInt(classes[i].trim());
+		}
+		return sizes;
+	}
+
+	/**
+	 * Returns the lengths of the exp pipes in the preprocessed data, i.e. the
+	 * size classes shorter than {@link #EXP_PIPE_SIZE} and EXP_PIPE_SIZE
+	 * itself, in increasing order.
+	 */
+	public static int[] getExpPipeSizes() {
+		return expPipeSizes.clone();
+	}
+
+	/**
+	 * Returns the length of the exp pipes used to serve a request for a pipe
+	 * of the given length, i.e. the shortest size class which is long enough.
+	 * 
+	 * @param length
+	 *            the number of elements needed, i.e. R^-1, R, ...,
+	 *            R^(length-1).
+	 */
+	public static int getExpPipeSize(int length) {
+		for (int size : expPipeSizes) {
+			if (size >= length) {
+				return size;
+			}
+		}
+		throw new IllegalArgumentException("Exp pipes of length " + length
+				+ " are not supported, the maximum is EXP_PIPE_SIZE = " + EXP_PIPE_SIZE);
+	}
+
+	/**
+	 * Returns the name under which exp pipes of the given length are stored,
+	 * relative to the storage name of a thread. Pipes of length
+	 * {@link #EXP_PIPE_SIZE} keep the name used before pipes of other lengths
+	 * existed, so existing preprocessed data can still be read.
+	 */
+	public static String getExpPipeStorage(int size) {
+		if (size == EXP_PIPE_SIZE) {
+			return SpdzStorageConstants.EXP_PIPE_STORAGE;
+		}
+		return SpdzStorageConstants.EXP_PIPE_STORAGE + size;
+	}
+
 	/**
 	 * Returns the coefficients of a polynomial of degree <i>l</i> such that
 	 * <i>f(m) = 1</i> and <i>f(n) = 0</i> for <i>1 &le; n &le; l+1</i> and <i>n
@@ -44,6 +44,7 @@ import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesNOTProtoc
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesOpenToAllProtocol;
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesXORProtocol;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.storage.MappedTinyTablesStorage;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 
 /**
@@ -93,6 +94,10 @@ public class TinyTablesProtocolSuite implements ProtocolSuite{
 
 	private TinyTablesStorage loadTinyTables(File file) throws IOException,
 			ClassNotFoundException {
+		if (MappedTinyTablesStorage.isPacked(file)) {
+			Reporter.info("Mapping TinyTables from " + file);
+			return new MappedTinyTablesStorage(file);
+		}
 		FileInputStream fin = new FileInputStream(file);
 		ObjectInputStream is = new ObjectInputStream(fin);
 		Reporter.info("Loading TinyTabels from " + file);
@@ -119,8 +124,9 @@ public class TinyTablesProtocolSuite implements ProtocolSuite{
 
 	@Override
 	public void destroy() {
-		// TODO Auto-generated method stub
-		
+		if (storage instanceof MappedTinyTablesStorage) {
+			((MappedTinyTablesStorage) storage).close();
+		}
 	}
 
 }
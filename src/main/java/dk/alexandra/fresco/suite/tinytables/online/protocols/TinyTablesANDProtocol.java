@@ -26,8 +26,6 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.tinytables.online.protocols;
 
-import java.util.List;
-
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
@@ -62,6 +60,7 @@ public class TinyTablesANDProtocol extends TinyTablesProtocol implements AndProt
 
 	private int id;
 	private TinyTablesSBool inLeft, inRight, out;
+	private boolean myShare;
 
 	public TinyTablesANDProtocol(int id, TinyTablesSBool inLeft, TinyTablesSBool inRight,
 			TinyTablesSBool out) {
@@ -86,24 +85,25 @@ public class TinyTablesANDProtocol extends TinyTablesProtocol implements AndProt
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool, SCENetwork network) {
 		TinyTablesProtocolSuite ps = TinyTablesProtocolSuite.getInstance(resourcePool.getMyId());
 
+		/*
+		 * Only the share of the other player is sent and received. Since it is
+		 * a single boolean, the batched evaluators pack the shares of all AND
+		 * gates in a round into one bit array per player.
+		 */
+		int otherId = resourcePool.getMyId() == 1 ? 2 : 1;
 		switch (round) {
 			case 0:
-				boolean myShare = ps.getStorage().lookupTinyTable(id, inLeft.getValue(),
+				myShare = ps.getStorage().lookupTinyTable(id, inLeft.getValue(),
 						inRight.getValue());
-
-				network.expectInputFromAll();
-				network.sendToAll(myShare);
+				network.send(otherId, myShare);
+				network.expectInputFromPlayer(otherId);
 				return EvaluationStatus.HAS_MORE_ROUNDS;
 			case 1:
-				List<Boolean> shares = network.receiveFromAll();
-				boolean res = false;
-				for (boolean share : shares) {
-					res = res ^ share;
-				}
-				this.out.setValue(res);
+				boolean otherShare = network.receive(otherId);
+				this.out.setValue(myShare ^ otherShare);
 				return EvaluationStatus.IS_DONE;
 			default:
-				throw new MPCException("Cannot evaluate rounds larger than 0");
+				throw new MPCException("Cannot evaluate rounds larger than 1");
 		}
 	}
 
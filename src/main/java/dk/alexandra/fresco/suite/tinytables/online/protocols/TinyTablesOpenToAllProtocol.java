@@ -26,8 +26,6 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.tinytables.online.protocols;
 
-import java.util.List;
-
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
@@ -84,19 +82,16 @@ public class TinyTablesOpenToAllProtocol extends TinyTablesProtocol implements O
 		 * unmasked value as the XOR of the masked value and all the shares of
 		 * the mask.
 		 */
+		int otherId = resourcePool.getMyId() == 1 ? 2 : 1;
 		switch (round) {
 			case 0:
 				boolean myR = ps.getStorage().getMaskShare(id);
-				network.sendToAll(myR);
-				network.expectInputFromAll();
+				network.send(otherId, myR);
+				network.expectInputFromPlayer(otherId);
 				return EvaluationStatus.HAS_MORE_ROUNDS;
 			case 1:
-				List<Boolean> shares = network.receiveFromAll();
-				boolean result = toOpen.getValue();
-				for (boolean share : shares) {
-					result ^= share;
-				}
-				opened.setValue(result);
+				boolean otherR = network.receive(otherId);
+				opened.setValue(toOpen.getValue() ^ ps.getStorage().getMaskShare(id) ^ otherR);
 				return EvaluationStatus.IS_DONE;
 			default:
 				throw new MPCException("Cannot evaluate rounds larger than 1");
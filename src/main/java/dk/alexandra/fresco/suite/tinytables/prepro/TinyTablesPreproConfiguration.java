@@ -42,11 +42,18 @@ import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
 
 public class TinyTablesPreproConfiguration implements ProtocolSuiteConfiguration {
 
+	/**
+	 * The default number of AND protocols to collect before the oblivious
+	 * transfers for them are done.
+	 */
+	public static final int DEFAULT_OT_BATCH_SIZE = 100000;
+
 	private ProtocolFactory tinyTablesFactory;
 	private InetSocketAddress address;
 	private boolean useOtExtension;
 	private File tinytablesfile;
 	private boolean testing;
+	private int otBatchSize = DEFAULT_OT_BATCH_SIZE;
 
 	public static ProtocolSuiteConfiguration fromCmdLine(SCEConfiguration sceConf,
 			CommandLine cmd) throws ParseException, IllegalArgumentException {
@@ -62,6 +69,7 @@ public class TinyTablesPreproConfiguration implements ProtocolSuiteConfiguration
 		String otExtensionOption = "tinytables.otExtension";
 		String otExtensionPortOption = "tinytables.otExtensionPort";
 		String tinytablesFileOption = "tinytables.file";
+		String otBatchSizeOption = "tinytables.otBatchSize";
 		
 		options.addOption(Option
 				.builder("D")
@@ -77,6 +85,11 @@ public class TinyTablesPreproConfiguration implements ProtocolSuiteConfiguration
 				.builder("D")
 				.desc("The file where the generated TinyTables should be stored.")
 				.longOpt(tinytablesFileOption).required(false).hasArgs().build());
+
+		options.addOption(Option
+				.builder("D")
+				.desc("The number of AND protocols to preprocess before doing the oblivious transfers for them.")
+				.longOpt(otBatchSizeOption).required(false).hasArgs().build());
 		
 		Properties p = cmd.getOptionProperties("D");
 		
@@ -90,6 +103,9 @@ public class TinyTablesPreproConfiguration implements ProtocolSuiteConfiguration
 		String tinyTablesFilePath = p.getProperty(tinytablesFileOption, "tinytables");
 		File tinyTablesFile = new File(tinyTablesFilePath);
 		configuration.setTinyTablesFile(tinyTablesFile);
+
+		int otBatchSize = Integer.parseInt(p.getProperty(otBatchSizeOption, "" + DEFAULT_OT_BATCH_SIZE));
+		configuration.setOtBatchSize(otBatchSize);
 		
 		// We are not testing when running from command line
 		configuration.setTesting(false);
@@ -167,4 +183,23 @@ public class TinyTablesPreproConfiguration implements ProtocolSuiteConfiguration
 		return this.useOtExtension;
 	}
 
+	/**
+	 * Set how many AND protocols should be preprocessed before the oblivious
+	 * transfers for them are done. Smaller batches bound the memory used for
+	 * the inputs to the oblivious transfers, while larger batches reduce the
+	 * overhead of starting the oblivious transfers.
+	 * 
+	 * @param otBatchSize
+	 */
+	public void setOtBatchSize(int otBatchSize) {
+		if (otBatchSize < 1) {
+			throw new IllegalArgumentException("OT batch size must be at least 1, was " + otBatchSize);
+		}
+		this.otBatchSize = otBatchSize;
+	}
+
+	public int getOtBatchSize() {
+		return this.otBatchSize;
+	}
+
 }
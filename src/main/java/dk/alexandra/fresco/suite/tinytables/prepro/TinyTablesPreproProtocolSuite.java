@@ -27,9 +27,7 @@
 package dk.alexandra.fresco.suite.tinytables.prepro;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,10 +38,13 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproANDProtocol;
+import dk.alexandra.fresco.suite.tinytables.storage.PackedTinyTablesWriter;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesPreproStorage;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesPreproStorageImpl;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
-import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorageImpl;
 import dk.alexandra.fresco.suite.tinytables.util.ot.OTFactory;
 import dk.alexandra.fresco.suite.tinytables.util.ot.extension.OTExtensionFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.iknp.IKNPOTFactory;
 import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
 
 /**
@@ -60,13 +61,18 @@ import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
  * Furthermore, for each AND protocol each of the two players must also
  * calculate a so-called <i>TinyTable</i> which is used in the online phase (see
  * {@link TinyTablesProtocolSuite}). This is done using oblivious transfer. To
- * enhance performance, all oblivious transfers are done at the end of the
- * preprocessing (see {@link TinyTablesPreproProtocolSuite#finishedEval()}).
+ * enhance performance, the oblivious transfers are done in batches between
+ * the batches of protocols once enough AND protocols have been preprocessed
+ * (see {@link TinyTablesPreproConfiguration#setOtBatchSize(int)}), and the
+ * remaining ones at the end of the preprocessing (see
+ * {@link TinyTablesPreproProtocolSuite#finishedEval()}).
  * </p>
  * 
  * <p>
- * The masking values and TinyTables are stored in a {@link TinyTablesStorage}
- * which can be stored for later use in the online phase. In order to avoid
+ * The masking values and TinyTables are stored in a
+ * {@link TinyTablesPreproStorage} which writes them to the TinyTables file as
+ * they are computed, where they are read by the online phase as a
+ * {@link TinyTablesStorage}. In order to avoid
  * leaks, you should not reuse the values from a preprocessing in multiple
  * evaluations of a protocol, but should instead preprocess once per evaluation.
  * Note that all the values calculated during the preprocessing phase is saved
@@ -80,7 +86,8 @@ import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
  */
 public class TinyTablesPreproProtocolSuite implements ProtocolSuite {
 
-	private TinyTablesStorage storage;
+	private TinyTablesPreproStorage storage;
+	private PackedTinyTablesWriter writer;
 	private ResourcePool resourcePool;
 	private TinyTablesPreproConfiguration configuration;
 	private OTFactory otFactory;
@@ -89,13 +96,12 @@ public class TinyTablesPreproProtocolSuite implements ProtocolSuite {
 
 	public static TinyTablesPreproProtocolSuite getInstance(int id) {
 		if (instances.get(id) == null) {
-			instances.put(id, new TinyTablesPreproProtocolSuite(id));
+			instances.put(id, new TinyTablesPreproProtocolSuite());
 		}
 		return instances.get(id);
 	}
 
-	private TinyTablesPreproProtocolSuite(int id) {
-		this.storage = TinyTablesStorageImpl.getInstance(id);
+	private TinyTablesPreproProtocolSuite() {
 	}
 
 	@Override
@@ -104,6 +110,28 @@ public class TinyTablesPreproProtocolSuite implements ProtocolSuite {
 		this.configuration = (TinyTablesPreproConfiguration) configuration;
 		negotiateOTExtension();
 		this.tinyTablesFile = this.configuration.getTinyTablesFile();
+
+		/*
+		 * The suite is shared by all SCEs of this player, so a writer left
+		 * open by an earlier SCE is closed before the file is truncated.
+		 */
+		closeWriter();
+		openWriter(false);
+	}
+
+	/*
+	 * Init is only called once per SCE, but the SCE may run several
+	 * applications, each ending with a call to finishedEval which closes the
+	 * writer. The protocol IDs continue from one application to the next, so
+	 * the following applications append their values to the same file.
+	 */
+	private void openWriter(boolean append) {
+		try {
+			this.writer = new PackedTinyTablesWriter(this.tinyTablesFile, append);
+		} catch (IOException e) {
+			throw new MPCException("Failed to open TinyTables file " + this.tinyTablesFile, e);
+		}
+		this.storage = new TinyTablesPreproStorageImpl(writer);
 	}
 
 	/**
@@ -111,9 +139,9 @@ public class TinyTablesPreproProtocolSuite implements ProtocolSuite {
 	 * C++ (see https://scapi.readthedocs.io/en/latest/) and is called using
 	 * JNI, it requires SCAPI to be installed
 	 * (https://scapi.readthedocs.io/en/latest/install.html). If this is not
-	 * available for both players, we fall back to the java OT which is also
-	 * part of SCAPI. This is much slower, so we recommend that both players
-	 * install SCAPI and use the C++ lib.
+	 * available for both players, we fall back to an OT extension in pure
+	 * Java, {@link IKNPOTFactory}, which does its base OTs using the java OT
+	 * from SCAPI.
 	 */
 	private void negotiateOTExtension() {
 		try {
@@ -127,7 +155,8 @@ public class TinyTablesPreproProtocolSuite implements ProtocolSuite {
 			 * lib in seperate processes.
 			 */
 			this.otFactory = useOTExtension ? new OTExtensionFactory(configuration.getSenderAddress(), configuration.isTesting())
-					: new JavaOTFactory(resourcePool.getNetwork(), resourcePool.getMyId());
+					: new IKNPOTFactory(new JavaOTFactory(resourcePool.getNetwork(), resourcePool.getMyId()),
+							resourcePool.getNetwork(), resourcePool.getMyId());
 			
 			Reporter.fine("I have OT Extension library: " + iHaveOTExtensionLibrary);
 			Reporter.fine("Using OT Extension: " + useOTExtension);
@@ -140,45 +169,62 @@ public class TinyTablesPreproProtocolSuite implements ProtocolSuite {
 		return resourcePool.getMyId() == 1 ? 2 : 1;
 	}
 	
-	public TinyTablesStorage getStorage() {
+	public TinyTablesPreproStorage getStorage() {
 		return this.storage;
 	}
 
 	@Override
 	public void synchronize(int gatesEvaluated) throws MPCException {
-		// TODO Auto-generated method stub
+		/*
+		 * Both players evaluate the same protocols between two calls to this
+		 * method, so they agree on when to do the oblivious transfers.
+		 */
+		int pending = Math.max(storage.getOTInputs().size(), storage.getOTSigmas().size());
+		if (pending >= configuration.getOtBatchSize()) {
+			Reporter.fine("Doing oblivious transfers for " + pending + " AND protocols");
+			TinyTablesPreproANDProtocol.finishPreprocessing(resourcePool.getMyId(), otFactory, storage,
+					resourcePool.getNetwork());
+		}
 	}
 
 	@Override
 	public void finishedEval() {
 
 		/*
-		 * The proprocessing of all AND gates has to be finished.
+		 * The proprocessing of the remaining AND gates has to be finished.
 		 */
 		TinyTablesPreproANDProtocol.finishPreprocessing(resourcePool.getMyId(), otFactory, storage,
 				resourcePool.getNetwork());
-		
-		try {
-			storeTinyTables(storage, this.tinyTablesFile);
+
+		if (closeWriter()) {
 			Reporter.info("TinyTables stored to " + this.tinyTablesFile);
-		} catch (IOException e) {
-			Reporter.severe("Failed to save TinyTables: " + e.getMessage());
 		}
-
+		openWriter(true);
 	}
 
-	private void storeTinyTables(TinyTablesStorage tinyTablesStorage, File file)
-			throws IOException {
-		file.createNewFile();
-		FileOutputStream fout = new FileOutputStream(file);
-		ObjectOutputStream oos = new ObjectOutputStream(fout);
-		oos.writeObject(tinyTablesStorage);
-		oos.close();
+	/*
+	 * The TinyTables are written in the packed format which the online phase
+	 * memory-maps, see MappedTinyTablesStorage. Returns true if all values
+	 * were written.
+	 */
+	private boolean closeWriter() {
+		if (writer == null) {
+			return false;
+		}
+		try {
+			writer.close();
+			return true;
+		} catch (IOException e) {
+			Reporter.severe("Failed to save TinyTables: " + e.getMessage());
+			return false;
+		} finally {
+			writer = null;
+		}
 	}
 	
 	@Override
 	public void destroy() {
-		// TODO Auto-generated method stub
+		closeWriter();
 	}
 
 }
@@ -37,7 +37,7 @@ import dk.alexandra.fresco.lib.field.bool.AndProtocol;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.datatypes.TinyTablesPreproSBool;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTable;
-import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesPreproStorage;
 import dk.alexandra.fresco.suite.tinytables.util.Util;
 import dk.alexandra.fresco.suite.tinytables.util.ot.OTFactory;
 import dk.alexandra.fresco.suite.tinytables.util.ot.OTReceiver;
@@ -59,8 +59,10 @@ import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
  * <i>(r<sub>u</sub> + c)(r<sub>v</sub> + d) + r<sub>o</sub></i>.
  * <p>
  * This is done using oblivious transfer, but for performance reasons this is
- * not done until the end of the preprocessing phase where all oblivious
- * transfers are done in one batch. So here, player 1 just stores his inputs to
+ * not done until enough AND protocols have been preprocessed, and the oblivious
+ * transfers for all of them are then done in one batch, see
+ * {@link #finishPreprocessing(int, OTFactory, TinyTablesPreproStorage, Network)}.
+ * So here, player 1 just stores his inputs to
  * oblivious transfer, {@link #calculateOTInputs(TinyTable, boolean)}), and some
  * additional valus needed by player 2 to calculate his TinyTable,
  * {@link #calculateZs(TinyTable)}.
@@ -120,8 +122,8 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 					 * for player 1 to know the 'mixed' terms (eg. terms with
 					 * shares from both players) of rU & rV = (rU1 + rU2) & (rV1
 					 * + rV2) = rU1 & rV1 + rU2 & rV2 + rU1 & rV2 + rU2 & rV1.
-					 * For now we just store the inputs and then do all the OTs
-					 * in one batch at the end of the preprocessing phase.
+					 * For now we just store the inputs and then do the OTs for
+					 * many AND protocols in one batch, see finishPreprocessing.
 					 */
 					boolean x0 = resourcePool.getSecureRandom().nextBoolean();
 					boolean x1 = resourcePool.getSecureRandom().nextBoolean();
@@ -162,7 +164,7 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 					// Pick share for output gate
 					boolean rO = resourcePool.getSecureRandom().nextBoolean();
 					out.setShare(rO);
-					ps.getStorage().storeMaskShare(id, rO);
+					ps.getStorage().storePendingMaskShare(id, rO);
 
 					return EvaluationStatus.IS_DONE;
 				}
@@ -226,13 +228,15 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 
 	/**
 	 * Given the outputs after performing OT's with player 1, this method
-	 * calculates and stores Player 2's TinyTables for all AND protocols.
+	 * calculates and stores Player 2's TinyTables for all AND protocols
+	 * waiting for them. The values used to calculate the TinyTables are
+	 * removed from the storage afterwards.
 	 * 
 	 * @param otOutputs
 	 * @param storage
 	 */
 	private static void player2CalculateTinyTables(List<Boolean> otOutputs,
-			TinyTablesStorage storage) {
+			TinyTablesPreproStorage storage) {
 		int progress = 0;
 		for (int id : storage.getOTSigmas().keySet()) {
 
@@ -240,7 +244,7 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 			boolean rU = storage.getOTSigmas().get(id)[1].getSigma();
 			boolean y0 = otOutputs.get(progress);
 			boolean y1 = otOutputs.get(progress + 1);
-			boolean rO = storage.getMaskShare(id);
+			boolean rO = storage.getPendingMaskShares().get(id);
 
 			TinyTable tinyTable = TinyTablesPreproANDProtocol.calculateTinyTable(y0, y1, rU, rV,
 					rO);
@@ -252,10 +256,31 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 			 */
 			progress += 2;
 		}
+		storage.getOTSigmas().clear();
+		storage.getPendingMaskShares().clear();
 	}
 
+	/**
+	 * Does the oblivious transfers for all AND protocols preprocessed since
+	 * the last call and, for player 2, calculates their TinyTables. The
+	 * TinyTables of both players are then written, and the values used for
+	 * the oblivious transfers are removed from the storage, so the
+	 * preprocessing never keeps more than a single batch in memory.
+	 * 
+	 * @param playerId
+	 * @param otFactory
+	 * @param storage
+	 * @param network
+	 */
 	public static void finishPreprocessing(int playerId, OTFactory otFactory,
-			TinyTablesStorage storage, Network network) {
+			TinyTablesPreproStorage storage, Network network) {
+		if (storage.getOTInputs().isEmpty() && storage.getOTSigmas().isEmpty()) {
+			/*
+			 * Both players have preprocessed the same AND protocols, so they
+			 * both skip the oblivious transfers.
+			 */
+			return;
+		}
 		switch (playerId) {
 			case 1:
 				/*
@@ -264,6 +289,8 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 				OTSender sender = otFactory.createOTSender();
 				List<OTInput> inputs = Util.getAll(storage.getOTInputs());
 				sender.send(inputs);
+				storage.getOTInputs().clear();
+				storage.flush();
 				break;
 
 			case 2:
@@ -281,6 +308,7 @@ public class TinyTablesPreproANDProtocol extends TinyTablesPreproProtocol implem
 				List<Boolean> outputs = receiver.receive(sigmas);
 
 				TinyTablesPreproANDProtocol.player2CalculateTinyTables(outputs, storage);
+				storage.flush();
 				break;
 		}
 	}
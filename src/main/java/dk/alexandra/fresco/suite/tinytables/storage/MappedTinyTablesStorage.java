@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link TinyTablesStorage} backed by a memory-mapped file as
+ * written by {@link PackedTinyTablesWriter}.
+ * <p>
+ * The file starts with a 4 byte magic number followed by four bits per
+ * protocol ID in ID order. Since IDs are integers, the whole file fits in a
+ * single mapping, and looking up a TinyTable or a mask share is a single read
+ * from the mapped memory, so loading the storage takes constant time and the
+ * tables are never on the heap.
+ * </p>
+ */
+public class MappedTinyTablesStorage implements TinyTablesStorage {
+
+	private static final long serialVersionUID = -4166405409838066530L;
+
+	public static final int MAGIC = 0x54545342; // "TTSB"
+	public static final int HEADER_SIZE = 4;
+
+	private transient FileChannel channel;
+	private transient MappedByteBuffer tables;
+	private long noOfIds;
+
+	public MappedTinyTablesStorage(File file) throws IOException {
+		if (!isPacked(file)) {
+			throw new IOException("The file " + file + " is not a packed TinyTables file");
+		}
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		long size = channel.size() - HEADER_SIZE;
+		this.tables = channel.map(MapMode.READ_ONLY, HEADER_SIZE, size);
+		this.noOfIds = 2 * size;
+	}
+
+	/**
+	 * @param file
+	 * @return true if the given file starts with the header of a packed
+	 *         TinyTables file.
+	 * @throws IOException
+	 */
+	public static boolean isPacked(File file) throws IOException {
+		if (file.length() < HEADER_SIZE) {
+			return false;
+		}
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			return in.readInt() == MAGIC;
+		} finally {
+			in.close();
+		}
+	}
+
+	private int getBits(int id) {
+		if (id < 0 || id >= noOfIds) {
+			throw new IllegalArgumentException("No TinyTable with ID " + id);
+		}
+		int b = tables.get(id >>> 1);
+		return (b >>> ((id & 1) << 2)) & 0xF;
+	}
+
+	@Override
+	public boolean lookupTinyTable(int id, boolean... inputs) {
+		if (inputs.length != 2) {
+			throw new IllegalArgumentException("Input array is of wrong size");
+		}
+		int index = (inputs[0] ? 2 : 0) + (inputs[1] ? 1 : 0);
+		return ((getBits(id) >>> index) & 1) != 0;
+	}
+
+	@Override
+	public TinyTable getTinyTable(int id) {
+		int bits = getBits(id);
+		boolean[] values = new boolean[4];
+		for (int index = 0; index < 4; index++) {
+			values[index] = ((bits >>> index) & 1) != 0;
+		}
+		return new TinyTable(values);
+	}
+
+	@Override
+	public boolean getMaskShare(int id) {
+		return (getBits(id) & 1) != 0;
+	}
+
+	/**
+	 * Closes the underlying file. The mapping is released once it is garbage
+	 * collected.
+	 */
+	public void close() {
+		tables = null;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// Nothing can be done
+		}
+	}
+
+}
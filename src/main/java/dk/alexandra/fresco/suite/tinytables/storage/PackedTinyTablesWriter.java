@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2016 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes TinyTables and mask shares to a file in the packed format read by
+ * {@link MappedTinyTablesStorage}.
+ * <p>
+ * Each protocol ID takes up four bits, so two IDs are packed into each byte
+ * with the lowest ID in the low half. For an AND protocol the four bits are
+ * the entries of its TinyTable, and for all other protocols the lowest bit is
+ * the share of the mask. IDs that are never written are zero.
+ * </p>
+ * <p>
+ * Values may be written in any order, since protocols are not necessarily
+ * evaluated in the order their IDs were assigned. Only a window of the file
+ * is kept in memory. Writing a value outside the window writes the window to
+ * the file and reads the window holding the value, so values should mostly be
+ * written close to each other, as they are when the protocols are evaluated
+ * in batches.
+ * </p>
+ */
+public class PackedTinyTablesWriter implements Closeable {
+
+	private static final int WINDOW_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final byte[] window = new byte[WINDOW_SIZE];
+	// The position in the file of the first byte of the window, or -1 if none.
+	private long windowStart = -1;
+	// The number of bytes of the window which are in the file or written.
+	private int windowLength = 0;
+	private boolean dirty = false;
+	// The number of bytes in the file, excluding the header.
+	private long size = 0;
+
+	public PackedTinyTablesWriter(File file) throws IOException {
+		this(file, false);
+	}
+
+	/**
+	 * @param file
+	 *            the file to write to.
+	 * @param append
+	 *            if true and the file is already a packed TinyTables file,
+	 *            the values already in the file are kept, so values may be
+	 *            added for IDs which have not been written yet. Otherwise the
+	 *            file is truncated.
+	 * @throws IOException
+	 */
+	public PackedTinyTablesWriter(File file, boolean append) throws IOException {
+		if (append && MappedTinyTablesStorage.isPacked(file)) {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.READ);
+			this.size = channel.size() - MappedTinyTablesStorage.HEADER_SIZE;
+		} else {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+			ByteBuffer header = ByteBuffer.allocate(MappedTinyTablesStorage.HEADER_SIZE);
+			header.putInt(MappedTinyTablesStorage.MAGIC);
+			header.flip();
+			writeFully(header, 0);
+		}
+	}
+
+	/**
+	 * Writes the TinyTable of an AND protocol.
+	 *
+	 * @param id
+	 *            the ID of the protocol.
+	 * @param table
+	 *            a TinyTable with two inputs.
+	 * @throws IOException
+	 */
+	public void writeTinyTable(int id, TinyTable table) throws IOException {
+		if (table.getNumberOfInputs() != 2) {
+			throw new IllegalArgumentException("Only TinyTables with two inputs can be packed");
+		}
+		int entries = 0;
+		for (int index = 0; index < 4; index++) {
+			if (table.getValue((index & 2) != 0, (index & 1) != 0)) {
+				entries |= 1 << index;
+			}
+		}
+		write(id, entries);
+	}
+
+	/**
+	 * Writes the share of the mask of a protocol.
+	 *
+	 * @param id
+	 *            the ID of the protocol.
+	 * @param r
+	 *            the share of the mask.
+	 * @throws IOException
+	 */
+	public void writeMaskShare(int id, boolean r) throws IOException {
+		write(id, r ? 1 : 0);
+	}
+
+	private synchronized void write(int id, int bits) throws IOException {
+		if (id < 0) {
+			throw new IllegalArgumentException("Negative protocol ID " + id);
+		}
+		long position = id >>> 1;
+		long start = position - position % WINDOW_SIZE;
+		if (start != windowStart) {
+			flush();
+			load(start);
+		}
+		int index = (int) (position - start);
+		int shift = (id & 1) << 2;
+		window[index] = (byte) ((window[index] & ~(0xF << shift)) | (bits << shift));
+		windowLength = Math.max(windowLength, index + 1);
+		dirty = true;
+	}
+
+	private void load(long start) throws IOException {
+		Arrays.fill(window, (byte) 0);
+		windowStart = start;
+		windowLength = (int) Math.max(0, Math.min(WINDOW_SIZE, size - start));
+		ByteBuffer buffer = ByteBuffer.wrap(window, 0, windowLength);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, MappedTinyTablesStorage.HEADER_SIZE + start + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of TinyTables file");
+			}
+		}
+	}
+
+	/**
+	 * Writes the values written since the last flush to the file.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void flush() throws IOException {
+		if (!dirty) {
+			return;
+		}
+		// The contents of a gap in a file is unspecified, so it is filled.
+		byte[] zeros = size < windowStart ? new byte[WINDOW_SIZE] : null;
+		while (size < windowStart) {
+			int length = (int) Math.min(WINDOW_SIZE, windowStart - size);
+			writeFully(ByteBuffer.wrap(zeros, 0, length), MappedTinyTablesStorage.HEADER_SIZE + size);
+			size += length;
+		}
+		writeFully(ByteBuffer.wrap(window, 0, windowLength), MappedTinyTablesStorage.HEADER_SIZE + windowStart);
+		size = Math.max(size, windowStart + windowLength);
+		dirty = false;
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		long offset = position - buffer.position();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, offset + buffer.position());
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2016 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import java.util.SortedMap;
+
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
+
+/**
+ * Storage used during the preprocessing phase of the TinyTables protocol.
+ * TinyTables and mask shares are written for the online phase as soon as they
+ * are stored, see {@link TinyTablesStorage}, so only the values needed for the
+ * oblivious transfers not done yet are kept.
+ */
+public interface TinyTablesPreproStorage {
+
+	/**
+	 * Store a {@link TinyTable} for the protocol with the given <code>id</code>
+	 * .
+	 * 
+	 * @param id
+	 * @param table
+	 */
+	public void storeTinyTable(int id, TinyTable table);
+
+	/**
+	 * Store a boolean for the protocol with the given ID. Can be used by a
+	 * player to store a mask that he has picked during preprocessing.
+	 * 
+	 * @param id
+	 * @param r
+	 */
+	public void storeMaskShare(int id, boolean r);
+
+	/**
+	 * Player 2 needs his share of the output mask of an AND protocol to
+	 * calculate his TinyTable once the oblivious transfers for the protocol
+	 * are done, so he can keep it here until then. The share is not needed in
+	 * the online phase, so it is not written.
+	 * 
+	 * @param id
+	 * @param r
+	 */
+	public void storePendingMaskShare(int id, boolean r);
+
+	public SortedMap<Integer, Boolean> getPendingMaskShares();
+
+	/**
+	 * The receiver of the OT protocol to be performed for the protocol with the
+	 * given ID can store his sigma's. The OT-protocols will be executed when
+	 * enough AND protocols have been preprocessed, and the results is used to
+	 * create the TinyTables for the AND protocols.
+	 * 
+	 * @param id
+	 * @param sigmas
+	 */
+	public void storeOTSigma(int id, OTSigma[] sigmas);
+
+	public SortedMap<Integer, OTSigma[]> getOTSigmas();
+
+	/**
+	 * The sender of the OT protocols to be performed can store his inputs. The
+	 * OT-protocols will be executed when enough AND protocols have been
+	 * preprocessed, and the results is used to create the TinyTables for the
+	 * AND protocols.
+	 * 
+	 * @param id
+	 * @param inputs
+	 */
+	public void storeOTInput(int id, OTInput[] inputs);
+
+	public SortedMap<Integer, OTInput[]> getOTInputs();
+
+	/**
+	 * Makes sure all TinyTables and mask shares stored so far have been
+	 * written, e.g. after the TinyTables of a batch of AND protocols have
+	 * been calculated.
+	 */
+	public void flush();
+
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2016 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import java.io.IOException;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
+
+/**
+ * A {@link TinyTablesPreproStorage} which writes TinyTables and mask shares
+ * to a {@link PackedTinyTablesWriter} as soon as they are stored.
+ */
+public class TinyTablesPreproStorageImpl implements TinyTablesPreproStorage {
+
+	private final PackedTinyTablesWriter writer;
+
+	/*
+	 * The values needed for the oblivious transfers not done yet. We use
+	 * SortedMap's because the keys are sorted according to the natural
+	 * ordering, and ConcurrentSkipListMaps because they are thread safe.
+	 */
+	private final SortedMap<Integer, Boolean> pendingMaskShares = new ConcurrentSkipListMap<>();
+	private final SortedMap<Integer, OTSigma[]> sigmas = new ConcurrentSkipListMap<>();
+	private final SortedMap<Integer, OTInput[]> otInputs = new ConcurrentSkipListMap<>();
+
+	public TinyTablesPreproStorageImpl(PackedTinyTablesWriter writer) {
+		this.writer = writer;
+	}
+
+	@Override
+	public void storeTinyTable(int id, TinyTable table) {
+		try {
+			writer.writeTinyTable(id, table);
+		} catch (IOException e) {
+			throw new MPCException("Failed to write the TinyTable of protocol " + id, e);
+		}
+	}
+
+	@Override
+	public void storeMaskShare(int id, boolean r) {
+		try {
+			writer.writeMaskShare(id, r);
+		} catch (IOException e) {
+			throw new MPCException("Failed to write the mask share of protocol " + id, e);
+		}
+	}
+
+	@Override
+	public void storePendingMaskShare(int id, boolean r) {
+		this.pendingMaskShares.put(id, r);
+	}
+
+	@Override
+	public SortedMap<Integer, Boolean> getPendingMaskShares() {
+		return pendingMaskShares;
+	}
+
+	@Override
+	public void storeOTSigma(int id, OTSigma[] sigmas) {
+		this.sigmas.put(id, sigmas);
+	}
+
+	@Override
+	public SortedMap<Integer, OTSigma[]> getOTSigmas() {
+		return sigmas;
+	}
+
+	@Override
+	public void storeOTInput(int id, OTInput[] inputs) {
+		this.otInputs.put(id, inputs);
+	}
+
+	@Override
+	public SortedMap<Integer, OTInput[]> getOTInputs() {
+		return otInputs;
+	}
+
+	@Override
+	public void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new MPCException("Failed to write TinyTables", e);
+		}
+	}
+
+}
@@ -27,22 +27,15 @@
 package dk.alexandra.fresco.suite.tinytables.storage;
 
 import java.io.Serializable;
-import java.util.SortedMap;
-
-import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
-import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
 
+/**
+ * The TinyTables and mask shares used in the online phase of the TinyTables
+ * protocol. The values are computed during preprocessing and written using a
+ * {@link TinyTablesPreproStorage}, so in the online phase they can only be
+ * looked up.
+ */
 public interface TinyTablesStorage extends Serializable {
 
-	/**
-	 * Store a {@link TinyTable} for the protocol with the given <code>id</code>
-	 * .
-	 * 
-	 * @param id
-	 * @param table
-	 */
-	public void storeTinyTable(int id, TinyTable table);
-
 	/**
 	 * Looks up an entry in the TinyTable with the given id and index given by
 	 * the inputs, eg. entry <i>t<sub>i<sub>0</sub>i<sub>1</sub> ...
@@ -59,40 +52,12 @@ public interface TinyTablesStorage extends Serializable {
 	public TinyTable getTinyTable(int id);
 
 	/**
-	 * Store a boolean for the protocol with the given ID. Can be used by a
-	 * player to store a mask that he has picked during preprocessing.
+	 * Returns the share of the mask a player picked for the protocol with the
+	 * given ID during preprocessing.
 	 * 
 	 * @param id
-	 * @param r
+	 * @return
 	 */
-	public void storeMaskShare(int id, boolean r);
-
 	public boolean getMaskShare(int id);
 
-	/**
-	 * The receiver of the OT protocol to be performed for the protocol with the
-	 * given ID can store his sigma's. The OT-protocols will be executed when
-	 * the evaluation of the prepro-protocol is finished, and the results is
-	 * used to create the TinyTables for the AND protocols.
-	 * 
-	 * @param id
-	 * @param sigmas
-	 */
-	public void storeOTSigma(int id, OTSigma[] sigmas);
-
-	public SortedMap<Integer, OTSigma[]> getOTSigmas();
-
-	/**
-	 * The sender of the OT protocols to be performed can store his inputs. The
-	 * OT-protocols will be executed when the evaluation of the prepro-protocol
-	 * is finished, and the results is used to create the TinyTables for the AND
-	 * protocols.
-	 * 
-	 * @param id
-	 * @param inputs
-	 */
-	public void storeOTInput(int id, OTInput[] inputs);
-
-	public SortedMap<Integer, OTInput[]> getOTInputs();
-
-}
\ No newline at end of file
+}
@@ -28,13 +28,13 @@ package dk.alexandra.fresco.suite.tinytables.storage;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-
-import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
-import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
 
+/**
+ * A {@link TinyTablesStorage} holding all values in memory. The preprocessing
+ * used to serialize the whole storage, so this is what files in the old format
+ * are loaded as.
+ */
 public class TinyTablesStorageImpl implements TinyTablesStorage {
 
 	/**
@@ -44,19 +44,6 @@ public class TinyTablesStorageImpl implements TinyTablesStorage {
 	private Map<Integer, TinyTable> tinyTables = new ConcurrentHashMap<>();
 	private Map<Integer, Boolean> maskShares = new ConcurrentHashMap<>();
 
-	/*
-	 * sigmas, otInputs and tmps are only used during preprocessing, and should
-	 * not be serialized.
-	 * 
-	 * We use SortedMap's because the keys are sorted according to the natural
-	 * ordering.
-	 * 
-	 * We use ConcurrentSkipListMaps and ConcurrentHashMap because they are
-	 * thread safe.
-	 */
-	private transient SortedMap<Integer, OTSigma[]> sigmas = new ConcurrentSkipListMap<>();
-	private transient SortedMap<Integer, OTInput[]> otInputs = new ConcurrentSkipListMap<>();
-
 	public static Map<Integer, TinyTablesStorage> instances = new HashMap<>();
 
 	public static TinyTablesStorage getInstance(int id) {
@@ -80,12 +67,10 @@ public class TinyTablesStorageImpl implements TinyTablesStorage {
 		return tinyTables.get(id);
 	}
 
-	@Override
 	public void storeTinyTable(int id, TinyTable table) {
 		tinyTables.put(id, table);
 	}
 
-	@Override
 	public void storeMaskShare(int id, boolean r) {
 		maskShares.put(id, r);
 	}
@@ -95,24 +80,4 @@ public class TinyTablesStorageImpl implements TinyTablesStorage {
 		return maskShares.get(id);
 	}
 
-	@Override
-	public void storeOTSigma(int id, OTSigma[] sigmas) {
-		this.sigmas.put(id, sigmas);
-	}
-
-	@Override
-	public void storeOTInput(int id, OTInput[] inputs) {
-		this.otInputs.put(id, inputs);
-	}
-
-	@Override
-	public SortedMap<Integer, OTSigma[]> getOTSigmas() {
-		return sigmas;
-	}
-
-	@Override
-	public SortedMap<Integer, OTInput[]> getOTInputs() {
-		return otInputs;
-	}
-
 }
@@ -0,0 +1,106 @@
+package dk.alexandra.fresco.suite.tinytables.util.ot.iknp;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
+
+/**
+ * Factory for the semi-honest OT extension of Ishai, Kilian, Nissim and
+ * Petrank, implemented in pure Java so it needs no native libraries.
+ * <p>
+ * The first time a sender or receiver is created, {@link IKNPUtil#KAPPA}
+ * base OTs are done with the given {@link JavaOTFactory} with the roles
+ * reversed. After that, any number of OTs can be done using only symmetric
+ * cryptography, and the seeds of the base OTs are reused for all later
+ * extensions. Each extension is given a number, and the two players must do
+ * their extensions in the same order.
+ * </p>
+ */
+public class IKNPOTFactory implements OTFactory {
+
+	private JavaOTFactory baseOTs;
+	private Network network;
+	private int otherId;
+	private String channel;
+	private SecureRandom random;
+
+	private long extensions = 0;
+
+	// Used when we are the sender in the extension
+	private byte[] delta;
+	private byte[][] seeds;
+
+	// Used when we are the receiver in the extension
+	private byte[][] seeds0;
+	private byte[][] seeds1;
+
+	public IKNPOTFactory(JavaOTFactory baseOTs, Network network, int myId) {
+		this(baseOTs, network, myId == 1 ? 2 : 1, "0");
+	}
+
+	/**
+	 * Creates a factory for OT extensions with the given party. The base OTs
+	 * must be done with the same party.
+	 * 
+	 * @param otherId
+	 *            the id of the party to do the OTs with.
+	 * @param channel
+	 *            the channel to use.
+	 */
+	public IKNPOTFactory(JavaOTFactory baseOTs, Network network, int otherId, String channel) {
+		this.baseOTs = baseOTs;
+		this.network = network;
+		this.otherId = otherId;
+		this.channel = channel;
+		this.random = new SecureRandom();
+	}
+
+	@Override
+	public IKNPOTSender createOTSender() {
+		if (seeds == null) {
+			delta = new byte[IKNPUtil.SEED_SIZE];
+			random.nextBytes(delta);
+			List<Boolean> choices = new ArrayList<Boolean>();
+			for (int i = 0; i < IKNPUtil.KAPPA; i++) {
+				choices.add(IKNPUtil.getBit(delta, i));
+			}
+			List<byte[]> received = baseOTs.createOTReceiver().receiveBytes(choices);
+			if (received == null) {
+				throw new MPCException("Base OTs for the OT extension failed");
+			}
+			seeds = received.toArray(new byte[IKNPUtil.KAPPA][]);
+		}
+		return new IKNPOTSender(this, network, otherId, channel, delta, seeds);
+	}
+
+	@Override
+	public IKNPOTReceiver createOTReceiver() {
+		if (seeds0 == null) {
+			seeds0 = new byte[IKNPUtil.KAPPA][IKNPUtil.SEED_SIZE];
+			seeds1 = new byte[IKNPUtil.KAPPA][IKNPUtil.SEED_SIZE];
+			ArrayList<byte[]> x0 = new ArrayList<byte[]>();
+			ArrayList<byte[]> x1 = new ArrayList<byte[]>();
+			for (int i = 0; i < IKNPUtil.KAPPA; i++) {
+				random.nextBytes(seeds0[i]);
+				random.nextBytes(seeds1[i]);
+				x0.add(seeds0[i]);
+				x1.add(seeds1[i]);
+			}
+			baseOTs.createOTSender().sendBytes(x0, x1);
+		}
+		return new IKNPOTReceiver(this, network, otherId, channel, seeds0, seeds1);
+	}
+
+	/**
+	 * @return the number of the next extension.
+	 */
+	long nextExtension() {
+		return extensions++;
+	}
+
+}
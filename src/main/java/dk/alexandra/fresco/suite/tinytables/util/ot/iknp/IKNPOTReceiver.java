@@ -0,0 +1,123 @@
+package dk.alexandra.fresco.suite.tinytables.util.ot.iknp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTReceiver;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
+
+/**
+ * The receiver in the IKNP OT extension. The receiver knows both seeds of each
+ * base OT, expands them to the columns of the matrix <i>T</i> and sends the
+ * correction which lets the sender compute <i>Q</i>. It can then unmask the
+ * message it chose using the hash of the <i>j</i>'th row of <i>T</i>.
+ */
+public class IKNPOTReceiver implements OTReceiver {
+
+	private IKNPOTFactory factory;
+	private Network network;
+	private int otherId;
+	private String channel;
+	private byte[][] seeds0;
+	private byte[][] seeds1;
+
+	IKNPOTReceiver(IKNPOTFactory factory, Network network, int otherId, String channel, byte[][] seeds0, byte[][] seeds1) {
+		this.factory = factory;
+		this.network = network;
+		this.otherId = otherId;
+		this.channel = channel;
+		this.seeds0 = seeds0;
+		this.seeds1 = seeds1;
+	}
+
+	@Override
+	public List<Boolean> receive(List<OTSigma> sigmas) {
+		int m = sigmas.size();
+		List<Boolean> results = new ArrayList<Boolean>(m);
+		if (m == 0) {
+			return results;
+		}
+		int bytes = (m + 7) / 8;
+		long extension = factory.nextExtension();
+
+		byte[] r = new byte[bytes];
+		for (int j = 0; j < m; j++) {
+			IKNPUtil.setBit(r, j, sigmas.get(j).getSigma());
+		}
+
+		try {
+			long[] rows = sendCorrection(r, m, extension);
+			byte[][] y = network.receive(channel, otherId);
+
+			MessageDigest H = IKNPUtil.getHashFunction();
+			ByteBuffer buffer = IKNPUtil.hashBuffer();
+			for (int j = 0; j < m; j++) {
+				boolean sigma = IKNPUtil.getBit(r, j);
+				boolean masked = IKNPUtil.getBit(sigma ? y[1] : y[0], j);
+				results.add(masked ^ IKNPUtil.hash(H, buffer, extension, j, rows[2 * j], rows[2 * j + 1]));
+			}
+		} catch (IOException e) {
+			throw new MPCException("OT extension failed", e);
+		}
+		return results;
+	}
+
+	/**
+	 * Does a batch of random OTs, see
+	 * {@link IKNPOTSender#sendRandom(int, int)}. Only the correction is sent
+	 * to the sender, so no answer has to be waited for.
+	 * 
+	 * @param choices
+	 *            the choice bits, bit <i>j</i> being bit <i>j</i> mod 8 of
+	 *            byte <i>j</i> / 8.
+	 * @param m
+	 *            the number of OTs.
+	 * @param length
+	 *            the length of each message in bytes.
+	 * @return the chosen messages, the <i>j</i>'th message starting at index
+	 *         <i>j * length</i>.
+	 */
+	public byte[] receiveRandom(byte[] choices, int m, int length) {
+		byte[] messages = new byte[m * length];
+		if (m == 0) {
+			return messages;
+		}
+		long extension = factory.nextExtension();
+		try {
+			long[] rows = sendCorrection(choices, m, extension);
+			MessageDigest H = IKNPUtil.getHashFunction();
+			ByteBuffer buffer = IKNPUtil.hashBuffer();
+			for (int j = 0; j < m; j++) {
+				IKNPUtil.hash(H, buffer, extension, j, rows[2 * j], rows[2 * j + 1], messages, j * length, length);
+			}
+		} catch (IOException e) {
+			throw new MPCException("OT extension failed", e);
+		}
+		return messages;
+	}
+
+	/**
+	 * Expands the seeds to the columns of <i>T</i>, sends the correction for
+	 * the given choice bits to the sender and computes the rows of <i>T</i>.
+	 */
+	private long[] sendCorrection(byte[] r, int m, long extension) throws IOException {
+		int bytes = (m + 7) / 8;
+		byte[][] t = new byte[IKNPUtil.KAPPA][];
+		byte[] u = new byte[IKNPUtil.KAPPA * bytes];
+		for (int i = 0; i < IKNPUtil.KAPPA; i++) {
+			t[i] = IKNPUtil.prg(seeds0[i], extension, bytes);
+			byte[] g = IKNPUtil.prg(seeds1[i], extension, bytes);
+			for (int b = 0; b < bytes; b++) {
+				u[i * bytes + b] = (byte) (t[i][b] ^ g[b] ^ r[b]);
+			}
+		}
+		network.send(channel, otherId, u);
+		return IKNPUtil.transpose(t, m);
+	}
+
+}
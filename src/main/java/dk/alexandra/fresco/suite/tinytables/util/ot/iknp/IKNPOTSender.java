@@ -0,0 +1,126 @@
+package dk.alexandra.fresco.suite.tinytables.util.ot.iknp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTSender;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
+
+/**
+ * The sender in the IKNP OT extension. The sender knows one seed of each base
+ * OT, chosen by the bits of delta, and from the receivers message it learns
+ * the matrix <i>Q</i> whose <i>j</i>'th row is either <i>T<sub>j</sub></i> or
+ * <i>T<sub>j</sub></i> + delta depending on the receivers choice. The two
+ * messages are masked with the hash of these two values.
+ */
+public class IKNPOTSender implements OTSender {
+
+	private IKNPOTFactory factory;
+	private Network network;
+	private int otherId;
+	private String channel;
+	private byte[] delta;
+	private byte[][] seeds;
+
+	IKNPOTSender(IKNPOTFactory factory, Network network, int otherId, String channel, byte[] delta, byte[][] seeds) {
+		this.factory = factory;
+		this.network = network;
+		this.otherId = otherId;
+		this.channel = channel;
+		this.delta = delta;
+		this.seeds = seeds;
+	}
+
+	@Override
+	public void send(List<OTInput> inputs) {
+		int m = inputs.size();
+		if (m == 0) {
+			return;
+		}
+		int bytes = (m + 7) / 8;
+		long extension = factory.nextExtension();
+
+		try {
+			long[] rows = receiveRows(m, extension);
+			long[] d = IKNPUtil.toRow(delta);
+
+			MessageDigest H = IKNPUtil.getHashFunction();
+			ByteBuffer buffer = IKNPUtil.hashBuffer();
+			byte[] y0 = new byte[bytes];
+			byte[] y1 = new byte[bytes];
+			for (int j = 0; j < m; j++) {
+				long q0 = rows[2 * j];
+				long q1 = rows[2 * j + 1];
+				OTInput input = inputs.get(j);
+				IKNPUtil.setBit(y0, j, input.getX0() ^ IKNPUtil.hash(H, buffer, extension, j, q0, q1));
+				IKNPUtil.setBit(y1, j,
+						input.getX1() ^ IKNPUtil.hash(H, buffer, extension, j, q0 ^ d[0], q1 ^ d[1]));
+			}
+			network.send(channel, otherId, new byte[][] { y0, y1 });
+		} catch (IOException e) {
+			throw new MPCException("OT extension failed", e);
+		}
+	}
+
+	/**
+	 * Does a batch of random OTs, where no messages are sent. Instead the two
+	 * messages of the <i>j</i>'th OT are the hashes of the <i>j</i>'th row of
+	 * <i>Q</i> and of that row plus delta, and the receiver learns one of them
+	 * using {@link IKNPOTReceiver#receiveRandom(byte[], int, int)}. The
+	 * messages can then be used as keys to mask the actual messages, which is
+	 * cheaper when these are long.
+	 * 
+	 * @param m
+	 *            the number of OTs.
+	 * @param length
+	 *            the length of each message in bytes.
+	 * @return the messages for choice 0 and 1, the <i>j</i>'th message
+	 *         starting at index <i>j * length</i> of each array.
+	 */
+	public byte[][] sendRandom(int m, int length) {
+		byte[][] messages = new byte[2][m * length];
+		if (m == 0) {
+			return messages;
+		}
+		long extension = factory.nextExtension();
+		try {
+			long[] rows = receiveRows(m, extension);
+			long[] d = IKNPUtil.toRow(delta);
+			MessageDigest H = IKNPUtil.getHashFunction();
+			ByteBuffer buffer = IKNPUtil.hashBuffer();
+			for (int j = 0; j < m; j++) {
+				long q0 = rows[2 * j];
+				long q1 = rows[2 * j + 1];
+				IKNPUtil.hash(H, buffer, extension, j, q0, q1, messages[0], j * length, length);
+				IKNPUtil.hash(H, buffer, extension, j, q0 ^ d[0], q1 ^ d[1], messages[1], j * length, length);
+			}
+		} catch (IOException e) {
+			throw new MPCException("OT extension failed", e);
+		}
+		return messages;
+	}
+
+	/**
+	 * Receives the correction from the receiver and computes the rows of
+	 * <i>Q</i>.
+	 */
+	private long[] receiveRows(int m, long extension) throws IOException {
+		int bytes = (m + 7) / 8;
+		byte[] u = network.receive(channel, otherId);
+		byte[][] q = new byte[IKNPUtil.KAPPA][];
+		for (int i = 0; i < IKNPUtil.KAPPA; i++) {
+			q[i] = IKNPUtil.prg(seeds[i], extension, bytes);
+			if (IKNPUtil.getBit(delta, i)) {
+				for (int b = 0; b < bytes; b++) {
+					q[i][b] ^= u[i * bytes + b];
+				}
+			}
+		}
+		return IKNPUtil.transpose(q, m);
+	}
+
+}
@@ -0,0 +1,130 @@
+package dk.alexandra.fresco.suite.tinytables.util.ot.iknp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+/**
+ * The primitives shared by the sender and the receiver of the IKNP OT
+ * extension: a PRG expanding the seeds of the base OTs, a correlation robust
+ * hash function and the transposition of the OT extension matrix.
+ *
+ * Bit vectors are stored in byte arrays with bit <i>j</i> being bit
+ * <i>j</i> mod 8 of byte <i>j</i> / 8.
+ */
+class IKNPUtil {
+
+	/**
+	 * The computational security parameter, i.e. the number of base OTs.
+	 */
+	static final int KAPPA = 128;
+
+	static final int SEED_SIZE = KAPPA / 8;
+
+	/**
+	 * Expands a seed to the given number of bytes using AES in counter mode.
+	 * The same seed is used for all extensions, so the number of the
+	 * extension is used as the initial counter to get fresh bits each time.
+	 */
+	static byte[] prg(byte[] seed, long extension, int bytes) {
+		try {
+			Cipher aes = Cipher.getInstance("AES/CTR/NoPadding");
+			byte[] iv = ByteBuffer.allocate(16).putLong(extension).array();
+			aes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(seed, "AES"), new IvParameterSpec(iv));
+			return aes.doFinal(new byte[bytes]);
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("AES is not available", e);
+		}
+	}
+
+	static MessageDigest getHashFunction() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * The correlation robust hash of the <i>j</i>'th row of the OT extension
+	 * matrix. The extension and row numbers are included so no two OTs use
+	 * the same hash function.
+	 *
+	 * @return a single bit of the hash.
+	 */
+	static boolean hash(MessageDigest H, ByteBuffer buffer, long extension, int j, long row0, long row1) {
+		buffer.clear();
+		buffer.putLong(extension).putInt(j).putLong(row0).putLong(row1);
+		H.update(buffer.array(), 0, buffer.position());
+		return (H.digest()[0] & 1) != 0;
+	}
+
+	/**
+	 * Hashes the <i>j</i>'th row of the OT extension matrix to the given
+	 * number of bytes using the hash function in counter mode.
+	 */
+	static void hash(MessageDigest H, ByteBuffer buffer, long extension, int j, long row0, long row1, byte[] out,
+			int offset, int length) {
+		for (int counter = 0; length > 0; counter++) {
+			buffer.clear();
+			buffer.putLong(extension).putInt(j).putLong(row0).putLong(row1).putInt(counter);
+			H.update(buffer.array(), 0, buffer.position());
+			byte[] digest = H.digest();
+			int n = Math.min(length, digest.length);
+			System.arraycopy(digest, 0, out, offset, n);
+			offset += n;
+			length -= n;
+		}
+	}
+
+	static ByteBuffer hashBuffer() {
+		return ByteBuffer.allocate(32);
+	}
+
+	/**
+	 * Transposes the <i>KAPPA x m</i> bit matrix with the given columns into
+	 * <i>m</i> rows of <i>KAPPA</i> bits, row <i>j</i> being stored in
+	 * <code>rows[2j]</code> and <code>rows[2j + 1]</code>.
+	 */
+	static long[] transpose(byte[][] columns, int m) {
+		long[] rows = new long[2 * m];
+		for (int i = 0; i < KAPPA; i++) {
+			byte[] column = columns[i];
+			int word = i >>> 6;
+			long bit = 1L << i;
+			for (int j = 0; j < m; j++) {
+				if (((column[j >>> 3] >>> (j & 7)) & 1) != 0) {
+					rows[2 * j + word] |= bit;
+				}
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * @return the given {@link #KAPPA} bits as a row in the format used by
+	 *         {@link #transpose(byte[][], int)}.
+	 */
+	static long[] toRow(byte[] bits) {
+		ByteBuffer buffer = ByteBuffer.wrap(bits).order(ByteOrder.LITTLE_ENDIAN);
+		return new long[] { buffer.getLong(0), buffer.getLong(8) };
+	}
+
+	static boolean getBit(byte[] bits, int j) {
+		return ((bits[j >>> 3] >>> (j & 7)) & 1) != 0;
+	}
+
+	static void setBit(byte[] bits, int j, boolean bit) {
+		if (bit) {
+			bits[j >>> 3] |= 1 << (j & 7);
+		}
+	}
+
+}
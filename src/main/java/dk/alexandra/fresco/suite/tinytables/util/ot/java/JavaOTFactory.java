@@ -2,28 +2,40 @@ package dk.alexandra.fresco.suite.tinytables.util.ot.java;
 
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.suite.tinytables.util.ot.OTFactory;
-import dk.alexandra.fresco.suite.tinytables.util.ot.OTReceiver;
-import dk.alexandra.fresco.suite.tinytables.util.ot.OTSender;
 
 public class JavaOTFactory implements OTFactory {
 
 	private Network network;
-	private int myId;
+	private int otherId;
+	private String channel;
 
 	public JavaOTFactory(Network network, int myId) {
+		this(network, myId == 1 ? 2 : 1, "0");
+	}
+
+	/**
+	 * Creates a factory for OTs with the given party, so that OTs can be done
+	 * between any two of more than two parties.
+	 * 
+	 * @param otherId
+	 *            the id of the party to do the OTs with.
+	 * @param channel
+	 *            the channel to use.
+	 */
+	public JavaOTFactory(Network network, int otherId, String channel) {
 		this.network = network;
-		this.myId = myId;
+		this.otherId = otherId;
+		this.channel = channel;
 	}
 	
 	@Override
-	public OTSender createOTSender() {
-		return new JavaOTSender(network, myId);
+	public JavaOTSender createOTSender() {
+		return new JavaOTSender(network, otherId, channel);
 	}
 
 	@Override
-	public OTReceiver createOTReceiver() {
-		// TODO Auto-generated method stub
-		return new JavaOTReceiver(network, myId);
+	public JavaOTReceiver createOTReceiver() {
+		return new JavaOTReceiver(network, otherId, channel);
 	}
 
 }
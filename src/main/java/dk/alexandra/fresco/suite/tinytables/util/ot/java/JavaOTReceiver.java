@@ -21,15 +21,51 @@ import edu.biu.scapi.tools.Factories.KdfFactory;
 public class JavaOTReceiver implements OTReceiver {
 
 	private Network network;
-	private int myId;
+	private int otherId;
+	private String channel;
 
 	public JavaOTReceiver(Network network, int myId) {
+		this(network, myId == 1 ? 2 : 1, "0");
+	}
+
+	/**
+	 * @param otherId
+	 *            the id of the party to do the OTs with.
+	 * @param channel
+	 *            the channel to use.
+	 */
+	public JavaOTReceiver(Network network, int otherId, String channel) {
 		this.network = network;
-		this.myId = myId;
+		this.otherId = otherId;
+		this.channel = channel;
 	}
 	
 	@Override
 	public List<Boolean> receive(List<OTSigma> sigmas) {
+		List<Boolean> choices = new ArrayList<Boolean>();
+		for (OTSigma sigma : sigmas) {
+			choices.add(sigma.getSigma());
+		}
+		List<byte[]> outputs = receiveBytes(choices);
+		if (outputs == null) {
+			return null;
+		}
+		List<Boolean> results = new ArrayList<Boolean>();
+		for (byte[] output : outputs) {
+			results.add(Encoding.decodeBoolean(output[0]));
+		}
+		return results;
+	}
+
+	/**
+	 * Does a batch of oblivious transfers of byte arrays, e.g. the seeds for
+	 * an OT extension. See also {@link JavaOTSender#sendBytes(ArrayList, ArrayList)}.
+	 * 
+	 * @param choices
+	 *            the messages to pick.
+	 * @return the picked messages.
+	 */
+	public List<byte[]> receiveBytes(List<Boolean> choices) {
 		
 		OTSemiHonestDDHBatchOnByteArrayReceiver receiver;
 		try {
@@ -41,8 +77,8 @@ public class JavaOTReceiver implements OTReceiver {
 		}
 
 		ArrayList<Byte> s = new ArrayList<Byte>();
-		for (OTSigma sigma : sigmas) {
-			s.add(Encoding.encodeBoolean(sigma.getSigma()));
+		for (boolean choice : choices) {
+			s.add(Encoding.encodeBoolean(choice));
 		}
 		OTBatchRBasicInput input = new OTBatchRBasicInput(s);
 		
@@ -61,22 +97,17 @@ public class JavaOTReceiver implements OTReceiver {
 
 				@Override
 				public Serializable receive() throws ClassNotFoundException, IOException {
-					return network.receive("0", otherPlayerId());
+					return network.receive(channel, otherId);
 				}
 
 				@Override
 				public void send(Serializable arg0) throws IOException {
-					network.send("0", otherPlayerId(), arg0);
+					network.send(channel, otherId, arg0);
 				}
 				
 			}, input);
 			
-			List<Boolean> results = new ArrayList<Boolean>();
-			for (int i = 0; i < sigmas.size(); i++) {
-				results.add(Encoding.decodeBoolean(output.getXSigmaArr().get(i)[0]));
-			}
-			
-			return results;
+			return output.getXSigmaArr();
 		} catch (ClassNotFoundException | IOException e) {
 			// Do nothing
 		}
@@ -84,8 +115,4 @@ public class JavaOTReceiver implements OTReceiver {
 		return null;
 	}
 	
-	private int otherPlayerId() {
-		return myId == 1 ? 2 : 1;
-	}
-
 }
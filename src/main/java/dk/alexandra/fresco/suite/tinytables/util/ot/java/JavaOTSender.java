@@ -20,11 +20,23 @@ import edu.biu.scapi.tools.Factories.KdfFactory;
 public class JavaOTSender implements OTSender {
 
 	private Network network;
-	private int myId;
+	private int otherId;
+	private String channel;
 
 	public JavaOTSender(Network network, int myId) {
+		this(network, myId == 1 ? 2 : 1, "0");
+	}
+
+	/**
+	 * @param otherId
+	 *            the id of the party to do the OTs with.
+	 * @param channel
+	 *            the channel to use.
+	 */
+	public JavaOTSender(Network network, int otherId, String channel) {
 		this.network = network;
-		this.myId = myId;
+		this.otherId = otherId;
+		this.channel = channel;
 	}
 	
 	@Override
@@ -36,6 +48,20 @@ public class JavaOTSender implements OTSender {
 			x0.add(new byte[] {Encoding.encodeBoolean(input.getX0())});
 			x1.add(new byte[] {Encoding.encodeBoolean(input.getX1())});
 		}
+		sendBytes(x0, x1);
+	}
+
+	/**
+	 * Does a batch of oblivious transfers of byte arrays, e.g. the seeds for
+	 * an OT extension. The i'th arrays in the two lists must have the same
+	 * length.
+	 * 
+	 * @param x0
+	 *            the messages sent if the receiver picks 0.
+	 * @param x1
+	 *            the messages sent if the receiver picks 1.
+	 */
+	public void sendBytes(ArrayList<byte[]> x0, ArrayList<byte[]> x1) {
 		OTBatchOnByteArraySInput otsInputs = new OTBatchOnByteArraySInput(x0, x1);
 		OTSemiHonestDDHBatchOnByteArraySender sender;
 		try {
@@ -60,12 +86,12 @@ public class JavaOTSender implements OTSender {
 
 				@Override
 				public Serializable receive() throws ClassNotFoundException, IOException {
-					return network.receive("0", otherPlayerId());
+					return network.receive(channel, otherId);
 				}
 
 				@Override
 				public void send(Serializable otInputs) throws IOException {
-					network.send("0", otherPlayerId(), otInputs);
+					network.send(channel, otherId, otInputs);
 				}
 				
 			}, otsInputs);
@@ -75,9 +101,5 @@ public class JavaOTSender implements OTSender {
 		
 	}
 
-	private int otherPlayerId() {
-		return myId == 1 ? 2 : 1;
-	}
-
 	
 }
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+public class TestMessageBatchSerializer {
+
+	private static final class Point implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final int x;
+		private final int y;
+
+		private Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	private static final MessageEncoder<Point> POINT_ENCODER = new MessageEncoder<Point>() {
+
+		@Override
+		public Class<Point> getType() {
+			return Point.class;
+		}
+
+		@Override
+		public void write(DataOutput out, Point message) throws IOException {
+			out.writeByte(message.x);
+			out.writeByte(message.y);
+		}
+
+		@Override
+		public Point read(DataInput in) throws IOException {
+			return new Point(in.readByte(), in.readByte());
+		}
+	};
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Queue<Serializable> first = new LinkedBlockingQueue<Serializable>();
+		first.offer(new BigInteger("123456789012345678901234567890"));
+		first.offer(new BigInteger[] { BigInteger.ONE, BigInteger.valueOf(-42) });
+		first.offer(true);
+		first.offer(false);
+		Queue<Serializable> second = new LinkedBlockingQueue<Serializable>();
+		second.offer(new Point(3, -7));
+		second.offer(new byte[] { 1, 2, 3 });
+		second.offer(17);
+		second.offer(new long[] { Long.MIN_VALUE, 0, 2305843009213693950L });
+		second.offer("fallback");
+
+		MessageEncoders encoders = new MessageEncoders();
+		encoders.register(MessageEncoders.MAX_TAG, POINT_ENCODER);
+		MessageBatchSerializer serializer = new MessageBatchSerializer(encoders);
+		assertTrue(serializer.isEmpty());
+		serializer.append(first);
+		serializer.append(new LinkedBlockingQueue<Serializable>());
+		serializer.append(second);
+		MessageBatchSerializer.BatchReader in = serializer.open(serializer.toByteArray());
+
+		Queue<Serializable> readFirst = in.readMessages();
+		assertEquals(4, readFirst.size());
+		assertEquals(new BigInteger("123456789012345678901234567890"), readFirst.poll());
+		assertArrayEquals(new BigInteger[] { BigInteger.ONE, BigInteger.valueOf(-42) },
+				(BigInteger[]) readFirst.poll());
+		assertEquals(true, readFirst.poll());
+		assertEquals(false, readFirst.poll());
+
+		assertTrue(in.readMessages().isEmpty());
+
+		Queue<Serializable> readSecond = in.readMessages();
+		assertEquals(5, readSecond.size());
+		Point readPoint = (Point) readSecond.poll();
+		assertEquals(3, readPoint.x);
+		assertEquals(-7, readPoint.y);
+		assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) readSecond.poll());
+		assertEquals(17, readSecond.poll());
+		assertArrayEquals(new long[] { Long.MIN_VALUE, 0, 2305843009213693950L }, (long[]) readSecond.poll());
+		assertEquals("fallback", readSecond.poll());
+		assertNull(readSecond.poll());
+	}
+
+	@Test
+	public void testRegisteredEncoderIsUsed() throws Exception {
+		MessageEncoders encoders = new MessageEncoders();
+		encoders.register(MessageEncoders.MAX_TAG, POINT_ENCODER);
+		MessageBatchSerializer serializer = new MessageBatchSerializer(encoders);
+		Queue<Serializable> messages = new LinkedBlockingQueue<Serializable>();
+		messages.offer(new Point(1, 2));
+		serializer.append(messages);
+		// Header, tag and the two coordinates.
+		assertEquals(4, serializer.toByteArray().length);
+	}
+
+	@Test
+	public void testEncodersAreNotShared() throws Exception {
+		MessageEncoders encoders = new MessageEncoders();
+		encoders.register(MessageEncoders.MAX_TAG, POINT_ENCODER);
+		// The encoders of one serializer do not leak into another.
+		MessageBatchSerializer serializer = new MessageBatchSerializer(new MessageEncoders());
+		Queue<Serializable> messages = new LinkedBlockingQueue<Serializable>();
+		messages.offer(new Point(1, 2));
+		serializer.append(messages);
+		byte[] batch = serializer.toByteArray();
+		assertTrue(batch.length > 4);
+		Point read = (Point) serializer.open(batch).readMessages().poll();
+		assertEquals(1, read.x);
+		assertEquals(2, read.y);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEncoderTagCannotBeReused() throws Exception {
+		MessageEncoders encoders = new MessageEncoders();
+		encoders.register(MessageEncoders.MAX_TAG, POINT_ENCODER);
+		encoders.register(MessageEncoders.MAX_TAG, new MessageEncoder<String>() {
+
+			@Override
+			public Class<String> getType() {
+				return String.class;
+			}
+
+			@Override
+			public void write(DataOutput out, String message) throws IOException {
+				out.writeUTF(message);
+			}
+
+			@Override
+			public String read(DataInput in) throws IOException {
+				return in.readUTF();
+			}
+		});
+	}
+
+	@Test(expected = MPCException.class)
+	public void testNullMessageIsRejected() throws Exception {
+		Queue<Serializable> messages = new LinkedList<Serializable>();
+		messages.offer(BigInteger.ONE);
+		messages.offer(null);
+		new MessageBatchSerializer().append(messages);
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		MessageBatchSerializer serializer = new MessageBatchSerializer();
+		Queue<Serializable> messages = new LinkedBlockingQueue<Serializable>();
+		messages.offer(BigInteger.TEN);
+		serializer.append(messages);
+		serializer.reset();
+		assertTrue(serializer.isEmpty());
+		serializer.append(messages);
+		byte[] batch = serializer.toByteArray();
+		// Header, type, length and the value itself.
+		assertEquals(4, batch.length);
+		assertEquals(BigInteger.TEN, serializer.open(batch).readMessages().poll());
+	}
+
+	@Test
+	public void testPackedBits() throws Exception {
+		MessageBatchSerializer serializer = new MessageBatchSerializer();
+		boolean[] bits = new boolean[1000];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = i % 3 == 0 || i % 7 == 0;
+			Queue<Serializable> messages = new LinkedBlockingQueue<Serializable>();
+			messages.offer(bits[i]);
+			serializer.append(messages);
+			if (i == 500) {
+				// Interrupts the run of bits.
+				Queue<Serializable> other = new LinkedBlockingQueue<Serializable>();
+				other.offer(true);
+				other.offer(17);
+				serializer.append(other);
+			}
+		}
+		assertTrue(!serializer.isEmpty());
+		byte[] batch = serializer.toByteArray();
+		// Two runs of packed bits and one protocol with tagged messages.
+		assertEquals(2 + 63 + 1 + 1 + 5 + 2 + 63, batch.length);
+
+		MessageBatchSerializer.BatchReader in = serializer.open(batch);
+		for (int i = 0; i < bits.length; i++) {
+			Queue<Serializable> read = in.readMessages();
+			assertEquals(1, read.size());
+			assertEquals(bits[i], read.poll());
+			if (i == 500) {
+				Queue<Serializable> other = in.readMessages();
+				assertEquals(true, other.poll());
+				assertEquals(17, other.poll());
+			}
+		}
+	}
+}
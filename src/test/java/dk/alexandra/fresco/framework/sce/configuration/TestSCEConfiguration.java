@@ -33,6 +33,7 @@ import java.util.logging.Level;
 import dk.alexandra.fresco.framework.Party;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.NetworkingStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 import dk.alexandra.fresco.suite.ProtocolSuite;
@@ -47,6 +48,7 @@ public class TestSCEConfiguration implements SCEConfiguration {
 	private int noOfVmThreads;
 	private ProtocolEvaluator evaluator;
 	private int maxBatchSize;
+	private NetworkingStrategy network;
 	
 	public TestSCEConfiguration(ProtocolSuite suite, ProtocolEvaluator evaluator,
 			int noOfThreads, int noOfvmThreads, NetworkConfiguration conf, Storage storage, boolean useSecureConn) {
@@ -55,6 +57,11 @@ public class TestSCEConfiguration implements SCEConfiguration {
 	}
 	public TestSCEConfiguration(ProtocolSuite suite, ProtocolEvaluator evaluator,
 			int noOfThreads, int noOfvmThreads, NetworkConfiguration conf, Storage storage, boolean useSecureConn, int maxBatchSize) {
+		this(suite, evaluator, noOfThreads, noOfvmThreads, conf, storage, useSecureConn, maxBatchSize, NetworkingStrategy.SCAPI);
+	}
+	public TestSCEConfiguration(ProtocolSuite suite, ProtocolEvaluator evaluator,
+			int noOfThreads, int noOfvmThreads, NetworkConfiguration conf, Storage storage, boolean useSecureConn, int maxBatchSize,
+			NetworkingStrategy network) {
 		this.protocolSuite = ProtocolSuite.protocolSuiteToString(suite);
 		this.storage = storage;
 		this.evaluator = evaluator;
@@ -73,6 +80,7 @@ public class TestSCEConfiguration implements SCEConfiguration {
 			}
 		}
 		this.maxBatchSize = maxBatchSize;
+		this.network = network;
 	}
 
 	@Override
@@ -128,4 +136,9 @@ public class TestSCEConfiguration implements SCEConfiguration {
 		}
 	}
 
+	@Override
+	public NetworkingStrategy getNetworkStrategy() {
+		return this.network;
+	}
+
 }
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.logging.Level;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.DummyAndProtocol;
+import dk.alexandra.fresco.suite.dummy.DummyCloseBoolProtocol;
+import dk.alexandra.fresco.suite.dummy.DummyFactory;
+import dk.alexandra.fresco.suite.dummy.DummyOpenBoolProtocol;
+import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzInputProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllProtocol;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzFactory;
+
+public class TestProtocolProfiler {
+
+	@BeforeClass
+	public static void initReporter() {
+		Reporter.init(Level.INFO);
+	}
+
+	/**
+	 * Both parties input a bit, the bits are AND'ed and the result is opened.
+	 */
+	private static class AndSetup implements ProtocolProfiler.PartySetup {
+
+		private final OBool[] outputs = new OBool[2];
+
+		@Override
+		public ProtocolProducer prepare(ResourcePool rp) {
+			DummyFactory factory = new DummyFactory();
+			OBool in1 = rp.getMyId() == 1 ? factory.getKnownConstantOBool(true) : factory.getOBool();
+			OBool in2 = rp.getMyId() == 2 ? factory.getKnownConstantOBool(true) : factory.getOBool();
+			SBool a = factory.getSBool();
+			SBool b = factory.getSBool();
+			SBool c = factory.getSBool();
+			OBool out = factory.getOBool();
+			outputs[rp.getMyId() - 1] = out;
+			return new SequentialProtocolProducer(
+					new ParallelProtocolProducer(factory.getCloseProtocol(1, in1, a), factory.getCloseProtocol(2, in2, b)),
+					factory.getAndProtocol(a, b, c), factory.getOpenProtocol(c, out));
+		}
+	}
+
+	@Test
+	public void testProfile() throws Exception {
+		AndSetup setup = new AndSetup();
+		ProtocolProfile[] profiles = new ProtocolProfiler(2).profile(setup);
+		assertEquals(2, profiles.length);
+		for (int i = 0; i < 2; i++) {
+			assertTrue(setup.outputs[i].getValue());
+			ProtocolProfile profile = profiles[i];
+			assertEquals(i + 1, profile.getMyId());
+			assertEquals(3, profile.getBatches());
+			assertEquals(0, profile.getFullBatches());
+			// Two rounds for the closings, one for the AND and one for the opening.
+			assertEquals(4, profile.getRounds().size());
+			assertEquals(1, profile.getCommunicationRounds());
+			assertEquals(1, profile.getCriticalPathDepth());
+			assertEquals(4, profile.getTotalProtocols());
+			assertEquals(Long.valueOf(2),
+					profile.getProtocolsPerClass().get(DummyCloseBoolProtocol.class.getName()));
+			assertEquals(Long.valueOf(1), profile.getProtocolsPerClass().get(DummyAndProtocol.class.getName()));
+			assertEquals(Long.valueOf(1), profile.getProtocolsPerClass().get(DummyOpenBoolProtocol.class.getName()));
+			// One batched message holding one bit to the other party.
+			assertEquals(1, profile.getRounds().get(0).getMessages());
+			assertEquals(2, profile.getBytesSentTo(2 - i));
+			assertEquals(0, profile.getBytesSentTo(i + 1));
+		}
+		String csv = profiles[0].toCsv();
+		assertTrue(csv.startsWith("batch,round,protocols,communicating,messages,bytes\n0,0,2,2,1,2\n"));
+		String json = profiles[0].toJson();
+		assertTrue(json.contains("\"criticalPathDepth\": 1"));
+		assertTrue(json.contains("\"bytesSentTo\": {\"2\": 2}"));
+	}
+
+	@Test
+	public void testSmallBatches() throws Exception {
+		ProtocolProfiler profiler = new ProtocolProfiler(2);
+		// Native protocols leave the last slot of a batch empty, so only one
+		// protocol fits in each batch.
+		profiler.setMaxBatchSize(2);
+		ProtocolProfile profile = profiler.profile(new AndSetup())[0];
+		// The closings no longer fit in one batch.
+		assertEquals(4, profile.getBatches());
+		assertEquals(4, profile.getFullBatches());
+		assertEquals(2, profile.getCommunicationRounds());
+		assertEquals(2, profile.getCriticalPathDepth());
+	}
+
+	/**
+	 * Both parties input an integer, the integers are multiplied and the
+	 * result is opened using SPDZ with dummy data.
+	 */
+	private static class SpdzMultSetup implements ProtocolProfiler.PartySetup, ProtocolProfiler.SuiteSetup {
+
+		private final OInt[] outputs = new OInt[2];
+
+		@Override
+		public ProtocolSuite getProtocolSuite(int myId) {
+			return SpdzProtocolSuite.getInstance(myId);
+		}
+
+		@Override
+		public ProtocolSuiteConfiguration getConfiguration(int myId) {
+			return new SpdzConfiguration() {
+
+				@Override
+				public int getMaxBitLength() {
+					return 150;
+				}
+
+				@Override
+				public String getTriplePath() {
+					return null;
+				}
+
+				@Override
+				public boolean useDummyData() {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		public ProtocolProducer prepare(ResourcePool rp) {
+			SpdzFactory factory = new SpdzFactory(SpdzProtocolSuite.getInstance(rp.getMyId()).getStore(0),
+					rp.getMyId(), 150);
+			OInt in1 = rp.getMyId() == 1 ? factory.getOInt(BigInteger.valueOf(5)) : factory.getOInt();
+			OInt in2 = rp.getMyId() == 2 ? factory.getOInt(BigInteger.valueOf(7)) : factory.getOInt();
+			SInt a = factory.getSInt();
+			SInt b = factory.getSInt();
+			SInt c = factory.getSInt();
+			OInt out = factory.getOInt();
+			outputs[rp.getMyId() - 1] = out;
+			return new SequentialProtocolProducer(
+					new ParallelProtocolProducer(factory.getCloseProtocol(1, in1, a), factory.getCloseProtocol(2, in2, b)),
+					factory.getMultProtocol(a, b, c), factory.getOpenProtocol(c, out));
+		}
+	}
+
+	@Test
+	public void testProfileSpdz() throws Exception {
+		SpdzMultSetup setup = new SpdzMultSetup();
+		ProtocolProfile[] profiles = new ProtocolProfiler(2).profile(setup, setup);
+		for (int i = 0; i < 2; i++) {
+			assertEquals(BigInteger.valueOf(35), setup.outputs[i].getValue());
+			ProtocolProfile profile = profiles[i];
+			assertEquals(4, profile.getTotalProtocols());
+			assertEquals(Long.valueOf(2), profile.getProtocolsPerClass().get(SpdzInputProtocol.class.getName()));
+			assertEquals(Long.valueOf(1), profile.getProtocolsPerClass().get(SpdzMultProtocol.class.getName()));
+			assertEquals(Long.valueOf(1),
+					profile.getProtocolsPerClass().get(SpdzOutputToAllProtocol.class.getName()));
+			assertTrue(profile.getBytesSentTo(2 - i) > 0);
+		}
+	}
+}
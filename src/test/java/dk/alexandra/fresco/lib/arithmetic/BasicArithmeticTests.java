@@ -28,6 +28,8 @@ package dk.alexandra.fresco.lib.arithmetic;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.junit.Assert;
 
@@ -44,7 +46,10 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.compare.ComparisonProtocolFactory;
 import dk.alexandra.fresco.lib.compare.ComparisonProtocolFactoryImpl;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.lib.field.integer.VectorProtocolFactory;
 import dk.alexandra.fresco.lib.helper.CopyProtocolImpl;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 import dk.alexandra.fresco.lib.helper.builder.NumericIOBuilder;
 import dk.alexandra.fresco.lib.helper.builder.NumericProtocolBuilder;
 import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
@@ -53,6 +58,7 @@ import dk.alexandra.fresco.lib.math.integer.exp.ExpFromOIntFactory;
 import dk.alexandra.fresco.lib.math.integer.exp.ExponentiationPipeFactory;
 import dk.alexandra.fresco.lib.math.integer.exp.PreprocessedExpPipeFactory;
 import dk.alexandra.fresco.lib.math.integer.inv.LocalInversionFactory;
+import dk.alexandra.fresco.lib.math.integer.linalg.InnerProductFactoryImpl;
 import dk.alexandra.fresco.lib.math.integer.min.MinInfFracProtocol;
 
 
@@ -286,6 +292,57 @@ public class BasicArithmeticTests {
 		}
 	};
 	
+	public static class TestBulkInput extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final BigInteger[] a = new BigInteger[1000];
+					final BigInteger[] b = new BigInteger[1000];
+					for (int i = 0; i < a.length; i++) {
+						a[i] = BigInteger.valueOf(i);
+						b[i] = BigInteger.valueOf(3 * i + 7);
+					}
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -5094113265640371258L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory factory) {
+							BasicNumericFactory fac = (BasicNumericFactory) factory;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(fac);
+							NumericProtocolBuilder builder = new NumericProtocolBuilder(fac);
+							ioBuilder.beginParScope();
+							SInt[] as = ioBuilder.bulkInputArray(a, 1);
+							SInt[] bs = ioBuilder.bulkInputArray(b, 2);
+							ioBuilder.endCurScope();
+							ProtocolProducer inputs = ioBuilder.getProtocol();
+							ioBuilder.reset();
+
+							SInt[] sums = new SInt[as.length];
+							builder.beginParScope();
+							for (int i = 0; i < as.length; i++) {
+								sums[i] = builder.add(as[i], bs[i]);
+							}
+							builder.endCurScope();
+							this.outputs = ioBuilder.outputArray(sums);
+							return new SequentialProtocolProducer(inputs,
+									builder.getProtocol(), ioBuilder.getProtocol());
+						}
+					};
+					sce.runApplication(app);
+					OInt[] outputs = app.getOutputs();
+					for (int i = 0; i < a.length; i++) {
+						Assert.assertEquals(a[i].add(b[i]), outputs[i].getValue());
+					}
+				}
+			};
+		}
+	}
+
 	public static class TestKnownSInt extends TestThreadFactory {
 
 		@Override
@@ -659,4 +716,225 @@ public class BasicArithmeticTests {
 			};
 		}
 	}
+
+	public static class TestInnerProduct extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int[] a = new int[100];
+					final int[] b = new int[100];
+					int expected = 0;
+					for (int i = 0; i < a.length; i++) {
+						a[i] = i;
+						b[i] = a.length - i;
+						expected += a[i] * b[i];
+					}
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -2350476380914263826L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory factory) {
+							BasicNumericFactory fac = (BasicNumericFactory) factory;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(fac);
+							SInt[] as = createInputs(ioBuilder, a, 1);
+							SInt[] bs = createInputs(ioBuilder, b, 2);
+							ProtocolProducer inputs = ioBuilder.getProtocol();
+							ioBuilder.reset();
+
+							SInt result = fac.getSInt();
+							ProtocolProducer innerProduct = new InnerProductFactoryImpl(
+									fac).getInnerProductProtocol(as, bs, result);
+							this.outputs = new OInt[] { ioBuilder.output(result) };
+							return new SequentialProtocolProducer(inputs,
+									innerProduct, ioBuilder.getProtocol());
+						}
+					};
+					sce.runApplication(app);
+					Assert.assertEquals(BigInteger.valueOf(expected),
+							app.getOutputs()[0].getValue());
+				}
+			};
+		}
+	}
+
+	public static class TestSquare extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int[] openInputs = new int[] { 0, 1, 2, 7, 100, -3, 12345 };
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 3917614108203957226L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory factory) {
+							BasicNumericFactory fac = (BasicNumericFactory) factory;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(fac);
+							NumericProtocolBuilder builder = new NumericProtocolBuilder(fac);
+							SInt[] inputs = createInputs(ioBuilder, openInputs, 1);
+							ProtocolProducer io = ioBuilder.getProtocol();
+							ioBuilder.reset();
+
+							builder.beginParScope();
+							SInt[] squares = new SInt[inputs.length];
+							for (int i = 0; i < inputs.length; i++) {
+								squares[i] = builder.square(inputs[i]);
+							}
+							builder.endCurScope();
+							this.outputs = ioBuilder.outputArray(squares);
+							return new SequentialProtocolProducer(io,
+									builder.getProtocol(), ioBuilder.getProtocol());
+						}
+					};
+					sce.runApplication(app);
+					OInt[] outputs = app.getOutputs();
+					for (int i = 0; i < openInputs.length; i++) {
+						BigInteger expected = BigInteger.valueOf(openInputs[i]).pow(2);
+						Assert.assertEquals(expected, outputs[i].getValue());
+					}
+				}
+			};
+		}
+	}
+
+	/**
+	 * Tests the vector protocols of suites implementing
+	 * {@link VectorProtocolFactory}.
+	 */
+	public static class TestVectorProtocols extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int length = 50;
+					final MultProtocol[] mult = new MultProtocol[1];
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 4338818809103728010L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory factory) {
+							BasicNumericFactory fac = (BasicNumericFactory) factory;
+							VectorProtocolFactory vec = (VectorProtocolFactory) factory;
+							OInt[] aOpen = new OInt[length];
+							OInt[] bOpen = new OInt[length];
+							SInt[] a = new SInt[length];
+							SInt[] b = new SInt[length];
+							SInt[] sums = new SInt[length];
+							SInt[] products = new SInt[length];
+							OInt[] sumsOut = new OInt[length];
+							OInt[] productsOut = new OInt[length];
+							for (int i = 0; i < length; i++) {
+								aOpen[i] = fac.getOInt(BigInteger.valueOf(i));
+								bOpen[i] = fac.getOInt(BigInteger.valueOf(2 * i + 1));
+								a[i] = fac.getSInt();
+								b[i] = fac.getSInt();
+								sums[i] = fac.getSInt();
+								products[i] = fac.getSInt();
+								sumsOut[i] = fac.getOInt();
+								productsOut[i] = fac.getOInt();
+							}
+							SInt total = fac.getSInt();
+							OInt totalOut = fac.getOInt();
+							this.outputs = new OInt[2 * length + 1];
+							System.arraycopy(sumsOut, 0, outputs, 0, length);
+							System.arraycopy(productsOut, 0, outputs, length, length);
+							outputs[2 * length] = totalOut;
+							mult[0] = vec.getVectorMultProtocol(a, b, products);
+							return new SequentialProtocolProducer(
+									new ParallelProtocolProducer(
+											vec.getVectorCloseProtocol(1, aOpen, a),
+											vec.getVectorCloseProtocol(2, bOpen, b)),
+									new ParallelProtocolProducer(
+											vec.getVectorAddProtocol(a, b, sums),
+											mult[0]),
+									vec.getSumProtocol(products, total),
+									new ParallelProtocolProducer(
+											vec.getVectorOpenProtocol(sums, sumsOut),
+											vec.getVectorOpenProtocol(products, productsOut),
+											fac.getOpenProtocol(total, totalOut)));
+						}
+					};
+					sce.runApplication(app);
+					OInt[] outputs = app.getOutputs();
+					BigInteger total = BigInteger.ZERO;
+					for (int i = 0; i < length; i++) {
+						BigInteger product = BigInteger.valueOf(i * (2 * i + 1));
+						Assert.assertEquals(BigInteger.valueOf(3 * i + 1), outputs[i].getValue());
+						Assert.assertEquals(product, outputs[length + i].getValue());
+						total = total.add(product);
+					}
+					Assert.assertEquals(total, outputs[2 * length].getValue());
+					Assert.assertEquals(2 * length, mult[0].getInputValues().length);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Tests the random bits and values of suites implementing
+	 * {@link PreprocessedNumericBitFactory}.
+	 */
+	public static class TestRandomBitsAndValues extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int noOfBits = 100;
+					final int noOfValues = 10;
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -3276389174325961094L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory factory) {
+							BasicNumericFactory fac = (BasicNumericFactory) factory;
+							PreprocessedNumericBitFactory bitFac = (PreprocessedNumericBitFactory) factory;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(fac);
+							ParallelProtocolProducer random = new ParallelProtocolProducer();
+							SInt[] values = new SInt[noOfBits + noOfValues];
+							for (int i = 0; i < noOfBits; i++) {
+								values[i] = fac.getSInt();
+								random.append(bitFac.createRandomSecretSharedBitProtocol(values[i]));
+							}
+							for (int i = noOfBits; i < values.length; i++) {
+								values[i] = fac.getRandomSInt();
+							}
+							this.outputs = ioBuilder.outputArray(values);
+							return new SequentialProtocolProducer(random, ioBuilder.getProtocol());
+						}
+					};
+					sce.runApplication(app);
+					OInt[] outputs = app.getOutputs();
+					int ones = 0;
+					for (int i = 0; i < noOfBits; i++) {
+						BigInteger bit = outputs[i].getValue();
+						Assert.assertTrue(bit.equals(BigInteger.ZERO) || bit.equals(BigInteger.ONE));
+						ones += bit.intValue();
+					}
+					Assert.assertTrue(ones > 0 && ones < noOfBits);
+					Set<BigInteger> values = new HashSet<BigInteger>();
+					for (int i = noOfBits; i < outputs.length; i++) {
+						values.add(outputs[i].getValue());
+					}
+					Assert.assertEquals(noOfValues, values.size());
+				}
+			};
+		}
+	}
 }
@@ -42,7 +42,9 @@ import dk.alexandra.fresco.framework.sce.SCEFactory;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.compare.ComparisonProtocolFactoryImpl;
+import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskPool;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 import dk.alexandra.fresco.lib.helper.builder.ComparisonProtocolBuilder;
 import dk.alexandra.fresco.lib.helper.builder.NumericIOBuilder;
 import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
@@ -184,4 +186,76 @@ public class ComparisonTests {
 			};
 		}
 	}
+
+	/**
+	 * Compares pairs of numbers in parallel with the random additive masks
+	 * taken from a pool, such that some comparisons wait for a batch made by
+	 * another, and then compares more pairs with masks prepared ahead of time.
+	 */
+	public static class TestCompareLTWithMaskPool extends TestThreadFactory {
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int n = 6;
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -1820471530744812553L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory factory) {
+							BasicNumericFactory bnFactory = (BasicNumericFactory) factory;
+							LocalInversionFactory localInvFactory = (LocalInversionFactory) factory;
+							PreprocessedNumericBitFactory numericBitFactory = (PreprocessedNumericBitFactory) factory;
+							ExpFromOIntFactory expFromOIntFactory = (ExpFromOIntFactory) factory;
+							PreprocessedExpPipeFactory expFactory = (PreprocessedExpPipeFactory) factory;
+							SequentialProtocolProducer seq = new SequentialProtocolProducer();
+
+							RandomAdditiveMaskPool pool = new RandomAdditiveMaskPool(bnFactory, numericBitFactory, 4);
+							ComparisonProtocolFactoryImpl compFactory = new ComparisonProtocolFactoryImpl(
+									80, bnFactory, localInvFactory,
+									numericBitFactory, expFromOIntFactory,
+									expFactory, pool);
+
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(bnFactory);
+							SInt[] x = new SInt[n];
+							for (int i = 0; i < n; i++) {
+								x[i] = ioBuilder.input(BigInteger.valueOf(i), 1);
+							}
+							seq.append(ioBuilder.getProtocol());
+
+							outputs = new OInt[2 * n];
+							ParallelProtocolProducer par = new ParallelProtocolProducer();
+							for (int i = 0; i < n; i++) {
+								ComparisonProtocolBuilder compBuilder = new ComparisonProtocolBuilder(compFactory, bnFactory);
+								outputs[i] = ioBuilder.output(compBuilder.compare(x[i], x[n - 1 - i]));
+								par.append(compBuilder.getProtocol());
+							}
+							seq.append(par);
+
+							seq.append(pool.prepare(80, bnFactory.getMaxBitLength(), n));
+							par = new ParallelProtocolProducer();
+							for (int i = 0; i < n; i++) {
+								ComparisonProtocolBuilder compBuilder = new ComparisonProtocolBuilder(compFactory, bnFactory);
+								outputs[n + i] = ioBuilder.output(compBuilder.compare(x[n - 1 - i], x[i]));
+								par.append(compBuilder.getProtocol());
+							}
+							seq.append(par);
+							seq.append(ioBuilder.getProtocol());
+							return seq;
+						}
+					};
+					sce.runApplication(app);
+					for (int i = 0; i < n; i++) {
+						BigInteger expected = i <= n - 1 - i ? BigInteger.ONE : BigInteger.ZERO;
+						Assert.assertEquals(expected, app.getOutputs()[i].getValue());
+						expected = n - 1 - i <= i ? BigInteger.ONE : BigInteger.ZERO;
+						Assert.assertEquals(expected, app.getOutputs()[n + i].getValue());
+					}
+				}
+			};
+		}
+	}
 }
@@ -1,6 +1,9 @@
 package dk.alexandra.fresco.lib.bool;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import org.junit.Assert;
 
@@ -17,6 +20,7 @@ import dk.alexandra.fresco.framework.value.SBool;
 import dk.alexandra.fresco.lib.helper.builder.BasicLogicBuilder;
 import dk.alexandra.fresco.lib.logic.AbstractBinaryFactory;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproConfiguration;
+import dk.alexandra.fresco.suite.tinytables.storage.MappedTinyTablesStorage;
 
 public class BasicBooleanTests {
 
@@ -170,6 +174,76 @@ public class BasicBooleanTests {
 		}
 	}
 	
+	/**
+	 * Runs two applications on the same SCE. For the TinyTables
+	 * preprocessing, the TinyTables file must be readable after each of them,
+	 * and the second application must keep the values of the first.
+	 */
+	public static class TestTwoApplications extends TestThreadFactory {
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					TestBoolApplication first = andApplication(true, true);
+					sce.runApplication(first);
+					byte[] firstFile = readTinyTables(conf);
+
+					TestBoolApplication second = andApplication(true, false);
+					sce.runApplication(second);
+					byte[] secondFile = readTinyTables(conf);
+
+					if (conf.protocolSuiteConf instanceof TinyTablesPreproConfiguration) {
+						Assert.assertTrue(secondFile.length > firstFile.length);
+						Assert.assertArrayEquals(firstFile,
+								Arrays.copyOf(secondFile, firstFile.length));
+					} else {
+						Assert.assertEquals(true,
+								first.getOutputs()[0].getValue());
+						Assert.assertEquals(false,
+								second.getOutputs()[0].getValue());
+					}
+				}
+			};
+		}
+
+		private static TestBoolApplication andApplication(final boolean left, final boolean right) {
+			return new TestBoolApplication() {
+
+				private static final long serialVersionUID = -1306311233396366366L;
+
+				@Override
+				public ProtocolProducer prepareApplication(
+						ProtocolFactory provider) {
+					AbstractBinaryFactory prov = (AbstractBinaryFactory) provider;
+					BasicLogicBuilder builder = new BasicLogicBuilder(prov);
+
+					SBool inp1 = prov.getSBool();
+					SBool inp2 = prov.getSBool();
+
+					builder.addProtocolProducer(prov.getCloseProtocol(1, prov.getKnownConstantOBool(left), inp1));
+					builder.addProtocolProducer(prov.getCloseProtocol(2, prov.getKnownConstantOBool(right), inp2));
+
+					SBool and = builder.and(inp1, inp2);
+
+					OBool output = builder.output(and);
+
+					this.outputs = new OBool[] { output };
+					return builder.getProtocol();
+				}
+			};
+		}
+
+		private static byte[] readTinyTables(TestThreadConfiguration conf) throws IOException {
+			if (!(conf.protocolSuiteConf instanceof TinyTablesPreproConfiguration)) {
+				return null;
+			}
+			File file = ((TinyTablesPreproConfiguration) conf.protocolSuiteConf).getTinyTablesFile();
+			Assert.assertTrue(MappedTinyTablesStorage.isPacked(file));
+			return Files.readAllBytes(file.toPath());
+		}
+	}
+
 	public static class TestNOT extends TestThreadFactory {
 		@Override
 		public TestThread next(TestThreadConfiguration conf) {
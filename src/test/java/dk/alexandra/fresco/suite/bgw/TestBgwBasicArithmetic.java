@@ -60,7 +60,24 @@ import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
  */
 public class TestBgwBasicArithmetic {
 
+	private static final BigInteger MODULUS = new BigInteger("618970019642690137449562111");
+
+	/**
+	 * The Mersenne prime 2^61 - 1, small enough for the arithmetic on longs.
+	 */
+	private static final BigInteger LONG_MODULUS = new BigInteger("2305843009213693951");
+
 	private void runTest(TestThreadFactory f, int noPlayers, final int threshold, EvaluationStrategy evalStrategy) throws Exception {
+		runTest(f, noPlayers, threshold, evalStrategy, MODULUS);
+	}
+
+	private void runTest(TestThreadFactory f, int noPlayers, final int threshold, EvaluationStrategy evalStrategy,
+			final BigInteger modulus) throws Exception {
+		runTest(f, noPlayers, threshold, evalStrategy, modulus, modulus.bitLength());
+	}
+
+	private void runTest(TestThreadFactory f, int noPlayers, final int threshold, EvaluationStrategy evalStrategy,
+			final BigInteger modulus, final int maxBitLength) throws Exception {
 		Level logLevel = Level.FINE;
 		Reporter.init(logLevel);
 		
@@ -84,7 +101,12 @@ public class TestBgwBasicArithmetic {
 
 				@Override
 				public BigInteger getModulus() {
-					return new BigInteger("618970019642690137449562111");					
+					return modulus;
+				}
+
+				@Override
+				public int getMaxBitLength() {
+					return maxBitLength;
 				}
 			};
 			NetworkConfiguration net = netConf.get(playerId);
@@ -258,15 +280,98 @@ public class TestBgwBasicArithmetic {
 		runTest(new BasicArithmeticTests.TestSumAndMult(), 3, 1, EvaluationStrategy.SEQUENTIAL);
 	}
 	
+	@Test
+	public void test_moderate_arithmetic_ParallelBatched_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), 5, 2, EvaluationStrategy.PARALLEL_BATCHED);
+	}
+	
+	@Test
+	public void test_moderate_arithmetic_WorkStealing_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), 5, 2, EvaluationStrategy.WORK_STEALING);
+	}
+	
+	@Test
+	public void test_Vector_Protocols_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorProtocols(), 3, 1, EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Inner_Product_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestInnerProduct(), 3, 1, EvaluationStrategy.SEQUENTIAL);
+	}
+
+	// ====== Arithmetic on longs ======
+
+	@Test
+	public void test_Vector_Protocols_Long_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorProtocols(), 3, 1, EvaluationStrategy.SEQUENTIAL, LONG_MODULUS);
+	}
+
+	@Test
+	public void test_Vector_Protocols_Long_ParallelBatched_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorProtocols(), 5, 2, EvaluationStrategy.PARALLEL_BATCHED,
+				LONG_MODULUS);
+	}
+
+	@Test
+	public void test_Inner_Product_Long_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestInnerProduct(), 3, 1, EvaluationStrategy.SEQUENTIAL, LONG_MODULUS);
+	}
+
+	@Test
+	public void test_MultAndAdd_Long_Sequential_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(), 5, 2, EvaluationStrategy.SEQUENTIAL, LONG_MODULUS);
+	}
+
+	@Test
+	public void test_moderate_arithmetic_Long_ParallelBatched_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), 5, 2, EvaluationStrategy.PARALLEL_BATCHED, LONG_MODULUS);
+	}
+
+	// ====== Random values ======
+
+	/**
+	 * A prime which is 1 mod 4, so the random bits use the general square root.
+	 */
+	private static final BigInteger ONE_MOD_FOUR_MODULUS = new BigInteger("18446744069414584321");
+
+	@Test
+	public void test_Random_Bits_And_Values_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestRandomBitsAndValues(), 3, 1, EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Random_Bits_And_Values_SequentialBatched_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestRandomBitsAndValues(), 5, 2, EvaluationStrategy.SEQUENTIAL_BATCHED);
+	}
+
+	@Test
+	public void test_Random_Bits_And_Values_Long_ParallelBatched_4_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestRandomBitsAndValues(), 4, 1, EvaluationStrategy.PARALLEL_BATCHED,
+				LONG_MODULUS);
+	}
+
+	@Test
+	public void test_Random_Bits_And_Values_OneModFour_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestRandomBitsAndValues(), 3, 1, EvaluationStrategy.SEQUENTIAL,
+				ONE_MOD_FOUR_MODULUS);
+	}
+
 	// ====== Binary operations ======
+
+	/**
+	 * The right shift masks the input with a random value of the max bit
+	 * length plus 80 bits, so the modulus must be large enough for that.
+	 */
+	private static final BigInteger SHIFT_MODULUS = new BigInteger("170141183460469231731687303715884105727");
 	
 	@Test
 	public void test_right_shift_3_1() throws Exception {
-		runTest(new BinaryOperationsTests.TestRightShift(), 3, 1, EvaluationStrategy.SEQUENTIAL);
+		runTest(new BinaryOperationsTests.TestRightShift(), 3, 1, EvaluationStrategy.SEQUENTIAL, SHIFT_MODULUS, 32);
 	}
 	
 	@Test
 	public void test_right_shift_4_1() throws Exception {
-		runTest(new BinaryOperationsTests.TestRightShift(), 4, 1, EvaluationStrategy.SEQUENTIAL);
+		runTest(new BinaryOperationsTests.TestRightShift(), 4, 1, EvaluationStrategy.SEQUENTIAL, SHIFT_MODULUS, 32);
 	}
 }
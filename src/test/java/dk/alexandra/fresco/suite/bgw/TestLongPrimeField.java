@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestLongPrimeField {
+
+	@Test
+	public void testSupports() {
+		assertTrue(LongPrimeField.supports(new BigInteger("2305843009213693951")));
+		assertTrue(LongPrimeField.supports(BigInteger.valueOf(3)));
+		assertFalse(LongPrimeField.supports(BigInteger.ONE.shiftLeft(62).add(BigInteger.valueOf(135))));
+		assertFalse(LongPrimeField.supports(new BigInteger("618970019642690137449562111")));
+		assertFalse(LongPrimeField.supports(BigInteger.valueOf(1024)));
+	}
+
+	@Test
+	public void testAgainstBigInteger() {
+		Random random = new Random(42);
+		BigInteger[] primes = new BigInteger[] { BigInteger.valueOf(3),
+				BigInteger.valueOf(65521), new BigInteger("2305843009213693951"),
+				BigInteger.probablePrime(62, random), BigInteger.probablePrime(40, random) };
+		for (BigInteger p : primes) {
+			LongPrimeField field = new LongPrimeField(p);
+			assertEquals(p.longValue(), field.getModulus());
+			for (int i = 0; i < 1000; i++) {
+				BigInteger a = new BigInteger(p.bitLength() + 8, random).mod(p);
+				BigInteger b = new BigInteger(p.bitLength() + 8, random).mod(p);
+				long la = a.longValue();
+				long lb = b.longValue();
+				assertEquals(a.add(b).mod(p).longValue(), field.add(la, lb));
+				assertEquals(a.subtract(b).mod(p).longValue(), field.subtract(la, lb));
+				assertEquals(a.multiply(b).mod(p).longValue(), field.multiply(la, lb));
+				assertEquals(a.multiply(b).mod(p).longValue(),
+						field.multiplyByFactor(la, field.prepareFactor(lb)));
+				BigInteger c = new BigInteger(130, random).subtract(BigInteger.ONE.shiftLeft(129));
+				assertEquals(c.mod(p).longValue(), field.fromBigInteger(c));
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class TestShamirShareContext {
+
+	private static final BigInteger PRIME = new BigInteger("618970019642690137449562111");
+	private static final BigInteger LONG_PRIME = new BigInteger("2305843009213693951");
+
+	@Test
+	public void testShareAndRecombine() {
+		ShamirShareContext context = new ShamirShareContext(PRIME);
+		Random random = new Random(42);
+		for (int n = 1; n <= 9; n++) {
+			for (int threshold = 0; 2 * threshold < n; threshold++) {
+				BigInteger secret = new BigInteger(PRIME.bitLength() - 1, random);
+				ShamirShare[] shares = context.createShares(secret, n, threshold);
+				assertEquals(n, shares.length);
+				for (int i = 0; i < n; i++) {
+					assertEquals(i + 1, shares[i].getPoint());
+				}
+				assertEquals(secret, context.recombine(shares, n));
+			}
+		}
+	}
+
+	@Test
+	public void testLongShareAndRecombine() {
+		ShamirShareContext context = new ShamirShareContext(LONG_PRIME);
+		assertNotNull(context.getLongField());
+		Random random = new Random(42);
+		for (int n = 1; n <= 9; n++) {
+			for (int threshold = 0; 2 * threshold < n; threshold++) {
+				BigInteger secret = new BigInteger(LONG_PRIME.bitLength() - 1, random);
+				ShamirShare[] shares = context.createShares(secret, n, threshold);
+				assertEquals(secret, context.recombine(shares, n));
+			}
+		}
+	}
+
+	@Test
+	public void testShareVectors() {
+		for (BigInteger prime : new BigInteger[] { PRIME, LONG_PRIME }) {
+			ShamirShareContext context = new ShamirShareContext(prime);
+			Random random = new Random(42);
+			BigInteger[] secrets = new BigInteger[100];
+			for (int i = 0; i < secrets.length; i++) {
+				secrets[i] = new BigInteger(prime.bitLength() - 1, random);
+			}
+			int n = 5;
+			Serializable[] packed = context.createShareVectors(secrets, n, 2);
+			List<Serializable> received = new ArrayList<Serializable>();
+			for (int i = 0; i < n; i++) {
+				// Simulate what the parties send when opening
+				received.add(context.packShares(context.unpackShares(packed[i])));
+			}
+			assertArrayEquals(secrets, context.recombineVectors(received, n));
+		}
+	}
+
+	@Test
+	public void testSharedBetweenThreads() throws Exception {
+		final ShamirShareContext context = new ShamirShareContext(PRIME);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final int n = 3 + t % 4;
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 1000; i++) {
+							BigInteger secret = BigInteger.valueOf(i);
+							ShamirShare[] shares = context.createShares(secret, n, (n - 1) / 2);
+							if (!secret.equals(context.recombine(shares, n))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertEquals(true, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+import dk.alexandra.fresco.suite.bgw.ShamirShareContext;
+
+public class TestBgwPrssSupplier {
+
+	private static final BigInteger PRIME = new BigInteger("618970019642690137449562111");
+
+	/**
+	 * Creates the suppliers of all parties with keys shared as done by
+	 * {@link BgwPrssSupplier#setup}.
+	 */
+	private BgwPrssSupplier[] createSuppliers(int n, int threshold) {
+		SecureRandom random = new SecureRandom();
+		Map<Integer, byte[]> keys = new HashMap<Integer, byte[]>();
+		for (int id = 1; id <= n; id++) {
+			for (int set : BgwPrssSupplier.getSets(n, threshold, id)) {
+				if (!keys.containsKey(set)) {
+					byte[] key = new byte[16];
+					random.nextBytes(key);
+					keys.put(set, key);
+				}
+			}
+		}
+		BgwPrssSupplier[] suppliers = new BgwPrssSupplier[n];
+		for (int id = 1; id <= n; id++) {
+			suppliers[id - 1] = new BgwPrssSupplier(id, n, threshold, PRIME, keys);
+		}
+		return suppliers;
+	}
+
+	@Test
+	public void testSharesHaveDegreeThreshold() {
+		ShamirShareContext context = new ShamirShareContext(PRIME);
+		for (int n = 3; n <= 7; n++) {
+			for (int threshold = 1; 2 * threshold < n; threshold++) {
+				BgwPrssSupplier[] suppliers = createSuppliers(n, threshold);
+				BigInteger[][] shares = new BigInteger[n][];
+				for (int id = 1; id <= n; id++) {
+					shares[id - 1] = suppliers[id - 1].getNextRandomShares(0, 20);
+				}
+				BigInteger previous = null;
+				for (int i = 0; i < 20; i++) {
+					ShamirShare[] values = new ShamirShare[n];
+					for (int id = 1; id <= n; id++) {
+						values[id - 1] = new ShamirShare(id, shares[id - 1][i]);
+					}
+					// The first t + 1 shares determine the value
+					BigInteger value = context.recombine(values, n);
+					assertEquals(value, context.recombine(values, threshold + 1));
+					assertNotEquals(previous, value);
+					previous = value;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testStreams() {
+		Map<Integer, byte[]> keys = new HashMap<Integer, byte[]>();
+		for (int set : BgwPrssSupplier.getSets(3, 1, 1)) {
+			keys.put(set, new byte[16]);
+			keys.get(set)[0] = (byte) set;
+		}
+		BgwPrssSupplier batched = new BgwPrssSupplier(1, 3, 1, PRIME, keys);
+		BgwPrssSupplier single = new BgwPrssSupplier(1, 3, 1, PRIME, keys);
+		// Taking values in batches or one at a time gives the same values
+		BigInteger[] batch = batched.getNextRandomShares(0, 3);
+		for (int i = 0; i < batch.length; i++) {
+			assertEquals(batch[i], single.getNextRandomShare(0));
+		}
+		// Different streams give different values
+		assertNotEquals(batch[0], single.getNextRandomShare(BgwPrssSupplier.CONSTRUCTION_STREAM));
+	}
+}
@@ -114,6 +114,16 @@ public class TestDummyProtocolSuite {
 		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.PARALLEL_BATCHED);
 	}
 	
+	@Test
+	public void test_AES_PipelinedBatched() throws Exception {
+		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.PIPELINED_BATCHED);
+	}
+	
+	@Test
+	public void test_AES_WorkStealing() throws Exception {
+		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.WORK_STEALING);
+	}
+	
 	@Test
 	public void test_DES_Sequential() throws Exception {
 		runTest(new BristolCryptoTests.DesTest(), EvaluationStrategy.SEQUENTIAL);
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+
+/**
+ * Checks the preprocessed data of all parties in tests. The shares of the
+ * parties are combined to open the shared values, and the macs of the values
+ * are checked against the mac key, which is the sum of the mac key shares of
+ * the suppliers.
+ */
+public class SpdzDataChecker {
+
+	/**
+	 * The 512 bit modulus of the SPDZ test data.
+	 */
+	public static final BigInteger MODULUS = new BigInteger("6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+
+	private final DataSupplier[] suppliers;
+	private final BigInteger modulus;
+	private final BigInteger alpha;
+
+	/**
+	 * @param suppliers
+	 *            the suppliers of all parties, ordered by the ids of the
+	 *            parties. They must all have the same modulus.
+	 */
+	public SpdzDataChecker(DataSupplier... suppliers) {
+		this.suppliers = suppliers;
+		this.modulus = suppliers[0].getModulus();
+		BigInteger alpha = BigInteger.ZERO;
+		for (DataSupplier supplier : suppliers) {
+			Assert.assertEquals(modulus, supplier.getModulus());
+			alpha = alpha.add(supplier.getSSK());
+		}
+		this.alpha = alpha.mod(modulus);
+	}
+
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * Opens the shared value and checks its mac.
+	 */
+	public BigInteger open(SpdzElement... shares) {
+		BigInteger value = BigInteger.ZERO;
+		BigInteger mac = BigInteger.ZERO;
+		for (SpdzElement e : shares) {
+			value = value.add(e.getShare());
+			mac = mac.add(e.getMac());
+		}
+		value = value.mod(modulus);
+		Assert.assertEquals(value.multiply(alpha).mod(modulus), mac.mod(modulus));
+		return value;
+	}
+
+	/**
+	 * Checks that the shares form a triple (a, b, ab).
+	 *
+	 * @return the value of a.
+	 */
+	public BigInteger checkTriple(SpdzTriple... shares) {
+		SpdzElement[] a = new SpdzElement[shares.length];
+		SpdzElement[] b = new SpdzElement[shares.length];
+		SpdzElement[] c = new SpdzElement[shares.length];
+		for (int i = 0; i < shares.length; i++) {
+			a[i] = shares[i].getA();
+			b[i] = shares[i].getB();
+			c[i] = shares[i].getC();
+		}
+		BigInteger openA = open(a);
+		Assert.assertEquals(openA.multiply(open(b)).mod(modulus), open(c));
+		return openA;
+	}
+
+	/**
+	 * Checks that the shares form a pair (a, a^2).
+	 *
+	 * @return the value of a.
+	 */
+	public BigInteger checkSquare(SpdzSquare... shares) {
+		SpdzElement[] a = new SpdzElement[shares.length];
+		SpdzElement[] aSquared = new SpdzElement[shares.length];
+		for (int i = 0; i < shares.length; i++) {
+			a[i] = shares[i].getA();
+			aSquared[i] = shares[i].getB();
+		}
+		BigInteger openA = open(a);
+		Assert.assertEquals(openA.multiply(openA).mod(modulus), open(aSquared));
+		return openA;
+	}
+
+	/**
+	 * Checks that the shares are of a bit.
+	 *
+	 * @return the bit.
+	 */
+	public BigInteger checkBit(SpdzSInt... shares) {
+		SpdzElement[] bit = new SpdzElement[shares.length];
+		for (int i = 0; i < shares.length; i++) {
+			bit[i] = shares[i].value;
+		}
+		BigInteger openBit = open(bit);
+		Assert.assertTrue(openBit.equals(BigInteger.ZERO) || openBit.equals(BigInteger.ONE));
+		return openBit;
+	}
+
+	/**
+	 * Checks that the shares are of a mask whose value is only known by the
+	 * party it is towards.
+	 */
+	public void checkInputMask(int towardsPlayer, SpdzInputMask... shares) {
+		SpdzElement[] mask = new SpdzElement[shares.length];
+		BigInteger realValue = null;
+		for (int i = 0; i < shares.length; i++) {
+			mask[i] = shares[i].getMask();
+			if (i + 1 == towardsPlayer) {
+				realValue = shares[i].getRealValue();
+			} else {
+				Assert.assertNull(shares[i].getRealValue());
+			}
+		}
+		Assert.assertEquals(realValue, open(mask));
+	}
+
+	/**
+	 * Checks that the shares form an exp pipe R^-1, R, R^2, ...
+	 */
+	public void checkExpPipe(SpdzSInt[]... pipes) {
+		BigInteger[] pipe = new BigInteger[pipes[0].length];
+		for (int k = 0; k < pipe.length; k++) {
+			SpdzElement[] elements = new SpdzElement[pipes.length];
+			for (int i = 0; i < pipes.length; i++) {
+				Assert.assertEquals(pipe.length, pipes[i].length);
+				elements[i] = pipes[i][k].value;
+			}
+			pipe[k] = open(elements);
+		}
+		Assert.assertEquals(BigInteger.ONE, pipe[0].multiply(pipe[1]).mod(modulus));
+		for (int k = 2; k < pipe.length; k++) {
+			Assert.assertEquals(pipe[1].pow(k).mod(modulus), pipe[k]);
+		}
+	}
+
+	/**
+	 * Takes the next triples of all suppliers and checks them.
+	 *
+	 * @return the values of a of the triples.
+	 */
+	public BigInteger[] checkNextTriples(int amount) {
+		SpdzTriple[][] triples = new SpdzTriple[suppliers.length][];
+		for (int i = 0; i < suppliers.length; i++) {
+			triples[i] = suppliers[i].getNextTriples(amount);
+		}
+		BigInteger[] res = new BigInteger[amount];
+		SpdzTriple[] shares = new SpdzTriple[suppliers.length];
+		for (int t = 0; t < amount; t++) {
+			for (int i = 0; i < suppliers.length; i++) {
+				shares[i] = triples[i][t];
+			}
+			res[t] = checkTriple(shares);
+		}
+		return res;
+	}
+
+	/**
+	 * Takes the next square of all suppliers and checks it.
+	 *
+	 * @return the value of a.
+	 */
+	public BigInteger checkNextSquare() {
+		SpdzSquare[] shares = new SpdzSquare[suppliers.length];
+		for (int i = 0; i < suppliers.length; i++) {
+			shares[i] = suppliers[i].getNextSquare();
+		}
+		return checkSquare(shares);
+	}
+
+	/**
+	 * Takes the next bits of all suppliers and checks them.
+	 *
+	 * @return the number of ones.
+	 */
+	public int checkNextBits(int amount) {
+		int ones = 0;
+		SpdzSInt[] shares = new SpdzSInt[suppliers.length];
+		for (int s = 0; s < amount; s++) {
+			for (int i = 0; i < suppliers.length; i++) {
+				shares[i] = suppliers[i].getNextBit();
+			}
+			ones += checkBit(shares).intValue();
+		}
+		return ones;
+	}
+
+	/**
+	 * Takes the next input masks towards each party of all suppliers and
+	 * checks them.
+	 */
+	public void checkNextInputMasks(int amount) {
+		SpdzInputMask[] shares = new SpdzInputMask[suppliers.length];
+		for (int towardsPlayer = 1; towardsPlayer <= suppliers.length; towardsPlayer++) {
+			for (int m = 0; m < amount; m++) {
+				for (int i = 0; i < suppliers.length; i++) {
+					shares[i] = suppliers[i].getNextInputMask(towardsPlayer);
+				}
+				checkInputMask(towardsPlayer, shares);
+			}
+		}
+	}
+
+	/**
+	 * Takes the next full length exp pipe of all suppliers and checks it.
+	 */
+	public void checkNextExpPipe() {
+		SpdzSInt[][] pipes = new SpdzSInt[suppliers.length][];
+		for (int i = 0; i < suppliers.length; i++) {
+			pipes[i] = suppliers[i].getNextExpPipe();
+		}
+		checkExpPipe(pipes);
+	}
+
+	/**
+	 * Takes the next exp pipe of at least the given length of all suppliers
+	 * and checks it.
+	 *
+	 * @return the length of the pipe.
+	 */
+	public int checkNextExpPipe(int length) {
+		SpdzSInt[][] pipes = new SpdzSInt[suppliers.length][];
+		for (int i = 0; i < suppliers.length; i++) {
+			pipes[i] = suppliers[i].getNextExpPipe(length);
+		}
+		checkExpPipe(pipes);
+		return pipes[0].length;
+	}
+}
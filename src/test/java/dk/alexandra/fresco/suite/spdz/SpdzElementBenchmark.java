@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.utils.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Compares the {@link BigInteger} arithmetic on field elements to the fixed
+ * width arithmetic of {@link MontgomeryField}, both directly and through
+ * {@link SpdzElement}.
+ *
+ * Run from the command line after 'mvn test-compile' with e.g.
+ * 
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;test classpath&gt; dk.alexandra.fresco.suite.spdz.SpdzElementBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpdzElementBenchmark {
+
+	@Param({ "128", "256", "512" })
+	public int bitLength;
+
+	private BigInteger p;
+	private BigInteger a, b, c;
+	private MontgomeryField field;
+	private long[] al, bl, cl, res;
+	private SpdzElement x, y;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(42);
+		p = BigInteger.probablePrime(bitLength, rand);
+		a = new BigInteger(bitLength, rand).mod(p);
+		b = new BigInteger(bitLength, rand).mod(p);
+		c = new BigInteger(bitLength, rand).mod(p);
+		field = new MontgomeryField(p);
+		al = field.fromBigInteger(a);
+		bl = field.fromBigInteger(b);
+		cl = field.fromBigInteger(c);
+		res = new long[field.getLimbs()];
+		Util.setModulus(p);
+		x = new SpdzElement(a, b);
+		y = new SpdzElement(b, c);
+	}
+
+	@Benchmark
+	public BigInteger addBigInteger() {
+		return a.add(b).mod(p);
+	}
+
+	@Benchmark
+	public long[] addLimbs() {
+		field.add(al, bl, res);
+		return res;
+	}
+
+	@Benchmark
+	public BigInteger multiplyBigInteger() {
+		return a.multiply(b).mod(p);
+	}
+
+	@Benchmark
+	public long[] multiplyLimbs() {
+		field.multiply(al, bl, res);
+		return res;
+	}
+
+	@Benchmark
+	public BigInteger multiplyAddBigInteger() {
+		return c.add(a.multiply(b)).mod(p);
+	}
+
+	@Benchmark
+	public long[] multiplyAddLimbs() {
+		System.arraycopy(cl, 0, res, 0, res.length);
+		field.multiplyAdd(al, bl, res);
+		return res;
+	}
+
+	@Benchmark
+	public long[] multiplyByFactorLimbs() {
+		field.multiplyByFactor(al, field.prepareFactor(b), res);
+		return res;
+	}
+
+	@Benchmark
+	public SpdzElement multiplySpdzElement() {
+		return x.multiply(c);
+	}
+
+	@Benchmark
+	public SpdzElement multiplySpdzElementBigInteger() {
+		// What SpdzElement.multiply did before the fixed width arithmetic
+		return new SpdzElement(a.multiply(c).mod(p), b.multiply(c).mod(p));
+	}
+
+	@Benchmark
+	public SpdzElement addSpdzElement() {
+		return x.add(y);
+	}
+
+	@Benchmark
+	public SpdzElement multiplyAddSpdzElement() {
+		return new SpdzElement(x).multiplyAddInPlace(y, c);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(SpdzElementBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
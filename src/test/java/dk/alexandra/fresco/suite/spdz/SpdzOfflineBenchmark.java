@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.offline.MascotGenerator;
+
+/**
+ * Measures the number of triples per second generated by the OT based offline
+ * phase with two parties in the same JVM. Each party generates with a single
+ * thread, so the result is the number of triples per second per core. The
+ * base OTs are done in the setup.
+ *
+ * Run from the command line after 'mvn test-compile' with e.g.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;test classpath&gt; dk.alexandra.fresco.suite.spdz.SpdzOfflineBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SpdzOfflineBenchmark {
+
+	private static final int BATCH_SIZE = 1000;
+
+	@State(Scope.Benchmark)
+	public static class GeneratorState {
+
+		@Param({ "128", "256" })
+		public int bitLength;
+
+		private MascotGenerator[] generators;
+		private ExecutorService executor;
+
+		@Setup
+		public void setup() throws Exception {
+			SecureRandom random = new SecureRandom();
+			final BigInteger modulus = BigInteger.probablePrime(bitLength, random);
+			final BigInteger alphaShare1 = new BigInteger(bitLength - 1, random);
+			final BigInteger alphaShare2 = new BigInteger(bitLength - 1, random);
+			final InMemoryNetwork[] networks = InMemoryNetwork.create(2);
+			generators = new MascotGenerator[2];
+			executor = Executors.newSingleThreadExecutor();
+			Future<MascotGenerator> other = executor.submit(new Callable<MascotGenerator>() {
+				@Override
+				public MascotGenerator call() {
+					return new MascotGenerator(networks[1], "0", 2, 2, modulus, alphaShare2);
+				}
+			});
+			generators[0] = new MascotGenerator(networks[0], "0", 1, 2, modulus, alphaShare1);
+			generators[1] = other.get();
+		}
+
+		@TearDown
+		public void tearDown() {
+			executor.shutdownNow();
+		}
+
+		SpdzTriple[] generateTriples() throws Exception {
+			Future<SpdzTriple[]> other = executor.submit(new Callable<SpdzTriple[]>() {
+				@Override
+				public SpdzTriple[] call() {
+					return generators[1].generateTriples(BATCH_SIZE);
+				}
+			});
+			SpdzTriple[] triples = generators[0].generateTriples(BATCH_SIZE);
+			other.get();
+			return triples;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public SpdzTriple[] triples(GeneratorState state) throws Exception {
+		return state.generateTriples();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(SpdzOfflineBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
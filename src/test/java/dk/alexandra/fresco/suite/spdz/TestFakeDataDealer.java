@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DealerDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.FakeDataDealer;
+
+public class TestFakeDataDealer {
+
+	private static final BigInteger modulus = SpdzDataChecker.MODULUS;
+	private static final int noOfParties = 2;
+	private static final int noOfThreads = 2;
+	// Small batches so that many requests are made
+	private static final int batchBytes = 2000;
+
+	private FakeDataDealer dealer;
+
+	@Before
+	public void startDealer() throws Exception {
+		dealer = new FakeDataDealer(0, modulus, noOfParties);
+		dealer.start();
+	}
+
+	@After
+	public void stopDealer() {
+		dealer.shutdown();
+	}
+
+	@Test
+	public void testSharesMatch() {
+		for (int threadId = 0; threadId < noOfThreads; threadId++) {
+			DealerDataSupplier[] suppliers = new DealerDataSupplier[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				suppliers[i] = new DealerDataSupplier("localhost", dealer.getPort(), i + 1, noOfThreads, threadId,
+						batchBytes);
+			}
+			SpdzDataChecker checker = new SpdzDataChecker(suppliers);
+			Assert.assertEquals(modulus, checker.getModulus());
+
+			// The second party lags behind the first, and the kinds of data are
+			// interleaved
+			SpdzTriple[] first = suppliers[0].getNextTriples(100);
+			for (int t = 0; t < 100; t++) {
+				checker.checkTriple(first[t], suppliers[1].getNextTriple());
+
+				SpdzSInt[] bit = new SpdzSInt[noOfParties];
+				SpdzInputMask[] mask = new SpdzInputMask[noOfParties];
+				for (int i = 0; i < noOfParties; i++) {
+					bit[i] = suppliers[i].getNextBit();
+					mask[i] = suppliers[i].getNextInputMask(2);
+				}
+				checker.checkBit(bit);
+				checker.checkInputMask(2, mask);
+			}
+
+			checker.checkNextSquare();
+			SpdzSInt[][] pipes = new SpdzSInt[noOfParties][];
+			for (int i = 0; i < noOfParties; i++) {
+				pipes[i] = suppliers[i].getNextExpPipe();
+			}
+			checker.checkExpPipe(pipes);
+
+			for (DealerDataSupplier supplier : suppliers) {
+				supplier.shutdown();
+			}
+		}
+	}
+}
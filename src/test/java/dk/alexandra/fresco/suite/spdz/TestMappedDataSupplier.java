@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.FakeTripGen;
+import dk.alexandra.fresco.suite.spdz.storage.MappedDataConverter;
+import dk.alexandra.fresco.suite.spdz.storage.MappedDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+
+public class TestMappedDataSupplier {
+
+	private static final BigInteger modulus = SpdzDataChecker.MODULUS;
+	private static final BigInteger alpha = new BigInteger("5081587041441179438932635098620319894716368628029284292880408086703438041331200877980213770035569812296677935118715454650749402237663859711459266577679205");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testConvertAndRead() throws Exception {
+		int noOfParties = 2;
+		List<SpdzTriple[]> triples = FakeTripGen.generateTriples(100, noOfParties, modulus, alpha);
+		List<SpdzSquare[]> squares = FakeTripGen.generateSquares(10, noOfParties, modulus, alpha);
+		List<SpdzSInt[]> bits = FakeTripGen.generateBits(10, noOfParties, modulus, alpha);
+		List<List<SpdzInputMask[]>> inputMasks = FakeTripGen.generateInputMasks(10, noOfParties, modulus, alpha);
+		List<SpdzSInt[][]> expPipes = FakeTripGen.generateExpPipes(2, noOfParties, modulus, alpha);
+
+		String storageName = folder.getRoot().getPath() + File.separator + "SPDZ_1_1_0_";
+		StreamedStorage storage = new FilebasedStreamedStorageImpl(new InMemoryStorage());
+		storage.putNext(storageName + SpdzStorageConstants.MODULUS_KEY, modulus);
+		storage.putNext(storageName + SpdzStorageConstants.SSK_KEY, alpha);
+		for (SpdzTriple[] t : triples) {
+			storage.putNext(storageName + SpdzStorageConstants.TRIPLE_STORAGE, t[0]);
+		}
+		for (SpdzSquare[] s : squares) {
+			storage.putNext(storageName + SpdzStorageConstants.SQUARE_STORAGE, s[0]);
+		}
+		for (SpdzSInt[] b : bits) {
+			storage.putNext(storageName + SpdzStorageConstants.BIT_STORAGE, b[0]);
+		}
+		for (int towardsPlayer = 1; towardsPlayer <= noOfParties; towardsPlayer++) {
+			for (SpdzInputMask[] m : inputMasks.get(towardsPlayer - 1)) {
+				storage.putNext(storageName + SpdzStorageConstants.INPUT_STORAGE + towardsPlayer, m[0]);
+			}
+		}
+		for (SpdzSInt[][] e : expPipes) {
+			storage.putNext(storageName + SpdzStorageConstants.EXP_PIPE_STORAGE, e[0]);
+		}
+		storage.shutdown();
+
+		MappedDataConverter.convert(storageName, noOfParties);
+		MappedDataSupplier supplier = new MappedDataSupplier(storageName, noOfParties);
+
+		Assert.assertEquals(modulus, supplier.getModulus());
+		Assert.assertEquals(alpha, supplier.getSSK());
+		Assert.assertEquals(triples.get(0)[0], supplier.getNextTriple());
+		SpdzTriple[] bulk = supplier.getNextTriples(98);
+		for (int i = 0; i < bulk.length; i++) {
+			Assert.assertEquals(triples.get(i + 1)[0], bulk[i]);
+		}
+		Assert.assertEquals(triples.get(99)[0], supplier.getNextTriple());
+		for (SpdzSquare[] s : squares) {
+			SpdzSquare square = supplier.getNextSquare();
+			Assert.assertEquals(s[0].getA(), square.getA());
+			Assert.assertEquals(s[0].getB(), square.getB());
+		}
+		for (SpdzSInt[] b : bits) {
+			Assert.assertEquals(b[0], supplier.getNextBit());
+		}
+		for (int towardsPlayer = 1; towardsPlayer <= noOfParties; towardsPlayer++) {
+			for (SpdzInputMask[] m : inputMasks.get(towardsPlayer - 1)) {
+				SpdzInputMask mask = supplier.getNextInputMask(towardsPlayer);
+				Assert.assertEquals(m[0].getMask(), mask.getMask());
+				Assert.assertEquals(m[0].getRealValue(), mask.getRealValue());
+			}
+		}
+		for (SpdzSInt[][] e : expPipes) {
+			Assert.assertArrayEquals(e[0], supplier.getNextExpPipe());
+		}
+		try {
+			supplier.getNextTriple();
+			Assert.fail("Expected the triples to be exhausted");
+		} catch (MPCException e) {
+			// expected
+		}
+		supplier.shutdown();
+	}
+
+	@Test
+	public void testGenerateSquares() throws Exception {
+		int noOfParties = 3;
+		for (SpdzSquare[] shares : FakeTripGen.generateSquares(10, noOfParties, modulus, alpha)) {
+			SpdzElement a = shares[0].getA();
+			SpdzElement b = shares[0].getB();
+			for (int i = 1; i < noOfParties; i++) {
+				a = new SpdzElement(a.getShare().add(shares[i].getA().getShare()).mod(modulus),
+						a.getMac().add(shares[i].getA().getMac()).mod(modulus));
+				b = new SpdzElement(b.getShare().add(shares[i].getB().getShare()).mod(modulus),
+						b.getMac().add(shares[i].getB().getMac()).mod(modulus));
+			}
+			Assert.assertEquals(a.getShare().pow(2).mod(modulus), b.getShare());
+			Assert.assertEquals(a.getShare().multiply(alpha).mod(modulus), a.getMac());
+			Assert.assertEquals(b.getShare().multiply(alpha).mod(modulus), b.getMac());
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.utils.MontgomeryField;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+public class TestMontgomeryField {
+
+	private static final int ITERATIONS = 2000;
+
+	private static void testAgainstBigInteger(BigInteger p) {
+		MontgomeryField field = new MontgomeryField(p);
+		Random rand = new Random(p.bitLength());
+		BigInteger pMinusOne = p.subtract(BigInteger.ONE);
+		for (int i = 0; i < ITERATIONS; i++) {
+			BigInteger a = new BigInteger(p.bitLength(), rand).mod(p);
+			BigInteger b = new BigInteger(p.bitLength(), rand).mod(p);
+			if (i == 0) {
+				// Include the extreme values
+				a = pMinusOne;
+				b = pMinusOne;
+			}
+			long[] al = field.fromBigInteger(a);
+			long[] bl = field.fromBigInteger(b);
+			long[] res = new long[field.getLimbs()];
+			assertEquals(a, MontgomeryField.toBigInteger(al));
+
+			field.add(al, bl, res);
+			assertEquals(a.add(b).mod(p), MontgomeryField.toBigInteger(res));
+			field.subtract(al, bl, res);
+			assertEquals(a.subtract(b).mod(p), MontgomeryField.toBigInteger(res));
+			field.multiply(al, bl, res);
+			assertEquals(a.multiply(b).mod(p), MontgomeryField.toBigInteger(res));
+
+			long[] acc = field.fromBigInteger(b);
+			field.multiplyAdd(al, al, acc);
+			assertEquals(a.multiply(a).add(b).mod(p), MontgomeryField.toBigInteger(acc));
+
+			long[] factor = field.prepareFactor(b);
+			field.multiplyByFactor(al, factor, res);
+			assertEquals(a.multiply(b).mod(p), MontgomeryField.toBigInteger(res));
+			acc = field.fromBigInteger(a);
+			field.multiplyAddByFactor(al, factor, acc);
+			assertEquals(a.multiply(b).add(a).mod(p), MontgomeryField.toBigInteger(acc));
+
+			// The result may be one of the arguments
+			field.multiply(al, bl, al);
+			assertEquals(a.multiply(b).mod(p), MontgomeryField.toBigInteger(al));
+		}
+	}
+
+	@Test
+	public void testSmallModulus() {
+		testAgainstBigInteger(BigInteger.valueOf(65521));
+	}
+
+	@Test
+	public void test64BitModulus() {
+		testAgainstBigInteger(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.valueOf(59)));
+	}
+
+	@Test
+	public void test128BitModulus() {
+		testAgainstBigInteger(BigInteger.ONE.shiftLeft(128).subtract(BigInteger.valueOf(159)));
+		testAgainstBigInteger(BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE));
+	}
+
+	@Test
+	public void test256BitModulus() {
+		testAgainstBigInteger(BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19)));
+		testAgainstBigInteger(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.valueOf(189)));
+	}
+
+	@Test
+	public void test512BitModulus() {
+		testAgainstBigInteger(SpdzDataChecker.MODULUS);
+	}
+
+	@Test
+	public void testConversionReduces() {
+		BigInteger p = BigInteger.valueOf(1000003);
+		MontgomeryField field = new MontgomeryField(p);
+		assertArrayEquals(field.fromBigInteger(BigInteger.valueOf(5)),
+				field.fromBigInteger(p.add(BigInteger.valueOf(5))));
+		assertEquals(p.subtract(BigInteger.ONE),
+				MontgomeryField.toBigInteger(field.fromBigInteger(BigInteger.valueOf(-1))));
+	}
+
+	@Test
+	public void testElementLimbsFollowModulus() {
+		// Two moduli with the same number of limbs
+		BigInteger p1 = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.valueOf(159));
+		BigInteger p2 = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+		BigInteger x = p2.add(BigInteger.valueOf(5));
+		SpdzElement zero = new SpdzElement(BigInteger.ZERO, BigInteger.ZERO);
+		SpdzElement e = new SpdzElement(x, x);
+		Util.setModulus(p1);
+		assertEquals(x, e.add(zero).getShare());
+		// The limbs computed for p1 must not be used with p2
+		Util.setModulus(p2);
+		assertEquals(p2.subtract(BigInteger.valueOf(5)), zero.subtract(e).getShare());
+		assertEquals(p2.subtract(BigInteger.valueOf(5)), zero.subtract(e).getMac());
+	}
+
+	@Test
+	public void testSupports() {
+		assertFalse(MontgomeryField.supports(BigInteger.valueOf(1024)));
+		assertFalse(MontgomeryField.supports(BigInteger.ONE.shiftLeft(600).add(BigInteger.ONE)));
+	}
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.io.File;
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.storage.MappedDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.ParallelFakeTripGen;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+public class TestParallelFakeTripGen {
+
+	private static final BigInteger modulus = SpdzDataChecker.MODULUS;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testGenerateAndRead() throws Exception {
+		int noOfParties = 3;
+		int noOfThreads = 2;
+		// More triples than fit in a single chunk
+		int noOfTriples = 2500;
+		int noOfOthers = 20;
+		String prefix = folder.getRoot().getPath() + File.separator + "SPDZ_";
+		new ParallelFakeTripGen(modulus, noOfParties, noOfThreads, 4).generate(prefix, noOfTriples, noOfOthers,
+				noOfOthers, noOfOthers, 2);
+
+		BigInteger[] firstA = new BigInteger[noOfThreads];
+		for (int threadId = 0; threadId < noOfThreads; threadId++) {
+			MappedDataSupplier[] suppliers = new MappedDataSupplier[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				suppliers[i] = new MappedDataSupplier(prefix + noOfThreads + "_" + (i + 1) + "_" + threadId + "_",
+						noOfParties);
+			}
+			SpdzDataChecker checker = new SpdzDataChecker(suppliers);
+			Assert.assertEquals(modulus, checker.getModulus());
+
+			firstA[threadId] = checker.checkNextTriples(noOfTriples)[0];
+			for (int s = 0; s < noOfOthers; s++) {
+				checker.checkNextSquare();
+			}
+			checker.checkNextBits(noOfOthers);
+			checker.checkNextInputMasks(noOfOthers);
+			for (int e = 0; e < 2; e++) {
+				checker.checkNextExpPipe();
+			}
+
+			for (MappedDataSupplier supplier : suppliers) {
+				supplier.shutdown();
+			}
+		}
+		Assert.assertNotEquals(firstA[0], firstA[1]);
+	}
+
+	@Test
+	public void testExpPipeSizeClasses() throws Exception {
+		int noOfParties = 2;
+		String prefix = folder.getRoot().getPath() + File.separator + "SPDZ_";
+		Util.setExpPipeSizeClasses(33, 9, 33);
+		try {
+			Assert.assertArrayEquals(new int[] { 9, 33, Util.EXP_PIPE_SIZE }, Util.getExpPipeSizes());
+			Assert.assertEquals(9, Util.getExpPipeSize(1));
+			Assert.assertEquals(33, Util.getExpPipeSize(10));
+			Assert.assertEquals(Util.EXP_PIPE_SIZE, Util.getExpPipeSize(Util.EXP_PIPE_SIZE));
+			try {
+				Util.getExpPipeSize(Util.EXP_PIPE_SIZE + 1);
+				Assert.fail("Expected pipes longer than EXP_PIPE_SIZE to be rejected");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			new ParallelFakeTripGen(modulus, noOfParties, 1, 2).generate(prefix, 0, 0, 0, 0, 2);
+
+			MappedDataSupplier[] suppliers = new MappedDataSupplier[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				suppliers[i] = new MappedDataSupplier(prefix + 1 + "_" + (i + 1) + "_" + 0 + "_", noOfParties);
+			}
+			SpdzDataChecker checker = new SpdzDataChecker(suppliers);
+			int[] lengths = { 5, 20, 100, 9 };
+			int[] expected = { 9, 33, Util.EXP_PIPE_SIZE, 9 };
+			for (int e = 0; e < lengths.length; e++) {
+				Assert.assertEquals(expected[e], checker.checkNextExpPipe(lengths[e]));
+			}
+			// Only two pipes of each length were generated
+			try {
+				suppliers[0].getNextExpPipe(3);
+				Assert.fail("Expected no more pipes of length 9");
+			} catch (MPCException e) {
+				// expected
+			}
+			for (MappedDataSupplier supplier : suppliers) {
+				supplier.shutdown();
+			}
+		} finally {
+			Util.setExpPipeSizeClasses();
+		}
+	}
+}
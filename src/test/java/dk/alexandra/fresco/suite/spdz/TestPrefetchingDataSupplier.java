@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+import java.util.logging.Level;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.PrefetchingDataSupplier;
+
+public class TestPrefetchingDataSupplier {
+
+	@BeforeClass
+	public static void initReporter() {
+		Reporter.init(Level.INFO);
+	}
+
+	/**
+	 * Supplies numbered data and fails after a given number of triples.
+	 */
+	private static class CountingDataSupplier implements DataSupplier {
+
+		private int triples = 0;
+		private int bits = 0;
+		private int[] masks = new int[2];
+		private int maxTriples;
+
+		CountingDataSupplier(int maxTriples) {
+			this.maxTriples = maxTriples;
+		}
+
+		private static SpdzElement element(int i) {
+			return new SpdzElement(BigInteger.valueOf(i), BigInteger.valueOf(i));
+		}
+
+		@Override
+		public SpdzTriple getNextTriple() {
+			if (triples == maxTriples) {
+				throw new MPCException("Triple no. " + triples + " was not present");
+			}
+			int i = triples++;
+			return new SpdzTriple(element(i), element(i), element(i));
+		}
+
+		@Override
+		public SpdzTriple[] getNextTriples(int amount) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SpdzSquare getNextSquare() {
+			throw new MPCException("No squares");
+		}
+
+		@Override
+		public boolean hasSquares() {
+			return false;
+		}
+
+		@Override
+		public boolean hasUnlimitedData() {
+			return false;
+		}
+
+		@Override
+		public SpdzSInt[] getNextExpPipe() {
+			throw new MPCException("No exp pipes");
+		}
+
+		@Override
+		public SpdzInputMask getNextInputMask(int towardPlayerID) {
+			return new SpdzInputMask(element(masks[towardPlayerID - 1]++));
+		}
+
+		@Override
+		public SpdzSInt getNextBit() {
+			return new SpdzSInt(element(bits++));
+		}
+
+		@Override
+		public BigInteger getModulus() {
+			return BigInteger.TEN;
+		}
+
+		@Override
+		public BigInteger getSSK() {
+			return BigInteger.ONE;
+		}
+	}
+
+	@Test
+	public void testOrderIsKept() {
+		PrefetchingDataSupplier supplier = new PrefetchingDataSupplier(new CountingDataSupplier(1000), 2, 16, "test");
+		for (int i = 0; i < 500; i++) {
+			Assert.assertEquals(BigInteger.valueOf(i), supplier.getNextTriple().getA().getShare());
+			Assert.assertEquals(BigInteger.valueOf(i), supplier.getNextBit().value.getShare());
+			Assert.assertEquals(BigInteger.valueOf(i), supplier.getNextInputMask(2).getMask().getShare());
+		}
+		SpdzTriple[] triples = supplier.getNextTriples(500);
+		for (int i = 0; i < triples.length; i++) {
+			Assert.assertEquals(BigInteger.valueOf(500 + i), triples[i].getC().getShare());
+		}
+		Assert.assertEquals(BigInteger.ZERO, supplier.getNextInputMask(1).getMask().getShare());
+		Assert.assertEquals(BigInteger.TEN, supplier.getModulus());
+		Assert.assertEquals(1501 + 500, supplier.getRequests());
+		Assert.assertTrue(supplier.getStalls() <= supplier.getRequests());
+		supplier.shutdown();
+	}
+
+	@Test
+	public void testFailureIsRethrown() {
+		PrefetchingDataSupplier supplier = new PrefetchingDataSupplier(new CountingDataSupplier(10), 2, 4, "test");
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(BigInteger.valueOf(i), supplier.getNextTriple().getA().getShare());
+		}
+		try {
+			supplier.getNextTriple();
+			Assert.fail("Expected the triples to be exhausted");
+		} catch (MPCException e) {
+			Assert.assertTrue(e.getMessage().contains("Triple no. 10"));
+		}
+		try {
+			supplier.getNextExpPipe();
+			Assert.fail("Expected no exp pipes");
+		} catch (MPCException e) {
+			// expected
+		}
+		// Other kinds of data are unaffected
+		Assert.assertEquals(BigInteger.ZERO, supplier.getNextBit().value.getShare());
+		supplier.shutdown();
+	}
+}
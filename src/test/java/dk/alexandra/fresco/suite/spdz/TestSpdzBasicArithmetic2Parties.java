@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -44,16 +45,22 @@ import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.network.NetworkingStrategy;
 import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
 import dk.alexandra.fresco.framework.sce.resources.storage.MySQLStorage;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StorageStrategy;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
 import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.math.integer.exp.ExponentiationTests;
+import dk.alexandra.fresco.lib.math.integer.stat.StatisticsTests;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.storage.FakeDataDealer;
 import dk.alexandra.fresco.suite.spdz.storage.InitializeStorage;
 
 /**
@@ -68,6 +75,23 @@ public class TestSpdzBasicArithmetic2Parties {
 
 	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
 			StorageStrategy storageStrategy) throws Exception {
+		runTest(f, evalStrategy, storageStrategy, NetworkingStrategy.SCAPI);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			StorageStrategy storageStrategy, NetworkingStrategy network) throws Exception {
+		runTest(f, evalStrategy, storageStrategy, network, 0);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			StorageStrategy storageStrategy, NetworkingStrategy network,
+			final int prefetchDepth) throws Exception {
+		runTest(f, evalStrategy, storageStrategy, network, prefetchDepth, null);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			final StorageStrategy storageStrategy, NetworkingStrategy network,
+			final int prefetchDepth, final String dealerAddress) throws Exception {
 		Level logLevel = Level.FINE;
 		Reporter.init(logLevel);
 
@@ -90,7 +114,7 @@ public class TestSpdzBasicArithmetic2Parties {
 				
 				@Override
 				public boolean useDummyData() {
-					return true;
+					return dealerAddress == null && storageStrategy != StorageStrategy.STREAMED_STORAGE;
 				}
 				
 				@Override
@@ -102,6 +126,16 @@ public class TestSpdzBasicArithmetic2Parties {
 				public int getMaxBitLength() {
 					return 150;
 				}
+
+				@Override
+				public int getPrefetchDepth() {
+					return prefetchDepth;
+				}
+
+				@Override
+				public String getDealerAddress() {
+					return dealerAddress;
+				}
 			};
 			ttc.protocolSuiteConf = spdzConf;
 			boolean useSecureConnection = false; // No tests of secure
@@ -120,16 +154,24 @@ public class TestSpdzBasicArithmetic2Parties {
 			case MYSQL:
 				storage = mySQLStore;
 				break;
+			case STREAMED_STORAGE:
+				// A new storage reads the preprocessed data from the start
+				storage = new FilebasedStreamedStorageImpl(inMemStore);
+				break;
 			}
 			ttc.sceConf = new TestSCEConfiguration(suite, evaluator,
 					noOfThreads, noOfVMThreads, ttc.netConf, storage,
-					useSecureConnection);
+					useSecureConnection, 4096, network);
 			conf.put(playerId, ttc);
 		}
 		TestThreadRunner.run(f, conf);
 	}
 
+	private static final BigInteger DEALER_MODULUS = new BigInteger(
+			"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+
 	private static InMemoryStorage inMemStore = new InMemoryStorage();
+	private static StreamedStorage streamedStore = new FilebasedStreamedStorageImpl(inMemStore);
 	private static MySQLStorage mySQLStore = null;
 
 	/**
@@ -181,6 +223,18 @@ public class TestSpdzBasicArithmetic2Parties {
 				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
 	}
 
+	@Test
+	public void test_Bulk_Input_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestBulkInput(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Bulk_Input_ParallelBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestBulkInput(),
+				EvaluationStrategy.PARALLEL_BATCHED, StorageStrategy.IN_MEMORY);
+	}
+
 	@Test
 	public void test_Lots_Of_Inputs_Parallel() throws Exception {
 		runTest(new BasicArithmeticTests.TestLotsOfInputs(),
@@ -212,6 +266,132 @@ public class TestSpdzBasicArithmetic2Parties {
 				StorageStrategy.IN_MEMORY);
 	}
 	
+	@Test
+	public void test_Lots_Of_Inputs_PipelinedBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(),
+				EvaluationStrategy.PIPELINED_BATCHED,
+				StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Sum_And_Output_PipelinedBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(),
+				EvaluationStrategy.PIPELINED_BATCHED, StorageStrategy.IN_MEMORY);
+	}
+	
+	@Test
+	public void test_Inner_Product_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInnerProduct(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Vector_Protocols_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorProtocols(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Vector_Protocols_ParallelBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorProtocols(),
+				EvaluationStrategy.PARALLEL_BATCHED, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Square_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSquare(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Square_SequentialBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestSquare(),
+				EvaluationStrategy.SEQUENTIAL_BATCHED, StorageStrategy.IN_MEMORY);
+	}
+
+	/**
+	 * Squares using preprocessed data generated without square pairs, as
+	 * before square pairs existed, so the squares are multiplications.
+	 */
+	@Test
+	public void test_Square_Streamed_WithoutSquares() throws Exception {
+		InitializeStorage.initStreamedStorage(new StreamedStorage[] { streamedStore }, noOfParties, 3, 1000,
+				100, 10000, 10);
+		runTest(new BasicArithmeticTests.TestSquare(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.STREAMED_STORAGE);
+		runTest(new ExponentiationTests.TestExponentiation(),
+				EvaluationStrategy.SEQUENTIAL_BATCHED, StorageStrategy.STREAMED_STORAGE);
+	}
+
+	@Test
+	public void test_Exponentiation_Sequential() throws Exception {
+		runTest(new ExponentiationTests.TestExponentiation(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Statistics_Sequential() throws Exception {
+		runTest(new StatisticsTests.TestStatistics(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_WorkStealing() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(),
+				EvaluationStrategy.WORK_STEALING, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Sum_And_Output_WorkStealing() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(),
+				EvaluationStrategy.WORK_STEALING, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Sum_And_Output_Sequential_Nio() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY,
+				NetworkingStrategy.NIO);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_ParallelBatched_Nio() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(),
+				EvaluationStrategy.PARALLEL_BATCHED, StorageStrategy.IN_MEMORY,
+				NetworkingStrategy.NIO);
+	}
+	
+	@Test
+	public void test_Lots_Of_Inputs_ParallelBatched_Prefetching() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(),
+				EvaluationStrategy.PARALLEL_BATCHED, StorageStrategy.IN_MEMORY,
+				NetworkingStrategy.SCAPI, 64);
+	}
+
+	@Test
+	public void test_Sum_And_Output_Sequential_Dealer() throws Exception {
+		runDealerTest(new BasicArithmeticTests.TestSumAndMult(),
+				EvaluationStrategy.SEQUENTIAL, 0);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_ParallelBatched_Dealer_Prefetching() throws Exception {
+		runDealerTest(new BasicArithmeticTests.TestLotsOfInputs(),
+				EvaluationStrategy.PARALLEL_BATCHED, 64);
+	}
+
+	private void runDealerTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			int prefetchDepth) throws Exception {
+		FakeDataDealer dealer = new FakeDataDealer(0, DEALER_MODULUS, noOfParties);
+		dealer.start();
+		try {
+			runTest(f, evalStrategy, StorageStrategy.IN_MEMORY, NetworkingStrategy.SCAPI,
+					prefetchDepth, "localhost:" + dealer.getPort());
+		} finally {
+			dealer.shutdown();
+		}
+	}
+
 	@Test
 	public void test_MinInfFrac_Sequential() throws Exception {
 		runTest(new BasicArithmeticTests.TestMinInfFrac(),
@@ -165,6 +165,12 @@ public class TestSpdzBasicArithmetic3Parties {
 				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
 	}
 
+	@Test
+	public void test_Bulk_Input_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestBulkInput(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
 	@Test
 	public void test_Lots_Of_Inputs_Parallel() throws Exception {
 		runTest(new BasicArithmeticTests.TestLotsOfInputs(),
@@ -32,11 +32,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.Reporter;
 import dk.alexandra.fresco.framework.TestThreadRunner;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
@@ -47,13 +49,19 @@ import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StorageStrategy;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.arithmetic.ComparisonTests;
 import dk.alexandra.fresco.lib.arithmetic.SortingTests;
+import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskFactoryImpl;
+import dk.alexandra.fresco.lib.compare.RandomAdditiveMaskPool;
+import dk.alexandra.fresco.lib.math.integer.PreprocessedNumericBitFactory;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfigurationFromProperties;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.storage.InitializeStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDummyImpl;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzFactory;
 
 public class TestSpdzComparison {
 	private static final int noOfParties = 2;
@@ -137,5 +145,33 @@ public class TestSpdzComparison {
 		runTest(new ComparisonTests.TestCompareEQ(),
 				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
 	}
-	
+
+	@Test
+	public void test_compareLT_WithMaskPool_Sequential() throws Exception {
+		runTest(new ComparisonTests.TestCompareLTWithMaskPool(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_compareLT_WithMaskPool_SequentialBatched() throws Exception {
+		runTest(new ComparisonTests.TestCompareLTWithMaskPool(),
+				EvaluationStrategy.SEQUENTIAL_BATCHED, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_defaultMaskFactory() throws Exception {
+		// Dummy data never runs out, so masks are made in batches
+		SpdzFactory dummy = new SpdzFactory(new SpdzStorageDummyImpl(1, noOfParties, 0), 1, 150);
+		Assert.assertTrue(RandomAdditiveMaskPool.createDefault(dummy, dummy) instanceof RandomAdditiveMaskPool);
+		// Bits from preprocessed data of a fixed size are only taken when used
+		PreprocessedNumericBitFactory exact = new PreprocessedNumericBitFactory() {
+			@Override
+			public ProtocolProducer createRandomSecretSharedBitProtocol(SInt bit) {
+				return null;
+			}
+		};
+		Assert.assertTrue(
+				RandomAdditiveMaskPool.createDefault(dummy, exact) instanceof RandomAdditiveMaskFactoryImpl);
+	}
+
 }
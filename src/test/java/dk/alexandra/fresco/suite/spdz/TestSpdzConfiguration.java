@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.framework.sce.resources.threads.ThreadPoolImpl;
+import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+public class TestSpdzConfiguration {
+
+	private static SpdzConfiguration fromCmdLine(String... args) throws ParseException {
+		Options options = new Options();
+		options.addOption(Option.builder("D").hasArg().numberOfArgs(2).valueSeparator().build());
+		CommandLine cmd = new DefaultParser().parse(options, args);
+		return SpdzConfiguration.fromCmdLine(null, cmd);
+	}
+
+	@Test
+	public void testExpPipeSizeClasses() throws Exception {
+		Assert.assertArrayEquals(new int[0], fromCmdLine().getExpPipeSizeClasses());
+
+		SpdzConfiguration conf = fromCmdLine("-Dspdz.useDummyData=true", "-Dspdz.expPipeSizeClasses=33, 9");
+		Assert.assertArrayEquals(new int[] { 33, 9 }, conf.getExpPipeSizeClasses());
+
+		// The suite applies the classes before the suppliers are created
+		ThreadPoolImpl threadPool = new ThreadPoolImpl(1, 1);
+		try {
+			ResourcePoolImpl rp = new ResourcePoolImpl(1, 2, null, null, null, new Random(), new SecureRandom(),
+					threadPool, threadPool);
+			new SpdzProtocolSuite().init(rp, conf);
+			Assert.assertArrayEquals(new int[] { 9, 33, Util.EXP_PIPE_SIZE }, Util.getExpPipeSizes());
+		} finally {
+			threadPool.shutdown();
+			Util.setExpPipeSizeClasses();
+		}
+	}
+
+	@Test(expected = ParseException.class)
+	public void testInvalidExpPipeSizeClasses() throws Exception {
+		fromCmdLine("-Dspdz.expPipeSizeClasses=9;33");
+	}
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.suite.spdz.offline.SpdzOfflinePhase;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+
+public class TestSpdzOfflinePhase {
+
+	// A 128 bit prime which is 1 mod 8, so the square roots of the bits are
+	// not found by a single exponentiation
+	private static final BigInteger modulus = new BigInteger("170141183460469231731687303715884105793");
+
+	@Test
+	public void testGenerateAndRead() throws Exception {
+		final int noOfParties = 3;
+		final int noOfThreads = 2;
+		final int noOfTriples = 30;
+		final int noOfBits = 20;
+		final int noOfMasks = 10;
+
+		final InMemoryNetwork[] networks = InMemoryNetwork.create(noOfParties);
+		final StreamedStorage[] storages = new StreamedStorage[noOfParties];
+		ExecutorService executor = Executors.newFixedThreadPool(noOfParties);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < noOfParties; i++) {
+				final int myId = i + 1;
+				storages[i] = new InMemoryStreamedStorage(new InMemoryStorage());
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						new SpdzOfflinePhase(networks[myId - 1], myId, noOfParties, modulus, noOfThreads)
+								.generate(storages[myId - 1], noOfTriples, noOfBits, noOfMasks);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (int threadId = 0; threadId < noOfThreads; threadId++) {
+			DataSupplierImpl[] suppliers = new DataSupplierImpl[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				suppliers[i] = new DataSupplierImpl(storages[i],
+						SpdzStorageConstants.STORAGE_NAME_PREFIX + noOfThreads + "_" + (i + 1) + "_" + threadId + "_",
+						noOfParties);
+			}
+			SpdzDataChecker checker = new SpdzDataChecker(suppliers);
+			Assert.assertEquals(modulus, checker.getModulus());
+
+			checker.checkNextTriples(noOfTriples);
+			int ones = checker.checkNextBits(noOfBits);
+			// Fails with probability 2^-19
+			Assert.assertTrue(ones > 0 && ones < noOfBits);
+			// The macs of the masks are computed with the COPE like those of
+			// the triples, so they are checked the same way
+			checker.checkNextInputMasks(noOfMasks);
+		}
+	}
+}
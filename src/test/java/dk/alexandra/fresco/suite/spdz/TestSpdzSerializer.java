@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.utils.PackedFieldElements;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzSerializer;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+public class TestSpdzSerializer {
+
+	// 2^127 - 1, so elements use all 16 bytes and may have the top bit set
+	private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+
+	private BigInteger oldModulus;
+	private int oldSize;
+
+	@Before
+	public void setModulus() {
+		try {
+			oldModulus = Util.getModulus();
+		} catch (IllegalStateException e) {
+			oldModulus = null;
+		}
+		oldSize = Util.size;
+		Util.setModulus(MODULUS);
+		Util.size = 16;
+	}
+
+	@After
+	public void restoreModulus() {
+		if (oldModulus != null) {
+			Util.setModulus(oldModulus);
+		}
+		Util.size = oldSize;
+	}
+
+	@Test
+	public void testRoundTrip() {
+		BigInteger large = MODULUS.subtract(BigInteger.ONE);
+		BigInteger small = BigInteger.valueOf(42);
+		byte[] data = SpdzSerializer.serialize(large, small, BigInteger.ZERO);
+		assertEquals(3 * Util.size, data.length);
+		assertArrayEquals(new BigInteger[] { large, small, BigInteger.ZERO }, SpdzSerializer.deserializeList(data));
+		assertEquals(small, SpdzSerializer.deserialize(data, Util.size));
+		assertEquals(large, SpdzSerializer.deserialize(SpdzSerializer.serialize(large)));
+	}
+
+	@Test
+	public void testReducesElementsOutsideField() {
+		byte[] data = SpdzSerializer.serialize(BigInteger.valueOf(-1), MODULUS.add(BigInteger.TEN));
+		assertEquals(2 * Util.size, data.length);
+		assertEquals(MODULUS.subtract(BigInteger.ONE), SpdzSerializer.deserialize(data, 0));
+		assertEquals(BigInteger.TEN, SpdzSerializer.deserialize(data, Util.size));
+	}
+
+	@Test
+	public void testSpdzElementByteArray() {
+		SpdzElement e = new SpdzElement(MODULUS.subtract(BigInteger.TEN), BigInteger.valueOf(7));
+		byte[] data = e.toByteArray();
+		assertEquals(2 * Util.size, data.length);
+		assertEquals(e, new SpdzElement(data));
+	}
+
+	@Test
+	public void testPackedFieldElements() {
+		PackedFieldElements elements = new PackedFieldElements();
+		int n = 3000;
+		for (int i = 0; i < n; i++) {
+			elements.add(MODULUS.subtract(BigInteger.valueOf(i)));
+		}
+		assertEquals(n, elements.size());
+		for (int i = 0; i < n; i++) {
+			assertEquals(MODULUS.subtract(BigInteger.valueOf(i)).mod(MODULUS), elements.get(i));
+		}
+		elements.clear();
+		assertEquals(0, elements.size());
+		elements.add(BigInteger.ONE);
+		assertEquals(BigInteger.ONE, elements.get(0));
+	}
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
+import dk.alexandra.fresco.suite.tinytables.util.ot.iknp.IKNPOTFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
+
+/**
+ * Measures the time it takes to do a batch of oblivious transfers with the
+ * java OT from SCAPI, which does public key operations for each OT, and with
+ * the IKNP OT extension, which only does those for its base OTs. The base OTs
+ * of the extension are done in the setup, so the measurement is the cost of
+ * each extension once the factory is in use.
+ *
+ * Run from the command line after 'mvn test-compile' with e.g.
+ * 
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;test classpath&gt; dk.alexandra.fresco.suite.tinytables.OTExtensionBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class OTExtensionBenchmark {
+
+	public abstract static class OTState {
+
+		protected OTFactory sender;
+		protected OTFactory receiver;
+		private ExecutorService executor;
+		private List<OTInput> inputs;
+		private List<OTSigma> sigmas;
+
+		protected abstract void createFactories(InMemoryNetwork[] networks);
+
+		protected abstract int getNumberOfOTs();
+
+		protected void setup() throws Exception {
+			Random random = new Random(42);
+			inputs = new ArrayList<OTInput>();
+			sigmas = new ArrayList<OTSigma>();
+			for (int j = 0; j < getNumberOfOTs(); j++) {
+				inputs.add(new OTInput(random.nextBoolean(), random.nextBoolean()));
+				sigmas.add(new OTSigma(random.nextBoolean()));
+			}
+			executor = Executors.newSingleThreadExecutor();
+			createFactories(InMemoryNetwork.create(2));
+		}
+
+		@TearDown
+		public void tearDown() {
+			executor.shutdownNow();
+		}
+
+		protected List<Boolean> transfer() throws Exception {
+			Future<?> sent = executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					sender.createOTSender().send(inputs);
+					return null;
+				}
+			});
+			List<Boolean> outputs = receiver.createOTReceiver().receive(sigmas);
+			sent.get();
+			return outputs;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class JavaOTState extends OTState {
+
+		@Param({ "1000" })
+		public int noOfOTs;
+
+		@Setup
+		public void setup() throws Exception {
+			super.setup();
+		}
+
+		@Override
+		protected void createFactories(InMemoryNetwork[] networks) {
+			sender = new JavaOTFactory(networks[0], 1);
+			receiver = new JavaOTFactory(networks[1], 2);
+		}
+
+		@Override
+		protected int getNumberOfOTs() {
+			return noOfOTs;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class IKNPState extends OTState {
+
+		@Param({ "1000", "1000000" })
+		public int noOfOTs;
+
+		@Setup
+		public void setup() throws Exception {
+			super.setup();
+			// Do the base OTs
+			final IKNPOTFactory iknpSender = (IKNPOTFactory) sender;
+			ExecutorService base = Executors.newSingleThreadExecutor();
+			try {
+				Future<?> sent = base.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						iknpSender.createOTSender();
+						return null;
+					}
+				});
+				receiver.createOTReceiver();
+				sent.get();
+			} finally {
+				base.shutdownNow();
+			}
+		}
+
+		@Override
+		protected void createFactories(InMemoryNetwork[] networks) {
+			sender = new IKNPOTFactory(new JavaOTFactory(networks[0], 1), networks[0], 1);
+			receiver = new IKNPOTFactory(new JavaOTFactory(networks[1], 2), networks[1], 2);
+		}
+
+		@Override
+		protected int getNumberOfOTs() {
+			return noOfOTs;
+		}
+	}
+
+	@Benchmark
+	public List<Boolean> javaOT(JavaOTState state) throws Exception {
+		return state.transfer();
+	}
+
+	@Benchmark
+	public List<Boolean> iknpOTExtension(IKNPState state) throws Exception {
+		return state.transfer();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(OTExtensionBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+
+}
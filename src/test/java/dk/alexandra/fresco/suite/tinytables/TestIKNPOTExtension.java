@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTInput;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
+import dk.alexandra.fresco.suite.tinytables.util.ot.iknp.IKNPOTFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.java.JavaOTFactory;
+
+public class TestIKNPOTExtension {
+
+	@Test
+	public void testExtensions() throws Exception {
+		// Sizes which are not a multiple of 8 and a second extension reusing
+		// the base OTs.
+		int[] sizes = { 10000, 77 };
+		Random random = new Random(42);
+		final List<List<OTInput>> inputs = new ArrayList<List<OTInput>>();
+		final List<List<OTSigma>> sigmas = new ArrayList<List<OTSigma>>();
+		for (int size : sizes) {
+			List<OTInput> in = new ArrayList<OTInput>();
+			List<OTSigma> sigma = new ArrayList<OTSigma>();
+			for (int j = 0; j < size; j++) {
+				in.add(new OTInput(random.nextBoolean(), random.nextBoolean()));
+				sigma.add(new OTSigma(random.nextBoolean()));
+			}
+			inputs.add(in);
+			sigmas.add(sigma);
+		}
+
+		InMemoryNetwork[] networks = InMemoryNetwork.create(2);
+		final IKNPOTFactory sender = new IKNPOTFactory(new JavaOTFactory(networks[0], 1), networks[0], 1);
+		final IKNPOTFactory receiver = new IKNPOTFactory(new JavaOTFactory(networks[1], 2), networks[1], 2);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> sent = executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (List<OTInput> in : inputs) {
+						sender.createOTSender().send(in);
+					}
+					return null;
+				}
+			});
+			for (int e = 0; e < sizes.length; e++) {
+				List<Boolean> outputs = receiver.createOTReceiver().receive(sigmas.get(e));
+				assertEquals(sizes[e], outputs.size());
+				for (int j = 0; j < sizes[e]; j++) {
+					OTInput in = inputs.get(e).get(j);
+					boolean expected = sigmas.get(e).get(j).getSigma() ? in.getX1() : in.getX0();
+					assertEquals(expected, outputs.get(j));
+				}
+			}
+			sent.get();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRandomOTs() throws Exception {
+		final int m = 1001;
+		final int length = 40;
+		Random random = new Random(42);
+		byte[] choices = new byte[(m + 7) / 8];
+		random.nextBytes(choices);
+
+		// Use other ids and a channel other than "0"
+		InMemoryNetwork[] networks = InMemoryNetwork.create(3);
+		final IKNPOTFactory sender = new IKNPOTFactory(new JavaOTFactory(networks[0], 3, "1"), networks[0], 3, "1");
+		IKNPOTFactory receiver = new IKNPOTFactory(new JavaOTFactory(networks[2], 1, "1"), networks[2], 1, "1");
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<byte[][]> sent = executor.submit(new Callable<byte[][]>() {
+				@Override
+				public byte[][] call() throws Exception {
+					return sender.createOTSender().sendRandom(m, length);
+				}
+			});
+			byte[] chosen = receiver.createOTReceiver().receiveRandom(choices, m, length);
+			byte[][] messages = sent.get();
+			assertEquals(m * length, chosen.length);
+			for (int j = 0; j < m; j++) {
+				boolean choice = ((choices[j / 8] >>> (j % 8)) & 1) != 0;
+				byte[] expected = Arrays.copyOfRange(messages[choice ? 1 : 0], j * length, (j + 1) * length);
+				byte[] other = Arrays.copyOfRange(messages[choice ? 0 : 1], j * length, (j + 1) * length);
+				assertArrayEquals(expected, Arrays.copyOfRange(chosen, j * length, (j + 1) * length));
+				assertFalse(Arrays.equals(expected, other));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
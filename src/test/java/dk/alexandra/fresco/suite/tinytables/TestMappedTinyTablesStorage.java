@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.tinytables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproANDProtocol;
+import dk.alexandra.fresco.suite.tinytables.storage.MappedTinyTablesStorage;
+import dk.alexandra.fresco.suite.tinytables.storage.PackedTinyTablesWriter;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesPreproStorage;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesPreproStorageImpl;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTFactory;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTReceiver;
+import dk.alexandra.fresco.suite.tinytables.util.ot.OTSender;
+import dk.alexandra.fresco.suite.tinytables.util.ot.datatypes.OTSigma;
+
+public class TestMappedTinyTablesStorage {
+
+	@Test
+	public void testWriteAndMap() throws Exception {
+		Random random = new Random(42);
+		int noOfIds = 1001;
+		File file = File.createTempFile("tinytables", ".bin");
+		file.deleteOnExit();
+		PackedTinyTablesWriter writer = new PackedTinyTablesWriter(file);
+		TinyTablesPreproStorage storage = new TinyTablesPreproStorageImpl(writer);
+		TinyTable[] tables = new TinyTable[noOfIds];
+		Boolean[] masks = new Boolean[noOfIds];
+		// Protocols are not necessarily evaluated in the order of their IDs.
+		List<Integer> ids = new ArrayList<Integer>();
+		for (int id = 0; id < noOfIds; id++) {
+			ids.add(id);
+		}
+		Collections.shuffle(ids, random);
+		for (int id : ids) {
+			switch (id % 3) {
+				case 0:
+					tables[id] = new TinyTable(new boolean[] { random.nextBoolean(), random.nextBoolean(),
+							random.nextBoolean(), random.nextBoolean() });
+					storage.storeTinyTable(id, tables[id]);
+					// The output masks of AND protocols are not written.
+					storage.storePendingMaskShare(id, random.nextBoolean());
+					break;
+				case 1:
+					masks[id] = random.nextBoolean();
+					storage.storeMaskShare(id, masks[id]);
+					break;
+				default:
+					// Protocols without any values, e.g. XOR.
+			}
+		}
+		writer.close();
+		// A header and half a byte per ID.
+		assertEquals(MappedTinyTablesStorage.HEADER_SIZE + (noOfIds + 1) / 2, file.length());
+		assertTrue(MappedTinyTablesStorage.isPacked(file));
+
+		MappedTinyTablesStorage mapped = new MappedTinyTablesStorage(file);
+		for (int id = 0; id < noOfIds; id++) {
+			if (tables[id] != null) {
+				for (int index = 0; index < 4; index++) {
+					boolean left = (index & 2) != 0;
+					boolean right = (index & 1) != 0;
+					assertEquals(tables[id].getValue(left, right), mapped.lookupTinyTable(id, left, right));
+					assertEquals(tables[id].getValue(left, right), mapped.getTinyTable(id).getValue(left, right));
+				}
+			} else if (masks[id] != null) {
+				assertEquals(masks[id], mapped.getMaskShare(id));
+			}
+		}
+		mapped.close();
+	}
+
+	@Test
+	public void testIdsFarApart() throws Exception {
+		File file = File.createTempFile("tinytables", ".bin");
+		file.deleteOnExit();
+		PackedTinyTablesWriter writer = new PackedTinyTablesWriter(file);
+		// Only part of the file is kept in memory, so going back and forth
+		// between IDs far apart writes and reads the file.
+		int far = 1 << 20;
+		writer.writeMaskShare(far + 1, true);
+		writer.writeMaskShare(3, true);
+		writer.writeMaskShare(far, true);
+		writer.writeMaskShare(2, false);
+		writer.flush();
+		writer.writeMaskShare(far + 3, true);
+		writer.writeMaskShare(4, true);
+		writer.close();
+		assertEquals(MappedTinyTablesStorage.HEADER_SIZE + (far + 4) / 2, file.length());
+
+		MappedTinyTablesStorage mapped = new MappedTinyTablesStorage(file);
+		for (int id = 0; id < far + 4; id++) {
+			boolean expected = id == 3 || id == 4 || id == far || id == far + 1 || id == far + 3;
+			assertEquals("ID " + id, expected, mapped.getMaskShare(id));
+		}
+		mapped.close();
+	}
+
+	@Test
+	public void testAppend() throws Exception {
+		File file = File.createTempFile("tinytables", ".bin");
+		file.deleteOnExit();
+		PackedTinyTablesWriter writer = new PackedTinyTablesWriter(file);
+		writer.writeMaskShare(0, true);
+		writer.writeMaskShare(3, true);
+		writer.close();
+
+		// A later evaluation continues with the following IDs.
+		writer = new PackedTinyTablesWriter(file, true);
+		writer.writeMaskShare(4, true);
+		writer.writeMaskShare(7, true);
+		writer.close();
+		assertEquals(MappedTinyTablesStorage.HEADER_SIZE + 4, file.length());
+
+		MappedTinyTablesStorage mapped = new MappedTinyTablesStorage(file);
+		for (int id = 0; id < 8; id++) {
+			assertEquals("ID " + id, id == 0 || id == 3 || id == 4 || id == 7, mapped.getMaskShare(id));
+		}
+		mapped.close();
+
+		// Without append the file is truncated.
+		writer = new PackedTinyTablesWriter(file, false);
+		writer.writeMaskShare(1, true);
+		writer.close();
+		assertEquals(MappedTinyTablesStorage.HEADER_SIZE + 1, file.length());
+	}
+
+	@Test
+	public void testPlayer2TinyTablesWrittenPerBatch() throws Exception {
+		File file = File.createTempFile("tinytables", ".bin");
+		file.deleteOnExit();
+		PackedTinyTablesWriter writer = new PackedTinyTablesWriter(file);
+		TinyTablesPreproStorage storage = new TinyTablesPreproStorageImpl(writer);
+		// Player 2's shares of the input masks, rV and rU, and the output mask
+		storage.storeOTSigma(0, new OTSigma[] { new OTSigma(false), new OTSigma(false) });
+		storage.storePendingMaskShare(0, true);
+		storage.storeOTSigma(3, new OTSigma[] { new OTSigma(false), new OTSigma(true) });
+		storage.storePendingMaskShare(3, false);
+		// The outputs of the two OTs of each protocol
+		final List<Boolean> outputs = Arrays.asList(false, false, true, false);
+		OTFactory otFactory = new OTFactory() {
+			@Override
+			public OTSender createOTSender() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public OTReceiver createOTReceiver() {
+				return new OTReceiver() {
+					@Override
+					public List<Boolean> receive(List<OTSigma> sigmas) {
+						assertEquals(outputs.size(), sigmas.size());
+						return outputs;
+					}
+				};
+			}
+		};
+		TinyTablesPreproANDProtocol.finishPreprocessing(2, otFactory, storage, null);
+
+		// Nothing of the batch is kept in memory.
+		assertTrue(storage.getOTSigmas().isEmpty());
+		assertTrue(storage.getPendingMaskShares().isEmpty());
+
+		// The TinyTables are in the file before the preprocessing is done.
+		// The entries are y0 + y1 + rU rV + rO, shifted by rU and rV.
+		TinyTable[] expected = new TinyTable[] {
+				new TinyTable(new boolean[] { true, true, true, false }),
+				new TinyTable(new boolean[] { true, false, true, true }) };
+		MappedTinyTablesStorage mapped = new MappedTinyTablesStorage(file);
+		int[] ids = new int[] { 0, 3 };
+		for (int i = 0; i < ids.length; i++) {
+			for (int index = 0; index < 4; index++) {
+				boolean left = (index & 2) != 0;
+				boolean right = (index & 1) != 0;
+				assertEquals(expected[i].getValue(left, right), mapped.lookupTinyTable(ids[i], left, right));
+			}
+		}
+		mapped.close();
+		writer.close();
+	}
+
+	@Test
+	public void testNotPacked() throws Exception {
+		File file = File.createTempFile("tinytables", ".bin");
+		file.deleteOnExit();
+		assertFalse(MappedTinyTablesStorage.isPacked(file));
+	}
+
+}
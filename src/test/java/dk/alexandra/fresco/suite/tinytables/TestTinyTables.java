@@ -61,6 +61,11 @@ public class TestTinyTables {
 
 	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
 			boolean preprocessing, String name) throws Exception {
+		runTest(f, evalStrategy, preprocessing, name, TinyTablesPreproConfiguration.DEFAULT_OT_BATCH_SIZE);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			boolean preprocessing, String name, int otBatchSize) throws Exception {
 		int noPlayers = 2;
 		Level logLevel = Level.FINE;
 		Reporter.init(logLevel);
@@ -111,6 +116,8 @@ public class TestTinyTables {
 				 */
 			
 				((TinyTablesPreproConfiguration) config).setTesting(true);
+
+				((TinyTablesPreproConfiguration) config).setOtBatchSize(otBatchSize);
 				
 				protocolSuite = TinyTablesPreproProtocolSuite.getInstance(playerId);
 			} else {
@@ -186,6 +193,14 @@ public class TestTinyTables {
 				"testBasicProtocols");
 	}
 
+	@Test
+	public void testTwoApplications() throws Exception {
+		runTest(new BasicBooleanTests.TestTwoApplications(), EvaluationStrategy.SEQUENTIAL, true,
+				"testTwoApplications");
+		runTest(new BasicBooleanTests.TestTwoApplications(), EvaluationStrategy.SEQUENTIAL, false,
+				"testTwoApplications");
+	}
+
 	/*
 	 * Advanced tests
 	 */
@@ -220,6 +235,22 @@ public class TestTinyTables {
 				"testAESParallelBatched");
 	}
 
+	@Test
+	public void testAES_sequential_batched() throws Exception {
+		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
+				"testAESSequentialBatched");
+		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.SEQUENTIAL_BATCHED, false,
+				"testAESSequentialBatched");
+	}
+
+	@Test
+	public void testAES_small_ot_batches() throws Exception {
+		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
+				"testAESSmallOTBatches", 1000);
+		runTest(new BristolCryptoTests.AesTest(), EvaluationStrategy.SEQUENTIAL_BATCHED, false,
+				"testAESSmallOTBatches");
+	}
+
 	@Test
 	public void test_DES() throws Exception {
 		runTest(new BristolCryptoTests.DesTest(), EvaluationStrategy.SEQUENTIAL, true, "testDES");